@@ -18,6 +18,9 @@
  */
 package org.apache.olingo.client.core;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.olingo.client.api.Configuration;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.header.ODataHeaders;
@@ -57,6 +60,8 @@ import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.format.ContentType;
 
+import com.fasterxml.jackson.core.JsonFactory;
+
 public class ODataClientImpl implements ODataClient {
 
   private final FilterFactory filterFactory = new FilterFactoryImpl();
@@ -85,6 +90,8 @@ public class ODataClientImpl implements ODataClient {
   
   private final ODataMetadataValidation metadataValidation = new ODataMetadataValidationImpl();
 
+  private final Map<ContentType, JsonFactory> jsonFormats = new ConcurrentHashMap<ContentType, JsonFactory>();
+
   @Override
   public Configuration getConfiguration() {
     return configuration;
@@ -130,7 +137,26 @@ public class ODataClientImpl implements ODataClient {
 
   @Override
   public ClientODataDeserializer getDeserializer(final ContentType contentType) {
-    return new ClientODataDeserializerImpl(false, contentType);
+    return new ClientODataDeserializerImpl(false, contentType, getJsonFactory(contentType));
+  }
+
+  /**
+   * Adds a data format with the structure of OData JSON, e.g., the binary format Smile or CBOR;
+   * responses of its content type are read with parsers of the given Jackson factory.
+   * @param contentType the content type of the format
+   * @param factory the factory creating the parsers for the format
+   */
+  public void addJsonFormat(final ContentType contentType, final JsonFactory factory) {
+    jsonFormats.put(contentType, factory);
+  }
+
+  private JsonFactory getJsonFactory(final ContentType contentType) {
+    for (final Map.Entry<ContentType, JsonFactory> format : jsonFormats.entrySet()) {
+      if (contentType.isCompatible(format.getKey())) {
+        return format.getValue();
+      }
+    }
+    return null;
   }
 
   @Override
@@ -33,7 +33,6 @@ import org.apache.olingo.commons.api.Constants;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class JSONServiceDocumentDeserializer extends JsonDeserializer {
@@ -42,6 +41,15 @@ public class JSONServiceDocumentDeserializer extends JsonDeserializer {
     super(serverMode);
   }
 
+  /**
+   * Creates a deserializer reading through parsers of the given factory.
+   * @param serverMode whether the deserializer is used on the server side
+   * @param jsonFactory the factory creating the parsers
+   */
+  public JSONServiceDocumentDeserializer(final boolean serverMode, final JsonFactory jsonFactory) {
+    super(serverMode, jsonFactory);
+  }
+
   protected ResWrap<ServiceDocument> doDeserialize(final JsonParser parser) throws IOException {
 
     final ObjectNode tree = parser.getCodec().readTree(parser);
@@ -97,7 +105,7 @@ public class JSONServiceDocumentDeserializer extends JsonDeserializer {
 
   public ResWrap<ServiceDocument> toServiceDocument(final InputStream input) throws ODataDeserializerException {
     try {
-      JsonParser parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      JsonParser parser = createParser(input);
       return doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -58,6 +58,7 @@ import org.xml.sax.SAXException;
 
 import com.fasterxml.aalto.stax.InputFactoryImpl;
 import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -71,17 +72,33 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
 
   private final ODataDeserializer deserializer;
   private final ContentType contentType;
+  private final JsonFactory jsonFactory;
   private static final String SCHEMA = "Schema";
   private static final String XMLNS = "xmlns";
 
   public ClientODataDeserializerImpl(final boolean serverMode, final ContentType contentType) {
+    this(serverMode, contentType, null);
+  }
+
+  /**
+   * Creates a deserializer.
+   * @param serverMode whether the deserializer is used on the server side
+   * @param contentType the content type of the payloads
+   * @param jsonFactory the factory creating the parsers for JSON-structured payloads,
+   * or <code>null</code> for the standard JSON text format
+   */
+  public ClientODataDeserializerImpl(final boolean serverMode, final ContentType contentType,
+      final JsonFactory jsonFactory) {
     this.contentType = contentType;
+    this.jsonFactory = jsonFactory;
     if (contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)
         || contentType.isCompatible(ContentType.APPLICATION_XML)) {
       deserializer = new AtomDeserializer();
-    } else {
+    } else if (jsonFactory == null) {
       deserializer = new JsonDeserializer(serverMode);
+    } else {
+      deserializer = new JsonDeserializer(serverMode, jsonFactory);
     }
   }
 
@@ -202,7 +219,8 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
   public ResWrap<ServiceDocument> toServiceDocument(final InputStream input) throws ODataDeserializerException {
     return contentType.isCompatible(ContentType.APPLICATION_XML) ?
         new XMLServiceDocumentDeserializer(false).toServiceDocument(input) :
-        new JSONServiceDocumentDeserializer(false).toServiceDocument(input);
+        (jsonFactory == null ? new JSONServiceDocumentDeserializer(false)
+            : new JSONServiceDocumentDeserializer(false, jsonFactory)).toServiceDocument(input);
   }
 
   @Override
@@ -211,7 +229,8 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
       return contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
           || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML) ?
           new AtomDeserializer().delta(input) :
-          new JsonDeltaDeserializer(false).toDelta(input);
+          (jsonFactory == null ? new JsonDeltaDeserializer(false)
+              : new JsonDeltaDeserializer(false, jsonFactory)).toDelta(input);
     } catch (final XMLStreamException | EdmPrimitiveTypeException e) {
       throw new ODataDeserializerException(e);
     }
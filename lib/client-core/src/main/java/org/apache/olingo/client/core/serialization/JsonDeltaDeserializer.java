@@ -34,7 +34,6 @@ import org.apache.olingo.commons.api.data.DeltaLink;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class JsonDeltaDeserializer extends JsonDeserializer {
@@ -43,6 +42,15 @@ public class JsonDeltaDeserializer extends JsonDeserializer {
     super(serverMode);
   }
 
+  /**
+   * Creates a deserializer reading through parsers of the given factory.
+   * @param serverMode whether the deserializer is used on the server side
+   * @param jsonFactory the factory creating the parsers
+   */
+  public JsonDeltaDeserializer(final boolean serverMode, final JsonFactory jsonFactory) {
+    super(serverMode, jsonFactory);
+  }
+
   protected ResWrap<Delta> doDeserialize(final JsonParser parser) throws IOException {
 
     final ObjectNode tree = parser.getCodec().readTree(parser);
@@ -91,7 +99,7 @@ public class JsonDeltaDeserializer extends JsonDeserializer {
 
   public ResWrap<Delta> toDelta(final InputStream input) throws ODataDeserializerException {
     try {
-      JsonParser parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      JsonParser parser = createParser(input);
       return doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -69,10 +69,40 @@ public class JsonDeserializer implements ODataDeserializer {
 
   private JsonGeoValueDeserializer geoDeserializer;
 
+  /** Factory for the standard JSON text format; its codec builds trees. */
+  private static final JsonFactory DEFAULT_FACTORY = new JsonFactory(new ObjectMapper());
+
+  private final JsonFactory jsonFactory;
+
   private JsonParser parser;
 
   public JsonDeserializer(final boolean serverMode) {
+    this(serverMode, DEFAULT_FACTORY);
+  }
+
+  /**
+   * Creates a deserializer reading through parsers of the given factory.
+   * A factory for a binary JSON data format, e.g., Smile or CBOR, reads payloads in that format.
+   * @param serverMode whether the deserializer is used on the server side
+   * @param jsonFactory the factory creating the parsers
+   */
+  public JsonDeserializer(final boolean serverMode, final JsonFactory jsonFactory) {
     this.serverMode = serverMode;
+    this.jsonFactory = jsonFactory;
+  }
+
+  /**
+   * Creates a parser of the configured factory, falling back to the default codec for tree reading.
+   * @param input the payload
+   * @return the parser
+   * @throws IOException if the parser cannot be created
+   */
+  protected JsonParser createParser(final InputStream input) throws IOException {
+    final JsonParser jsonParser = jsonFactory.createParser(input);
+    if (jsonParser.getCodec() == null) {
+      jsonParser.setCodec(DEFAULT_FACTORY.getCodec());
+    }
+    return jsonParser;
   }
 
   private JsonGeoValueDeserializer getGeoDeserializer() {
@@ -413,7 +443,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<EntityCollection> toEntitySet(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      parser = createParser(input);
       return new JsonEntitySetDeserializer(serverMode).doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -423,7 +453,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      parser = createParser(input);
       return new JsonEntityDeserializer(serverMode).doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -433,7 +463,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<Property> toProperty(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      parser = createParser(input);
       return new JsonPropertyDeserializer(serverMode).doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -443,7 +473,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ODataError toError(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
+      parser = createParser(input);
       return new JsonODataErrorDeserializer(serverMode).doDeserialize(parser);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
@@ -22,12 +22,22 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.data.ServiceDocument;
 import org.apache.olingo.client.api.uri.SearchFactory;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.junit.Test;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
 public class ODataClientTest {
 
   @Test
@@ -124,4 +134,54 @@ public class ODataClientTest {
     config.setProperty("key", "value");
     assertEquals("value", config.getProperty("key", "value"));
   }
+
+  @Test
+  public void jsonFormat() throws Exception {
+    final ContentType contentType = ContentType.create("application/x-test-json");
+    final int[] parsers = new int[1];
+    ODataClientImpl client = (ODataClientImpl) ODataClientFactory.getClient();
+    client.addJsonFormat(contentType, new JsonFactory() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public JsonParser createParser(final InputStream in) throws IOException {
+        parsers[0]++;
+        return super.createParser(in);
+      }
+    });
+    final Entity entity = client.getDeserializer(contentType).toEntity(
+        new ByteArrayInputStream("{\"PropertyInt16\":1}".getBytes())).getPayload();
+    assertEquals(1, parsers[0]);
+    assertEquals(1, entity.getProperty("PropertyInt16").getValue());
+
+    client.getDeserializer(ContentType.APPLICATION_JSON).toEntity(
+        new ByteArrayInputStream("{\"PropertyInt16\":1}".getBytes()));
+    assertEquals(1, parsers[0]);
+  }
+
+  @Test
+  public void jsonFormatForServiceDocumentAndDelta() throws Exception {
+    final ContentType contentType = ContentType.create("application/x-test-json");
+    final int[] parsers = new int[1];
+    ODataClientImpl client = (ODataClientImpl) ODataClientFactory.getClient();
+    client.addJsonFormat(contentType, new JsonFactory() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public JsonParser createParser(final InputStream in) throws IOException {
+        parsers[0]++;
+        return super.createParser(in);
+      }
+    });
+    final ServiceDocument serviceDocument = client.getDeserializer(contentType).toServiceDocument(
+        new ByteArrayInputStream(("{\"value\":[{\"name\":\"ESAllPrim\",\"url\":\"ESAllPrim\"}]}")
+            .getBytes())).getPayload();
+    assertEquals(1, parsers[0]);
+    assertEquals("ESAllPrim", serviceDocument.getEntitySets().get(0).getName());
+
+    final Delta delta = client.getDeserializer(contentType).toDelta(
+        new ByteArrayInputStream("{\"@odata.count\":3,\"value\":[]}".getBytes())).getPayload();
+    assertEquals(2, parsers[0]);
+    assertEquals(Integer.valueOf(3), delta.getCount());
+  }
 }
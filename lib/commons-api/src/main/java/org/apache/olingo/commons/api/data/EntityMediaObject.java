@@ -18,9 +18,12 @@
  */
 package org.apache.olingo.commons.api.data;
 
+import java.nio.channels.FileChannel;
+
 public class EntityMediaObject {
 	
 	private byte[] bytes;
+	private FileChannel fileChannel;
 	
 	public void setBytes(byte[] bytes) {
 		this.bytes = bytes;
@@ -29,4 +32,21 @@ public class EntityMediaObject {
 	public byte[] getBytes() {
 		return bytes;
 	}
+	
+	/**
+	 * Sets a file as source of the media content instead of a byte array.
+	 * The file is transferred without loading it into memory; the channel is closed after it has been written.
+	 * @param fileChannel channel of the file, positioned at the beginning of the media content
+	 */
+	public void setFileChannel(FileChannel fileChannel) {
+		this.fileChannel = fileChannel;
+	}
+	
+	/**
+	 * Gets the file which is the source of the media content.
+	 * @return the channel of the file or <code>null</code> if the content is given as byte array
+	 */
+	public FileChannel getFileChannel() {
+		return fileChannel;
+	}
 }
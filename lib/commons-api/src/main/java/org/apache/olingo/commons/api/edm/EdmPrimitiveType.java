@@ -121,6 +121,34 @@ public interface EdmPrimitiveType extends EdmType {
       Boolean isNullable, Integer maxLength, Integer precision, Integer scale, Boolean isUnicode,
       Class<T> returnType) throws EdmPrimitiveTypeException;
 
+  /**
+   * Converts a range of a literal representation of value to system data type.
+   * <p>
+   * The result is the same as for {@link #valueOfString(String, Boolean, Integer, Integer, Integer, Boolean, Class)}
+   * called with the characters from <code>start</code> (inclusive) to <code>end</code> (exclusive);
+   * implementations can avoid creating an intermediate string.
+   * </p>
+   *
+   * @param value the characters containing the literal representation of value
+   * @param start the index of the first character of the literal
+   * @param end the index after the last character of the literal
+   * @param isNullable whether the <code>null</code> value is allowed
+   * @param maxLength the maximum length
+   * @param precision the precision
+   * @param scale the scale
+   * @param isUnicode whether non-ASCII characters are allowed (relevant only for Edm.String)
+   * @param returnType the class of the returned value; it must be one of the list in the documentation of
+   * {@link EdmPrimitiveType}
+   * @throws EdmPrimitiveTypeException
+   * @return the value as an instance of the class the parameter <code>returnType</code> indicates
+   */
+  default <T> T valueOfString(CharSequence value, int start, int end,
+      Boolean isNullable, Integer maxLength, Integer precision, Integer scale, Boolean isUnicode,
+      Class<T> returnType) throws EdmPrimitiveTypeException {
+    return valueOfString(value == null ? null : value.subSequence(start, end).toString(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
   /**
    * Converts system data type to literal representation of value.
    * <p>
@@ -141,6 +169,37 @@ public interface EdmPrimitiveType extends EdmType {
       Boolean isNullable, Integer maxLength, Integer precision, Integer scale, Boolean isUnicode)
           throws EdmPrimitiveTypeException;
 
+  /**
+   * Appends the literal representation of value to the given buffer.
+   * <p>
+   * The appended characters are the same as the result of
+   * {@link #valueToString(Object, Boolean, Integer, Integer, Integer, Boolean)};
+   * implementations can avoid creating an intermediate string.
+   * Nothing is appended if value is <code>null</code> and <code>null</code> is an allowed value.
+   * </p>
+   *
+   * @param value the Java value as Object; its type must be one of the list in the documentation of
+   * {@link EdmPrimitiveType}
+   * @param isNullable whether the <code>null</code> value is allowed
+   * @param maxLength the maximum length
+   * @param precision the precision
+   * @param scale the scale
+   * @param isUnicode whether non-ASCII characters are allowed (relevant only for Edm.String)
+   * @param target the buffer the literal representation is appended to
+   * @throws EdmPrimitiveTypeException
+   * @return <code>false</code> if value is <code>null</code>, <code>true</code> otherwise
+   */
+  default boolean appendValueToString(Object value,
+      Boolean isNullable, Integer maxLength, Integer precision, Integer scale, Boolean isUnicode,
+      StringBuilder target) throws EdmPrimitiveTypeException {
+    final String literal = valueToString(value, isNullable, maxLength, precision, scale, isUnicode);
+    if (literal == null) {
+      return false;
+    }
+    target.append(literal);
+    return true;
+  }
+
   /**
    * Converts default literal representation to URI literal representation.
    * <p>
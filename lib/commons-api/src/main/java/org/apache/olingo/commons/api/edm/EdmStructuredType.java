@@ -42,6 +42,29 @@ public interface EdmStructuredType extends EdmType, EdmAnnotatable {
    */
   List<String> getPropertyNames();
 
+  /**
+   * Get the ordinal of a simple or complex property.
+   * The ordinal is the position of the property name in {@link #getPropertyNames()};
+   * it includes inherited properties and is stable for the lifetime of this type.
+   *
+   * @param name name of property
+   * @return the ordinal, or -1 if there is no such property
+   */
+  default int getPropertyIndex(String name) {
+    return getPropertyNames().indexOf(name);
+  }
+
+  /**
+   * Get structural property by ordinal.
+   *
+   * @param index ordinal of the property as returned by {@link #getPropertyIndex(String)}
+   * @return simple or complex property as {@link EdmTyped}
+   * @throws IndexOutOfBoundsException if there is no property with the given ordinal
+   */
+  default EdmProperty getStructuralProperty(int index) {
+    return getStructuralProperty(getPropertyNames().get(index));
+  }
+
   /**
    * Get structural property by name.
    *
@@ -65,6 +88,18 @@ public interface EdmStructuredType extends EdmType, EdmAnnotatable {
    */
   List<String> getNavigationPropertyNames();
 
+  /**
+   * Get the ordinal of a navigation property.
+   * The ordinal is the position of the property name in {@link #getNavigationPropertyNames()};
+   * it includes inherited navigation properties and is stable for the lifetime of this type.
+   *
+   * @param name name of navigation property
+   * @return the ordinal, or -1 if there is no such navigation property
+   */
+  default int getNavigationPropertyIndex(String name) {
+    return getNavigationPropertyNames().indexOf(name);
+  }
+
   /**
    * Base types are described in the OData protocol specification.
    *
@@ -18,16 +18,24 @@
  */
 package org.apache.olingo.commons.api.edm.geo;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 
 /**
  * Represents a line string. 
  * Either of type Edm.GeographyLineString or Edm.GeometryLineString
+ * <p>A line string is either backed by a list of {@link Point points} or, for line strings with many points,
+ * by a primitive array of coordinates. The indexed accessors {@link #getPointCount()}, {@link #getX(int)},
+ * {@link #getY(int)}, and {@link #getZ(int)} work for both representations without creating points.</p>
  */
 public class LineString extends ComposedGeospatial<Point> {
 
+  /** Coordinates as consecutive pairs of x and y, or <code>null</code> if backed by points. */
+  private final double[] coordinates;
+
   /**
    * Creates a new LineString
    * @param dimension     Dimension of the LineString
@@ -36,6 +44,98 @@ public class LineString extends ComposedGeospatial<Point> {
    */
   public LineString(final Dimension dimension, final SRID srid, final List<Point> points) {
     super(dimension, Type.LINESTRING, srid, points);
+    coordinates = null;
+  }
+
+  /**
+   * Creates a new LineString backed by a coordinate array.
+   * @param dimension     Dimension of the LineString
+   * @param srid          SRID value
+   * @param coordinates   consecutive pairs of x and y coordinates; the array is not copied and must not be modified
+   */
+  public LineString(final Dimension dimension, final SRID srid, final double[] coordinates) {
+    super(dimension, Type.LINESTRING, srid, null);
+    if (coordinates == null || coordinates.length % 2 != 0) {
+      throw new IllegalArgumentException("The coordinates must consist of pairs of x and y.");
+    }
+    this.coordinates = coordinates;
+  }
+
+  /**
+   * Returns the number of points.
+   * @return number of points
+   */
+  public int getPointCount() {
+    return coordinates == null ? geospatials.size() : coordinates.length / 2;
+  }
+
+  /**
+   * Returns the x coordinate of a point.
+   * @param index index of the point
+   * @return x coordinate
+   */
+  public double getX(final int index) {
+    return coordinates == null ? geospatials.get(index).getX() : coordinates[2 * index];
+  }
+
+  /**
+   * Returns the y coordinate of a point.
+   * @param index index of the point
+   * @return y coordinate
+   */
+  public double getY(final int index) {
+    return coordinates == null ? geospatials.get(index).getY() : coordinates[2 * index + 1];
+  }
+
+  /**
+   * Returns the z coordinate of a point; it is always zero for line strings backed by a coordinate array.
+   * @param index index of the point
+   * @return z coordinate
+   */
+  public double getZ(final int index) {
+    if (coordinates == null) {
+      return geospatials.get(index).getZ();
+    } else if (index < 0 || index >= coordinates.length / 2) {
+      throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    return 0;
+  }
+
+  @Override
+  public Iterator<Point> iterator() {
+    if (coordinates == null) {
+      return super.iterator();
+    }
+    return new Iterator<Point>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < coordinates.length / 2;
+      }
+
+      @Override
+      public Point next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final Point point = new Point(dimension, null);
+        point.setX(coordinates[2 * index]);
+        point.setY(coordinates[2 * index + 1]);
+        index++;
+        return point;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return getPointCount() == 0;
   }
 
   @Override
@@ -44,4 +144,58 @@ public class LineString extends ComposedGeospatial<Point> {
         EdmPrimitiveTypeKind.GeographyLineString :
         EdmPrimitiveTypeKind.GeometryLineString;
   }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (coordinates == null && o instanceof LineString && ((LineString) o).coordinates == null) {
+      return super.equals(o);
+    }
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final LineString other = (LineString) o;
+    if (dimension != other.dimension
+        || (srid == null ? other.srid != null : !srid.equals(other.srid))
+        || getPointCount() != other.getPointCount()) {
+      return false;
+    }
+    for (int i = 0; i < getPointCount(); i++) {
+      if (getX(i) != other.getX(i) || getY(i) != other.getY(i) || getZ(i) != other.getZ(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    // Computed from the coordinates only so that equal line strings of both representations have equal hash codes.
+    int result = dimension == null ? 0 : dimension.hashCode();
+    result = 31 * result + (srid == null ? 0 : srid.hashCode());
+    for (int i = 0; i < getPointCount(); i++) {
+      result = 31 * result + Double.valueOf(getX(i)).hashCode();
+      result = 31 * result + Double.valueOf(getY(i)).hashCode();
+      result = 31 * result + Double.valueOf(getZ(i)).hashCode();
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    if (coordinates == null) {
+      return super.toString();
+    }
+    final StringBuilder result = new StringBuilder("[");
+    for (final Iterator<Point> iterator = iterator(); iterator.hasNext();) {
+      result.append(iterator.next());
+      if (iterator.hasNext()) {
+        result.append(", ");
+      }
+    }
+    return result.append(']').toString();
+  }
 }
@@ -20,7 +20,9 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAnnotatable;
@@ -33,6 +35,7 @@ public abstract class AbstractEdmAnnotatable implements EdmAnnotatable {
 
   private final CsdlAnnotatable annotatable;
   private List<EdmAnnotation> annotations;
+  private Map<TargetQualifierMapKey, EdmAnnotation> annotationIndex;
   protected final Edm edm;
 
   public AbstractEdmAnnotatable(final Edm edm, final CsdlAnnotatable annotatable) {
@@ -42,20 +45,38 @@ public abstract class AbstractEdmAnnotatable implements EdmAnnotatable {
 
   @Override
   public EdmAnnotation getAnnotation(final EdmTerm term, String qualifier) {
-    EdmAnnotation result = null;
-    for (EdmAnnotation annotation : getAnnotations()) {
-      if (term.getFullQualifiedName().equals(annotation.getTerm().getFullQualifiedName())
-          && qualifierEqual(qualifier, annotation.getQualifier())) {
-        result = annotation;
-        break;
-      }
-    }
-    return result;
+    final Map<TargetQualifierMapKey, EdmAnnotation> index = getAnnotationIndex();
+    return term == null || index.isEmpty() ? null :
+        index.get(new TargetQualifierMapKey(term.getFullQualifiedName(), qualifier));
   }
 
-  private boolean qualifierEqual(String qualifier, String annotationQualifier) {
-    return (qualifier == null && annotationQualifier == null)
-        || (qualifier != null && qualifier.equals(annotationQualifier));
+  /**
+   * Gets the annotations keyed by the full-qualified name of their term and their qualifier.
+   * The index is built once from {@link #getAnnotations()}, which already contains annotations
+   * applied to this element from other schemas; for duplicate keys the first annotation wins.
+   */
+  private Map<TargetQualifierMapKey, EdmAnnotation> getAnnotationIndex() {
+    if (annotationIndex == null) {
+      final List<EdmAnnotation> annotationsLocal = getAnnotations();
+      if (annotationsLocal == null || annotationsLocal.isEmpty()) {
+        annotationIndex = Collections.emptyMap();
+      } else {
+        final Map<TargetQualifierMapKey, EdmAnnotation> annotationIndexLocal =
+            new HashMap<TargetQualifierMapKey, EdmAnnotation>(annotationsLocal.size() * 4 / 3 + 1);
+        for (EdmAnnotation annotation : annotationsLocal) {
+          final EdmTerm term = annotation.getTerm();
+          if (term != null) {
+            final TargetQualifierMapKey key =
+                new TargetQualifierMapKey(term.getFullQualifiedName(), annotation.getQualifier());
+            if (!annotationIndexLocal.containsKey(key)) {
+              annotationIndexLocal.put(key, annotation);
+            }
+          }
+        }
+        annotationIndex = annotationIndexLocal;
+      }
+    }
+    return annotationIndex;
   }
 
   @Override
@@ -20,6 +20,7 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,10 @@ public abstract class AbstractEdmStructuredType extends EdmTypeImpl implements E
   private Map<String, EdmProperty> properties;
   private List<String> navigationPropertyNames;
   private Map<String, EdmNavigationProperty> navigationProperties;
+  private Map<String, Integer> propertyIndex;
+  private Map<String, Integer> navigationPropertyIndex;
+  private EdmProperty[] allProperties;
+  private EdmNavigationProperty[] allNavigationProperties;
 
   public AbstractEdmStructuredType(
       final Edm edm,
@@ -103,28 +108,85 @@ public abstract class AbstractEdmStructuredType extends EdmTypeImpl implements E
 
   @Override
   public EdmProperty getStructuralProperty(final String name) {
-    EdmProperty property = null;
-    checkBaseType();
-    if (baseType != null) {
-      property = baseType.getStructuralProperty(name);
-    }
-    if (property == null) {
-      property = getProperties().get(name);
+    final int index = getPropertyIndex(name);
+    return index < 0 ? null : getAllProperties()[index];
+  }
+
+  @Override
+  public EdmProperty getStructuralProperty(final int index) {
+    return getAllProperties()[index];
+  }
+
+  @Override
+  public int getPropertyIndex(final String name) {
+    if (propertyIndex == null) {
+      propertyIndex = buildIndex(getPropertyNames());
     }
-    return property;
+    final Integer index = propertyIndex.get(name);
+    return index == null ? -1 : index;
   }
 
   @Override
   public EdmNavigationProperty getNavigationProperty(final String name) {
-    EdmNavigationProperty property = null;
-    checkBaseType();
-    if (baseType != null) {
-      property = baseType.getNavigationProperty(name);
+    final int index = getNavigationPropertyIndex(name);
+    return index < 0 ? null : getAllNavigationProperties()[index];
+  }
+
+  @Override
+  public int getNavigationPropertyIndex(final String name) {
+    if (navigationPropertyIndex == null) {
+      navigationPropertyIndex = buildIndex(getNavigationPropertyNames());
     }
-    if (property == null) {
-      property = getNavigationProperties().get(name);
+    final Integer index = navigationPropertyIndex.get(name);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Maps each name to the ordinal of its first occurrence,
+   * so that properties of a base type take precedence over redefined ones.
+   */
+  private static Map<String, Integer> buildIndex(final List<String> names) {
+    final Map<String, Integer> index = new HashMap<String, Integer>(names.size() * 4 / 3 + 1);
+    for (int i = names.size() - 1; i >= 0; i--) {
+      index.put(names.get(i), i);
     }
-    return property;
+    return index;
+  }
+
+  /** Gets all (including inherited) structural properties, aligned with {@link #getPropertyNames()}. */
+  private EdmProperty[] getAllProperties() {
+    if (allProperties == null) {
+      final List<String> names = getPropertyNames();
+      final EdmProperty[] localAllProperties = new EdmProperty[names.size()];
+      final int baseCount = baseType == null ? 0 : baseType.getPropertyNames().size();
+      for (int i = 0; i < baseCount; i++) {
+        localAllProperties[i] = baseType.getStructuralProperty(i);
+      }
+      int i = baseCount;
+      for (final EdmProperty property : getProperties().values()) {
+        localAllProperties[i++] = property;
+      }
+      allProperties = localAllProperties;
+    }
+    return allProperties;
+  }
+
+  /** Gets all (including inherited) navigation properties, aligned with {@link #getNavigationPropertyNames()}. */
+  private EdmNavigationProperty[] getAllNavigationProperties() {
+    if (allNavigationProperties == null) {
+      final List<String> names = getNavigationPropertyNames();
+      final EdmNavigationProperty[] localAllNavigationProperties = new EdmNavigationProperty[names.size()];
+      final int baseCount = baseType == null ? 0 : baseType.getNavigationPropertyNames().size();
+      for (int i = 0; i < baseCount; i++) {
+        localAllNavigationProperties[i] = baseType.getNavigationProperty(names.get(i));
+      }
+      int i = baseCount;
+      for (final EdmNavigationProperty navigationProperty : getNavigationProperties().values()) {
+        localAllNavigationProperties[i++] = navigationProperty;
+      }
+      allNavigationProperties = localAllNavigationProperties;
+    }
+    return allNavigationProperties;
   }
 
   @Override
@@ -19,11 +19,10 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.geo.ComposedGeospatial;
@@ -41,12 +40,6 @@ import org.apache.olingo.commons.api.edm.geo.SRID;
 
 public abstract class AbstractGeospatialType<T extends Geospatial> extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN =
-      Pattern.compile("([a-z]+)'SRID=([0-9]+);([a-zA-Z]+)\\((.*)\\)'");
-
-  private static final Pattern COLLECTION_PATTERN =
-      Pattern.compile("([a-z]+)'SRID=([0-9]+);Collection\\(([a-zA-Z]+)\\((.*)\\)\\)'");
-
   private final Class<T> reference;
 
   protected final Dimension dimension;
@@ -64,86 +57,178 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
     return reference;
   }
 
-  private Matcher getMatcher(final Pattern pattern, final String value) throws EdmPrimitiveTypeException {
-    final Matcher matcher = pattern.matcher(value);
-    if (!matcher.matches()) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+  /**
+   * Parses the literal prefix <code>dimension'SRID=srid;Type(</code> (or <code>...;Collection(Type(</code>
+   * for collections) and the corresponding suffix without regular expressions.
+   */
+  private GeoLiteral parseLiteral(final String value, final boolean isCollection) throws EdmPrimitiveTypeException {
+    final int length = value.length();
+    int index = 0;
+    while (index < length && value.charAt(index) >= 'a' && value.charAt(index) <= 'z') {
+      index++;
+    }
+    final int dimensionEnd = index;
+    if (dimensionEnd == 0 || !value.startsWith("'SRID=", index)) {
+      throw illegalContent(value);
+    }
+    index += 6;
+    final int sridStart = index;
+    while (index < length && LiteralHelper.isDigit(value.charAt(index))) {
+      index++;
+    }
+    final int sridEnd = index;
+    if (sridEnd == sridStart || index >= length || value.charAt(index) != ';') {
+      throw illegalContent(value);
+    }
+    index++;
+    if (isCollection) {
+      if (!value.startsWith("Collection(", index)) {
+        throw illegalContent(value);
+      }
+      index += 11;
+    }
+    final int typeStart = index;
+    while (index < length && isLetter(value.charAt(index))) {
+      index++;
+    }
+    final int typeEnd = index;
+    final String suffix = isCollection ? "))'" : ")'";
+    if (typeEnd == typeStart || index >= length || value.charAt(index) != '('
+        || !value.endsWith(suffix) || length - suffix.length() < index + 1) {
+      throw illegalContent(value);
     }
 
     Geospatial.Dimension _dimension = null;
     Geospatial.Type _type = null;
     try {
-      _dimension = Geospatial.Dimension.valueOf(matcher.group(1).toUpperCase());
-      _type = Geospatial.Type.valueOf(matcher.group(3).toUpperCase());
+      _dimension = Geospatial.Dimension.valueOf(value.substring(0, dimensionEnd).toUpperCase());
+      _type = Geospatial.Type.valueOf(value.substring(typeStart, typeEnd).toUpperCase());
     } catch (IllegalArgumentException e) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.", e);
     }
-    if (_dimension != this.dimension || (!pattern.equals(COLLECTION_PATTERN) && _type != this.type)) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    if (_dimension != this.dimension || (!isCollection && _type != this.type)) {
+      throw illegalContent(value);
     }
 
-    return matcher;
+    return new GeoLiteral(SRID.valueOf(value.substring(sridStart, sridEnd)), _type,
+        index + 1, length - suffix.length());
   }
 
-  private Point newPoint(final SRID srid, final String point, final Boolean isNullable,
+  private static boolean isLetter(final char c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+  }
+
+  private static EdmPrimitiveTypeException illegalContent(final CharSequence value) {
+    return new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+  }
+
+  /**
+   * Parses the coordinates <code>x y</code> in the given range of the literal into the target array.
+   */
+  private void parseCoordinates(final String value, final int start, final int end,
+      final double[] target, final int offset, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
 
-    final List<String> pointCoo = split(point, ' ');
-    if (pointCoo == null || pointCoo.size() != 2) {
-      throw new EdmPrimitiveTypeException("The literal '" + point + "' has illegal content.");
+    final int separator = value.indexOf(' ', start);
+    if (separator < 0 || separator + 1 >= end) {
+      throw illegalContent(value.subSequence(start, end));
+    }
+    final int secondSeparator = value.indexOf(' ', separator + 1);
+    if (secondSeparator >= 0 && secondSeparator < end) {
+      throw illegalContent(value.subSequence(start, end));
     }
 
-    final Point result = new Point(this.dimension, srid);
-    result.setX(EdmDouble.getInstance().valueOfString(pointCoo.get(0),
-        isNullable, maxLength, precision, scale, isUnicode, Double.class));
-    result.setY(EdmDouble.getInstance().valueOfString(pointCoo.get(1),
-        isNullable, maxLength, precision, scale, isUnicode, Double.class));
+    target[offset] = EdmDouble.getInstance().valueOfString(value, start, separator,
+        isNullable, maxLength, precision, scale, isUnicode, Double.class);
+    target[offset + 1] = EdmDouble.getInstance().valueOfString(value, separator + 1, end,
+        isNullable, maxLength, precision, scale, isUnicode, Double.class);
+  }
+
+  private Point newPoint(final SRID srid, final String point, final Boolean isNullable,
+      final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
+          throws EdmPrimitiveTypeException {
+    return newPoint(srid, point, 0, point.length(), isNullable, maxLength, precision, scale, isUnicode);
+  }
 
+  private Point newPoint(final SRID srid, final String value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    final double[] coordinates = new double[2];
+    parseCoordinates(value, start, end, coordinates, 0, isNullable, maxLength, precision, scale, isUnicode);
+
+    final Point result = new Point(this.dimension, srid);
+    result.setX(coordinates[0]);
+    result.setY(coordinates[1]);
     return result;
   }
 
   protected Point stringToPoint(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
-    return newPoint(SRID.valueOf(matcher.group(2)), matcher.group(4),
+    return newPoint(literal.srid, value, literal.start, literal.end,
         isNullable, maxLength, precision, scale, isUnicode);
   }
 
   protected MultiPoint stringToMultiPoint(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
     final List<Point> points = new ArrayList<>();
-    for (final String pointCoo : split(matcher.group(4), ',')) {
+    for (final String pointCoo : split(literal.body(value), ',')) {
       points.add(newPoint(null, pointCoo.substring(1, pointCoo.length() - 1),
           isNullable, maxLength, precision, scale, isUnicode));
     }
 
-    return new MultiPoint(dimension, SRID.valueOf(matcher.group(2)), points);
+    return new MultiPoint(dimension, literal.srid, points);
   }
 
   private LineString newLineString(final SRID srid, final String lineString, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
+    return newLineString(srid, lineString, 0, lineString.length(),
+        isNullable, maxLength, precision, scale, isUnicode);
+  }
 
-    final List<Point> points = new ArrayList<>();
-    for (final String pointCoo : split(lineString, ',')) {
-      points.add(newPoint(null, pointCoo, isNullable, maxLength, precision, scale, isUnicode));
+  /**
+   * Parses the comma-separated points in the given range of the literal
+   * into a line string backed by a coordinate array.
+   */
+  private LineString newLineString(final SRID srid, final String value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    double[] coordinates = new double[16];
+    int count = 0;
+    int pointStart = start;
+    while (pointStart < end) {
+      int pointEnd = value.indexOf(',', pointStart);
+      if (pointEnd < 0 || pointEnd > end) {
+        pointEnd = end;
+      }
+      if (count + 2 > coordinates.length) {
+        coordinates = Arrays.copyOf(coordinates, 2 * coordinates.length);
+      }
+      parseCoordinates(value, pointStart, pointEnd, coordinates, count,
+          isNullable, maxLength, precision, scale, isUnicode);
+      count += 2;
+      pointStart = pointEnd + 1;
     }
 
-    return new LineString(this.dimension, srid, points);
+    return new LineString(this.dimension, srid, count == coordinates.length ? coordinates
+        : Arrays.copyOf(coordinates, count));
   }
 
   protected LineString stringToLineString(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
-    return newLineString(SRID.valueOf(matcher.group(2)), matcher.group(4),
+    return newLineString(literal.srid, value, literal.start, literal.end,
         isNullable, maxLength, precision, scale, isUnicode);
   }
 
@@ -151,11 +236,10 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
     final List<LineString> lineStrings = new ArrayList<>();
-    for (String coo : matcher.group(4).contains("),(")
-        ? matcher.group(4).split("\\),\\(") : new String[] { matcher.group(4) }) {
+    for (String coo : split(literal.body(value), "),(")) {
 
       String lineString = coo;
       if (lineString.charAt(0) == '(') {
@@ -168,14 +252,14 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       lineStrings.add(newLineString(null, lineString, isNullable, maxLength, precision, scale, isUnicode));
     }
 
-    return new MultiLineString(this.dimension, SRID.valueOf(matcher.group(2)), lineStrings);
+    return new MultiLineString(this.dimension, literal.srid, lineStrings);
   }
 
   private Polygon newPolygon(final SRID srid, final String polygon, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
 
-    final String[] first = polygon.split("\\),\\(");
+    final String[] first = split(polygon, "),(").toArray(new String[0]);
 
     final List<LineString> interiorRings = new ArrayList<>();
     for (int i = 0; i < first.length -1; i++) {
@@ -196,21 +280,18 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
   protected Polygon stringToPolygon(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
-    return newPolygon(SRID.valueOf(matcher.group(2)), matcher.group(4),
-        isNullable, maxLength, precision, scale, isUnicode);
+    return newPolygon(literal.srid, literal.body(value), isNullable, maxLength, precision, scale, isUnicode);
   }
 
   protected MultiPolygon stringToMultiPolygon(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, false);
 
     final List<Polygon> polygons = new ArrayList<>();
-    for (String coo : matcher.group(4).contains(")),((") ?
-        matcher.group(4).split("\\)\\),\\(\\(") :
-        new String[] { matcher.group(4) }) {
+    for (String coo : split(literal.body(value), ")),((")) {
 
       String polygon = coo;
       if (polygon.startsWith("((")) {
@@ -229,66 +310,67 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       polygons.add(newPolygon(null, polygon, isNullable, maxLength, precision, scale, isUnicode));
     }
 
-    return new MultiPolygon(dimension, SRID.valueOf(matcher.group(2)), polygons);
+    return new MultiPolygon(dimension, literal.srid, polygons);
   }
 
   protected GeospatialCollection stringToCollection(final String value, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = getMatcher(COLLECTION_PATTERN, value);
+    final GeoLiteral literal = parseLiteral(value, true);
+    final String body = literal.body(value);
 
     Geospatial item = null;
-    switch (Geospatial.Type.valueOf(matcher.group(3).toUpperCase())) {
+    switch (literal.type) {
     case POINT:
-      item = newPoint(SRID.valueOf(matcher.group(2)), matcher.group(4),
+      item = newPoint(literal.srid, body,
           isNullable, maxLength, precision, scale, isUnicode);
       break;
 
     case MULTIPOINT:
       final List<Point> points = new ArrayList<>();
-      for (final String pointCoo : split(matcher.group(4), ',')) {
+      for (final String pointCoo : split(body, ',')) {
         points.add(newPoint(null, pointCoo.substring(1, pointCoo.length() - 1),
             isNullable, maxLength, precision, scale, isUnicode));
       }
 
-      item = new MultiPoint(dimension, SRID.valueOf(matcher.group(2)), points);
+      item = new MultiPoint(dimension, literal.srid, points);
       break;
 
     case LINESTRING:
-      item = newLineString(SRID.valueOf(matcher.group(2)), matcher.group(4),
+      item = newLineString(literal.srid, body,
           isNullable, maxLength, precision, scale, isUnicode);
       break;
 
     case MULTILINESTRING:
       final List<LineString> lineStrings = new ArrayList<>();
-      for (final String coo : split(matcher.group(4), ',')) {
+      for (final String coo : split(body, ',')) {
         lineStrings.add(newLineString(null, coo.substring(1, coo.length() - 1),
             isNullable, maxLength, precision, scale, isUnicode));
       }
 
-      item = new MultiLineString(this.dimension, SRID.valueOf(matcher.group(2)), lineStrings);
+      item = new MultiLineString(this.dimension, literal.srid, lineStrings);
       break;
 
     case POLYGON:
-      item = newPolygon(SRID.valueOf(matcher.group(2)), matcher.group(4),
+      item = newPolygon(literal.srid, body,
           isNullable, maxLength, precision, scale, isUnicode);
       break;
 
     case MULTIPOLYGON:
       final List<Polygon> polygons = new ArrayList<>();
-      for (final String coo : split(matcher.group(4), ',')) {
+      for (final String coo : split(body, ',')) {
         polygons.add(newPolygon(null, coo.substring(1, coo.length() - 1),
             isNullable, maxLength, precision, scale, isUnicode));
       }
 
-      item = new MultiPolygon(dimension, SRID.valueOf(matcher.group(2)), polygons);
+      item = new MultiPolygon(dimension, literal.srid, polygons);
       break;
 
     default:
     }
 
-    return new GeospatialCollection(dimension, SRID.valueOf(matcher.group(2)),
+    return new GeospatialCollection(dimension, literal.srid,
         Collections.<Geospatial> singletonList(item));
   }
 
@@ -301,13 +383,21 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
           throws EdmPrimitiveTypeException {
 
-    return new StringBuilder().
-        append(EdmDouble.getInstance().valueToString(point.getX(),
-            isNullable, maxLength, precision, scale, isUnicode)).
-            append(' ').
-            append(EdmDouble.getInstance().valueToString(point.getY(),
-                isNullable, maxLength, precision, scale, isUnicode)).
-                toString();
+    return appendCoordinates(new StringBuilder(), point.getX(), point.getY()).toString();
+  }
+
+  /**
+   * Appends the coordinates <code>x y</code>; the format is the same as the one of
+   * {@link EdmDouble#valueToString(Object, Boolean, Integer, Integer, Integer, Boolean)}.
+   */
+  private static StringBuilder appendCoordinates(final StringBuilder result, final double x, final double y) {
+    return appendCoordinate(appendCoordinate(result, x).append(' '), y);
+  }
+
+  private static StringBuilder appendCoordinate(final StringBuilder result, final double coordinate) {
+    return coordinate == Double.NEGATIVE_INFINITY ? result.append(EdmDouble.NEGATIVE_INFINITY)
+        : coordinate == Double.POSITIVE_INFINITY ? result.append(EdmDouble.POSITIVE_INFINITY)
+            : result.append(coordinate);
   }
 
   protected String toString(final Point point, final Boolean isNullable, final Integer maxLength,
@@ -351,14 +441,26 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
   private StringBuilder appendPoints(final ComposedGeospatial<Point> points, final Boolean isNullable, 
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode, 
       final StringBuilder result) throws EdmPrimitiveTypeException {
-	for (final Iterator<Point> itor = points.iterator(); itor.hasNext();) {
-      result.append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode));
+    if (points instanceof LineString) {
+      // Line strings provide indexed access to their coordinates without creating points.
+      final LineString lineString = (LineString) points;
+      for (int i = 0; i < lineString.getPointCount(); i++) {
+        if (i > 0) {
+          result.append(',');
+        }
+        appendCoordinates(result, lineString.getX(i), lineString.getY(i));
+      }
+      return result;
+    }
+    for (final Iterator<Point> itor = points.iterator(); itor.hasNext();) {
+      final Point point = itor.next();
+      appendCoordinates(result, point.getX(), point.getY());
       if (itor.hasNext()) {
         result.append(',');
       }
     }
-	return result;
-}
+    return result;
+  }
 
   protected String toString(final LineString lineString, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
@@ -542,4 +644,39 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
     }
     return list;
   }
+
+  /** Splits the input at each occurrence of the separator; trailing empty strings are not included. */
+  private List<String> split(final String input, final String separator) {
+    List<String> list = new ArrayList<String>();
+    int start = 0;
+    int end;
+    while ((end = input.indexOf(separator, start)) >= 0) {
+      list.add(input.substring(start, end));
+      start = end + separator.length();
+    }
+    list.add(input.substring(start));
+    while (list.size() > 1 && list.get(list.size() - 1).isEmpty()) {
+      list.remove(list.size() - 1);
+    }
+    return list;
+  }
+
+  /** Position of the coordinates within a geospatial literal together with the data of its prefix. */
+  private static final class GeoLiteral {
+    private final SRID srid;
+    private final Geospatial.Type type;
+    private final int start;
+    private final int end;
+
+    private GeoLiteral(final SRID srid, final Geospatial.Type type, final int start, final int end) {
+      this.srid = srid;
+      this.type = type;
+      this.start = start;
+      this.end = end;
+    }
+
+    private String body(final String value) {
+      return value.substring(start, end);
+    }
+  }
 }
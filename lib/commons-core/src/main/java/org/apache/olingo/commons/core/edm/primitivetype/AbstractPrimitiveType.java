@@ -73,6 +73,33 @@ abstract class AbstractPrimitiveType implements EdmPrimitiveType {
       Boolean isNullable, Integer maxLength, Integer precision, Integer scale, Boolean isUnicode,
       Class<T> returnType) throws EdmPrimitiveTypeException;
 
+  @Override
+  public final <T> T valueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode, final Class<T> returnType)
+          throws EdmPrimitiveTypeException {
+
+    if (value == null) {
+      if (isNullable != null && !isNullable) {
+        throw new EdmPrimitiveTypeException("The literal 'null' is not allowed.");
+      }
+      return null;
+    }
+    return internalValueOfString(value, start, end, isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
+  /**
+   * Converts a range of a literal to system data type.
+   * Types with a parser working directly on character sequences override this method;
+   * by default the range is converted to a string.
+   */
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
+    return internalValueOfString(value.subSequence(start, end).toString(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
   @Override
   public final String valueToString(final Object value,
       final Boolean isNullable, final Integer maxLength, final Integer precision,
@@ -90,6 +117,32 @@ abstract class AbstractPrimitiveType implements EdmPrimitiveType {
       Boolean isNullable, Integer maxLength, Integer precision, Integer scale,
       Boolean isUnicode) throws EdmPrimitiveTypeException;
 
+  @Override
+  public final boolean appendValueToString(final Object value,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode, final StringBuilder target) throws EdmPrimitiveTypeException {
+    if (value == null) {
+      if (isNullable != null && !isNullable) {
+        throw new EdmPrimitiveTypeException("The value NULL is not allowed.");
+      }
+      return false;
+    }
+    internalAppendValueToString(value, isNullable, maxLength, precision, scale, isUnicode, target);
+    return true;
+  }
+
+  /**
+   * Appends the literal representation of a non-<code>null</code> value.
+   * Types with a formatter working directly on the buffer override this method;
+   * by default the result of {@link #internalValueToString(Object, Boolean, Integer, Integer, Integer, Boolean)}
+   * is appended.
+   */
+  protected <T> void internalAppendValueToString(final T value,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode, final StringBuilder target) throws EdmPrimitiveTypeException {
+    target.append(internalValueToString(value, isNullable, maxLength, precision, scale, isUnicode));
+  }
+
   @Override
   public String toUriLiteral(final String literal) {
     return literal == null ? null :
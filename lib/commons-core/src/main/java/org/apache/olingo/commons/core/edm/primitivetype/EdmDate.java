@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.commons.core.edm.primitivetype;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -51,11 +52,23 @@ public final class EdmDate extends SingletonPrimitiveType {
   protected <T> T internalValueOfString(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode, final Class<T> returnType)
       throws EdmPrimitiveTypeException {
-    LocalDate date;
-    try {
-      date = LocalDate.parse(value);
-    } catch (DateTimeParseException ex) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    return internalValueOfString((CharSequence) value, 0, value.length(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
+    LocalDate date = parseCommonFormat(value, start, end);
+    if (date == null) {
+      try {
+        date = LocalDate.parse(value.subSequence(start, end));
+      } catch (DateTimeParseException ex) {
+        throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+            + "' has illegal content.");
+      }
     }
 
     // appropriate types
@@ -82,6 +95,42 @@ public final class EdmDate extends SingletonPrimitiveType {
     }
   }
 
+  /**
+   * Parses the literal format <code>yyyy-MM-dd</code> without creating intermediate objects.
+   * @return the parsed value or <code>null</code> if the literal has another format or illegal content
+   */
+  private static LocalDate parseCommonFormat(final CharSequence value, final int start, final int end) {
+    if (end - start != 10 || value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-') {
+      return null;
+    }
+    final int year = LiteralHelper.parseDigits(value, start, 4, end);
+    final int month = LiteralHelper.parseDigits(value, start + 5, 2, end);
+    final int day = LiteralHelper.parseDigits(value, start + 8, 2, end);
+    if (year < 0 || month < 0 || day < 0) {
+      return null;
+    }
+    try {
+      return LocalDate.of(year, month, day);
+    } catch (final DateTimeException e) {
+      // Let the ISO parser report the illegal content.
+      return null;
+    }
+  }
+
+  @Override
+  protected <T> void internalAppendValueToString(final T value, final Boolean isNullable, final Integer maxLength,
+      final Integer precision, final Integer scale, final Boolean isUnicode, final StringBuilder target)
+      throws EdmPrimitiveTypeException {
+    if (value instanceof LocalDate) {
+      final LocalDate date = (LocalDate) value;
+      if (date.getYear() >= 0 && date.getYear() <= 9999) {
+        LiteralHelper.appendDate(target, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        return;
+      }
+    }
+    target.append(internalValueToString(value, isNullable, maxLength, precision, scale, isUnicode));
+  }
+
   @Override
   protected <T> String internalValueToString(final T value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.sql.Timestamp;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -60,17 +61,99 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
   protected <T> T internalValueOfString(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode, final Class<T> returnType)
       throws EdmPrimitiveTypeException {
+    return internalValueOfString((CharSequence) value, 0, value.length(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
+  @Override
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
     try {
-      ZonedDateTime zdt = parseZonedDateTime(value);
+      ZonedDateTime zdt = parseCommonFormat(value, start, end);
+      if (zdt == null) {
+        zdt = parseZonedDateTime(value.subSequence(start, end).toString());
+      }
 
       return convertZonedDateTime(zdt, returnType);
     } catch (DateTimeParseException ex) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.", ex);
+      throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+          + "' has illegal content.", ex);
     } catch (final ClassCastException e) {
       throw new EdmPrimitiveTypeException("The value type " + returnType + " is not supported.", e);
     }
   }
 
+  /**
+   * Parses the common literal format <code>yyyy-MM-ddTHH:mm[:ss[.fffffffff]][Z|(+|-)HH:mm]</code>
+   * without creating intermediate objects.
+   * @return the parsed value or <code>null</code> if the literal has another format or illegal content
+   */
+  private static ZonedDateTime parseCommonFormat(final CharSequence value, final int start, final int end) {
+    final int year = LiteralHelper.parseDigits(value, start, 4, end);
+    if (year < 0 || end - start < 16
+        || value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-' || value.charAt(start + 10) != 'T'
+        || value.charAt(start + 13) != ':') {
+      return null;
+    }
+    final int month = LiteralHelper.parseDigits(value, start + 5, 2, end);
+    final int day = LiteralHelper.parseDigits(value, start + 8, 2, end);
+    final int hour = LiteralHelper.parseDigits(value, start + 11, 2, end);
+    final int minute = LiteralHelper.parseDigits(value, start + 14, 2, end);
+    int second = 0;
+    int nanos = 0;
+    int index = start + 16;
+    if (index < end && value.charAt(index) == ':') {
+      second = LiteralHelper.parseDigits(value, index + 1, 2, end);
+      index += 3;
+      if (index < end && value.charAt(index) == '.') {
+        index++;
+        final int fractionStart = index;
+        while (index < end && LiteralHelper.isDigit(value.charAt(index)) && index - fractionStart < 9) {
+          nanos = nanos * 10 + (value.charAt(index) - '0');
+          index++;
+        }
+        if (index == fractionStart || index < end && LiteralHelper.isDigit(value.charAt(index))) {
+          return null;
+        }
+        for (int i = index - fractionStart; i < 9; i++) {
+          nanos *= 10;
+        }
+      }
+    }
+    ZoneOffset offset;
+    if (index == end) {
+      // for backward compatibility - allow literals that don't specify a time zone
+      offset = ZoneOffset.UTC;
+    } else if (index + 1 == end && value.charAt(index) == 'Z') {
+      offset = ZoneOffset.UTC;
+    } else if (index + 6 == end && (value.charAt(index) == '+' || value.charAt(index) == '-')
+        && value.charAt(index + 3) == ':') {
+      final int offsetHours = LiteralHelper.parseDigits(value, index + 1, 2, end);
+      final int offsetMinutes = LiteralHelper.parseDigits(value, index + 4, 2, end);
+      if (offsetHours < 0 || offsetMinutes < 0 || offsetHours > 18 || offsetMinutes > 59) {
+        return null;
+      }
+      final int sign = value.charAt(index) == '-' ? -1 : 1;
+      try {
+        offset = ZoneOffset.ofHoursMinutes(sign * offsetHours, sign * offsetMinutes);
+      } catch (final DateTimeException e) {
+        return null;
+      }
+    } else {
+      return null;
+    }
+    if (month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+      return null;
+    }
+    try {
+      return ZonedDateTime.of(year, month, day, hour, minute, second, nanos, offset);
+    } catch (final DateTimeException e) {
+      // Let the ISO parser report the illegal content.
+      return null;
+    }
+  }
+
   private static ZonedDateTime parseZonedDateTime(final String value) {
     ZonedDateTime zdt;
     try {
@@ -114,9 +197,16 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
   @Override
   protected <T> String internalValueToString(final T value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
-    ZonedDateTime zdt = createZonedDateTime(value);
+    StringBuilder result = new StringBuilder(35);
+    format(createZonedDateTime(value), result);
+    return result.toString();
+  }
 
-    return format(zdt.toLocalDateTime(), zdt.getOffset(), zdt.getNano());
+  @Override
+  protected <T> void internalAppendValueToString(final T value, final Boolean isNullable, final Integer maxLength,
+      final Integer precision, final Integer scale, final Boolean isUnicode, final StringBuilder target)
+      throws EdmPrimitiveTypeException {
+    format(createZonedDateTime(value), target);
   }
 
   private static <T> ZonedDateTime createZonedDateTime(final T value) throws EdmPrimitiveTypeException {
@@ -138,21 +228,18 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
     return convertToInstant(value).atZone(ZULU);
   }
 
-  private static String format(LocalDateTime dateTime, ZoneOffset offset, int nanos) {
-    String str = dateTime.format(DateTimeFormatter.ISO_DATE_TIME);
-    if (nanos > 0) {
-      str = removeTrailingZeros(str);
-    }
-    return str + offset.toString();
-  }
-
-  private static String removeTrailingZeros(String str) {
-    char[] chars = str.toCharArray();
-    int trailingZeros = 0;
-    for (int i = chars.length - 1; i >= 0 && chars[i] == '0'; i--) {
-      trailingZeros++;
+  private static void format(final ZonedDateTime zdt, final StringBuilder target) {
+    final LocalDateTime dateTime = zdt.toLocalDateTime();
+    if (dateTime.getYear() >= 0 && dateTime.getYear() <= 9999) {
+      LiteralHelper.appendDate(target, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth());
+      target.append('T');
+      LiteralHelper.appendTime(target, dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(),
+          dateTime.getNano());
+    } else {
+      // ISO formatting takes care of signs and years with more than four digits
+      target.append(dateTime.format(DateTimeFormatter.ISO_DATE_TIME));
     }
-    return str.substring(0, chars.length - trailingZeros);
+    target.append(zdt.getOffset().getId());
   }
 
   /**
@@ -34,6 +34,9 @@ public final class EdmDecimal extends SingletonPrimitiveType {
   private static final Pattern PATTERN = Pattern.compile(
           "(?:\\+|-)?(?:0*(\\p{Digit}+?))(?:\\.(\\p{Digit}+?)0*)?((?:E|e)(?:\\+|-)?\\p{Digit}+)?");
 
+  /** Maximum scale for which the unscaled value is formatted with long arithmetic. */
+  private static final int MAX_LONG_SCALE = 18;
+
   private static final EdmDecimal INSTANCE = new EdmDecimal();
 
   public static EdmDecimal getInstance() {
@@ -62,27 +65,25 @@ public final class EdmDecimal extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) {
 
-    return value == null
-        ? isNullable == null || isNullable
-        : validateLiteral(value) && validatePrecisionAndScale(value, precision, scale);
+    if (value == null) {
+      return isNullable == null || isNullable;
+    }
+    final DecimalLiteral literal = DecimalLiteral.scan(value);
+    return literal != null && validatePrecisionAndScale(value, literal, precision, scale);
   }
 
   private static boolean validateLiteral(final String value) {
-    return PATTERN.matcher(value).matches();
+    return DecimalLiteral.scan(value) != null;
   }
 
-  private static boolean validatePrecisionAndScale(final String value, final Integer precision,
-      final Integer scale) {
+  private static boolean validatePrecisionAndScale(final String value, final DecimalLiteral scannedLiteral,
+      final Integer precision, final Integer scale) {
 
-    Matcher matcher = PATTERN.matcher(value);
-    matcher.matches();
-	if (matcher.group(3) != null) {
-		String plainValue = new BigDecimal(value).toPlainString();
-		matcher = PATTERN.matcher(plainValue);
-		matcher.matches();
-	}
-    final int significantIntegerDigits = "0".equals(matcher.group(1)) ? 0 : matcher.group(1).length();
-    final int decimals = matcher.group(2) == null ? 0 : matcher.group(2).length();
+    final DecimalLiteral literal = scannedLiteral.hasExponent
+        ? DecimalLiteral.scan(new BigDecimal(value).toPlainString())
+        : scannedLiteral;
+    final int significantIntegerDigits = literal.significantIntegerDigits;
+    final int decimals = literal.decimals;
     return (precision == null || (significantIntegerDigits >= 0 && 
         significantIntegerDigits <= precision - ((scale == null) ? 0 : scale))) &&
         (( decimals == 0 && ((scale == null) ? 0 : scale) < 0) ||
@@ -150,10 +151,11 @@ public final class EdmDecimal extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    if (!validateLiteral(value)) {
+    final DecimalLiteral literal = DecimalLiteral.scan(value);
+    if (literal == null) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
-    if (!validatePrecisionAndScale(value, precision, scale)) {
+    if (!validatePrecisionAndScale(value, literal, precision, scale)) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
     }
 
@@ -222,37 +224,174 @@ public final class EdmDecimal extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    String result;
     if (value instanceof Long || value instanceof Integer || value instanceof Short
         || value instanceof Byte || value instanceof BigInteger) {
-      result = value.toString();
+      final String result = value.toString();
       final int digits = result.startsWith("-") ? result.length() - 1 : result.length();
       if (precision != null && precision < digits) {
         throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.");
       }
+      return result;
+    } else {
+      return toCheckedDecimal(value, precision, scale).toPlainString();
+    }
+  }
 
-    } else if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
-      BigDecimal bigDecimalValue;
-      try {
-        bigDecimalValue = value instanceof Double ? BigDecimal.valueOf((Double) value)
-            : value instanceof Float ? BigDecimal.valueOf((Float) value) : (BigDecimal) value;
-      } catch (final NumberFormatException e) {
-        throw new EdmPrimitiveTypeException("The value '" + value + "' is not valid.", e);
+  @Override
+  protected <T> void internalAppendValueToString(final T value, final Boolean isNullable, final Integer maxLength,
+      final Integer precision, final Integer scale, final Boolean isUnicode, final StringBuilder target)
+      throws EdmPrimitiveTypeException {
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      final long longValue = ((Number) value).longValue();
+      if (precision != null && precision < countDigits(longValue)) {
+        throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.");
       }
+      target.append(longValue);
+    } else if (value instanceof BigInteger) {
+      target.append(internalValueToString(value, isNullable, maxLength, precision, scale, isUnicode));
+    } else {
+      final BigDecimal decimal = toCheckedDecimal(value, precision, scale);
+      if (decimal.scale() >= 0 && decimal.scale() <= MAX_LONG_SCALE && decimal.unscaledValue().bitLength() < 63) {
+        appendPlain(target, decimal.unscaledValue().longValue(), decimal.scale());
+      } else {
+        target.append(decimal.toPlainString());
+      }
+    }
+  }
 
-      final int digits = bigDecimalValue.scale() >= 0
-          ? Math.max(bigDecimalValue.precision(), bigDecimalValue.scale())
-              : bigDecimalValue.precision() - bigDecimalValue.scale();
-          if ((precision == null || precision >= digits) && (bigDecimalValue.scale() <= (scale == null ? 0 : scale))) {
-            result = bigDecimalValue.toPlainString();
-          } else {
-            throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.");
-          }
+  /** Converts a Double, Float, or BigDecimal value and checks it against the precision and scale facets. */
+  private static BigDecimal toCheckedDecimal(final Object value, final Integer precision, final Integer scale)
+      throws EdmPrimitiveTypeException {
+    if (!(value instanceof Double || value instanceof Float || value instanceof BigDecimal)) {
+      throw new EdmPrimitiveTypeException("The value type " + value.getClass() + " is not supported.");
+    }
+    BigDecimal bigDecimalValue;
+    try {
+      bigDecimalValue = value instanceof Double ? BigDecimal.valueOf((Double) value)
+          : value instanceof Float ? BigDecimal.valueOf((Float) value) : (BigDecimal) value;
+    } catch (final NumberFormatException e) {
+      throw new EdmPrimitiveTypeException("The value '" + value + "' is not valid.", e);
+    }
 
+    final int digits = bigDecimalValue.scale() >= 0
+        ? Math.max(bigDecimalValue.precision(), bigDecimalValue.scale())
+        : bigDecimalValue.precision() - bigDecimalValue.scale();
+    if ((precision == null || precision >= digits) && (bigDecimalValue.scale() <= (scale == null ? 0 : scale))) {
+      return bigDecimalValue;
     } else {
-      throw new EdmPrimitiveTypeException("The value type " + value.getClass() + " is not supported.");
+      throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.");
+    }
+  }
+
+  private static int countDigits(final long value) {
+    int digits = 1;
+    for (long rest = value / 10; rest != 0; rest /= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  /**
+   * Appends the plain representation of <code>unscaled * 10^-scale</code>, i.e., the result of
+   * {@link BigDecimal#toPlainString()}; the unscaled value must not be {@link Long#MIN_VALUE}.
+   */
+  private static void appendPlain(final StringBuilder target, final long unscaled, final int scale) {
+    if (scale == 0) {
+      target.append(unscaled);
+      return;
+    }
+    if (unscaled < 0) {
+      target.append('-');
     }
+    final long absolute = Math.abs(unscaled);
+    long divisor = 1;
+    for (int i = 0; i < scale; i++) {
+      divisor *= 10;
+    }
+    target.append(absolute / divisor).append('.');
+    final long fraction = absolute % divisor;
+    for (long bound = divisor / 10; bound > 1 && fraction < bound; bound /= 10) {
+      target.append('0');
+    }
+    target.append(fraction);
+  }
 
-    return result;
+  /**
+   * Result of scanning a decimal literal <code>[+-]digits[.digits][(E|e)[+-]digits]</code>
+   * without regular expressions.
+   */
+  private static final class DecimalLiteral {
+    /** Number of integer digits without leading zeros; zero for the integer part 0. */
+    private final int significantIntegerDigits;
+    /** Number of fractional digits without trailing zeros but at least one if a fraction is present. */
+    private final int decimals;
+    private final boolean hasExponent;
+
+    private DecimalLiteral(final int significantIntegerDigits, final int decimals, final boolean hasExponent) {
+      this.significantIntegerDigits = significantIntegerDigits;
+      this.decimals = decimals;
+      this.hasExponent = hasExponent;
+    }
+
+    /**
+     * Scans a decimal literal.
+     * @return the result or <code>null</code> if the literal has illegal content
+     */
+    private static DecimalLiteral scan(final String value) {
+      final int length = value.length();
+      int index = 0;
+      if (index < length && (value.charAt(index) == '+' || value.charAt(index) == '-')) {
+        index++;
+      }
+
+      final int integerStart = index;
+      index = skipDigits(value, index);
+      if (index == integerStart) {
+        return null;
+      }
+      int firstSignificant = integerStart;
+      while (firstSignificant < index - 1 && value.charAt(firstSignificant) == '0') {
+        firstSignificant++;
+      }
+      final int significantIntegerDigits = value.charAt(firstSignificant) == '0' ? 0 : index - firstSignificant;
+
+      int decimals = 0;
+      if (index < length && value.charAt(index) == '.') {
+        final int fractionStart = ++index;
+        index = skipDigits(value, index);
+        if (index == fractionStart) {
+          return null;
+        }
+        int fractionEnd = index;
+        while (fractionEnd > fractionStart + 1 && value.charAt(fractionEnd - 1) == '0') {
+          fractionEnd--;
+        }
+        decimals = fractionEnd - fractionStart;
+      }
+
+      boolean hasExponent = false;
+      if (index < length && (value.charAt(index) == 'E' || value.charAt(index) == 'e')) {
+        index++;
+        if (index < length && (value.charAt(index) == '+' || value.charAt(index) == '-')) {
+          index++;
+        }
+        final int exponentStart = index;
+        index = skipDigits(value, index);
+        if (index == exponentStart) {
+          return null;
+        }
+        hasExponent = true;
+      }
+
+      return index == length ? new DecimalLiteral(significantIntegerDigits, decimals, hasExponent) : null;
+    }
+
+    private static int skipDigits(final String value, final int start) {
+      int index = start;
+      while (index < value.length() && LiteralHelper.isDigit(value.charAt(index))) {
+        index++;
+      }
+      return index;
+    }
   }
 }
@@ -20,16 +20,14 @@ package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 
 public class EdmDuration extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "[-+]?P(?:(\\p{Digit}+)D)?(?:T(?:(\\p{Digit}+)H)?(?:(\\p{Digit}+)M)?"
-          + "(?:(\\p{Digit}+(?:\\.(?:\\p{Digit}+?)0*)?)S)?)?");
+  private static final BigDecimal SECONDS_PER_DAY = BigDecimal.valueOf(24 * 60 * 60);
+  private static final BigDecimal SECONDS_PER_HOUR = BigDecimal.valueOf(60 * 60);
+  private static final BigDecimal SECONDS_PER_MINUTE = BigDecimal.valueOf(60);
 
   private static final EdmDuration INSTANCE = new EdmDuration();
 
@@ -51,42 +49,142 @@ public class EdmDuration extends SingletonPrimitiveType {
   protected <T> T internalValueOfString(final String value,
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
+    return internalValueOfString((CharSequence) value, 0, value.length(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
 
-    final Matcher matcher = PATTERN.matcher(value);
-    if (!matcher.matches()
-        || matcher.group(1) == null && matcher.group(2) == null && matcher.group(3) == null
-        && matcher.group(4) == null) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
-    }
+  @Override
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    BigDecimal result = (matcher.group(1) == null ? BigDecimal.ZERO
-        : new BigDecimal(matcher.group(1)).multiply(BigDecimal.valueOf(24 * 60 * 60))).
-        add(matcher.group(2) == null ? BigDecimal.ZERO
-            : new BigDecimal(matcher.group(2)).multiply(BigDecimal.valueOf(60 * 60))).
-            add(matcher.group(3) == null ? BigDecimal.ZERO
-                : new BigDecimal(matcher.group(3)).multiply(BigDecimal.valueOf(60))).
-                add(matcher.group(4) == null ? BigDecimal.ZERO : new BigDecimal(matcher.group(4)));
+    BigDecimal result = parse(value, start, end);
+    if (result == null) {
+      throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+          + "' has illegal content.");
+    }
 
     if (result.scale() <= (precision == null ? 0 : precision)) {
-      result = value.charAt(0) == '-' ? result.negate() : result;
+      result = value.charAt(start) == '-' ? result.negate() : result;
     } else {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
+      throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+          + "' does not match the facets' constraints.");
     }
 
     try {
       return EdmDecimal.convertDecimal(result, returnType);
     } catch (final IllegalArgumentException e) {
-      throw new EdmPrimitiveTypeException("The literal '" + value
+      throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
           + "' cannot be converted to value type " + returnType + ".", e);
     } catch (final ClassCastException e) {
       throw new EdmPrimitiveTypeException("The value type " + returnType + " is not supported.", e);
     }
   }
 
+  /**
+   * Parses the literal format <code>[-+]P[nD][T[nH][nM][n[.n]S]]</code> with at least one component
+   * into the absolute number of seconds.
+   * @return the number of seconds or <code>null</code> if the literal has illegal content
+   */
+  private static BigDecimal parse(final CharSequence value, final int start, final int end) {
+    int index = start;
+    if (index < end && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+      index++;
+    }
+    if (index >= end || value.charAt(index) != 'P') {
+      return null;
+    }
+    index++;
+
+    BigDecimal result = null;
+    int digitsEnd = skipDigits(value, index, end);
+    if (digitsEnd > index) {
+      if (digitsEnd >= end || value.charAt(digitsEnd) != 'D') {
+        return null;
+      }
+      result = decimal(value, index, digitsEnd, 0).multiply(SECONDS_PER_DAY);
+      index = digitsEnd + 1;
+    }
+
+    if (index < end) {
+      if (value.charAt(index) != 'T') {
+        return null;
+      }
+      index++;
+      // Designators must appear in this order; the position is advanced past each one found.
+      int designator = 0;
+      while (index < end) {
+        digitsEnd = skipDigits(value, index, end);
+        if (digitsEnd == index || digitsEnd >= end) {
+          return null;
+        }
+        final char c = value.charAt(digitsEnd);
+        BigDecimal component;
+        if (c == 'H' && designator < 1) {
+          component = decimal(value, index, digitsEnd, 0).multiply(SECONDS_PER_HOUR);
+          designator = 1;
+        } else if (c == 'M' && designator < 2) {
+          component = decimal(value, index, digitsEnd, 0).multiply(SECONDS_PER_MINUTE);
+          designator = 2;
+        } else if (c == 'S' && designator < 3) {
+          component = decimal(value, index, digitsEnd, 0);
+          designator = 3;
+        } else if (c == '.' && designator < 3) {
+          final int fractionEnd = skipDigits(value, digitsEnd + 1, end);
+          if (fractionEnd == digitsEnd + 1 || fractionEnd >= end || value.charAt(fractionEnd) != 'S') {
+            return null;
+          }
+          component = decimal(value, index, fractionEnd, fractionEnd - digitsEnd - 1);
+          designator = 3;
+          digitsEnd = fractionEnd;
+        } else {
+          return null;
+        }
+        result = result == null ? component : result.add(component);
+        index = digitsEnd + 1;
+      }
+    }
+
+    return index == end ? result : null;
+  }
+
+  private static int skipDigits(final CharSequence value, final int start, final int end) {
+    int index = start;
+    while (index < end && LiteralHelper.isDigit(value.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  /** Converts digits, optionally interrupted by a decimal point before the last <code>scale</code> digits. */
+  private static BigDecimal decimal(final CharSequence value, final int start, final int end, final int scale) {
+    if (end - start <= 18) {
+      long unscaled = 0;
+      for (int i = start; i < end; i++) {
+        final char c = value.charAt(i);
+        if (c != '.') {
+          unscaled = unscaled * 10 + (c - '0');
+        }
+      }
+      return BigDecimal.valueOf(unscaled, scale);
+    } else {
+      return new BigDecimal(value.subSequence(start, end).toString());
+    }
+  }
+
   @Override
   protected <T> String internalValueToString(final T value,
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
+    final StringBuilder result = new StringBuilder();
+    internalAppendValueToString(value, isNullable, maxLength, precision, scale, isUnicode, result);
+    return result.toString();
+  }
+
+  @Override
+  protected <T> void internalAppendValueToString(final T value,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode, final StringBuilder result) throws EdmPrimitiveTypeException {
 
     BigDecimal valueDecimal;
     if (value instanceof BigDecimal) {
@@ -103,34 +201,51 @@ public class EdmDuration extends SingletonPrimitiveType {
       throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.");
     }
 
-    final StringBuilder result = new StringBuilder();
     if (valueDecimal.signum() == -1) {
       result.append('-');
       valueDecimal = valueDecimal.negate();
     }
     result.append('P');
-    BigInteger seconds = valueDecimal.toBigInteger();
-    final BigInteger days = seconds.divide(BigInteger.valueOf(24 * 60 * 60));
-    if (!days.equals(BigInteger.ZERO)) {
-      result.append(days.toString());
-      result.append('D');
-    }
-    result.append('T');
-    seconds = seconds.subtract(days.multiply(BigInteger.valueOf(24 * 60 * 60)));
-    final BigInteger hours = seconds.divide(BigInteger.valueOf(60 * 60));
-    if (!hours.equals(BigInteger.ZERO)) {
-      result.append(hours.toString());
-      result.append('H');
-    }
-    seconds = seconds.subtract(hours.multiply(BigInteger.valueOf(60 * 60)));
-    final BigInteger minutes = seconds.divide(BigInteger.valueOf(60));
-    if (!minutes.equals(BigInteger.ZERO)) {
-      result.append(minutes.toString());
-      result.append('M');
+    final BigInteger wholeSeconds = valueDecimal.toBigInteger();
+    if (wholeSeconds.bitLength() < Long.SIZE) {
+      long seconds = wholeSeconds.longValue();
+      final long days = seconds / (24 * 60 * 60);
+      if (days != 0) {
+        result.append(days).append('D');
+      }
+      result.append('T');
+      seconds -= days * (24 * 60 * 60);
+      final long hours = seconds / (60 * 60);
+      if (hours != 0) {
+        result.append(hours).append('H');
+      }
+      seconds -= hours * (60 * 60);
+      final long minutes = seconds / 60;
+      if (minutes != 0) {
+        result.append(minutes).append('M');
+      }
+    } else {
+      BigInteger seconds = wholeSeconds;
+      final BigInteger days = seconds.divide(BigInteger.valueOf(24 * 60 * 60));
+      if (!days.equals(BigInteger.ZERO)) {
+        result.append(days.toString());
+        result.append('D');
+      }
+      result.append('T');
+      seconds = seconds.subtract(days.multiply(BigInteger.valueOf(24 * 60 * 60)));
+      final BigInteger hours = seconds.divide(BigInteger.valueOf(60 * 60));
+      if (!hours.equals(BigInteger.ZERO)) {
+        result.append(hours.toString());
+        result.append('H');
+      }
+      seconds = seconds.subtract(hours.multiply(BigInteger.valueOf(60 * 60)));
+      final BigInteger minutes = seconds.divide(BigInteger.valueOf(60));
+      if (!minutes.equals(BigInteger.ZERO)) {
+        result.append(minutes.toString());
+        result.append('M');
+      }
     }
-    result.append(valueDecimal.remainder(BigDecimal.valueOf(60)).toPlainString());
+    result.append(valueDecimal.remainder(SECONDS_PER_MINUTE).toPlainString());
     result.append('S');
-
-    return result.toString();
   }
 }
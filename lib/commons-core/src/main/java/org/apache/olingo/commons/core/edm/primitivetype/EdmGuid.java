@@ -27,8 +27,6 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmGuid extends SingletonPrimitiveType {
 
-  private static final String PATTERN = "\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}";
-
   private static final EdmGuid INSTANCE = new EdmGuid();
 
   public static EdmGuid getInstance() {
@@ -48,7 +46,41 @@ public final class EdmGuid extends SingletonPrimitiveType {
   }
 
   private boolean validateLiteral(final String value) {
-    return value.matches(PATTERN);
+    return parse(value, 0, value.length()) != null;
+  }
+
+  /**
+   * Parses the literal format <code>8-4-4-4-12</code> hexadecimal digits.
+   * @return the parsed value or <code>null</code> if the literal has illegal content
+   */
+  private static UUID parse(final CharSequence value, final int start, final int end) {
+    if (end - start != 36) {
+      return null;
+    }
+    long mostSigBits = 0;
+    long leastSigBits = 0;
+    int digits = 0;
+    for (int i = start; i < end; i++) {
+      final char c = value.charAt(i);
+      final int position = i - start;
+      if (position == 8 || position == 13 || position == 18 || position == 23) {
+        if (c != '-') {
+          return null;
+        }
+      } else {
+        final int digit = LiteralHelper.hexDigit(c);
+        if (digit < 0) {
+          return null;
+        }
+        if (digits < 16) {
+          mostSigBits = mostSigBits << 4 | digit;
+        } else {
+          leastSigBits = leastSigBits << 4 | digit;
+        }
+        digits++;
+      }
+    }
+    return new UUID(mostSigBits, leastSigBits);
   }
 
   @Override
@@ -56,12 +88,20 @@ public final class EdmGuid extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode,
       final Class<T> returnType) throws EdmPrimitiveTypeException {
+    return internalValueOfString((CharSequence) value, 0, value.length(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
 
-    UUID result;
-    if (validateLiteral(value)) {
-      result = UUID.fromString(value);
-    } else {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+  @Override
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode,
+      final Class<T> returnType) throws EdmPrimitiveTypeException {
+
+    final UUID result = parse(value, start, end);
+    if (result == null) {
+      throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+          + "' has illegal content.");
     }
 
     if (returnType.isAssignableFrom(UUID.class)) {
@@ -82,4 +122,26 @@ public final class EdmGuid extends SingletonPrimitiveType {
       throw new EdmPrimitiveTypeException("The value type " + value.getClass() + " is not supported.");
     }
   }
+
+  @Override
+  protected <T> void internalAppendValueToString(final T value,
+      final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode, final StringBuilder target) throws EdmPrimitiveTypeException {
+
+    if (value instanceof UUID) {
+      final long mostSigBits = ((UUID) value).getMostSignificantBits();
+      final long leastSigBits = ((UUID) value).getLeastSignificantBits();
+      LiteralHelper.appendHex(target, mostSigBits >>> 32, 8);
+      target.append('-');
+      LiteralHelper.appendHex(target, mostSigBits >>> 16, 4);
+      target.append('-');
+      LiteralHelper.appendHex(target, mostSigBits, 4);
+      target.append('-');
+      LiteralHelper.appendHex(target, leastSigBits >>> 48, 4);
+      target.append('-');
+      LiteralHelper.appendHex(target, leastSigBits, 12);
+    } else {
+      throw new EdmPrimitiveTypeException("The value type " + value.getClass() + " is not supported.");
+    }
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.sql.Timestamp;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -50,11 +51,23 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
   protected <T> T internalValueOfString(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode, final Class<T> returnType)
       throws EdmPrimitiveTypeException {
-    LocalTime time;
-    try {
-      time = LocalTime.parse(value);
-    } catch (DateTimeParseException ex) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    return internalValueOfString((CharSequence) value, 0, value.length(),
+        isNullable, maxLength, precision, scale, isUnicode, returnType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected <T> T internalValueOfString(final CharSequence value, final int start, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
+    LocalTime time = parseCommonFormat(value, start, end);
+    if (time == null) {
+      try {
+        time = LocalTime.parse(value.subSequence(start, end));
+      } catch (DateTimeParseException ex) {
+        throw new EdmPrimitiveTypeException("The literal '" + value.subSequence(start, end)
+            + "' has illegal content.");
+      }
     }
 
     // appropriate types
@@ -81,6 +94,84 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
     }
   }
 
+  /**
+   * Parses the literal format <code>HH:mm[:ss[.fffffffff]]</code> without creating intermediate objects.
+   * @return the parsed value or <code>null</code> if the literal has another format or illegal content
+   */
+  private static LocalTime parseCommonFormat(final CharSequence value, final int start, final int end) {
+    if (end - start < 5 || value.charAt(start + 2) != ':') {
+      return null;
+    }
+    final int hour = LiteralHelper.parseDigits(value, start, 2, end);
+    final int minute = LiteralHelper.parseDigits(value, start + 3, 2, end);
+    int second = 0;
+    int nanos = 0;
+    int index = start + 5;
+    if (index < end) {
+      if (value.charAt(index) != ':') {
+        return null;
+      }
+      second = LiteralHelper.parseDigits(value, index + 1, 2, end);
+      index += 3;
+      if (index < end) {
+        if (value.charAt(index) != '.' || end - index < 2 || end - index > 10) {
+          return null;
+        }
+        for (int i = index + 1; i < end; i++) {
+          if (!LiteralHelper.isDigit(value.charAt(i))) {
+            return null;
+          }
+          nanos = nanos * 10 + (value.charAt(i) - '0');
+        }
+        for (int i = end - index - 1; i < 9; i++) {
+          nanos *= 10;
+        }
+      }
+    }
+    if (hour < 0 || minute < 0 || second < 0) {
+      return null;
+    }
+    try {
+      return LocalTime.of(hour, minute, second, nanos);
+    } catch (final DateTimeException e) {
+      // Let the ISO parser report the illegal content.
+      return null;
+    }
+  }
+
+  @Override
+  protected <T> void internalAppendValueToString(final T value, final Boolean isNullable, final Integer maxLength,
+      final Integer precision, final Integer scale, final Boolean isUnicode, final StringBuilder target)
+      throws EdmPrimitiveTypeException {
+    if (value instanceof LocalTime) {
+      format((LocalTime) value, target);
+    } else {
+      target.append(internalValueToString(value, isNullable, maxLength, precision, scale, isUnicode));
+    }
+  }
+
+  /** Appends the same characters as {@link LocalTime#toString()}. */
+  private static void format(final LocalTime time, final StringBuilder target) {
+    LiteralHelper.appendPadded(target, time.getHour(), 2);
+    target.append(':');
+    LiteralHelper.appendPadded(target, time.getMinute(), 2);
+    final int nanos = time.getNano();
+    if (time.getSecond() > 0 || nanos > 0) {
+      target.append(':');
+      LiteralHelper.appendPadded(target, time.getSecond(), 2);
+      if (nanos > 0) {
+        target.append('.');
+        if (nanos % 1000000 == 0) {
+          LiteralHelper.appendPadded(target, nanos / 1000000, 3);
+        } else if (nanos % 1000 == 0) {
+          LiteralHelper.appendPadded(target, nanos / 1000, 6);
+        } else {
+          LiteralHelper.appendPadded(target, nanos, 9);
+        }
+      }
+    }
+  }
+
   @Override
   protected <T> String internalValueToString(final T value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
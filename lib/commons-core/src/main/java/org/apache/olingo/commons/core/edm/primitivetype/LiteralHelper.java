@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.core.edm.primitivetype;
+
+/**
+ * Helper methods for formatting and parsing primitive literals without regular expressions
+ * or intermediate strings.
+ */
+final class LiteralHelper {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private LiteralHelper() {
+    // Private constructor for utility classes
+  }
+
+  /** Appends a non-negative number left-padded with zeros to the given number of digits. */
+  static void appendPadded(final StringBuilder target, final int value, final int digits) {
+    int bound = 1;
+    for (int i = 1; i < digits; i++) {
+      bound *= 10;
+    }
+    for (; bound > 1 && value < bound; bound /= 10) {
+      target.append('0');
+    }
+    target.append(value);
+  }
+
+  /** Appends the time part HH:mm:ss followed by the fraction of second without trailing zeros. */
+  static void appendTime(final StringBuilder target, final int hour, final int minute, final int second,
+      final int nanos) {
+    appendPadded(target, hour, 2);
+    target.append(':');
+    appendPadded(target, minute, 2);
+    target.append(':');
+    appendPadded(target, second, 2);
+    if (nanos > 0) {
+      int digits = 9;
+      int fraction = nanos;
+      while (fraction % 10 == 0) {
+        fraction /= 10;
+        digits--;
+      }
+      target.append('.');
+      appendPadded(target, fraction, digits);
+    }
+  }
+
+  /** Appends the date part yyyy-MM-dd; the year must be between 0 and 9999. */
+  static void appendDate(final StringBuilder target, final int year, final int month, final int day) {
+    appendPadded(target, year, 4);
+    target.append('-');
+    appendPadded(target, month, 2);
+    target.append('-');
+    appendPadded(target, day, 2);
+  }
+
+  /** Appends the lowest <code>digits</code> hexadecimal digits of the given value in lower case. */
+  static void appendHex(final StringBuilder target, final long value, final int digits) {
+    for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      target.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+    }
+  }
+
+  /**
+   * Parses a fixed number of decimal digits.
+   * @return the parsed value or -1 if there are not enough digits
+   */
+  static int parseDigits(final CharSequence value, final int start, final int count, final int end) {
+    if (start + count > end) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = start; i < start + count; i++) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Parses a hexadecimal digit.
+   * @return the value of the digit or -1 if the character is not a hexadecimal digit
+   */
+  static int hexDigit(final char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    } else if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    } else if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    } else {
+      return -1;
+    }
+  }
+
+  /** Determines whether the character is a decimal digit. */
+  static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -19,6 +19,8 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -239,4 +241,22 @@ public class EdmDateTimeOffsetTest extends PrimitiveTypeBaseTest {
     expectTypeErrorInValueOfString(instance, "2012-02-29T01:02:03Z");
   }
 
+  @Test
+  public void appendValueToStringAndParseRange() throws Exception {
+    final ZonedDateTime dateTime = ZonedDateTime.of(2012, 2, 29, 1, 2, 3, 450000000, ZoneId.of("GMT+11:30"));
+    final StringBuilder target = new StringBuilder("[");
+    assertTrue(instance.appendValueToString(dateTime, null, null, 7, null, null, target));
+    assertEquals("[" + instance.valueToString(dateTime, null, null, 7, null, null), target.toString());
+    assertFalse(instance.appendValueToString(null, null, null, null, null, null, target));
+
+    assertEquals(instance.valueOfString("2012-02-29T01:02:03.45+11:30", null, null, 2, null, null,
+        ZonedDateTime.class),
+        instance.valueOfString(target, 1, target.length(), null, null, 2, null, null, ZonedDateTime.class));
+    assertEquals(instance.valueOfString("2012-02-29T01:02Z", null, null, null, null, null, Instant.class),
+        instance.valueOfString("x2012-02-29T01:02x", 1, 17, null, null, null, null, null, Instant.class));
+    // Literals beyond the common format are still handled by the ISO parser.
+    assertEquals(instance.valueOfString("+12012-02-29T01:02:03Z", null, null, null, null, null, Instant.class),
+        instance.valueOfString((CharSequence) "+12012-02-29T01:02:03Z", 0, 22, null, null, null, null, null,
+            Instant.class));
+  }
 }
@@ -20,12 +20,15 @@ package org.apache.olingo.commons.core.edm.primitivetype;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.junit.Test;
 
@@ -209,4 +212,23 @@ public class EdmDecimalTest extends PrimitiveTypeBaseTest {
         validateDecimals("1e97", null, null, 7, "floating", null));
     
   }
+
+  @Test
+  public void appendValueToString() throws Exception {
+    final Object[] values = { 0, (byte) 8, -32768, Long.MIN_VALUE, new BigInteger("1234567890123456789012345678901"),
+        1.0 / 256, -0.125f, 0.5, new BigDecimal("-1234567890.1234567890"), new BigDecimal("0.00"),
+        new BigDecimal("-0.05"), new BigDecimal("12345678901234567890.5"), new BigDecimal(BigInteger.ONE, -2) };
+    for (final Object value : values) {
+      final StringBuilder target = new StringBuilder("[");
+      assertTrue(instance.appendValueToString(value, null, null, null, 20, null, target));
+      assertEquals("[" + instance.valueToString(value, null, null, null, 20, null), target.toString());
+    }
+    assertFalse(instance.appendValueToString(null, null, null, null, null, null, new StringBuilder()));
+    try {
+      instance.appendValueToString(-1234, null, null, 2, null, null, new StringBuilder());
+      fail("Expected an EdmPrimitiveTypeException.");
+    } catch (final EdmPrimitiveTypeException e) {
+      assertNotNull(e.getMessage());
+    }
+  }
 }
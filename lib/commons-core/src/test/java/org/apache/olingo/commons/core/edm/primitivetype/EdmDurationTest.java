@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -102,4 +103,21 @@ public class EdmDurationTest extends PrimitiveTypeBaseTest {
 
     expectTypeErrorInValueOfString(instance, "PT0S");
   }
+
+  @Test
+  public void appendValueToStringAndParseRange() throws Exception {
+    final StringBuilder target = new StringBuilder();
+    assertTrue(instance.appendValueToString(new BigDecimal("-93784.5"), null, null, 1, null, null, target));
+    assertEquals("-P1DT2H3M4.5S", target.toString());
+    assertEquals(new BigDecimal("-93784.5"), instance.valueOfString(target, 0, target.length(),
+        null, null, 1, null, null, BigDecimal.class));
+    assertEquals(BigDecimal.valueOf(86400), instance.valueOfString("P1DT", null, null, null, null, null,
+        BigDecimal.class));
+    assertEquals(new BigDecimal("1.10"), instance.valueOfString("PT1.10S", null, null, 2, null, null,
+        BigDecimal.class));
+
+    expectContentErrorInValueOfString(instance, "PT1M2H");
+    expectContentErrorInValueOfString(instance, "PT1.S");
+    expectContentErrorInValueOfString(instance, "P1H");
+  }
 }
@@ -23,7 +23,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.geo.Geospatial;
@@ -91,6 +93,36 @@ public class EdmGeoTest extends PrimitiveTypeBaseTest {
     assertEquals(input, EdmGeographyLineString.getInstance().valueToString(lineString, null, null, null, null, null));
   }
 
+  @Test
+  public void lineStringCoordinates() throws EdmPrimitiveTypeException {
+    final String input = "geometry'SRID=4326;LineString(1.5 -2.0,INF 3.0E10,0.0 0.0)'";
+
+    final LineString lineString = EdmGeometryLineString.getInstance().
+        valueOfString(input, null, null, null, null, null, LineString.class);
+    assertEquals(3, lineString.getPointCount());
+    assertEquals(1.5, lineString.getX(0), 0);
+    assertEquals(-2.0, lineString.getY(0), 0);
+    assertEquals(Double.POSITIVE_INFINITY, lineString.getX(1), 0);
+    assertEquals(3.0E10, lineString.getY(1), 0);
+    assertEquals(input, EdmGeometryLineString.getInstance().valueToString(lineString, null, null, null, null, null));
+
+    final List<Point> points = new ArrayList<Point>();
+    for (final Point point : lineString) {
+      points.add(point);
+    }
+    final LineString pointBased = new LineString(Geospatial.Dimension.GEOMETRY, lineString.getSrid(), points);
+    assertEquals(pointBased, lineString);
+    assertEquals(lineString, pointBased);
+    assertEquals(pointBased.hashCode(), lineString.hashCode());
+
+    assertTrue(EdmGeometryLineString.getInstance().valueOfString("geometry'SRID=0;LineString()'",
+        null, null, null, null, null, LineString.class).isEmpty());
+    expectContentErrorInValueOfString(EdmGeometryLineString.getInstance(), "geometry'SRID=0;LineString(1 2,3)'");
+    expectContentErrorInValueOfString(EdmGeometryLineString.getInstance(), "geometry'SRID=0;LineString(1  2)'");
+    expectContentErrorInValueOfString(EdmGeometryLineString.getInstance(), "geometry'SRID=;LineString(1 2)'");
+    expectContentErrorInValueOfString(EdmGeometryLineString.getInstance(), "geometry'SRID=0;LineString(1 2)");
+  }
+
   @Test
   public void multiLineString() throws EdmPrimitiveTypeException {
     final String input = "geography'SRID=0;MultiLineString((142.1 64.1,3.14 2.78),(142.1 64.7,3.14 2.78))'";
@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.UUID;
 
@@ -65,4 +66,16 @@ public class EdmGuidTest extends PrimitiveTypeBaseTest {
 
     expectTypeErrorInValueOfString(instance, uuid.toString());
   }
+
+  @Test
+  public void appendValueToStringAndParseRange() throws Exception {
+    final UUID uuid = UUID.randomUUID();
+    final StringBuilder target = new StringBuilder();
+    assertTrue(instance.appendValueToString(uuid, null, null, null, null, null, target));
+    assertEquals(uuid.toString(), target.toString());
+    assertEquals(uuid, instance.valueOfString("'" + uuid + "'", 1, 37, null, null, null, null, null, UUID.class));
+
+    expectContentErrorInValueOfString(instance, "aabbccdd-aabb-ccdd-eeff-aabbccddeefg");
+    expectContentErrorInValueOfString(instance, "aabbccdd-aabb-ccdd-eeffaaabbccddeeff");
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -186,4 +187,18 @@ public class EdmTimeOfDayTest extends PrimitiveTypeBaseTest {
     instance.validate("12:34:55", null, null, null, null, null);
   }
 
+  @Test
+  public void appendValueToStringAndParseRange() throws Exception {
+    for (final LocalTime time : new LocalTime[] { LocalTime.of(4, 5), LocalTime.of(4, 5, 6),
+        LocalTime.of(23, 59, 0, 120000000), LocalTime.of(0, 0, 1, 123000), LocalTime.of(0, 0, 0, 1) }) {
+      final StringBuilder target = new StringBuilder();
+      assertTrue(instance.appendValueToString(time, null, null, 9, null, null, target));
+      assertEquals(time.toString(), target.toString());
+      assertEquals(time, instance.valueOfString(target, 0, target.length(), null, null, 9, null, null,
+          LocalTime.class));
+    }
+    assertEquals(LocalTime.of(11, 12, 13, 12000000),
+        instance.valueOfString("T11:12:13.012", 1, 13, null, null, 3, null, null, LocalTime.class));
+    expectContentErrorInValueOfString(instance, "24:00");
+  }
 }
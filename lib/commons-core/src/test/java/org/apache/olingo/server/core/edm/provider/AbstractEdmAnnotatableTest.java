@@ -21,6 +21,7 @@ package org.apache.olingo.server.core.edm.provider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -84,6 +85,32 @@ public class AbstractEdmAnnotatableTest {
     assertNull(anno.getAnnotation(term, "qualifier"));
   }
   
+  @Test
+  public void annotationsByTermAndQualifier() {
+    final EdmTerm otherTerm = mock(EdmTerm.class);
+    final FullQualifiedName otherName = new FullQualifiedName("namespace", "other");
+    when(otherTerm.getFullQualifiedName()).thenReturn(otherName);
+    when(edm.getTerm(otherName)).thenReturn(otherTerm);
+
+    List<CsdlAnnotation> annotations = new ArrayList<CsdlAnnotation>();
+    annotations.add(new CsdlAnnotation().setTerm("namespace.name").setQualifier("q1"));
+    annotations.add(new CsdlAnnotation().setTerm("namespace.other"));
+    annotations.add(new CsdlAnnotation().setTerm("namespace.name"));
+    annotations.add(new CsdlAnnotation().setTerm("namespace.name").setQualifier("q1"));
+    annotations.add(new CsdlAnnotation().setTerm("namespace.unknown"));
+    CsdlEntityContainer annotatable = new CsdlEntityContainer();
+    annotatable.setAnnotations(annotations);
+    EdmAnnotatable anno = new EdmAnnotatableTester(edm, annotatable);
+
+    assertEquals(5, anno.getAnnotations().size());
+    assertSame(anno.getAnnotations().get(0), anno.getAnnotation(term, "q1"));
+    assertSame(anno.getAnnotations().get(2), anno.getAnnotation(term, null));
+    assertSame(anno.getAnnotations().get(1), anno.getAnnotation(otherTerm, null));
+    assertNull(anno.getAnnotation(otherTerm, "q1"));
+    assertNull(anno.getAnnotation(term, "q2"));
+    assertNull(anno.getAnnotation(null, null));
+  }
+
   private class EdmAnnotatableTester extends AbstractEdmAnnotatable {
     public EdmAnnotatableTester(final Edm edm, final CsdlAnnotatable annotatable) {
       super(edm, annotatable);
@@ -235,6 +235,28 @@ public class EdmEntityTypeImplTest {
     assertEquals("nav2", edmType.getNavigationPropertyNames().get(1));
   }
 
+  @Test
+  public void propertyIndexIncludesBaseType() {
+    assertEquals(0, typeWithBaseType.getPropertyIndex("Id"));
+    assertEquals(1, typeWithBaseType.getPropertyIndex("Name"));
+    assertEquals(2, typeWithBaseType.getPropertyIndex("address"));
+    assertEquals(3, typeWithBaseType.getPropertyIndex("email"));
+    assertEquals(-1, typeWithBaseType.getPropertyIndex("nav1"));
+    assertEquals(-1, typeWithBaseType.getPropertyIndex("unknown"));
+    for (int index = 0; index < typeWithBaseType.getPropertyNames().size(); index++) {
+      final String name = typeWithBaseType.getPropertyNames().get(index);
+      assertEquals(name, typeWithBaseType.getStructuralProperty(index).getName());
+      assertTrue(typeWithBaseType.getStructuralProperty(name) == typeWithBaseType.getStructuralProperty(index));
+    }
+
+    assertEquals(0, typeWithBaseType.getNavigationPropertyIndex("nav1"));
+    assertEquals(1, typeWithBaseType.getNavigationPropertyIndex("nav2"));
+    assertEquals(-1, typeWithBaseType.getNavigationPropertyIndex("Id"));
+    assertEquals(-1, baseType.getNavigationPropertyIndex("nav2"));
+    assertNull(baseType.getNavigationProperty("nav2"));
+    assertEquals("nav2", typeWithBaseType.getNavigationProperty("nav2").getName());
+  }
+
   @Test
   public void hasStream() {
     assertFalse(typeWithBaseType.hasStream());
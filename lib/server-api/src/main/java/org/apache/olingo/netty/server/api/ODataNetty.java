@@ -18,6 +18,8 @@
  */
 package org.apache.olingo.netty.server.api;
 
+import java.util.concurrent.Executor;
+
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -53,4 +55,23 @@ public abstract class ODataNetty extends OData {
    */
   public abstract ODataNettyHandler createNettyHandler(ServiceMetadata serviceMetadata);
 
+  /**
+   * <p>Creates a new ODataNettyHandler which processes streamed requests with the given executor.</p>
+   * <p>Requests passed to
+   * {@link ODataNettyHandler#processNettyRequest(io.netty.handler.codec.http.HttpRequest,
+   * io.netty.channel.ChannelHandlerContext, java.util.Map)} are parsed, processed, and serialized
+   * by a thread of the executor, so that blocking processors do not block the event loop;
+   * the response is written back through the channel's event loop.
+   * If the executor rejects a request, the response has the status "503 Service Unavailable".
+   * Requests received on the same channel are processed one after the other,
+   * so that the responses to pipelined requests are written in the order of the requests.</p>
+   * <p>The default implementation does not support executors and throws an {@link ODataRuntimeException}.</p>
+   *
+   * @param serviceMetadata - metadata object required to handle an OData request
+   * @param executor - executor processing the requests, preferably with a bounded queue
+   */
+  public ODataNettyHandler createNettyHandler(final ServiceMetadata serviceMetadata, final Executor executor) {
+    throw new ODataRuntimeException(getClass().getName() + " does not support processing requests with an executor.");
+  }
+
 }
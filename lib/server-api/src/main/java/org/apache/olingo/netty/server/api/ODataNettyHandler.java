@@ -20,10 +20,20 @@ package org.apache.olingo.netty.server.api;
 
 import java.util.Map;
 
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.processor.Processor;
 
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 
 public interface ODataNettyHandler {
 
@@ -36,12 +46,57 @@ public interface ODataNettyHandler {
    * @param response - HTTP OData response
    */
   void processNettyRequest(HttpRequest request, HttpResponse response, Map<String, String> requestParameters);
+
+  /**
+   * <p>Processes a NettyRequest as an OData request and streams the response to the channel.</p>
+   * <p>In contrast to {@link #processNettyRequest(HttpRequest, HttpResponse, Map)} the response content
+   * is not collected in memory; it is written in chunks, using chunked transfer encoding for HTTP/1.1,
+   * while it is serialized. Chunk buffers are taken from the channel's allocator.
+   * If called outside the event loop, serialization is paused while the channel is not writable.</p>
+   * <p>The default implementation collects the response content with
+   * {@link #processNettyRequest(HttpRequest, HttpResponse, Map)} and writes it as one message.</p>
+   * @param request - must be a HTTP OData request
+   * @param context - context of the channel handler the response is written to
+   * @param requestParameters - the context path and the number of path segments of the service resolution
+   * @return the future of the last write operation; it can be used, e.g., to close the connection
+   */
+  default ChannelFuture processNettyRequest(HttpRequest request, ChannelHandlerContext context,
+      Map<String, String> requestParameters) {
+    final FullHttpResponse response = new DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.OK,
+        context.alloc().buffer());
+    processNettyRequest(request, response, requestParameters);
+    if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
+      HttpUtil.setContentLength(response, response.content().readableBytes());
+    }
+    return context.writeAndFlush(response);
+  }
   
+  /**
+   * <p>Adds the handlers streaming responses need to the pipeline of a new channel.</p>
+   * <p>Call it once when the channel is initialized, after the HTTP codec and before the handler passing
+   * the requests to {@link #processNettyRequest(HttpRequest, ChannelHandlerContext, Map)}.
+   * Without these handlers, response content written in the event loop is kept in memory until
+   * the channel is writable, instead of being read or serialized while the channel is writable.</p>
+   * <p>The default implementation adds no handlers.</p>
+   * @param pipeline - the pipeline of the channel
+   */
+  default void initChannelPipeline(ChannelPipeline pipeline) {
+  }
+
   /**
    * <p>Registers additional custom processor implementations for handling OData requests.</p>
    * <p>If request processing requires a processor that is not registered then a
    * "not implemented" exception will happen.</p>
    */
   void register(Processor processor);
+
+  /**
+   * <p>Registers additional extensions for handling OData requests,
+   * e.g., a {@link org.apache.olingo.server.api.compression.CompressionSupport}.</p>
+   * <p>The default implementation does not support extensions and throws an {@link ODataRuntimeException}.</p>
+   */
+  default void register(OlingoExtension extension) {
+    throw new ODataRuntimeException(getClass().getName() + " does not support extensions.");
+  }
   
 }
@@ -18,7 +18,12 @@
  */
 package org.apache.olingo.server.api;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +36,7 @@ public class ODataRequest {
   private HttpMethod method;
   private HttpHeaders headers = new HttpHeaders();
   private InputStream body;
+  private ByteBuffer bodyBuffer;
   private String rawQueryPath;
   private String rawRequestUri;
   private String rawODataPath;
@@ -122,6 +128,9 @@ public class ODataRequest {
    * @return the request payload as {@link InputStream} or null
    */
   public InputStream getBody() {
+    if (body == null && bodyBuffer != null) {
+      body = new ByteBufferInputStream(bodyBuffer.duplicate());
+    }
     return body;
   }
 
@@ -131,6 +140,42 @@ public class ODataRequest {
    */
   public void setBody(final InputStream body) {
     this.body = body;
+    bodyBuffer = null;
+  }
+
+  /**
+   * <p>Sets the body of the request as buffer, e.g., as view on the memory a server has already received
+   * the payload into.</p>
+   * <p>The payload between the position and the limit of the buffer is neither copied nor modified;
+   * it must stay unchanged until the request has been processed.</p>
+   * @param body the request payload as {@link ByteBuffer}
+   */
+  public void setBody(final ByteBuffer body) {
+    bodyBuffer = body;
+    this.body = null;
+  }
+
+  /**
+   * Gets the body of the request as buffer if the request payload is available in memory.
+   * @return a read-only view on the request payload or null if the payload is only available as stream
+   * @see #setBody(ByteBuffer)
+   */
+  public ByteBuffer getBodyBuffer() {
+    return bodyBuffer == null ? null : bodyBuffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * <p>Gets the body of the request as channel.</p>
+   * <p>If the payload is available in memory, the channel reads it directly from there
+   * and each call returns a new channel reading the whole payload;
+   * otherwise the channel reads from the stream returned by {@link #getBody()}.</p>
+   * @return the request payload as {@link ReadableByteChannel} or null
+   */
+  public ReadableByteChannel getBodyChannel() {
+    if (bodyBuffer != null) {
+      return new ByteBufferChannel(bodyBuffer.duplicate());
+    }
+    return body == null ? null : Channels.newChannel(body);
   }
 
   /**
@@ -230,4 +275,78 @@ public class ODataRequest {
     this.protocol = protocol;
   }
 
+  /** Input stream reading the remaining bytes of a buffer. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(final long n) {
+      final int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  /** Channel reading the remaining bytes of a buffer. */
+  private static final class ByteBufferChannel implements ReadableByteChannel {
+    private final ByteBuffer buffer;
+    private boolean open = true;
+
+    private ByteBufferChannel(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read(final ByteBuffer target) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int count = Math.min(target.remaining(), buffer.remaining());
+      final int limit = buffer.limit();
+      buffer.limit(buffer.position() + count);
+      target.put(buffer);
+      buffer.limit(limit);
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
 }
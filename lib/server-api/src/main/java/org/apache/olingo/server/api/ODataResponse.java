@@ -20,7 +20,10 @@ package org.apache.olingo.server.api;
 
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +35,9 @@ public class ODataResponse {
   private int statusCode = HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
   private final HttpHeaders headers = new HttpHeaders();
   private InputStream content;
+  private FileChannel fileContent;
+  private long fileContentPosition;
+  private long fileContentLength;
 
   /**
    * Sets the status code.
@@ -121,6 +127,7 @@ public class ODataResponse {
    */
   public void setContent(final InputStream content) {
     this.content = content;
+    fileContent = null;
   }
 
   /**
@@ -128,9 +135,53 @@ public class ODataResponse {
    * @return the content as {@link InputStream}
    */
   public InputStream getContent() {
+    if (content == null && fileContent != null) {
+      content = new FileRegionInputStream(fileContent, fileContentPosition, fileContentLength);
+    }
     return content;
   }
 
+  /**
+   * <p>Sets a region of a file as content (body).</p>
+   * <p>Servers transfer the region directly from the file to the connection where possible,
+   * without reading it into memory; the channel is closed after the response has been written.
+   * The region is also the base for partial responses to requests with a <code>Range</code> header.</p>
+   * @param channel the channel of the file
+   * @param position the position of the content in the file
+   * @param length the length of the content in bytes
+   */
+  public void setContent(final FileChannel channel, final long position, final long length) {
+    fileContent = channel;
+    fileContentPosition = position;
+    fileContentLength = length;
+    content = null;
+  }
+
+  /**
+   * Gets the file the content (body) is taken from.
+   * @return the channel of the file or <code>null</code> if the content has not been set as file region
+   * @see #setContent(FileChannel, long, long)
+   */
+  public FileChannel getFileContent() {
+    return fileContent;
+  }
+
+  /**
+   * Gets the position of the content (body) in its file.
+   * @see #setContent(FileChannel, long, long)
+   */
+  public long getFileContentPosition() {
+    return fileContentPosition;
+  }
+
+  /**
+   * Gets the length of the content (body) taken from a file.
+   * @see #setContent(FileChannel, long, long)
+   */
+  public long getFileContentLength() {
+    return fileContentLength;
+  }
+
   private ODataContent odataContent;
 
   public void setODataContent(ODataContent result) {
@@ -140,4 +191,49 @@ public class ODataResponse {
   public ODataContent getODataContent() {
     return odataContent;
   }
+
+  /** Input stream reading a region of a file without changing the position of the file channel. */
+  private static final class FileRegionInputStream extends InputStream {
+    private final FileChannel channel;
+    private long position;
+    private final long end;
+
+    private FileRegionInputStream(final FileChannel channel, final long position, final long length) {
+      this.channel = channel;
+      this.position = position;
+      end = position + length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (position >= end) {
+        return -1;
+      }
+      final int count = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)),
+          position);
+      if (count > 0) {
+        position += count;
+      }
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.compression;
+
+import java.util.zip.Deflater;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Enables the <code>gzip</code> and <code>deflate</code> content encodings.</p>
+ * <p>If registered at the ODataHandler, request bodies with one of these encodings
+ * (given in the <code>Content-Encoding</code> header) are decompressed before they are processed,
+ * and response content is compressed with the encoding preferred by the client
+ * (given in the <code>Accept-Encoding</code> header).</p>
+ * <p>Responses smaller than the minimum size are not compressed; content with unknown length
+ * (streamed content) is always compressed. Responses which already have a content encoding
+ * or a content length, and file content (which is transferred directly from the file) are left unchanged.
+ * Subclasses can exclude further content types by overriding {@link #isCompressible(String)}.</p>
+ * <p>Decompressed request bodies may not exceed a maximum size; reading beyond it fails,
+ * and the request is answered with the status "413 Payload Too Large".</p>
+ */
+public class CompressionSupport implements OlingoExtension {
+
+  /** Default minimum size in bytes of a response to be compressed. */
+  public static final int DEFAULT_MINIMUM_SIZE = 1024;
+
+  /** Default maximum size in bytes of a decompressed request body. */
+  public static final long DEFAULT_MAXIMUM_DECOMPRESSED_SIZE = 64L * 1024 * 1024;
+
+  private final int minimumSize;
+  private final int level;
+  private final long maximumDecompressedSize;
+
+  /** Creates a configuration with the default minimum size and compression level. */
+  public CompressionSupport() {
+    this(DEFAULT_MINIMUM_SIZE, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Creates a configuration.
+   * @param minimumSize minimum size in bytes of a response to be compressed
+   * @param level compression level between 0 and 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   */
+  public CompressionSupport(final int minimumSize, final int level) {
+    this(minimumSize, level, DEFAULT_MAXIMUM_DECOMPRESSED_SIZE);
+  }
+
+  /**
+   * Creates a configuration.
+   * @param minimumSize minimum size in bytes of a response to be compressed
+   * @param level compression level between 0 and 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @param maximumDecompressedSize maximum size in bytes of a decompressed request body
+   */
+  public CompressionSupport(final int minimumSize, final int level, final long maximumDecompressedSize) {
+    if (minimumSize < 0) {
+      throw new IllegalArgumentException("The minimum size must not be negative.");
+    }
+    if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level.");
+    }
+    if (maximumDecompressedSize < 0) {
+      throw new IllegalArgumentException("The maximum decompressed size must not be negative.");
+    }
+    this.minimumSize = minimumSize;
+    this.level = level;
+    this.maximumDecompressedSize = maximumDecompressedSize;
+  }
+
+  /**
+   * Gets the minimum size of a response to be compressed.
+   * @return the size in bytes
+   */
+  public int getMinimumSize() {
+    return minimumSize;
+  }
+
+  /**
+   * Gets the compression level.
+   * @return the level as defined by {@link Deflater}
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets the maximum size of a decompressed request body.
+   * @return the size in bytes
+   */
+  public long getMaximumDecompressedSize() {
+    return maximumDecompressedSize;
+  }
+
+  /**
+   * Determines whether content of the given type is worth compressing.
+   * By default, images, audio, video, and archives are not compressed again.
+   * @param contentType the value of the <code>Content-Type</code> header, or <code>null</code>
+   * @return <code>true</code> if the content should be compressed
+   */
+  public boolean isCompressible(final String contentType) {
+    if (contentType == null) {
+      return true;
+    }
+    try {
+      final ContentType type = ContentType.create(contentType);
+      final String subtype = type.getSubtype().toLowerCase();
+      return !("image".equalsIgnoreCase(type.getType())
+          || "audio".equalsIgnoreCase(type.getType())
+          || "video".equalsIgnoreCase(type.getType())
+          || subtype.equals("zip") || subtype.equals("gzip") || subtype.contains("compressed"))
+          || subtype.startsWith("svg");
+    } catch (final IllegalArgumentException e) {
+      return true;
+    }
+  }
+}
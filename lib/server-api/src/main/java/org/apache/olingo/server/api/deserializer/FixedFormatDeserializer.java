@@ -18,12 +18,16 @@
  */
 package org.apache.olingo.server.api.deserializer;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.edm.EdmParameter;
 import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
@@ -37,6 +41,19 @@ public interface FixedFormatDeserializer {
    */
   public byte[] binary(InputStream content) throws DeserializerException;
 
+  /**
+   * <p>Gets the binary data of a request as channel, e.g., the content of a media entity.</p>
+   * <p>In contrast to {@link #binary(InputStream)}, the data are not collected in memory;
+   * if the server has received the request payload into a buffer, the channel reads directly from it.</p>
+   * @param request the request with the binary data as body
+   * @return the binary data as channel; it is empty if the request has no body
+   * @see ODataRequest#getBodyChannel()
+   */
+  public default ReadableByteChannel binaryChannel(final ODataRequest request) throws DeserializerException {
+    final ReadableByteChannel channel = request.getBodyChannel();
+    return channel == null ? Channels.newChannel(new ByteArrayInputStream(new byte[0])) : channel;
+  }
+
   /**
    * Reads primitive-type data from an InputStream.
    * @param content the textual value as input stream
@@ -18,8 +18,12 @@
  */
 package org.apache.olingo.server.api.etag;
 
+import java.util.List;
+
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.server.api.OlingoExtension;
+import org.apache.olingo.server.api.uri.UriParameter;
 
 /**
  * <p>Processors that would like to support etags for certain entity sets can implement this
@@ -27,6 +31,9 @@ import org.apache.olingo.server.api.OlingoExtension;
  * <p>If implemented this interface can be registered at the ODataHttpHandler. This will result in change request to
  * require an if-match/if-none-match or an if-modified-since/if-unmodified-since header. Otherwise the request will
  * result in a "Precondition Required" response</p>
+ * <p>Implementations which can look up the current etag of an entity by its key alone, e.g., from a
+ * version column, can additionally implement {@link #getETag(EdmBindingTarget, List)}. Conditional
+ * requests are then answered with "Not Modified" or "Precondition Failed" before the processor is called.</p>
  */
 public interface CustomETagSupport extends OlingoExtension {
 
@@ -49,4 +56,47 @@ public interface CustomETagSupport extends OlingoExtension {
    * @return true if the entity set specified needs an if-match/if-none-match header
    */
   boolean hasMediaETag(EdmBindingTarget entitySetOrSingleton);
+
+  /**
+   * <p>Gets the current etag of an entity without loading the entity itself.</p>
+   * <p>This method will be called only for requests with an if-match or if-none-match header which target
+   * an entity of an entity set (addressed by its key) or a singleton, or a property of it,
+   * and only if {@link #hasETag(EdmBindingTarget)} returns true.
+   * If an etag is returned, the preconditions are validated before dispatching: a read request is answered
+   * with "Not Modified" and a failed precondition with "Precondition Failed", without calling the processor.</p>
+   * @param entitySetOrSingleton the entity set or singleton
+   * @param keyPredicates the key predicates of the entity; empty for a singleton
+   * @return the etag including its quotes (and the weak indicator if applicable)
+   *         or <code>null</code> if the validation has to be performed in the processor
+   */
+  default String getETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates) {
+    return null;
+  }
+
+  /**
+   * Gets the current etag of a media entity value without loading the media entity itself.
+   * Analogous to {@link #getETag(EdmBindingTarget, List)} but called for requests to <code>$value</code>
+   * of a media entity, if {@link #hasMediaETag(EdmBindingTarget)} returns true.
+   * @param entitySetOrSingleton the entity set or singleton
+   * @param keyPredicates the key predicates of the entity; empty for a singleton
+   * @return the etag or <code>null</code> if the validation has to be performed in the processor
+   */
+  default String getMediaETag(final EdmBindingTarget entitySetOrSingleton,
+      final List<UriParameter> keyPredicates) {
+    return null;
+  }
+
+  /**
+   * <p>Gets a version token of the content of an entity set.</p>
+   * <p>The token must change whenever an entity of the entity set is created, changed, or deleted.
+   * It is used to build a weak etag for read requests to the entity collection, together with the query
+   * options and the requested format. A matching if-none-match header results in a "Not Modified" response
+   * without calling the processor; successful responses get the weak etag.</p>
+   * @param entitySet the entity set
+   * @return the version token, consisting only of characters allowed in etags
+   *         (no double quotes, no whitespace), or <code>null</code> if not supported
+   */
+  default String getCollectionETag(final EdmEntitySet entitySet) {
+    return null;
+  }
 }
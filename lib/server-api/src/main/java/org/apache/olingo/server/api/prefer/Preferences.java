@@ -56,6 +56,16 @@ public interface Preferences {
    */
   public Integer getMaxPageSize();
 
+  /**
+   * Gets the value of the preference <code>odata.maxpagesize</code> as primitive value.
+   * @param defaultValue the value returned if the preference is not set or an invalid value has been set
+   * @return the page size for server-driven paging
+   */
+  public default int getMaxPageSize(final int defaultValue) {
+    final Integer maxPageSize = getMaxPageSize();
+    return maxPageSize == null ? defaultValue : maxPageSize;
+  }
+
   /** Whether the preference <code>odata.track-changes</code> has been set. */
   public boolean hasTrackChanges();
 
@@ -80,6 +90,17 @@ public interface Preferences {
    */
   public Integer getWait();
 
+  /**
+   * Gets the value of the preference <code>wait</code> as primitive value.
+   * @param defaultValue the value returned if the preference is not set or the value is not valid
+   * @return the number of seconds the client is prepared to wait for the service
+   * to process the request synchronously
+   */
+  public default int getWait(final int defaultValue) {
+    final Integer wait = getWait();
+    return wait == null ? defaultValue : wait;
+  }
+
   /** Generic preference object. */
   public class Preference {
     private final String value;
@@ -19,8 +19,12 @@
 package org.apache.olingo.server.api.processor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
@@ -35,6 +39,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ETagHelper;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.serializer.SerializerResult;
 import org.apache.olingo.server.api.uri.UriInfo;
 
 /**
@@ -42,60 +47,77 @@ import org.apache.olingo.server.api.uri.UriInfo;
  * <ul><li>request for the metadata document</li>
  * <li>request for the service document</li>
  * <li>error handling</li></ul></p>
+ * <p>Metadata and service documents for which the application provides an etag
+ * (see {@link ServiceMetadataETagSupport}) are serialized once and then served from
+ * a {@link SerializedDocumentCache}.</p>
  * <p>This implementation is registered in the ODataHandler by default.
  * The default can be replaced by re-registering a custom implementation.</p>
  */
 public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProcessor, ErrorProcessor {
+  private static final String METADATA = "$metadata";
+  private static final String SERVICE_DOCUMENT = "";
+  private static final String GZIP = "gzip";
+
+  private final boolean useDefaultCache;
+  private SerializedDocumentCache documentCache;
   private OData odata;
   private ServiceMetadata serviceMetadata;
 
+  /**
+   * Creates a processor which caches serialized metadata and service documents with an etag
+   * in the {@link SerializedDocumentCache#getDefault(ServiceMetadata) default cache} of the service.
+   * The default cache stores no gzip-compressed variants
+   * (see {@link SerializedDocumentCache#DEFAULT_COMPRESS}).
+   */
+  public DefaultProcessor() {
+    useDefaultCache = true;
+  }
+
+  /**
+   * Creates a processor which caches serialized metadata and service documents with an etag
+   * in the given cache.
+   * @param documentCache the cache or <code>null</code> to serialize the documents on every request
+   */
+  public DefaultProcessor(final SerializedDocumentCache documentCache) {
+    useDefaultCache = false;
+    this.documentCache = documentCache;
+  }
+
   @Override
   public void init(final OData odata, final ServiceMetadata serviceMetadata) {
     this.odata = odata;
     this.serviceMetadata = serviceMetadata;
+    if (useDefaultCache) {
+      documentCache = SerializedDocumentCache.getDefault(serviceMetadata);
+    }
   }
 
   @Override
   public void readServiceDocument(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
-    boolean isNotModified = false;
     ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
-    if (eTagSupport != null && eTagSupport.getServiceDocumentETag() != null) {
-      // Set application etag at response
-      response.setHeader(HttpHeader.ETAG, eTagSupport.getServiceDocumentETag());
-      // Check if service document has been modified
-      ETagHelper eTagHelper = odata.createETagHelper();
-      isNotModified = eTagHelper.checkReadPreconditions(eTagSupport.getServiceDocumentETag(), request
-          .getHeaders(HttpHeader.IF_MATCH), request.getHeaders(HttpHeader.IF_NONE_MATCH));
-    }
-
-    // Send the correct response
-    if (isNotModified) {
-      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
-    } else {
-      // HTTP HEAD requires no payload but a 200 OK response
-      if (HttpMethod.HEAD == request.getMethod()) {
-        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-      } else {
-        ODataSerializer serializer = odata.createSerializer(requestedContentType);
-        response.setContent(serializer.serviceDocument(serviceMetadata, null).getContent());
-        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-        response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
-      }
-    }
+    readDocument(request, response, requestedContentType, false,
+        eTagSupport == null ? null : eTagSupport.getServiceDocumentETag());
   }
 
   @Override
   public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
-    boolean isNotModified = false;
     ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
-    if (eTagSupport != null && eTagSupport.getMetadataETag() != null) {
+    readDocument(request, response, requestedContentType, true,
+        eTagSupport == null ? null : eTagSupport.getMetadataETag());
+  }
+
+  private void readDocument(final ODataRequest request, final ODataResponse response,
+      final ContentType requestedContentType, final boolean isMetadata, final String eTag)
+      throws ODataLibraryException {
+    boolean isNotModified = false;
+    if (eTag != null) {
       // Set application etag at response
-      response.setHeader(HttpHeader.ETAG, eTagSupport.getMetadataETag());
-      // Check if metadata document has been modified
+      response.setHeader(HttpHeader.ETAG, eTag);
+      // Check if the document has been modified
       ETagHelper eTagHelper = odata.createETagHelper();
-      isNotModified = eTagHelper.checkReadPreconditions(eTagSupport.getMetadataETag(), request
+      isNotModified = eTagHelper.checkReadPreconditions(eTag, request
           .getHeaders(HttpHeader.IF_MATCH), request.getHeaders(HttpHeader.IF_NONE_MATCH));
     }
 
@@ -107,14 +129,74 @@ public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProce
       if (HttpMethod.HEAD == request.getMethod()) {
         response.setStatusCode(HttpStatusCode.OK.getStatusCode());
       } else {
-        ODataSerializer serializer = odata.createSerializer(requestedContentType);
-        response.setContent(serializer.metadataDocument(serviceMetadata).getContent());
+        if (eTag == null || documentCache == null) {
+          response.setContent(serializeDocument(requestedContentType, isMetadata).getContent());
+        } else {
+          // The etag identifies the document, so the serialized bytes can be reused.
+          final String key = SerializedDocumentCache.createKey(isMetadata ? METADATA : SERVICE_DOCUMENT, eTag,
+              request.getRawBaseUri(), requestedContentType.toContentTypeString(),
+              request.getHeader(HttpHeader.ODATA_MAX_VERSION));
+          SerializedDocumentCache.CachedDocument document = documentCache.get(key);
+          if (document == null) {
+            document = documentCache.put(key, toByteArray(serializeDocument(requestedContentType, isMetadata)));
+          }
+          setCachedContent(request, response, document);
+        }
         response.setStatusCode(HttpStatusCode.OK.getStatusCode());
         response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
       }
     }
   }
 
+  private SerializerResult serializeDocument(final ContentType requestedContentType, final boolean isMetadata)
+      throws ODataLibraryException {
+    ODataSerializer serializer = odata.createSerializer(requestedContentType);
+    return isMetadata ?
+        serializer.metadataDocument(serviceMetadata) :
+        serializer.serviceDocument(serviceMetadata, null);
+  }
+
+  private void setCachedContent(final ODataRequest request, final ODataResponse response,
+      final SerializedDocumentCache.CachedDocument document) {
+    if (document.getGzipContent() != null) {
+      response.setHeader(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+      if (acceptsGzip(request.getHeader(HttpHeader.ACCEPT_ENCODING))) {
+        response.setHeader(HttpHeader.CONTENT_ENCODING, GZIP);
+        response.setContent(new ByteArrayInputStream(document.getGzipContent()));
+        return;
+      }
+    }
+    response.setContent(new ByteArrayInputStream(document.getContent()));
+  }
+
+  private static boolean acceptsGzip(final String acceptEncoding) {
+    if (acceptEncoding != null) {
+      for (final String coding : acceptEncoding.split(",")) {
+        final String[] parts = coding.split(";");
+        if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+          return parts.length < 2 || !parts[1].trim().matches("[qQ]\\s*=\\s*0(\\.0*)?");
+        }
+      }
+    }
+    return false;
+  }
+
+  private static byte[] toByteArray(final SerializerResult result) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    InputStream content = result.getContent();
+    byte[] chunk = new byte[8192];
+    try {
+      int count;
+      while ((count = content.read(chunk)) >= 0) {
+        buffer.write(chunk, 0, count);
+      }
+      content.close();
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error reading serialized document", e);
+    }
+    return buffer.toByteArray();
+  }
+
   @Override
   public void processError(final ODataRequest request, final ODataResponse response,
       final ODataServerError serverError,
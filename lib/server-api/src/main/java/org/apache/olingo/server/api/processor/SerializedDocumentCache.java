@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+
+/**
+ * <p>Thread-safe cache for serialized metadata and service documents.</p>
+ * <p>Entries are only stored for documents which carry an application-provided etag
+ * (see {@link org.apache.olingo.server.api.etag.ServiceMetadataETagSupport}); the etag
+ * together with the service root, the content type, and the OData version identifies a
+ * serialized representation. Changing the etag therefore invalidates all cached variants.</p>
+ * <p>The cache is bounded and evicts the least recently used entry.
+ * Optionally a gzip-compressed variant of each document is computed once when it is stored.</p>
+ * <p>The key identifies a service only through the etags and the service root, so services
+ * sharing a cache must not use the same etags for different documents;
+ * {@link #getDefault(ServiceMetadata)} provides a separate cache for each pair of
+ * metadata and service document etags.</p>
+ */
+public class SerializedDocumentCache {
+
+  /** Default maximum number of cached representations. */
+  public static final int DEFAULT_MAX_ENTRIES = 64;
+
+  /**
+   * Whether default caches store a gzip-compressed variant: they do not.
+   * Responses served from a default cache are therefore uncompressed and left to the
+   * compression support of the handler (or of the servlet container).
+   * A cache created with <code>compress</code> set stores the variant, and the {@link DefaultProcessor}
+   * sends it with <code>Content-Encoding: gzip</code> and <code>Vary: Accept-Encoding</code>
+   * to clients accepting gzip.
+   */
+  public static final boolean DEFAULT_COMPRESS = false;
+
+  /** Maximum number of default caches, i.e., of distinct etag pairs. */
+  public static final int DEFAULT_MAX_CACHES = 16;
+
+  /**
+   * Default caches by metadata and service document etag, so that service metadata created
+   * for each request share the cache of their service.
+   */
+  private static final ConcurrentMap<String, SerializedDocumentCache> DEFAULTS =
+      new ConcurrentHashMap<String, SerializedDocumentCache>();
+
+  private final Map<String, CachedDocument> entries;
+  private final boolean compress;
+
+  /**
+   * Creates a cache.
+   * @param maxEntries maximum number of cached representations
+   * @param compress whether a gzip-compressed variant is stored along with each document;
+   * see {@link #DEFAULT_COMPRESS} for how it is served
+   */
+  public SerializedDocumentCache(final int maxEntries, final boolean compress) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("The maximum number of entries must be positive.");
+    }
+    this.compress = compress;
+    entries = new LinkedHashMap<String, CachedDocument>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CachedDocument> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * <p>Gets the default cache of a service, as used by the {@link DefaultProcessor}.</p>
+   * <p>The cache is shared by all service metadata with the same metadata and service document etags.
+   * At most {@link #DEFAULT_MAX_CACHES} default caches are kept; beyond that an arbitrary one is dropped.</p>
+   * @param serviceMetadata the metadata of the service
+   * @return the default cache or <code>null</code> if the service provides no etags,
+   * since only documents with an etag are cached
+   */
+  public static SerializedDocumentCache getDefault(final ServiceMetadata serviceMetadata) {
+    final ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
+    if (eTagSupport == null) {
+      return null;
+    }
+    final String metadataETag = eTagSupport.getMetadataETag();
+    final String serviceDocumentETag = eTagSupport.getServiceDocumentETag();
+    if (metadataETag == null && serviceDocumentETag == null) {
+      return null;
+    }
+    final String key = metadataETag + '\n' + serviceDocumentETag;
+    SerializedDocumentCache cache = DEFAULTS.get(key);
+    if (cache == null) {
+      if (DEFAULTS.size() >= DEFAULT_MAX_CACHES) {
+        final Iterator<String> iterator = DEFAULTS.keySet().iterator();
+        if (iterator.hasNext()) {
+          DEFAULTS.remove(iterator.next());
+        }
+      }
+      final SerializedDocumentCache newCache = new SerializedDocumentCache(DEFAULT_MAX_ENTRIES, DEFAULT_COMPRESS);
+      cache = DEFAULTS.putIfAbsent(key, newCache);
+      if (cache == null) {
+        cache = newCache;
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Builds the key of a serialized document.
+   * @param documentKind kind of the document, e.g., <code>$metadata</code>
+   * @param eTag etag of the document
+   * @param serviceRoot service root URI
+   * @param contentType content type of the serialized document
+   * @param version requested OData version, may be <code>null</code>
+   * @return the key
+   */
+  public static String createKey(final String documentKind, final String eTag, final String serviceRoot,
+      final String contentType, final String version) {
+    return new StringBuilder(documentKind).append('\n').append(eTag)
+        .append('\n').append(serviceRoot)
+        .append('\n').append(contentType)
+        .append('\n').append(version)
+        .toString();
+  }
+
+  /**
+   * Gets a cached document.
+   * @param key the key as created by {@link #createKey(String, String, String, String, String)}
+   * @return the cached document or <code>null</code>
+   */
+  public CachedDocument get(final String key) {
+    synchronized (entries) {
+      return entries.get(key);
+    }
+  }
+
+  /**
+   * Stores a serialized document.
+   * @param key the key as created by {@link #createKey(String, String, String, String, String)}
+   * @param content the serialized document
+   * @return the cached document
+   */
+  public CachedDocument put(final String key, final byte[] content) {
+    final CachedDocument document = new CachedDocument(content, compress ? gzip(content) : null);
+    synchronized (entries) {
+      entries.put(key, document);
+    }
+    return document;
+  }
+
+  /** Removes all cached documents. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Gets the number of cached documents.
+   * @return the number of cached documents
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static byte[] gzip(final byte[] content) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+    try {
+      GZIPOutputStream gzipStream = new GZIPOutputStream(buffer);
+      gzipStream.write(content);
+      gzipStream.close();
+    } catch (final IOException e) {
+      // Cannot happen for in-memory streams; serve the uncompressed document instead.
+      return null;
+    }
+    return buffer.toByteArray();
+  }
+
+  /** Serialized representation of a document, optionally with a gzip-compressed variant. */
+  public static final class CachedDocument {
+    private final byte[] content;
+    private final byte[] gzipContent;
+
+    private CachedDocument(final byte[] content, final byte[] gzipContent) {
+      this.content = content;
+      this.gzipContent = gzipContent;
+    }
+
+    /**
+     * Gets the serialized document.
+     * @return the serialized document; it must not be modified
+     */
+    public byte[] getContent() {
+      return content;
+    }
+
+    /**
+     * Gets the gzip-compressed serialized document.
+     * @return the compressed document (it must not be modified) or <code>null</code> if not available
+     */
+    public byte[] getGzipContent() {
+      return gzipContent;
+    }
+  }
+}
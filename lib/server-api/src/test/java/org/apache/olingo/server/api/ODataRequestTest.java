@@ -19,7 +19,13 @@
 package org.apache.olingo.server.api;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 
 import org.junit.Test;
@@ -67,4 +73,49 @@ public class ODataRequestTest {
     assertEquals("b", r.getHeaders("aA").get(1));
     assertEquals("c", r.getHeaders("aA").get(2));
   }
+
+  @Test
+  public void bodyBuffer() throws Exception {
+    ODataRequest r = new ODataRequest();
+    final ByteBuffer payload = ByteBuffer.wrap(new byte[] { 'x', 'A', 'B', 'C', 'y' }, 1, 3);
+    r.setBody(payload);
+
+    final ByteBuffer buffer = r.getBodyBuffer();
+    assertTrue(buffer.isReadOnly());
+    assertEquals(3, buffer.remaining());
+    assertEquals('A', buffer.get(1));
+
+    ReadableByteChannel channel = r.getBodyChannel();
+    ByteBuffer target = ByteBuffer.allocate(2);
+    assertEquals(2, channel.read(target));
+    assertEquals('B', target.get(1));
+    target.clear();
+    assertEquals(1, channel.read(target));
+    assertEquals('C', target.get(0));
+    assertEquals(-1, channel.read(target));
+
+    final InputStream stream = r.getBody();
+    assertEquals(3, stream.available());
+    byte[] bytes = new byte[5];
+    assertEquals(3, stream.read(bytes));
+    assertEquals('C', bytes[2]);
+    assertEquals(-1, stream.read());
+
+    // The views do not change the original buffer.
+    assertEquals(1, payload.position());
+    assertEquals(3, payload.remaining());
+  }
+
+  @Test
+  public void bodyStream() throws Exception {
+    ODataRequest r = new ODataRequest();
+    assertNull(r.getBodyChannel());
+    r.setBody(ByteBuffer.allocate(1));
+    r.setBody(new ByteArrayInputStream(new byte[] { 'A' }));
+    assertNull(r.getBodyBuffer());
+
+    ByteBuffer target = ByteBuffer.allocate(2);
+    assertEquals(1, r.getBodyChannel().read(target));
+    assertEquals('A', target.get(0));
+  }
 }
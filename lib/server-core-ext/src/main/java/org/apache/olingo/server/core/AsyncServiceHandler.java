@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.core.requests.ActionRequest;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.requests.FunctionRequest;
+import org.apache.olingo.server.core.requests.MediaRequest;
+import org.apache.olingo.server.core.requests.MetadataRequest;
+import org.apache.olingo.server.core.requests.ServiceDocumentRequest;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.MetadataResponse;
+import org.apache.olingo.server.core.responses.NoContentResponse;
+import org.apache.olingo.server.core.responses.PropertyResponse;
+import org.apache.olingo.server.core.responses.ServiceDocumentResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.apache.olingo.server.core.responses.StreamResponse;
+
+/**
+ * Asynchronous variant of the {@link ServiceHandler}. Each operation returns a {@link CompletionStage}
+ * that completes once the response object has been written, so that no thread needs to wait while
+ * the service calls its backend. The response is sent to the client when the stage completes;
+ * if it completes exceptionally, the error is written the same way as an exception thrown by a
+ * {@link ServiceHandler}.
+ * <p>Register an implementation with {@link OData4HttpHandler#register(Processor)}. The servlet must
+ * support asynchronous processing; otherwise the calling thread waits for the stage.
+ * Requests in a batch are processed one after another, each waiting for the previous one.</p>
+ * @see ServiceHandler for the semantics of the operations
+ */
+public interface AsyncServiceHandler extends Processor {
+
+  /**
+   * Read CSDL document of the Service
+   * @param request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> readMetadata(MetadataRequest request, MetadataResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Read ServiceDocument of the service
+   * @param request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> readServiceDocument(ServiceDocumentRequest request, ServiceDocumentResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Read operation for EntitySets, Entities, Properties, Media etc.
+   * @param request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#read(DataRequest, ServiceResponse)
+   */
+  <T extends ServiceResponse> CompletionStage<Void> read(DataRequest request, T response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Create new entity in the service based on the entity object provided
+   * @param request
+   * @param entity
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> createEntity(DataRequest request, Entity entity, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update the entity object.
+   * @param request
+   * @param entity
+   * @param merge - true if merge operation, false it needs to be replaced
+   * @param entityETag - previous entity tag if provided by the user. "*" means allow.
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> updateEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update or create the entity object.
+   * @param request
+   * @param entity - Entity to create or update
+   * @param merge - in the case of update, true to do merge operation with current entity,
+   * false the entity needs to be replaced
+   * @param entityETag - previous entity tag if provided by the user. "*" means allow.
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#upsertEntity(DataRequest, Entity, boolean, String, EntityResponse)
+   */
+  CompletionStage<Void> upsertEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Delete the Entity
+   * @param request
+   * @param entityETag - entity tag to match, if provided by the user. "*" means allow
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> deleteEntity(DataRequest request, String entityETag, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update a non-media/stream property.
+   * @param request
+   * @param property - Updated property.
+   * @param rawValue - $value based call, where property value provided is in byte[] format.
+   * @param merge - if the property is complex, true here means merge, false is replace
+   * @param entityETag - entity tag to match before update operation, "*" allows all.
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#updateProperty(DataRequest, Property, boolean, boolean, String, PropertyResponse)
+   */
+  CompletionStage<Void> updateProperty(DataRequest request, Property property, boolean rawValue,
+      boolean merge, String entityETag, PropertyResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update Stream property, if StreamContent is null, it should treated as delete request
+   * @param request
+   * @param entityETag - entity tag to match before update operation, "*" allows all.
+   * @param streamContent - updated stream content
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> upsertStreamProperty(DataRequest request, String entityETag, InputStream streamContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Invocation of a Function. The response object will be based on metadata defined for service
+   * @param request
+   * @param method
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  <T extends ServiceResponse> CompletionStage<Void> invoke(FunctionRequest request, HttpMethod method,
+      T response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Invocation of an Action. The response object will be based on metadata defined for service
+   * @param request
+   * @param eTag
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  <T extends ServiceResponse> CompletionStage<Void> invoke(ActionRequest request, String eTag, T response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Read media stream content of a Entity
+   * @param request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> readMediaStream(MediaRequest request, StreamResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update of Media Stream Content of a Entity. If the mediaContent is null it should be treated
+   * as delete request.
+   * @param request
+   * @param entityETag - entity etag to match before update operation, "*" allows all.
+   * @param mediaContent - if null, must be treated as delete request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> upsertMediaStream(MediaRequest request, String entityETag, InputStream mediaContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Any Unsupported one will be directed here.
+   * @param request
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> anyUnsupported(ODataRequest request, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Add references (relationships) to Entity. This is always on collection valued navigation property
+   * @param request
+   * @param entityETag - entity etag to match before add operation, "*" allows all.
+   * @param referenceId - references to add
+   * @param response - return always should be 204
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> addReference(DataRequest request, String entityETag, URI referenceId,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update references (relationships) in an Entity; This is always against single valued navigation property
+   * @param request
+   * @param entityETag
+   * @param referenceId
+   * @param response - always should be 204
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> updateReference(DataRequest request, String entityETag, URI referenceId,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Delete references (relationships) in an Entity
+   * @param request
+   * @param deleteId for collection valued navigation this will be non-null value;
+   *                 for single valued navigation property, this will be null
+   * @param entityETag
+   * @param response - always should be 204
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> deleteReference(DataRequest request, URI deleteId, String entityETag,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * During a batch operation, this method starts the transaction (if any) before any operation is handled
+   * by the service. No nested transactions.
+   * @return stage completed with a unique transaction id that references a atomic operation.
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<String> startTransaction() throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * When a batch operation is complete and all the intermediate service requests are successful, then
+   * commit is called with transaction id returned in the startTransaction method.
+   * @param txnId
+   * @return stage completed when the transaction is committed
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> commit(String txnId) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * When a batch operation is in-complete due to an error in the middle of changeset, then rollback is
+   * called with transaction id, that returned from startTransaction method.
+   * @param txnId
+   * @return stage completed when the transaction is rolled back
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> rollback(String txnId) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Cross join between two entities.
+   * @param dataRequest
+   * @param entitySetNames
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> crossJoin(DataRequest dataRequest, List<String> entitySetNames, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * @return true if snapshot isolation is supported
+   * @see ServiceHandler#supportsDataIsolation()
+   */
+  boolean supportsDataIsolation();
+
+  /**
+   * Handle errors generated by the framework as well as the service specific errors.
+   * It is called synchronously, also for errors of a stage that completed exceptionally.
+   * @param error
+   * @param response
+   */
+  void processError(ODataServerError error, ErrorResponse response);
+
+  /**
+   * Apply request
+   *
+   * @param dataRequest
+   * @param response
+   * @return stage completed when the response is written
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   */
+  CompletionStage<Void> apply(DataRequest dataRequest, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException;
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.requests.ActionRequest;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.requests.FunctionRequest;
+import org.apache.olingo.server.core.requests.MediaRequest;
+import org.apache.olingo.server.core.requests.MetadataRequest;
+import org.apache.olingo.server.core.requests.ServiceDocumentRequest;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.MetadataResponse;
+import org.apache.olingo.server.core.responses.NoContentResponse;
+import org.apache.olingo.server.core.responses.PropertyResponse;
+import org.apache.olingo.server.core.responses.ServiceDocumentResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.apache.olingo.server.core.responses.StreamResponse;
+
+/**
+ * Presents an {@link AsyncServiceHandler} as {@link ServiceHandler} to the request processing.
+ * The stage returned by the asynchronous handler is kept until the {@link ServiceDispatcher}
+ * takes it, instead of waiting for it; every request calls the handler as its last step.
+ * Batch transactions are waited for, since the batch parts are processed one after another.
+ * An adapter holds the state of one request and must not be shared between requests.
+ */
+final class AsyncServiceHandlerAdapter implements ServiceHandler {
+  private final AsyncServiceHandler handler;
+  private CompletionStage<Void> pending;
+
+  AsyncServiceHandlerAdapter(AsyncServiceHandler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Takes the stage of the last handler call.
+   * @return the stage or <code>null</code> if the handler has not been called since the last call of this method
+   */
+  CompletionStage<Void> takePending() {
+    CompletionStage<Void> stage = this.pending;
+    this.pending = null;
+    return stage;
+  }
+
+  /**
+   * Gets the exception a stage has been completed with.
+   * @param error the error passed to the dependent stage
+   * @return the original exception
+   */
+  static Throwable unwrap(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private void defer(CompletionStage<Void> stage) {
+    this.pending = stage;
+  }
+
+  private static <T> T await(CompletionStage<T> stage) throws ODataLibraryException, ODataApplicationException {
+    try {
+      return stage.toCompletableFuture().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(),
+          Locale.getDefault(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof ODataLibraryException) {
+        throw (ODataLibraryException) cause;
+      } else if (cause instanceof ODataApplicationException) {
+        throw (ODataApplicationException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ODataApplicationException(cause.getMessage(),
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.getDefault(), cause);
+    }
+  }
+
+  @Override
+  public void init(OData odata, ServiceMetadata serviceMetadata) {
+    this.handler.init(odata, serviceMetadata);
+  }
+
+  @Override
+  public void readMetadata(MetadataRequest request, MetadataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.readMetadata(request, response));
+  }
+
+  @Override
+  public void readServiceDocument(ServiceDocumentRequest request, ServiceDocumentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.readServiceDocument(request, response));
+  }
+
+  @Override
+  public <T extends ServiceResponse> void read(DataRequest request, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.read(request, response));
+  }
+
+  @Override
+  public void createEntity(DataRequest request, Entity entity, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.createEntity(request, entity, response));
+  }
+
+  @Override
+  public void updateEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.updateEntity(request, entity, merge, entityETag, response));
+  }
+
+  @Override
+  public void upsertEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.upsertEntity(request, entity, merge, entityETag, response));
+  }
+
+  @Override
+  public void deleteEntity(DataRequest request, String entityETag, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.deleteEntity(request, entityETag, response));
+  }
+
+  @Override
+  public void updateProperty(DataRequest request, Property property, boolean rawValue, boolean merge,
+      String entityETag, PropertyResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.updateProperty(request, property, rawValue, merge, entityETag, response));
+  }
+
+  @Override
+  public void upsertStreamProperty(DataRequest request, String entityETag, InputStream streamContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.upsertStreamProperty(request, entityETag, streamContent, response));
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(FunctionRequest request, HttpMethod method, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.invoke(request, method, response));
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(ActionRequest request, String eTag, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.invoke(request, eTag, response));
+  }
+
+  @Override
+  public void readMediaStream(MediaRequest request, StreamResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.readMediaStream(request, response));
+  }
+
+  @Override
+  public void upsertMediaStream(MediaRequest request, String entityETag, InputStream mediaContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.upsertMediaStream(request, entityETag, mediaContent, response));
+  }
+
+  @Override
+  public void anyUnsupported(ODataRequest request, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.anyUnsupported(request, response));
+  }
+
+  @Override
+  public void addReference(DataRequest request, String entityETag, URI referenceId, NoContentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.addReference(request, entityETag, referenceId, response));
+  }
+
+  @Override
+  public void updateReference(DataRequest request, String entityETag, URI referenceId,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.updateReference(request, entityETag, referenceId, response));
+  }
+
+  @Override
+  public void deleteReference(DataRequest request, URI deleteId, String entityETag, NoContentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.deleteReference(request, deleteId, entityETag, response));
+  }
+
+  @Override
+  public String startTransaction() throws ODataLibraryException, ODataApplicationException {
+    return await(this.handler.startTransaction());
+  }
+
+  @Override
+  public void commit(String txnId) throws ODataLibraryException, ODataApplicationException {
+    await(this.handler.commit(txnId));
+  }
+
+  @Override
+  public void rollback(String txnId) throws ODataLibraryException, ODataApplicationException {
+    await(this.handler.rollback(txnId));
+  }
+
+  @Override
+  public void crossJoin(DataRequest dataRequest, List<String> entitySetNames, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.crossJoin(dataRequest, entitySetNames, response));
+  }
+
+  @Override
+  public boolean supportsDataIsolation() {
+    return this.handler.supportsDataIsolation();
+  }
+
+  @Override
+  public void processError(ODataServerError error, ErrorResponse response) {
+    this.handler.processError(error, response);
+  }
+
+  @Override
+  public void apply(DataRequest dataRequest, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    defer(this.handler.apply(dataRequest, response));
+  }
+}
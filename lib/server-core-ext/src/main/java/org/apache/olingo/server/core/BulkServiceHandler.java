@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.EntityResponse;
+
+/**
+ * Service handler that modifies several entities of one entity set in one call. In a change set of a
+ * batch request, consecutive creates, updates (with If-Match), or deletes of entities of the same entity
+ * set are collected and handed to one of these methods instead of the per-entity methods of the
+ * {@link ServiceHandler}. A request that references the Content-ID of an earlier request, and any other
+ * kind of request, ends the collection; the collected requests are executed before it.
+ * <p>The lists passed to a method have the same size; the i-th entity and response belong to the i-th
+ * request. Each response must be written as by the corresponding per-entity method. An exception fails
+ * the change set with the first of the collected requests.</p>
+ */
+public interface BulkServiceHandler extends ServiceHandler {
+
+  /**
+   * Create new entities in the service
+   * @param requests - requests of the change set, all to the same entity set
+   * @param entities - entities to create
+   * @param responses
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#createEntity(DataRequest, Entity, EntityResponse)
+   */
+  void createEntities(List<DataRequest> requests, List<Entity> entities, List<EntityResponse> responses)
+      throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Update entities. The entity tag to match is available from {@link DataRequest#getETag()}.
+   * @param requests - requests of the change set, all to the same entity set
+   * @param entities - updated entities
+   * @param merge - true if merge operation, false the entities need to be replaced
+   * @param responses
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#updateEntity(DataRequest, Entity, boolean, String, EntityResponse)
+   */
+  void updateEntities(List<DataRequest> requests, List<Entity> entities, boolean merge,
+      List<EntityResponse> responses) throws ODataLibraryException, ODataApplicationException;
+
+  /**
+   * Delete entities. The entity tag to match is available from {@link DataRequest#getETag()}.
+   * @param requests - requests of the change set, all to the same entity set
+   * @param responses
+   * @throws ODataLibraryException
+   * @throws ODataApplicationException
+   * @see ServiceHandler#deleteEntity(DataRequest, String, EntityResponse)
+   */
+  void deleteEntities(List<DataRequest> requests, List<EntityResponse> responses)
+      throws ODataLibraryException, ODataApplicationException;
+}
@@ -0,0 +1,1285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.geo.Geospatial.Dimension;
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotations;
+import org.apache.olingo.commons.api.edm.provider.CsdlBindingTarget;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlMapping;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDelete;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDeleteAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlOperation;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlReferentialConstraint;
+import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
+import org.apache.olingo.commons.api.edm.provider.CsdlStructuralType;
+import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
+import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlAnnotationPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlApply;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCast;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression.ConstantExpressionType;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlIf;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlIsOf;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElement;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElementReference;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLogicalOrComparisonExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLogicalOrComparisonExpression.LogicalOrComparisonExpressionType;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNavigationPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNull;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyValue;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlRecord;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlUrlRef;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.edmx.EdmxReferenceInclude;
+import org.apache.olingo.commons.api.edmx.EdmxReferenceIncludeAnnotation;
+import org.apache.olingo.commons.api.ex.ODataException;
+
+/**
+ * <p>Compact binary snapshot of the CSDL schemas of an EDM provider.</p>
+ * <p>A snapshot is written once, e.g., at build time with {@link #main(String[])}, and loaded at
+ * startup instead of parsing the metadata document or building the schemas again. It contains the
+ * schemas including their annotations; for a {@link SchemaBasedEdmProvider} also the references and
+ * the referenced and vocabulary schemas. Java classes set with
+ * {@link CsdlMapping#setMappedJavaClass(Class)} are not part of a snapshot.</p>
+ * <p>Each string is stored once in a string table, numbers are stored as variable-length integers.
+ * Snapshots are only readable by the same format version.</p>
+ */
+public final class EdmSnapshot {
+
+  private static final int MAGIC = 0x4F45444D; // "OEDM"
+  private static final int VERSION = 1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // kinds of expressions
+  private static final int NO_EXPRESSION = 0;
+  private static final int CONSTANT = 1;
+  private static final int ANNOTATION_PATH = 2;
+  private static final int NAVIGATION_PROPERTY_PATH = 3;
+  private static final int PATH = 4;
+  private static final int PROPERTY_PATH = 5;
+  private static final int LABELED_ELEMENT_REFERENCE = 6;
+  private static final int APPLY = 7;
+  private static final int CAST = 8;
+  private static final int COLLECTION = 9;
+  private static final int IF = 10;
+  private static final int IS_OF = 11;
+  private static final int LABELED_ELEMENT = 12;
+  private static final int LOGICAL_OR_COMPARISON = 13;
+  private static final int NULL = 14;
+  private static final int RECORD = 15;
+  private static final int URL_REF = 16;
+
+  private EdmSnapshot() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Writes the snapshot of a provider.
+   * @param provider the provider
+   * @param out the stream the snapshot is written to; it is not closed
+   * @throws IOException if the snapshot cannot be written
+   * @throws ODataException if the provider fails to provide its schemas
+   */
+  public static void write(final CsdlEdmProvider provider, final OutputStream out)
+      throws IOException, ODataException {
+    new Writer().write(provider, out);
+  }
+
+  /**
+   * Writes the snapshot of a provider into a file.
+   * @param provider the provider
+   * @param file the file; an existing file is overwritten
+   * @throws IOException if the snapshot cannot be written
+   * @throws ODataException if the provider fails to provide its schemas
+   */
+  public static void write(final CsdlEdmProvider provider, final Path file) throws IOException, ODataException {
+    final OutputStream out = Files.newOutputStream(file);
+    try {
+      write(provider, out);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Reads a snapshot from a file; the file is mapped into memory while it is read.
+   * @param file the file
+   * @return the provider
+   * @throws IOException if the file cannot be read or does not contain a valid snapshot
+   */
+  public static SchemaBasedEdmProvider read(final Path file) throws IOException {
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Reads a snapshot.
+   * @param buffer the buffer positioned at the start of the snapshot
+   * @return the provider
+   * @throws IOException if the buffer does not contain a valid snapshot
+   */
+  public static SchemaBasedEdmProvider read(final ByteBuffer buffer) throws IOException {
+    try {
+      return new SnapshotReader(buffer).read();
+    } catch (final BufferUnderflowException e) {
+      throw new IOException("The EDM snapshot is truncated.", e);
+    } catch (final IllegalArgumentException e) {
+      throw new IOException("The EDM snapshot is invalid.", e);
+    }
+  }
+
+  /**
+   * Parses a metadata document and writes its snapshot, e.g., as a build step.
+   * <p>Arguments: <code>[-annotations] [-coreVocabularies] &lt;metadata document&gt; &lt;snapshot file&gt;</code>;
+   * <code>-annotations</code> keeps the annotations, <code>-coreVocabularies</code> includes the
+   * core vocabularies even if they are not referenced.</p>
+   * @param args the arguments
+   * @throws Exception if the document cannot be parsed or the snapshot cannot be written
+   */
+  public static void main(final String[] args) throws Exception {
+    final MetadataParser parser = new MetadataParser();
+    final List<String> files = new ArrayList<>();
+    for (final String arg : args) {
+      if ("-annotations".equals(arg)) {
+        parser.parseAnnotations(true);
+      } else if ("-coreVocabularies".equals(arg)) {
+        parser.implicitlyLoadCoreVocabularies(true);
+      } else {
+        files.add(arg);
+      }
+    }
+    if (files.size() != 2) {
+      throw new IllegalArgumentException(
+          "Usage: EdmSnapshot [-annotations] [-coreVocabularies] <metadata document> <snapshot file>");
+    }
+    write(parse(parser, files.get(0)), Paths.get(files.get(1)));
+  }
+
+  private static SchemaBasedEdmProvider parse(final MetadataParser parser, final String file)
+      throws IOException, XMLStreamException {
+    final Reader reader = new FileReader(file);
+    try {
+      return parser.buildEdmProvider(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static final class Writer {
+    private final Buffer body = new Buffer();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<SchemaBasedEdmProvider, Integer> providerIndexes = new IdentityHashMap<>();
+    private final List<SchemaBasedEdmProvider> providers = new ArrayList<>();
+
+    void write(final CsdlEdmProvider provider, final OutputStream out) throws IOException, ODataException {
+      if (provider instanceof SchemaBasedEdmProvider) {
+        collect((SchemaBasedEdmProvider) provider);
+        body.writeCount(providers.size());
+        for (final SchemaBasedEdmProvider schemaProvider : providers) {
+          writeProvider(schemaProvider);
+        }
+      } else {
+        body.writeCount(1);
+        writeGenericProvider(provider);
+      }
+
+      final Buffer header = new Buffer();
+      header.writeFixedInt(MAGIC);
+      header.writeFixedInt(VERSION);
+      header.writeCount(strings.size());
+      for (final String string : strings) {
+        final byte[] bytes = string.getBytes(UTF_8);
+        header.writeCount(bytes.length);
+        header.write(bytes, 0, bytes.length);
+      }
+      header.writeTo(out);
+      body.writeTo(out);
+    }
+
+    private void collect(final SchemaBasedEdmProvider provider) {
+      if (!providerIndexes.containsKey(provider)) {
+        providerIndexes.put(provider, providers.size());
+        providers.add(provider);
+        for (final SchemaBasedEdmProvider referenced : provider.getReferenceSchemas().values()) {
+          collect(referenced);
+        }
+        for (final SchemaBasedEdmProvider vocabulary : provider.getVocabularySchemas().values()) {
+          collect(vocabulary);
+        }
+      }
+    }
+
+    private void writeProvider(final SchemaBasedEdmProvider provider) throws ODataException {
+      final List<CsdlSchema> schemas = provider.getSchemas();
+      body.writeCount(schemas.size());
+      for (final CsdlSchema schema : schemas) {
+        writeSchema(schema, schema.getEntityContainer());
+      }
+      final List<EdmxReference> references = provider.getReferences();
+      body.writeCount(references.size());
+      for (final EdmxReference reference : references) {
+        writeReference(reference);
+      }
+      writeProviders(provider.getReferenceSchemas());
+      writeProviders(provider.getVocabularySchemas());
+    }
+
+    private void writeGenericProvider(final CsdlEdmProvider provider) throws ODataException {
+      final List<CsdlSchema> schemas = provider.getSchemas();
+      final CsdlEntityContainerInfo containerInfo = provider.getEntityContainerInfo(null);
+      final FullQualifiedName containerName = containerInfo == null ? null : containerInfo.getContainerName();
+      body.writeCount(schemas == null ? 0 : schemas.size());
+      if (schemas != null) {
+        for (final CsdlSchema schema : schemas) {
+          // Generic providers might only provide the entity container on its own.
+          writeSchema(schema, schema.getEntityContainer() == null && containerName != null
+              && containerName.getNamespace().equals(schema.getNamespace()) ?
+                  provider.getEntityContainer() :
+                  schema.getEntityContainer());
+        }
+      }
+      body.writeCount(0);
+      body.writeCount(0);
+      body.writeCount(0);
+    }
+
+    private void writeProviders(final Map<String, SchemaBasedEdmProvider> providersByNamespace) {
+      body.writeCount(providersByNamespace.size());
+      for (final Map.Entry<String, SchemaBasedEdmProvider> entry : providersByNamespace.entrySet()) {
+        writeString(entry.getKey());
+        body.writeCount(providerIndexes.get(entry.getValue()));
+      }
+    }
+
+    private void writeReference(final EdmxReference reference) {
+      writeString(reference.getUri().toString());
+      body.writeCount(reference.getIncludes().size());
+      for (final EdmxReferenceInclude include : reference.getIncludes()) {
+        writeString(include.getNamespace());
+        writeString(include.getAlias());
+      }
+      body.writeCount(reference.getIncludeAnnotations().size());
+      for (final EdmxReferenceIncludeAnnotation includeAnnotation : reference.getIncludeAnnotations()) {
+        writeString(includeAnnotation.getTermNamespace());
+        writeString(includeAnnotation.getQualifier());
+        writeString(includeAnnotation.getTargetNamespace());
+      }
+      writeAnnotations(reference.getAnnotations());
+    }
+
+    private void writeSchema(final CsdlSchema schema, final CsdlEntityContainer container) {
+      writeString(schema.getNamespace());
+      writeString(schema.getAlias());
+      writeCount(schema.getEnumTypes());
+      if (schema.getEnumTypes() != null) {
+        for (final CsdlEnumType enumType : schema.getEnumTypes()) {
+          writeEnumType(enumType);
+        }
+      }
+      writeCount(schema.getTypeDefinitions());
+      if (schema.getTypeDefinitions() != null) {
+        for (final CsdlTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+          writeTypeDefinition(typeDefinition);
+        }
+      }
+      writeCount(schema.getEntityTypes());
+      if (schema.getEntityTypes() != null) {
+        for (final CsdlEntityType entityType : schema.getEntityTypes()) {
+          writeEntityType(entityType);
+        }
+      }
+      writeCount(schema.getComplexTypes());
+      if (schema.getComplexTypes() != null) {
+        for (final CsdlComplexType complexType : schema.getComplexTypes()) {
+          writeStructuralType(complexType);
+        }
+      }
+      writeCount(schema.getActions());
+      if (schema.getActions() != null) {
+        for (final CsdlAction action : schema.getActions()) {
+          writeOperation(action);
+        }
+      }
+      writeCount(schema.getFunctions());
+      if (schema.getFunctions() != null) {
+        for (final CsdlFunction function : schema.getFunctions()) {
+          writeOperation(function);
+          body.writeBoolean(function.isComposable());
+        }
+      }
+      writeCount(schema.getTerms());
+      if (schema.getTerms() != null) {
+        for (final CsdlTerm term : schema.getTerms()) {
+          writeTerm(term);
+        }
+      }
+      body.writeBoolean(container != null);
+      if (container != null) {
+        writeEntityContainer(container);
+      }
+      writeCount(schema.getAnnotationGroups());
+      if (schema.getAnnotationGroups() != null) {
+        for (final CsdlAnnotations group : schema.getAnnotationGroups()) {
+          writeString(group.getTarget());
+          writeString(group.getQualifier());
+          writeAnnotations(group.getAnnotations());
+        }
+      }
+      writeAnnotations(schema.getAnnotations());
+    }
+
+    private void writeEnumType(final CsdlEnumType enumType) {
+      writeString(enumType.getName());
+      body.writeBoolean(enumType.isFlags());
+      writeString(enumType.getUnderlyingType());
+      writeCount(enumType.getMembers());
+      if (enumType.getMembers() != null) {
+        for (final CsdlEnumMember member : enumType.getMembers()) {
+          writeString(member.getName());
+          writeString(member.getValue());
+          writeAnnotations(member.getAnnotations());
+        }
+      }
+      writeAnnotations(enumType.getAnnotations());
+    }
+
+    private void writeTypeDefinition(final CsdlTypeDefinition typeDefinition) {
+      writeString(typeDefinition.getName());
+      writeString(typeDefinition.getUnderlyingType());
+      body.writeInteger(typeDefinition.getMaxLength());
+      body.writeInteger(typeDefinition.getPrecision());
+      body.writeInteger(typeDefinition.getScale());
+      body.writeBoolean(typeDefinition.isUnicode());
+      writeSrid(typeDefinition.getSrid());
+      writeAnnotations(typeDefinition.getAnnotations());
+    }
+
+    private void writeEntityType(final CsdlEntityType entityType) {
+      writeStructuralType(entityType);
+      body.writeBoolean(entityType.hasStream());
+      writeCount(entityType.getKey());
+      if (entityType.getKey() != null) {
+        for (final CsdlPropertyRef propertyRef : entityType.getKey()) {
+          writeString(propertyRef.getName());
+          writeString(propertyRef.getAlias());
+        }
+      }
+    }
+
+    private void writeStructuralType(final CsdlStructuralType type) {
+      writeString(type.getName());
+      body.writeBoolean(type.isOpenType());
+      writeString(type.getBaseType());
+      body.writeBoolean(type.isAbstract());
+      writeCount(type.getProperties());
+      if (type.getProperties() != null) {
+        for (final CsdlProperty property : type.getProperties()) {
+          writeProperty(property);
+        }
+      }
+      writeCount(type.getNavigationProperties());
+      if (type.getNavigationProperties() != null) {
+        for (final CsdlNavigationProperty navigationProperty : type.getNavigationProperties()) {
+          writeNavigationProperty(navigationProperty);
+        }
+      }
+      writeAnnotations(type.getAnnotations());
+    }
+
+    private void writeProperty(final CsdlProperty property) {
+      writeString(property.getName());
+      writeString(property.getType());
+      body.writeBoolean(property.isCollection());
+      writeString(property.getMimeType());
+      writeMapping(property.getMapping());
+      writeString(property.getDefaultValue());
+      body.writeBoolean(property.isNullable());
+      body.writeInteger(property.getMaxLength());
+      body.writeInteger(property.getPrecision());
+      body.writeInteger(property.getScale());
+      writeString(property.getScaleAsString());
+      body.writeBoolean(property.isUnicode());
+      writeSrid(property.getSrid());
+      writeAnnotations(property.getAnnotations());
+    }
+
+    private void writeNavigationProperty(final CsdlNavigationProperty navigationProperty) {
+      writeString(navigationProperty.getName());
+      writeString(navigationProperty.getType());
+      body.writeBoolean(navigationProperty.isCollection());
+      writeString(navigationProperty.getPartner());
+      body.writeBoolean(navigationProperty.isContainsTarget());
+      writeCount(navigationProperty.getReferentialConstraints());
+      if (navigationProperty.getReferentialConstraints() != null) {
+        for (final CsdlReferentialConstraint constraint : navigationProperty.getReferentialConstraints()) {
+          writeString(constraint.getProperty());
+          writeString(constraint.getReferencedProperty());
+          writeAnnotations(constraint.getAnnotations());
+        }
+      }
+      final Boolean nullable = navigationProperty.isNullable();
+      body.writeCount(nullable == null ? 0 : nullable ? 1 : 2);
+      final CsdlOnDelete onDelete = navigationProperty.getOnDelete();
+      body.writeBoolean(onDelete != null);
+      if (onDelete != null) {
+        writeString(onDelete.getAction() == null ? null : onDelete.getAction().name());
+        writeAnnotations(onDelete.getAnnotations());
+      }
+      writeAnnotations(navigationProperty.getAnnotations());
+    }
+
+    private void writeOperation(final CsdlOperation operation) {
+      writeString(operation.getName());
+      body.writeBoolean(operation.isBound());
+      writeString(operation.getEntitySetPath());
+      writeCount(operation.getParameters());
+      if (operation.getParameters() != null) {
+        for (final CsdlParameter parameter : operation.getParameters()) {
+          writeString(parameter.getName());
+          writeString(parameter.getType());
+          body.writeBoolean(parameter.isCollection());
+          writeMapping(parameter.getMapping());
+          body.writeBoolean(parameter.isNullable());
+          body.writeInteger(parameter.getMaxLength());
+          body.writeInteger(parameter.getPrecision());
+          body.writeInteger(parameter.getScale());
+          writeSrid(parameter.getSrid());
+          writeAnnotations(parameter.getAnnotations());
+        }
+      }
+      final CsdlReturnType returnType = operation.getReturnType();
+      body.writeBoolean(returnType != null);
+      if (returnType != null) {
+        writeString(returnType.getType());
+        body.writeBoolean(returnType.isCollection());
+        body.writeBoolean(returnType.isNullable());
+        body.writeInteger(returnType.getMaxLength());
+        body.writeInteger(returnType.getPrecision());
+        body.writeInteger(returnType.getScale());
+        writeSrid(returnType.getSrid());
+        writeAnnotations(returnType.getAnnotations());
+      }
+      writeAnnotations(operation.getAnnotations());
+    }
+
+    private void writeTerm(final CsdlTerm term) {
+      writeString(term.getName());
+      writeString(term.getType());
+      writeString(term.getBaseTerm());
+      writeCount(term.getAppliesTo());
+      if (term.getAppliesTo() != null) {
+        for (final String appliesTo : term.getAppliesTo()) {
+          writeString(appliesTo);
+        }
+      }
+      writeString(term.getDefaultValue());
+      body.writeBoolean(term.isNullable());
+      body.writeInteger(term.getMaxLength());
+      body.writeInteger(term.getPrecision());
+      body.writeInteger(term.getScale());
+      writeSrid(term.getSrid());
+      writeAnnotations(term.getAnnotations());
+    }
+
+    private void writeEntityContainer(final CsdlEntityContainer container) {
+      writeString(container.getName());
+      writeString(container.getExtendsContainer());
+      writeCount(container.getEntitySets());
+      if (container.getEntitySets() != null) {
+        for (final CsdlEntitySet entitySet : container.getEntitySets()) {
+          writeBindingTarget(entitySet);
+          body.writeBoolean(entitySet.isIncludeInServiceDocument());
+        }
+      }
+      writeCount(container.getSingletons());
+      if (container.getSingletons() != null) {
+        for (final CsdlSingleton singleton : container.getSingletons()) {
+          writeBindingTarget(singleton);
+        }
+      }
+      writeCount(container.getActionImports());
+      if (container.getActionImports() != null) {
+        for (final CsdlActionImport actionImport : container.getActionImports()) {
+          writeString(actionImport.getName());
+          writeString(actionImport.getEntitySet());
+          writeString(actionImport.getAction());
+          writeAnnotations(actionImport.getAnnotations());
+        }
+      }
+      writeCount(container.getFunctionImports());
+      if (container.getFunctionImports() != null) {
+        for (final CsdlFunctionImport functionImport : container.getFunctionImports()) {
+          writeString(functionImport.getName());
+          writeString(functionImport.getEntitySet());
+          writeString(functionImport.getFunction());
+          body.writeBoolean(functionImport.isIncludeInServiceDocument());
+          writeString(functionImport.getTitle());
+          writeAnnotations(functionImport.getAnnotations());
+        }
+      }
+      writeAnnotations(container.getAnnotations());
+    }
+
+    private void writeBindingTarget(final CsdlBindingTarget bindingTarget) {
+      writeString(bindingTarget.getName());
+      writeString(bindingTarget.getType());
+      writeString(bindingTarget.getTitle());
+      writeMapping(bindingTarget.getMapping());
+      writeCount(bindingTarget.getNavigationPropertyBindings());
+      if (bindingTarget.getNavigationPropertyBindings() != null) {
+        for (final CsdlNavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+          writeString(binding.getPath());
+          writeString(binding.getTarget());
+        }
+      }
+      writeAnnotations(bindingTarget.getAnnotations());
+    }
+
+    private void writeAnnotations(final List<CsdlAnnotation> annotations) {
+      writeCount(annotations);
+      if (annotations != null) {
+        for (final CsdlAnnotation annotation : annotations) {
+          writeString(annotation.getTerm());
+          writeString(annotation.getQualifier());
+          writeExpression(annotation.getExpression());
+          writeAnnotations(annotation.getAnnotations());
+        }
+      }
+    }
+
+    private void writeExpressions(final List<CsdlExpression> expressions) {
+      writeCount(expressions);
+      if (expressions != null) {
+        for (final CsdlExpression expression : expressions) {
+          writeExpression(expression);
+        }
+      }
+    }
+
+    private void writeExpression(final CsdlExpression expression) {
+      if (expression == null) {
+        body.writeCount(NO_EXPRESSION);
+      } else if (expression instanceof CsdlConstantExpression) {
+        final CsdlConstantExpression constant = (CsdlConstantExpression) expression;
+        body.writeCount(CONSTANT);
+        writeString(constant.getType().name());
+        writeString(constant.getValue());
+      } else if (expression instanceof CsdlAnnotationPath) {
+        body.writeCount(ANNOTATION_PATH);
+        writeString(((CsdlAnnotationPath) expression).getValue());
+      } else if (expression instanceof CsdlNavigationPropertyPath) {
+        body.writeCount(NAVIGATION_PROPERTY_PATH);
+        writeString(((CsdlNavigationPropertyPath) expression).getValue());
+      } else if (expression instanceof CsdlPath) {
+        body.writeCount(PATH);
+        writeString(((CsdlPath) expression).getValue());
+      } else if (expression instanceof CsdlPropertyPath) {
+        body.writeCount(PROPERTY_PATH);
+        writeString(((CsdlPropertyPath) expression).getValue());
+      } else if (expression instanceof CsdlLabeledElementReference) {
+        body.writeCount(LABELED_ELEMENT_REFERENCE);
+        writeString(((CsdlLabeledElementReference) expression).getValue());
+      } else if (expression instanceof CsdlApply) {
+        final CsdlApply apply = (CsdlApply) expression;
+        body.writeCount(APPLY);
+        writeString(apply.getFunction());
+        writeExpressions(apply.getParameters());
+        writeAnnotations(apply.getAnnotations());
+      } else if (expression instanceof CsdlCast) {
+        final CsdlCast cast = (CsdlCast) expression;
+        body.writeCount(CAST);
+        writeString(cast.getType());
+        body.writeInteger(cast.getMaxLength());
+        body.writeInteger(cast.getPrecision());
+        body.writeInteger(cast.getScale());
+        writeSrid(cast.getSrid());
+        writeExpression(cast.getValue());
+        writeAnnotations(cast.getAnnotations());
+      } else if (expression instanceof CsdlCollection) {
+        body.writeCount(COLLECTION);
+        writeExpressions(((CsdlCollection) expression).getItems());
+      } else if (expression instanceof CsdlIf) {
+        final CsdlIf ifExpression = (CsdlIf) expression;
+        body.writeCount(IF);
+        writeExpression(ifExpression.getGuard());
+        writeExpression(ifExpression.getThen());
+        writeExpression(ifExpression.getElse());
+        writeAnnotations(ifExpression.getAnnotations());
+      } else if (expression instanceof CsdlIsOf) {
+        final CsdlIsOf isOf = (CsdlIsOf) expression;
+        body.writeCount(IS_OF);
+        writeString(isOf.getType());
+        body.writeInteger(isOf.getMaxLength());
+        body.writeInteger(isOf.getPrecision());
+        body.writeInteger(isOf.getScale());
+        writeSrid(isOf.getSrid());
+        writeExpression(isOf.getValue());
+        writeAnnotations(isOf.getAnnotations());
+      } else if (expression instanceof CsdlLabeledElement) {
+        final CsdlLabeledElement labeledElement = (CsdlLabeledElement) expression;
+        body.writeCount(LABELED_ELEMENT);
+        writeString(labeledElement.getName());
+        writeExpression(labeledElement.getValue());
+        writeAnnotations(labeledElement.getAnnotations());
+      } else if (expression instanceof CsdlLogicalOrComparisonExpression) {
+        final CsdlLogicalOrComparisonExpression logical = (CsdlLogicalOrComparisonExpression) expression;
+        body.writeCount(LOGICAL_OR_COMPARISON);
+        writeString(logical.getType().name());
+        writeExpression(logical.getLeft());
+        writeExpression(logical.getRight());
+        writeAnnotations(logical.getAnnotations());
+      } else if (expression instanceof CsdlNull) {
+        body.writeCount(NULL);
+        writeAnnotations(((CsdlNull) expression).getAnnotations());
+      } else if (expression instanceof CsdlRecord) {
+        final CsdlRecord record = (CsdlRecord) expression;
+        body.writeCount(RECORD);
+        writeString(record.getType());
+        writeCount(record.getPropertyValues());
+        if (record.getPropertyValues() != null) {
+          for (final CsdlPropertyValue propertyValue : record.getPropertyValues()) {
+            writeString(propertyValue.getProperty());
+            writeExpression(propertyValue.getValue());
+            writeAnnotations(propertyValue.getAnnotations());
+          }
+        }
+        writeAnnotations(record.getAnnotations());
+      } else if (expression instanceof CsdlUrlRef) {
+        final CsdlUrlRef urlRef = (CsdlUrlRef) expression;
+        body.writeCount(URL_REF);
+        writeExpression(urlRef.getValue());
+        writeAnnotations(urlRef.getAnnotations());
+      } else {
+        throw new IllegalArgumentException("Unsupported expression " + expression.getClass().getName());
+      }
+    }
+
+    private void writeMapping(final CsdlMapping mapping) {
+      body.writeBoolean(mapping != null);
+      if (mapping != null) {
+        writeString(mapping.getInternalName());
+      }
+    }
+
+    private void writeSrid(final SRID srid) {
+      writeString(srid == null ? null : srid.toString());
+      if (srid != null) {
+        writeString(srid.getDimension().name());
+      }
+    }
+
+    private void writeCount(final List<?> list) {
+      body.writeCount(list == null ? 0 : list.size());
+    }
+
+    private void writeString(final String string) {
+      if (string == null) {
+        body.writeCount(0);
+      } else {
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+          index = strings.size();
+          stringIndexes.put(string, index);
+          strings.add(string);
+        }
+        body.writeCount(index + 1);
+      }
+    }
+  }
+
+  /** Growable byte buffer with the primitive encodings of the snapshot format. */
+  private static final class Buffer extends ByteArrayOutputStream {
+
+    Buffer() {
+      super(4096);
+    }
+
+    void writeFixedInt(final int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    void writeCount(final int value) {
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        write((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      write(remaining);
+    }
+
+    void writeBoolean(final boolean value) {
+      write(value ? 1 : 0);
+    }
+
+    void writeInteger(final Integer value) {
+      // null is 0; values are zig-zag encoded and shifted by one
+      writeCount(value == null ? 0 : ((value << 1) ^ (value >> 31)) + 1);
+    }
+  }
+
+  private static final class SnapshotReader {
+    private final ByteBuffer buffer;
+    private String[] strings;
+
+    SnapshotReader(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    SchemaBasedEdmProvider read() throws IOException {
+      if (readFixedInt() != MAGIC) {
+        throw new IOException("The data is not an EDM snapshot.");
+      }
+      final int version = readFixedInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported EDM snapshot version " + version + ".");
+      }
+      strings = new String[readCount()];
+      for (int i = 0; i < strings.length; i++) {
+        final byte[] bytes = new byte[readCount()];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, UTF_8);
+      }
+
+      final SchemaBasedEdmProvider[] providers = new SchemaBasedEdmProvider[readCount()];
+      for (int i = 0; i < providers.length; i++) {
+        providers[i] = new SchemaBasedEdmProvider();
+      }
+      for (final SchemaBasedEdmProvider provider : providers) {
+        for (int count = readCount(); count > 0; count--) {
+          provider.addSchema(readSchema());
+        }
+        for (int count = readCount(); count > 0; count--) {
+          provider.addReference(readReference());
+        }
+        for (int count = readCount(); count > 0; count--) {
+          provider.addReferenceSchema(readString(), providers[readCount()]);
+        }
+        for (int count = readCount(); count > 0; count--) {
+          provider.addVocabularySchema(readString(), providers[readCount()]);
+        }
+      }
+      return providers[0];
+    }
+
+    private EdmxReference readReference() throws IOException {
+      final EdmxReference reference;
+      try {
+        reference = new EdmxReference(new URI(readString()));
+      } catch (final URISyntaxException e) {
+        throw new IOException("The EDM snapshot contains an invalid reference URI.", e);
+      }
+      for (int count = readCount(); count > 0; count--) {
+        reference.addInclude(new EdmxReferenceInclude(readString(), readString()));
+      }
+      for (int count = readCount(); count > 0; count--) {
+        final EdmxReferenceIncludeAnnotation includeAnnotation = new EdmxReferenceIncludeAnnotation(readString());
+        includeAnnotation.setQualifier(readString());
+        includeAnnotation.setTargetNamespace(readString());
+        reference.addIncludeAnnotation(includeAnnotation);
+      }
+      reference.setAnnotations(readAnnotations());
+      return reference;
+    }
+
+    private CsdlSchema readSchema() {
+      final CsdlSchema schema = new CsdlSchema();
+      schema.setNamespace(readString());
+      schema.setAlias(readString());
+      final List<CsdlEnumType> enumTypes = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        enumTypes.add(readEnumType());
+      }
+      schema.setEnumTypes(enumTypes);
+      final List<CsdlTypeDefinition> typeDefinitions = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        typeDefinitions.add(readTypeDefinition());
+      }
+      schema.setTypeDefinitions(typeDefinitions);
+      final List<CsdlEntityType> entityTypes = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlEntityType entityType = new CsdlEntityType();
+        readStructuralType(entityType);
+        entityType.setHasStream(readBoolean());
+        final int keyCount = readCount();
+        if (keyCount > 0) {
+          final List<CsdlPropertyRef> key = new ArrayList<>(keyCount);
+          for (int i = 0; i < keyCount; i++) {
+            key.add(new CsdlPropertyRef().setName(readString()).setAlias(readString()));
+          }
+          entityType.setKey(key);
+        }
+        entityTypes.add(entityType);
+      }
+      schema.setEntityTypes(entityTypes);
+      final List<CsdlComplexType> complexTypes = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlComplexType complexType = new CsdlComplexType();
+        readStructuralType(complexType);
+        complexTypes.add(complexType);
+      }
+      schema.setComplexTypes(complexTypes);
+      final List<CsdlAction> actions = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlAction action = new CsdlAction();
+        readOperation(action);
+        actions.add(action);
+      }
+      schema.setActions(actions);
+      final List<CsdlFunction> functions = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlFunction function = new CsdlFunction();
+        readOperation(function);
+        function.setComposable(readBoolean());
+        functions.add(function);
+      }
+      schema.setFunctions(functions);
+      final List<CsdlTerm> terms = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        terms.add(readTerm());
+      }
+      schema.setTerms(terms);
+      if (readBoolean()) {
+        schema.setEntityContainer(readEntityContainer());
+      }
+      final List<CsdlAnnotations> annotationGroups = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlAnnotations group = new CsdlAnnotations();
+        group.setTarget(readString());
+        group.setQualifier(readString());
+        group.setAnnotations(readAnnotations());
+        annotationGroups.add(group);
+      }
+      schema.setAnnotationsGroup(annotationGroups);
+      schema.setAnnotations(readAnnotations());
+      return schema;
+    }
+
+    private CsdlEnumType readEnumType() {
+      final CsdlEnumType enumType = new CsdlEnumType();
+      enumType.setName(readString());
+      enumType.setFlags(readBoolean());
+      final String underlyingType = readString();
+      if (underlyingType != null) {
+        enumType.setUnderlyingType(underlyingType);
+      }
+      final List<CsdlEnumMember> members = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        members.add(new CsdlEnumMember().setName(readString()).setValue(readString())
+            .setAnnotations(readAnnotations()));
+      }
+      enumType.setMembers(members);
+      enumType.setAnnotations(readAnnotations());
+      return enumType;
+    }
+
+    private CsdlTypeDefinition readTypeDefinition() {
+      final CsdlTypeDefinition typeDefinition = new CsdlTypeDefinition();
+      typeDefinition.setName(readString());
+      final String underlyingType = readString();
+      if (underlyingType != null) {
+        typeDefinition.setUnderlyingType(underlyingType);
+      }
+      typeDefinition.setMaxLength(readInteger());
+      typeDefinition.setPrecision(readInteger());
+      typeDefinition.setScale(readInteger());
+      typeDefinition.setUnicode(readBoolean());
+      typeDefinition.setSrid(readSrid());
+      typeDefinition.setAnnotations(readAnnotations());
+      return typeDefinition;
+    }
+
+    private void readStructuralType(final CsdlStructuralType type) {
+      type.setName(readString());
+      type.setOpenType(readBoolean());
+      final String baseType = readString();
+      if (baseType != null) {
+        type.setBaseType(baseType);
+      }
+      type.setAbstract(readBoolean());
+      final List<CsdlProperty> properties = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        properties.add(readProperty());
+      }
+      type.setProperties(properties);
+      final List<CsdlNavigationProperty> navigationProperties = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        navigationProperties.add(readNavigationProperty());
+      }
+      type.setNavigationProperties(navigationProperties);
+      type.setAnnotations(readAnnotations());
+    }
+
+    private CsdlProperty readProperty() {
+      final CsdlProperty property = new CsdlProperty();
+      property.setName(readString());
+      property.setType(readString());
+      property.setCollection(readBoolean());
+      property.setMimeType(readString());
+      property.setMapping(readMapping());
+      property.setDefaultValue(readString());
+      property.setNullable(readBoolean());
+      property.setMaxLength(readInteger());
+      property.setPrecision(readInteger());
+      property.setScale(readInteger());
+      property.setScaleAsString(readString());
+      property.setUnicode(readBoolean());
+      property.setSrid(readSrid());
+      property.setAnnotations(readAnnotations());
+      return property;
+    }
+
+    private CsdlNavigationProperty readNavigationProperty() {
+      final CsdlNavigationProperty navigationProperty = new CsdlNavigationProperty();
+      navigationProperty.setName(readString());
+      final String type = readString();
+      if (type != null) {
+        navigationProperty.setType(type);
+      }
+      navigationProperty.setCollection(readBoolean());
+      navigationProperty.setPartner(readString());
+      navigationProperty.setContainsTarget(readBoolean());
+      for (int count = readCount(); count > 0; count--) {
+        navigationProperty.getReferentialConstraints().add(new CsdlReferentialConstraint()
+            .setProperty(readString()).setReferencedProperty(readString()).setAnnotations(readAnnotations()));
+      }
+      final int nullable = readCount();
+      navigationProperty.setNullable(nullable == 0 ? null : nullable == 1);
+      if (readBoolean()) {
+        final CsdlOnDelete onDelete = new CsdlOnDelete();
+        final String action = readString();
+        onDelete.setAction(action == null ? null : CsdlOnDeleteAction.valueOf(action));
+        onDelete.setAnnotations(readAnnotations());
+        navigationProperty.setOnDelete(onDelete);
+      }
+      navigationProperty.setAnnotations(readAnnotations());
+      return navigationProperty;
+    }
+
+    private void readOperation(final CsdlOperation operation) {
+      operation.setName(readString());
+      operation.setBound(readBoolean());
+      operation.setEntitySetPath(readString());
+      final List<CsdlParameter> parameters = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlParameter parameter = new CsdlParameter();
+        parameter.setName(readString());
+        parameter.setType(readString());
+        parameter.setCollection(readBoolean());
+        parameter.setMapping(readMapping());
+        parameter.setNullable(readBoolean());
+        parameter.setMaxLength(readInteger());
+        parameter.setPrecision(readInteger());
+        parameter.setScale(readInteger());
+        parameter.setSrid(readSrid());
+        parameter.setAnnotations(readAnnotations());
+        parameters.add(parameter);
+      }
+      operation.setParameters(parameters);
+      if (readBoolean()) {
+        final CsdlReturnType returnType = new CsdlReturnType();
+        returnType.setType(readString());
+        returnType.setCollection(readBoolean());
+        returnType.setNullable(readBoolean());
+        returnType.setMaxLength(readInteger());
+        returnType.setPrecision(readInteger());
+        returnType.setScale(readInteger());
+        returnType.setSrid(readSrid());
+        returnType.setAnnotations(readAnnotations());
+        operation.setReturnType(returnType);
+      }
+      operation.setAnnotations(readAnnotations());
+    }
+
+    private CsdlTerm readTerm() {
+      final CsdlTerm term = new CsdlTerm();
+      term.setName(readString());
+      term.setType(readString());
+      term.setBaseTerm(readString());
+      final List<String> appliesTo = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        appliesTo.add(readString());
+      }
+      term.setAppliesTo(appliesTo);
+      term.setDefaultValue(readString());
+      term.setNullable(readBoolean());
+      term.setMaxLength(readInteger());
+      term.setPrecision(readInteger());
+      term.setScale(readInteger());
+      term.setSrid(readSrid());
+      term.setAnnotations(readAnnotations());
+      return term;
+    }
+
+    private CsdlEntityContainer readEntityContainer() {
+      final CsdlEntityContainer container = new CsdlEntityContainer();
+      container.setName(readString());
+      final String extendsContainer = readString();
+      if (extendsContainer != null) {
+        container.setExtendsContainer(extendsContainer);
+      }
+      final List<CsdlEntitySet> entitySets = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlEntitySet entitySet = new CsdlEntitySet();
+        readBindingTarget(entitySet);
+        entitySet.setIncludeInServiceDocument(readBoolean());
+        entitySets.add(entitySet);
+      }
+      container.setEntitySets(entitySets);
+      final List<CsdlSingleton> singletons = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlSingleton singleton = new CsdlSingleton();
+        readBindingTarget(singleton);
+        singletons.add(singleton);
+      }
+      container.setSingletons(singletons);
+      final List<CsdlActionImport> actionImports = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlActionImport actionImport = new CsdlActionImport();
+        actionImport.setName(readString());
+        actionImport.setEntitySet(readString());
+        final String action = readString();
+        if (action != null) {
+          actionImport.setAction(action);
+        }
+        actionImport.setAnnotations(readAnnotations());
+        actionImports.add(actionImport);
+      }
+      container.setActionImports(actionImports);
+      final List<CsdlFunctionImport> functionImports = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        final CsdlFunctionImport functionImport = new CsdlFunctionImport();
+        functionImport.setName(readString());
+        functionImport.setEntitySet(readString());
+        final String function = readString();
+        if (function != null) {
+          functionImport.setFunction(function);
+        }
+        functionImport.setIncludeInServiceDocument(readBoolean());
+        functionImport.setTitle(readString());
+        functionImport.setAnnotations(readAnnotations());
+        functionImports.add(functionImport);
+      }
+      container.setFunctionImports(functionImports);
+      container.setAnnotations(readAnnotations());
+      return container;
+    }
+
+    private void readBindingTarget(final CsdlBindingTarget bindingTarget) {
+      bindingTarget.setName(readString());
+      final String type = readString();
+      if (type != null) {
+        bindingTarget.setType(type);
+      }
+      bindingTarget.setTitle(readString());
+      bindingTarget.setMapping(readMapping());
+      final List<CsdlNavigationPropertyBinding> bindings = new ArrayList<>();
+      for (int count = readCount(); count > 0; count--) {
+        bindings.add(new CsdlNavigationPropertyBinding().setPath(readString()).setTarget(readString()));
+      }
+      bindingTarget.setNavigationPropertyBindings(bindings);
+      bindingTarget.setAnnotations(readAnnotations());
+    }
+
+    private List<CsdlAnnotation> readAnnotations() {
+      final int count = readCount();
+      final List<CsdlAnnotation> annotations = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        final CsdlAnnotation annotation = new CsdlAnnotation();
+        annotation.setTerm(readString());
+        annotation.setQualifier(readString());
+        annotation.setExpression(readExpression());
+        annotation.setAnnotations(readAnnotations());
+        annotations.add(annotation);
+      }
+      return annotations;
+    }
+
+    private List<CsdlExpression> readExpressions() {
+      final int count = readCount();
+      final List<CsdlExpression> expressions = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        expressions.add(readExpression());
+      }
+      return expressions;
+    }
+
+    private CsdlExpression readExpression() {
+      final int kind = readCount();
+      switch (kind) {
+      case NO_EXPRESSION:
+        return null;
+      case CONSTANT:
+        return new CsdlConstantExpression(ConstantExpressionType.valueOf(readString()), readString());
+      case ANNOTATION_PATH:
+        return new CsdlAnnotationPath().setValue(readString());
+      case NAVIGATION_PROPERTY_PATH:
+        return new CsdlNavigationPropertyPath().setValue(readString());
+      case PATH:
+        return new CsdlPath().setValue(readString());
+      case PROPERTY_PATH:
+        return new CsdlPropertyPath().setValue(readString());
+      case LABELED_ELEMENT_REFERENCE:
+        return new CsdlLabeledElementReference().setValue(readString());
+      case APPLY:
+        return new CsdlApply().setFunction(readString()).setParameters(readExpressions())
+            .setAnnotations(readAnnotations());
+      case CAST:
+        return new CsdlCast().setType(readString()).setMaxLength(readInteger()).setPrecision(readInteger())
+            .setScale(readInteger()).setSrid(readSrid()).setValue(readExpression())
+            .setAnnotations(readAnnotations());
+      case COLLECTION:
+        return new CsdlCollection().setItems(readExpressions());
+      case IF:
+        return new CsdlIf().setGuard(readExpression()).setThen(readExpression()).setElse(readExpression())
+            .setAnnotations(readAnnotations());
+      case IS_OF:
+        return new CsdlIsOf().setType(readString()).setMaxLength(readInteger()).setPrecision(readInteger())
+            .setScale(readInteger()).setSrid(readSrid()).setValue(readExpression())
+            .setAnnotations(readAnnotations());
+      case LABELED_ELEMENT:
+        return new CsdlLabeledElement().setName(readString()).setValue(readExpression())
+            .setAnnotations(readAnnotations());
+      case LOGICAL_OR_COMPARISON:
+        return new CsdlLogicalOrComparisonExpression(LogicalOrComparisonExpressionType.valueOf(readString()))
+            .setLeft(readExpression()).setRight(readExpression()).setAnnotations(readAnnotations());
+      case NULL:
+        return new CsdlNull().setAnnotations(readAnnotations());
+      case RECORD:
+        final CsdlRecord record = new CsdlRecord().setType(readString());
+        final List<CsdlPropertyValue> propertyValues = new ArrayList<>();
+        for (int count = readCount(); count > 0; count--) {
+          propertyValues.add(new CsdlPropertyValue().setProperty(readString()).setValue(readExpression())
+              .setAnnotations(readAnnotations()));
+        }
+        return record.setPropertyValues(propertyValues).setAnnotations(readAnnotations());
+      case URL_REF:
+        return new CsdlUrlRef().setValue(readExpression()).setAnnotations(readAnnotations());
+      default:
+        throw new IllegalArgumentException("Unknown expression kind " + kind);
+      }
+    }
+
+    private CsdlMapping readMapping() {
+      return readBoolean() ? new CsdlMapping().setInternalName(readString()) : null;
+    }
+
+    private SRID readSrid() {
+      final String value = readString();
+      if (value == null) {
+        return null;
+      }
+      final SRID srid = SRID.valueOf(value);
+      srid.setDimension(Dimension.valueOf(readString()));
+      return srid;
+    }
+
+    private int readFixedInt() {
+      return (buffer.get() & 0xFF) << 24 | (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8
+          | buffer.get() & 0xFF;
+    }
+
+    private int readCount() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get();
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+
+    private boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    private Integer readInteger() {
+      final int value = readCount();
+      if (value == 0) {
+        return null;
+      }
+      final int zigZag = value - 1;
+      return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private String readString() {
+      final int index = readCount();
+      return index == 0 ? null : strings[index - 1];
+    }
+  }
+}
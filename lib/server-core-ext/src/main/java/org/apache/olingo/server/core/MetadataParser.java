@@ -21,23 +21,33 @@ package org.apache.olingo.server.core;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.olingo.commons.api.edm.EdmException;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -94,16 +104,31 @@ import org.apache.olingo.commons.api.edmx.EdmxReferenceIncludeAnnotation;
 import org.apache.olingo.server.api.ServiceMetadata;
 
 /**
- * This class can convert a CSDL document into EDMProvider object
+ * This class can convert a CSDL document into EDMProvider object.
+ * <p>The core vocabularies loaded from the classpath are parsed once per process and shared by all
+ * providers; the same can be enabled for referenced documents with {@link #cacheReferences(boolean)}.
+ * Referenced documents are shared per {@link ReferenceResolver} and are dropped together with their resolver.
+ * Shared schemas must not be modified; {@link #clearVocabularyCache()} and {@link #clearReferenceCache()}
+ * release them.</p>
  */
 public class MetadataParser {
   private boolean parseAnnotations = false;
   private static final String XML_LINK_NS = "http://www.w3.org/1999/xlink";
-  private ReferenceResolver referenceResolver = new DefaultReferenceResolver();
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+  private static final ReferenceResolver DEFAULT_REFERENCE_RESOLVER = new DefaultReferenceResolver();
+  // parsed documents shared by all parsers; keyed by the document's URI and the parser settings
+  private static final ConcurrentMap<String, SchemaBasedEdmProvider> VOCABULARY_CACHE =
+      new ConcurrentHashMap<>();
+  // parsed reference documents by the resolver which loaded them; weak so that a resolver can be collected
+  private static final Map<ReferenceResolver, ConcurrentMap<String, SchemaBasedEdmProvider>> REFERENCE_CACHES =
+      Collections.synchronizedMap(new WeakHashMap<ReferenceResolver, ConcurrentMap<String, SchemaBasedEdmProvider>>());
+  private ReferenceResolver referenceResolver = DEFAULT_REFERENCE_RESOLVER;
   private boolean useLocalCoreVocabularies = true;
   private boolean implicitlyLoadCoreVocabularies = false;
   private boolean recursivelyLoadReferences = false;
-  private Map<String, SchemaBasedEdmProvider> globalReferenceMap = new HashMap<>();
+  private boolean cacheReferences = false;
+  private Executor referenceExecutor;
+  private Map<String, SchemaBasedEdmProvider> globalReferenceMap = new ConcurrentHashMap<>();
   
   /**
    * Avoid reading the annotations in the $metadata 
@@ -154,6 +179,60 @@ public class MetadataParser {
     this.implicitlyLoadCoreVocabularies = load;
     return this;
   }
+
+  /**
+   * Share the parsed reference documents with all parsers in the process using the same
+   * {@link #referenceResolver(ReferenceResolver) reference resolver}. Only enable this if a
+   * reference URI always resolves to the same document; the alias of an include is then not set
+   * on the shared schema.
+   * @param cache true for yes; false otherwise
+   * @return
+   * @see #clearReferenceCache()
+   */
+  public MetadataParser cacheReferences(boolean cache) {
+    this.cacheReferences = cache;
+    return this;
+  }
+
+  /**
+   * Resolve and parse the references of the metadata document concurrently. References of
+   * referenced documents are always loaded by the thread loading the referencing document.
+   * @param executor executor for the loading of the references; null to load them one by one
+   * @return
+   */
+  public MetadataParser referenceExecutor(Executor executor) {
+    this.referenceExecutor = executor;
+    return this;
+  }
+
+  /** Removes all reference documents shared by the parsers. */
+  public static void clearReferenceCache() {
+    REFERENCE_CACHES.clear();
+  }
+
+  /**
+   * Removes the reference documents shared by the parsers which have been loaded with the given resolver.
+   * @param resolver the reference resolver
+   */
+  public static void clearReferenceCache(ReferenceResolver resolver) {
+    REFERENCE_CACHES.remove(resolver);
+  }
+
+  /** Removes the core vocabularies shared by the parsers; they are parsed again when needed. */
+  public static void clearVocabularyCache() {
+    VOCABULARY_CACHE.clear();
+  }
+
+  private ConcurrentMap<String, SchemaBasedEdmProvider> getReferenceCache() {
+    synchronized (REFERENCE_CACHES) {
+      ConcurrentMap<String, SchemaBasedEdmProvider> cache = REFERENCE_CACHES.get(this.referenceResolver);
+      if (cache == null) {
+        cache = new ConcurrentHashMap<>();
+        REFERENCE_CACHES.put(this.referenceResolver, cache);
+      }
+      return cache;
+    }
+  }
   
   public ServiceMetadata buildServiceMetadata(Reader csdl) throws XMLStreamException {
     SchemaBasedEdmProvider provider = buildEdmProvider(csdl, this.referenceResolver,
@@ -162,16 +241,14 @@ public class MetadataParser {
   }
 
   public SchemaBasedEdmProvider buildEdmProvider(Reader csdl) throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);    
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(csdl);
     return buildEdmProvider(reader, this.referenceResolver, this.implicitlyLoadCoreVocabularies,
             this.useLocalCoreVocabularies, true, null);
   }
   
   public SchemaBasedEdmProvider addToEdmProvider(SchemaBasedEdmProvider existing, Reader csdl)
       throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(csdl);
     return addToEdmProvider(existing, reader, this.referenceResolver, this.implicitlyLoadCoreVocabularies,
         this.useLocalCoreVocabularies, true, null);
   }
@@ -180,8 +257,7 @@ public class MetadataParser {
                                                     boolean loadCore, boolean useLocal,
                                                     boolean loadReferenceSchemas, String namespace)
           throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(csdl);
     return buildEdmProvider(reader, resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
   }
 
@@ -189,26 +265,56 @@ public class MetadataParser {
                                                     boolean loadCore, boolean useLocal,
                                                     boolean loadReferenceSchemas, String namespace)
           throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(csdl);
     return buildEdmProvider(reader, resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
   } 
 
-  protected SchemaBasedEdmProvider buildEdmProvider(XMLEventReader reader, ReferenceResolver resolver, boolean loadCore,
-      boolean useLocal, boolean loadReferenceSchemas, String namespace) throws XMLStreamException {
+  protected SchemaBasedEdmProvider buildEdmProvider(XMLStreamReader reader, ReferenceResolver resolver,
+      boolean loadCore, boolean useLocal, boolean loadReferenceSchemas, String namespace) throws XMLStreamException {
     SchemaBasedEdmProvider provider = new SchemaBasedEdmProvider();
     return addToEdmProvider(provider, reader, resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
   }
   
+  /**
+   * @deprecated the document is read with an {@link XMLStreamReader}; the events are copied into one.
+   * Use {@link #buildEdmProvider(XMLStreamReader, ReferenceResolver, boolean, boolean, boolean, String)}.
+   */
+  @Deprecated
+  protected SchemaBasedEdmProvider buildEdmProvider(XMLEventReader reader, ReferenceResolver resolver,
+      boolean loadCore, boolean useLocal, boolean loadReferenceSchemas, String namespace) throws XMLStreamException {
+    return buildEdmProvider(toStreamReader(reader), resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
+  }
+
+  /**
+   * @deprecated the document is read with an {@link XMLStreamReader}; the events are copied into one.
+   * Use {@link #addToEdmProvider(SchemaBasedEdmProvider, XMLStreamReader, ReferenceResolver, boolean, boolean,
+   * boolean, String)}.
+   */
+  @Deprecated
   protected SchemaBasedEdmProvider addToEdmProvider(SchemaBasedEdmProvider provider, XMLEventReader reader,
       ReferenceResolver resolver, boolean loadCore, boolean useLocal, boolean loadReferenceSchemas, String namespace)
       throws XMLStreamException {
+    return addToEdmProvider(provider, toStreamReader(reader), resolver, loadCore, useLocal, loadReferenceSchemas,
+        namespace);
+  }
+
+  private static XMLStreamReader toStreamReader(XMLEventReader reader) throws XMLStreamException {
+    final StringWriter document = new StringWriter();
+    final XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(document);
+    writer.add(reader);
+    writer.close();
+    return XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(document.toString()));
+  }
+
+  protected SchemaBasedEdmProvider addToEdmProvider(SchemaBasedEdmProvider provider, XMLStreamReader reader,
+      ReferenceResolver resolver, boolean loadCore, boolean useLocal, boolean loadReferenceSchemas, String namespace)
+      throws XMLStreamException {
     
     final StringBuilder xmlBase = new StringBuilder();
     
     new ElementReader<SchemaBasedEdmProvider>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider provider,
+      void build(XMLStreamReader reader, Element element, SchemaBasedEdmProvider provider,
           String name) throws XMLStreamException {
         if (attrNS(element, XML_LINK_NS, "base") != null) {
           xmlBase.append(attrNS(element, XML_LINK_NS, "base"));
@@ -224,12 +330,8 @@ public class MetadataParser {
     
     // make sure there is nothing left to read, due to parser error
     if(reader.hasNext()) {
-      XMLEvent event = reader.peek();
       throw new XMLStreamException(
-          "Failed to read complete metadata file. Failed at "
-              + (event.isStartElement() ? 
-                  event.asStartElement().getName().getLocalPart() : 
-                  event.asEndElement().getName().getLocalPart()));
+          "Failed to read complete metadata file. Failed at " + reader.getLocalName());
     }
     
     //load core vocabularies even though they are not defined in the references
@@ -246,12 +348,13 @@ public class MetadataParser {
     // load all the reference schemas
     if (resolver != null && loadReferenceSchemas) {
       loadReferencesSchemas(provider, xmlBase.length() == 0 ? null
-          : fixXmlBase(xmlBase.toString()), resolver, loadCore, useLocal);
+          : fixXmlBase(xmlBase.toString()), resolver, loadCore, useLocal,
+          namespace == null ? this.referenceExecutor : null);
     }
     return provider;
   }
 
-  private XMLInputFactory createXmlInputFactory() {
+  private static XMLInputFactory createXmlInputFactory() {
     XMLInputFactory factory = XMLInputFactory.newInstance();
     factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
     factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
@@ -260,12 +363,12 @@ public class MetadataParser {
 
   private void loadReferencesSchemas(SchemaBasedEdmProvider provider,
       String xmlBase, ReferenceResolver resolver, boolean loadCore,
-      boolean useLocal) {    
+      boolean useLocal, Executor executor) {    
 
+    final List<EdmxReferenceInclude> includes = new ArrayList<>();
+    final List<CompletableFuture<SchemaBasedEdmProvider>> refProviders = new ArrayList<>();
     for (EdmxReference reference:provider.getReferences()) {
       try {
-        SchemaBasedEdmProvider refProvider = null;
-
         for (EdmxReferenceInclude include : reference.getIncludes()) {
 
           // check if the schema is already loaded before in current provider.
@@ -279,33 +382,99 @@ public class MetadataParser {
           }
 
           // check if the schema is already loaded before in parent providers
-          refProvider = this.globalReferenceMap.get(include.getNamespace());
+          final SchemaBasedEdmProvider refProvider = this.globalReferenceMap.get(include.getNamespace());
 
-          if (refProvider == null) {
-            InputStream is = this.referenceResolver.resolveReference(reference.getUri(), xmlBase);
-            if (is == null) {
-              throw new EdmException("Failed to load Reference "+reference.getUri()+" loading failed");
-            } else {
-              // do not implicitly load core vocabularies any more. But if the
-              // references loading the core vocabularies try to use local if we can
-              refProvider = buildEdmProvider(is, resolver, false, useLocal,
-                      this.recursivelyLoadReferences, include.getNamespace());
-            }
-          }
-          
+          includes.add(include);
           if (refProvider != null) {
-            CsdlSchema refSchema = refProvider.getSchema(include.getNamespace(), false);
-            provider.addReferenceSchema(include.getNamespace(), refProvider);
-            if (include.getAlias() != null) {
-              refSchema.setAlias(include.getAlias());
-              provider.addReferenceSchema(include.getAlias(), refProvider);
-            }
+            refProviders.add(CompletableFuture.completedFuture(refProvider));
+          } else if (executor == null) {
+            refProviders.add(CompletableFuture.completedFuture(
+                loadReference(reference, include, xmlBase, resolver, useLocal)));
+          } else {
+            refProviders.add(loadReferenceAsync(reference, include, xmlBase, resolver, useLocal, executor));
           }
         }
       } catch (XMLStreamException e) {
         throw new EdmException("Failed to load Reference "+reference.getUri()+" parsing failed");
       }
     }
+
+    // register in document order, independent of the order in which the references were loaded
+    for (int i = 0; i < includes.size(); i++) {
+      final EdmxReferenceInclude include = includes.get(i);
+      final SchemaBasedEdmProvider refProvider;
+      try {
+        refProvider = refProviders.get(i).join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        } else if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+      CsdlSchema refSchema = refProvider.getSchema(include.getNamespace(), false);
+      provider.addReferenceSchema(include.getNamespace(), refProvider);
+      if (include.getAlias() != null) {
+        if (!this.cacheReferences) {
+          refSchema.setAlias(include.getAlias());
+        }
+        provider.addReferenceSchema(include.getAlias(), refProvider);
+      }
+    }
+  }
+
+  private CompletableFuture<SchemaBasedEdmProvider> loadReferenceAsync(final EdmxReference reference,
+      final EdmxReferenceInclude include, final String xmlBase, final ReferenceResolver resolver,
+      final boolean useLocal, Executor executor) {
+    return CompletableFuture.supplyAsync(new Supplier<SchemaBasedEdmProvider>() {
+      @Override
+      public SchemaBasedEdmProvider get() {
+        return loadReference(reference, include, xmlBase, resolver, useLocal);
+      }
+    }, executor);
+  }
+
+  private SchemaBasedEdmProvider loadReference(EdmxReference reference, EdmxReferenceInclude include,
+      String xmlBase, ReferenceResolver resolver, boolean useLocal) {
+    final String key = this.cacheReferences ? xmlBase + ' ' + reference.getUri() + ' ' + include.getNamespace()
+        + ' ' + this.parseAnnotations + ' ' + this.recursivelyLoadReferences + ' ' + useLocal : null;
+    final ConcurrentMap<String, SchemaBasedEdmProvider> referenceCache = key == null ? null : getReferenceCache();
+    SchemaBasedEdmProvider refProvider = key == null ? null : referenceCache.get(key);
+    if (refProvider != null) {
+      if (!this.globalReferenceMap.containsKey(include.getNamespace())) {
+        this.globalReferenceMap.put(include.getNamespace(), refProvider);
+      }
+      return refProvider;
+    }
+
+    InputStream is = this.referenceResolver.resolveReference(reference.getUri(), xmlBase);
+    if (is == null) {
+      throw new EdmException("Failed to load Reference "+reference.getUri()+" loading failed");
+    }
+    try {
+      // do not implicitly load core vocabularies any more. But if the
+      // references loading the core vocabularies try to use local if we can
+      refProvider = buildEdmProvider(is, resolver, false, useLocal,
+          this.recursivelyLoadReferences, include.getNamespace());
+    } catch (XMLStreamException e) {
+      throw new EdmException("Failed to load Reference "+reference.getUri()+" parsing failed");
+    } finally {
+      close(is);
+    }
+    if (key != null) {
+      final SchemaBasedEdmProvider cached = referenceCache.putIfAbsent(key, refProvider);
+      return cached == null ? refProvider : cached;
+    }
+    return refProvider;
+  }
+
+  private static void close(InputStream is) {
+    try {
+      is.close();
+    } catch (IOException e) {
+      // ignore; the document has been read completely
+    }
   }
   
   public void loadCoreVocabulary(SchemaBasedEdmProvider provider,
@@ -341,22 +510,39 @@ public class MetadataParser {
       String resource) throws XMLStreamException {
     CsdlSchema schema = provider.getVocabularySchema(namespace);
     if (schema == null) {
-      InputStream is = this.getClass().getClassLoader().getResourceAsStream(resource);
-      if (is != null) {
-        SchemaBasedEdmProvider childProvider = buildEdmProvider(is, null, false, false, true, "");
-        provider.addVocabularySchema(namespace, childProvider);
-      } else {
+      URL url = this.getClass().getClassLoader().getResource(resource);
+      if (url == null) {
         throw new XMLStreamException("failed to load "+resource+" core vocabulary");
       }
+      final String key = url.toString() + ' ' + this.parseAnnotations;
+      SchemaBasedEdmProvider childProvider = VOCABULARY_CACHE.get(key);
+      if (childProvider == null) {
+        InputStream is;
+        try {
+          is = url.openStream();
+        } catch (IOException e) {
+          throw new XMLStreamException("failed to load "+resource+" core vocabulary", e);
+        }
+        try {
+          childProvider = buildEdmProvider(is, null, false, false, true, "");
+        } finally {
+          close(is);
+        }
+        final SchemaBasedEdmProvider cached = VOCABULARY_CACHE.putIfAbsent(key, childProvider);
+        if (cached != null) {
+          childProvider = cached;
+        }
+      }
+      provider.addVocabularySchema(namespace, childProvider);
     }
   }  
   
-  private void readDataServicesAndReference(XMLEventReader reader,
-      StartElement element, SchemaBasedEdmProvider provider)
+  private void readDataServicesAndReference(XMLStreamReader reader,
+      Element element, SchemaBasedEdmProvider provider)
       throws XMLStreamException {
     new ElementReader<SchemaBasedEdmProvider>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider provider,
+      void build(XMLStreamReader reader, Element element, SchemaBasedEdmProvider provider,
           String name) throws XMLStreamException {
         if ("DataServices".equals(name)) {
           readSchema(reader, element, provider);
@@ -367,7 +553,7 @@ public class MetadataParser {
     }.read(reader, element, provider, "DataServices", "Reference");
   }
 
-  private void readReference(XMLEventReader reader, StartElement element,
+  private void readReference(XMLStreamReader reader, Element element,
       final SchemaBasedEdmProvider provider, String name) throws XMLStreamException {
     EdmxReference reference;
     try {
@@ -378,7 +564,7 @@ public class MetadataParser {
     }
     new ElementReader<EdmxReference>() {
       @Override
-      void build(XMLEventReader reader, StartElement element,
+      void build(XMLStreamReader reader, Element element,
           EdmxReference reference, String name) throws XMLStreamException {
         if ("Include".equals(name)) {
           EdmxReferenceInclude include = new EdmxReferenceInclude(attr(element, "Namespace"),
@@ -398,12 +584,12 @@ public class MetadataParser {
     provider.addReference(reference);
   }
   
-  private void readSchema(XMLEventReader reader, StartElement element,
+  private void readSchema(XMLStreamReader reader, Element element,
       SchemaBasedEdmProvider provider) throws XMLStreamException {
 
     new ElementReader<SchemaBasedEdmProvider>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider provider, String name)
+      void build(XMLStreamReader reader, Element element, SchemaBasedEdmProvider provider, String name)
           throws XMLStreamException {
         CsdlSchema schema = new CsdlSchema();
         schema.setComplexTypes(new ArrayList<CsdlComplexType>());
@@ -421,10 +607,10 @@ public class MetadataParser {
     }.read(reader, element, provider, "Schema");
   }
 
-  private void readSchemaContents(XMLEventReader reader, CsdlSchema schema) throws XMLStreamException {
+  private void readSchemaContents(XMLStreamReader reader, CsdlSchema schema) throws XMLStreamException {
     new ElementReader<CsdlSchema>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlSchema schema, String name)
+      void build(XMLStreamReader reader, Element element, CsdlSchema schema, String name)
           throws XMLStreamException {
         if ("Action".equals(name)) {
           readAction(reader, element, schema);
@@ -452,7 +638,7 @@ public class MetadataParser {
         "EntityContainer", "EntityType", "EnumType", "Function", "Term", "TypeDefinition");
   }
 
-  private void readAction(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readAction(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
 
     CsdlAction action = new CsdlAction();
@@ -468,7 +654,7 @@ public class MetadataParser {
     schema.getActions().add(action);
   }
 
-  private FullQualifiedName readType(StartElement element) {
+  private FullQualifiedName readType(Element element) {
     String type = attr(element, "Type");
     if (type != null && type.startsWith("Collection(") && type.endsWith(")")) {
       return new FullQualifiedName(type.substring(11, type.length() - 1));
@@ -476,7 +662,7 @@ public class MetadataParser {
     return new FullQualifiedName(type);
   }
 
-  private boolean isCollectionType(StartElement element) {
+  private boolean isCollectionType(Element element) {
     String type = attr(element, "Type");
     if (type != null && type.startsWith("Collection(") && type.endsWith(")")) {
       return true;
@@ -484,7 +670,7 @@ public class MetadataParser {
     return false;
   }
 
-  private void readReturnType(XMLEventReader reader, StartElement element,
+  private void readReturnType(XMLStreamReader reader, Element element,
       CsdlOperation operation) throws XMLStreamException {
     CsdlReturnType returnType = new CsdlReturnType();
     returnType.setType(readType(element));
@@ -511,7 +697,7 @@ public class MetadataParser {
     operation.setReturnType(returnType);
   }
 
-  private void readParameter(XMLEventReader reader, StartElement element,
+  private void readParameter(XMLStreamReader reader, Element element,
       CsdlOperation operation) throws XMLStreamException {
     CsdlParameter parameter = new CsdlParameter();
     parameter.setName(attr(element, "Name"));
@@ -539,8 +725,8 @@ public class MetadataParser {
     operation.getParameters().add(parameter);
   }
 
-  private CsdlTypeDefinition readTypeDefinition(XMLEventReader reader,
-      StartElement element) throws XMLStreamException {
+  private CsdlTypeDefinition readTypeDefinition(XMLStreamReader reader,
+      Element element) throws XMLStreamException {
     CsdlTypeDefinition td = new CsdlTypeDefinition();
     td.setName(attr(element, "Name"));
     td.setUnderlyingType(new FullQualifiedName(attr(element, "UnderlyingType")));
@@ -568,7 +754,7 @@ public class MetadataParser {
     return td;
   }
 
-  private CsdlTerm readTerm(XMLEventReader reader, StartElement element) throws XMLStreamException {
+  private CsdlTerm readTerm(XMLStreamReader reader, Element element) throws XMLStreamException {
     CsdlTerm term = new CsdlTerm();
     term.setName(attr(element, "Name"));
     term.setType(attr(element, "Type"));
@@ -604,7 +790,7 @@ public class MetadataParser {
     return term;
   }
 
-  private void readAnnotationGroup(XMLEventReader reader, StartElement element,
+  private void readAnnotationGroup(XMLStreamReader reader, Element element,
       CsdlSchema schema) throws XMLStreamException {
     final CsdlAnnotations annotations = new CsdlAnnotations();
     annotations.setTarget(attr(element, "Target"));
@@ -613,41 +799,39 @@ public class MetadataParser {
     schema.getAnnotationGroups().add(annotations);
   }
 
-  private void peekAnnotations(XMLEventReader reader, String endName,
+  private void peekAnnotations(XMLStreamReader reader, String endName,
       CsdlAnnotatable edmObject) throws XMLStreamException {
     if(!parseAnnotations) {
       return;
     }
     while (reader.hasNext()) {
-      XMLEvent event = reader.peek();
-
-      if (!event.isStartElement() && !event.isEndElement()) {
-        reader.nextEvent();
+      if (!reader.isStartElement() && !reader.isEndElement()) {
+        reader.next();
         continue;
       }
       
-      if (event.isStartElement()) {
-        StartElement element = event.asStartElement();
-        if ("Annotation".equals(element.getName().getLocalPart())) {
-          reader.nextEvent();
-          readAnnotations(reader, element, edmObject);
+      final String localName = reader.getLocalName();
+      if (reader.isStartElement()) {
+        if (!"Annotation".equals(localName)) {
+          // not an annotation; leave it to the caller
+          return;
         }
-      }
-      
-      if (event.isEndElement()) {
-        EndElement element = event.asEndElement();
-        if ("Annotation".equals(element.getName().getLocalPart())) {
-          reader.nextEvent();
+        Element element = new Element(reader);
+        reader.next();
+        readAnnotations(reader, element, edmObject);
+      } else {
+        if ("Annotation".equals(localName)) {
+          reader.next();
         }
         
-        if (element.getName().getLocalPart().equals(endName)) {
+        if (localName.equals(endName)) {
           return;
         }
       }
     }
   }
   
-  private void readAnnotations(XMLEventReader reader, StartElement element,
+  private void readAnnotations(XMLStreamReader reader, Element element,
       CsdlAnnotatable edmObject) throws XMLStreamException {
     if (!parseAnnotations) {
       return;
@@ -694,12 +878,12 @@ public class MetadataParser {
     }
   }
   
-  private <T> void readExpressions(XMLEventReader reader,
-      StartElement element, T target)
+  private <T> void readExpressions(XMLStreamReader reader,
+      Element element, T target)
       throws XMLStreamException {
     new ElementReader<T>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, T target, String name)
+      void build(XMLStreamReader reader, Element element, T target, String name)
           throws XMLStreamException {
         
         // element based expressions
@@ -708,7 +892,7 @@ public class MetadataParser {
           readAttributeExpressions(element, target);        
           
           for (ConstantExpressionType type:ConstantExpressionType.values()) {
-            if (name.equals(type.name()) && reader.peek().isCharacters()) {
+            if (name.equals(type.name()) && isCharacters(reader)) {
               CsdlExpression expr = new CsdlConstantExpression(type, elementValue(reader, element));
               write(target, expr);
             }        
@@ -779,7 +963,7 @@ public class MetadataParser {
         "Int", "String", "TimeOfDay", "Annotation");
   }
   
-  private <T> void readAttributeExpressions(StartElement element, T target)
+  private <T> void readAttributeExpressions(Element element, T target)
       throws XMLStreamException {
     // attribute based expressions
     for (ConstantExpressionType type:ConstantExpressionType.values()) {
@@ -808,28 +992,35 @@ public class MetadataParser {
     }
   }  
   
-  private String elementValue(XMLEventReader reader, StartElement element) throws XMLStreamException {
+  private String elementValue(XMLStreamReader reader, Element element) throws XMLStreamException {
     while (reader.hasNext()) {
-      XMLEvent event = reader.peek();
-      if (event.isStartElement() || event.isEndElement()) {
+      if (reader.isStartElement() || reader.isEndElement()) {
         return null;
-      } else if (event.isCharacters()){
-        reader.nextEvent();
-        String data = event.asCharacters().getData();
+      } else if (isCharacters(reader)) {
+        String data = reader.getText();
+        reader.next();
         if (data.trim().length() > 0) {
           return data.trim();
         }
+      } else {
+        reader.next();
       }
     }    
     return null;
   }
+
+  private static boolean isCharacters(XMLStreamReader reader) {
+    final int eventType = reader.getEventType();
+    return eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA
+        || eventType == XMLStreamConstants.SPACE;
+  }
   
-  private void readPropertyValues(XMLEventReader reader,
-      StartElement element, CsdlRecord record) throws XMLStreamException {
+  private void readPropertyValues(XMLStreamReader reader,
+      Element element, CsdlRecord record) throws XMLStreamException {
     
     new ElementReader<CsdlRecord>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlRecord record, String name)
+      void build(XMLStreamReader reader, Element element, CsdlRecord record, String name)
           throws XMLStreamException {
         if ("PropertyValue".equals(name)) {
           CsdlPropertyValue value = new CsdlPropertyValue();
@@ -844,7 +1035,7 @@ public class MetadataParser {
     }.read(reader, element, record, "PropertyValue", "Annotation");    
   }  
   
-  private void readFunction(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readFunction(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
     CsdlFunction function = new CsdlFunction();
     function.setParameters(new ArrayList<CsdlParameter>());
@@ -860,11 +1051,11 @@ public class MetadataParser {
     schema.getFunctions().add(function);
   }
 
-  private void readOperationParameters(XMLEventReader reader, final CsdlOperation operation)
+  private void readOperationParameters(XMLStreamReader reader, final CsdlOperation operation)
       throws XMLStreamException {
     new ElementReader<CsdlOperation>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlOperation operation, String name)
+      void build(XMLStreamReader reader, Element element, CsdlOperation operation, String name)
           throws XMLStreamException {
         if ("Parameter".equals(name)) {
           readParameter(reader, element, operation);
@@ -877,7 +1068,7 @@ public class MetadataParser {
     }.read(reader, null, operation, "Parameter", "ReturnType", "Annotation");
   }
 
-  private void readEnumType(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readEnumType(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
     CsdlEnumType type = new CsdlEnumType();
     type.setMembers(new ArrayList<CsdlEnumMember>());
@@ -891,12 +1082,12 @@ public class MetadataParser {
     schema.getEnumTypes().add(type);
   }
 
-  private void readEnumMembers(XMLEventReader reader, StartElement element, CsdlEnumType type)
+  private void readEnumMembers(XMLStreamReader reader, Element element, CsdlEnumType type)
       throws XMLStreamException {
     
     new ElementReader<CsdlEnumType>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlEnumType type, String name)
+      void build(XMLStreamReader reader, Element element, CsdlEnumType type, String name)
           throws XMLStreamException {
         if ("Member".equals(name)) {
           CsdlEnumMember member = new CsdlEnumMember();
@@ -911,7 +1102,7 @@ public class MetadataParser {
     }.read(reader, element, type, "Member", "Annotation");
   }
 
-  private void readEntityType(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readEntityType(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
     CsdlEntityType entityType = new CsdlEntityType();
     entityType.setProperties(new ArrayList<CsdlProperty>());
@@ -928,11 +1119,11 @@ public class MetadataParser {
     schema.getEntityTypes().add(entityType);
   }
 
-  private void readEntityProperties(XMLEventReader reader, CsdlEntityType entityType)
+  private void readEntityProperties(XMLStreamReader reader, CsdlEntityType entityType)
       throws XMLStreamException {
     new ElementReader<CsdlEntityType>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlEntityType entityType, String name)
+      void build(XMLStreamReader reader, Element element, CsdlEntityType entityType, String name)
           throws XMLStreamException {
         if ("Property".equals(name)) {
           entityType.getProperties().add(readProperty(reader, element));
@@ -947,11 +1138,11 @@ public class MetadataParser {
     }.read(reader, null, entityType, "Property", "NavigationProperty", "Key", "Annotation");
   }
 
-  private void readKey(XMLEventReader reader, StartElement element, CsdlEntityType entityType)
+  private void readKey(XMLStreamReader reader, Element element, CsdlEntityType entityType)
       throws XMLStreamException {
     new ElementReader<CsdlEntityType>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlEntityType entityType, String name)
+      void build(XMLStreamReader reader, Element element, CsdlEntityType entityType, String name)
           throws XMLStreamException {
         CsdlPropertyRef ref = new CsdlPropertyRef();
         ref.setName(attr(element, "Name"));
@@ -961,7 +1152,7 @@ public class MetadataParser {
     }.read(reader, element, entityType, "PropertyRef");
   }
 
-  private CsdlNavigationProperty readNavigationProperty(XMLEventReader reader, StartElement element)
+  private CsdlNavigationProperty readNavigationProperty(XMLStreamReader reader, Element element)
       throws XMLStreamException {
     CsdlNavigationProperty property = new CsdlNavigationProperty();
     property.setReferentialConstraints(new ArrayList<CsdlReferentialConstraint>());
@@ -975,7 +1166,7 @@ public class MetadataParser {
 
     new ElementReader<CsdlNavigationProperty>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlNavigationProperty property,
+      void build(XMLStreamReader reader, Element element, CsdlNavigationProperty property,
           String name) throws XMLStreamException {
         if ("ReferentialConstraint".equals(name)) {
           CsdlReferentialConstraint constraint = new CsdlReferentialConstraint();
@@ -996,23 +1187,15 @@ public class MetadataParser {
     return property;
   }
 
-  private static String attr(StartElement element, String name) {
-    Attribute attr = element.getAttributeByName(new QName(name));
-    if (attr != null) {
-      return attr.getValue();
-    }
-    return null;
+  private static String attr(Element element, String name) {
+    return element.getAttribute(null, name);
   }
 
-  private static String attrNS(StartElement element, String ns, String name) {
-    Attribute attr = element.getAttributeByName(new QName(ns, name));
-    if (attr != null) {
-      return attr.getValue();
-    }
-    return null;
+  private static String attrNS(Element element, String ns, String name) {
+    return element.getAttribute(ns, name);
   }  
   
-  private CsdlProperty readProperty(XMLEventReader reader, StartElement element)
+  private CsdlProperty readProperty(XMLStreamReader reader, Element element)
       throws XMLStreamException {
     CsdlProperty property = new CsdlProperty();
     property.setName(attr(element, "Name"));
@@ -1048,7 +1231,7 @@ public class MetadataParser {
     return property;
   }
 
-  private void readEntityContainer(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readEntityContainer(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
     final CsdlEntityContainer container = new CsdlEntityContainer();
     container.setName(attr(element, "Name"));
@@ -1062,7 +1245,7 @@ public class MetadataParser {
 
     new ElementReader<CsdlSchema>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlSchema schema, String name)
+      void build(XMLStreamReader reader, Element element, CsdlSchema schema, String name)
           throws XMLStreamException {
         if ("EntitySet".equals(name)) {
           readEntitySet(reader, element, container);
@@ -1077,8 +1260,8 @@ public class MetadataParser {
         }
       }
 
-      private void readFunctionImport(XMLEventReader reader,
-          StartElement element, CsdlEntityContainer container)
+      private void readFunctionImport(XMLStreamReader reader,
+          Element element, CsdlEntityContainer container)
           throws XMLStreamException {
         CsdlFunctionImport functionImport = new CsdlFunctionImport();
         functionImport.setName(attr(element, "Name"));
@@ -1094,8 +1277,8 @@ public class MetadataParser {
         container.getFunctionImports().add(functionImport);
       }
 
-      private void readActionImport(XMLEventReader reader,
-          StartElement element, CsdlEntityContainer container)
+      private void readActionImport(XMLStreamReader reader,
+          Element element, CsdlEntityContainer container)
           throws XMLStreamException {
         CsdlActionImport actionImport = new CsdlActionImport();
         actionImport.setName(attr(element, "Name"));
@@ -1109,7 +1292,7 @@ public class MetadataParser {
         container.getActionImports().add(actionImport);
       }
 
-      private void readSingleton(XMLEventReader reader, StartElement element,
+      private void readSingleton(XMLStreamReader reader, Element element,
           CsdlEntityContainer container) throws XMLStreamException {
         CsdlSingleton singleton = new CsdlSingleton();
         singleton.setNavigationPropertyBindings(new ArrayList<CsdlNavigationPropertyBinding>());
@@ -1120,7 +1303,7 @@ public class MetadataParser {
         container.getSingletons().add(singleton);
       }
 
-      private void readEntitySet(XMLEventReader reader, StartElement element,
+      private void readEntitySet(XMLStreamReader reader, Element element,
           CsdlEntityContainer container) throws XMLStreamException {
         CsdlEntitySet entitySet = new CsdlEntitySet();
         entitySet.setName(attr(element, "Name"));
@@ -1132,11 +1315,11 @@ public class MetadataParser {
         container.getEntitySets().add(entitySet);
       }
 
-      private void readNavigationPropertyBindings(XMLEventReader reader, StartElement element,
+      private void readNavigationPropertyBindings(XMLStreamReader reader, Element element,
           CsdlBindingTarget entitySet) throws XMLStreamException {
         new ElementReader<CsdlBindingTarget>() {
           @Override
-          void build(XMLEventReader reader, StartElement element,
+          void build(XMLStreamReader reader, Element element,
               CsdlBindingTarget entitySet, String name) throws XMLStreamException {
             if ("NavigationPropertyBinding".equals(name)) {
               CsdlNavigationPropertyBinding binding = new CsdlNavigationPropertyBinding();
@@ -1154,7 +1337,7 @@ public class MetadataParser {
     schema.setEntityContainer(container);
   }
 
-  private void readComplexType(XMLEventReader reader, StartElement element, CsdlSchema schema)
+  private void readComplexType(XMLStreamReader reader, Element element, CsdlSchema schema)
       throws XMLStreamException {
     CsdlComplexType complexType = new CsdlComplexType();
     complexType.setProperties(new ArrayList<CsdlProperty>());
@@ -1170,11 +1353,11 @@ public class MetadataParser {
     schema.getComplexTypes().add(complexType);
   }
 
-  private void readProperties(XMLEventReader reader, CsdlComplexType complexType)
+  private void readProperties(XMLStreamReader reader, CsdlComplexType complexType)
       throws XMLStreamException {
     new ElementReader<CsdlComplexType>() {
       @Override
-      void build(XMLEventReader reader, StartElement element, CsdlComplexType complexType, String name)
+      void build(XMLStreamReader reader, Element element, CsdlComplexType complexType, String name)
           throws XMLStreamException {
         if ("Property".equals(name)) {
           complexType.getProperties().add(readProperty(reader, element));
@@ -1188,50 +1371,39 @@ public class MetadataParser {
   }
 
   abstract class ElementReader<T> {
-    void read(XMLEventReader reader, StartElement parentElement, T t, String... names)
+    void read(XMLStreamReader reader, Element parentElement, T t, String... names)
         throws XMLStreamException {
       while (reader.hasNext()) {
-        XMLEvent event = reader.peek();
-
-        if (!parseAnnotations) {
-          XMLEvent eventBefore = event;
-          event = skipAnnotations(reader, event);
-          // if annotation is stripped start again
-          if (eventBefore != event) {            
-            continue;
-          }
+        // if annotation is stripped start again
+        if (!parseAnnotations && skipAnnotations(reader)) {
+          continue;
         }
 
-        if (!event.isStartElement() && !event.isEndElement()) {
-          reader.nextEvent();
+        if (!reader.isStartElement() && !reader.isEndElement()) {
+          reader.next();
           continue;
         }
 
-        if (parentElement != null && event.isEndElement()
-            && ((EndElement) event).getName().equals(parentElement.getName())) {
+        if (parentElement != null && reader.isEndElement()
+            && reader.getName().equals(parentElement.getName())) {
           // end reached
           break;
         }
 
         boolean hit = false;
+        final String localName = reader.getLocalName();
 
         for (String name : names) {
-          if (event.isStartElement()) {
-            StartElement element = event.asStartElement();
-            if (element.getName().getLocalPart().equals(name)) {              
-              reader.nextEvent(); // advance cursor start which is current
+          if (localName.equals(name)) {
+            if (reader.isStartElement()) {
+              Element element = new Element(reader);
+              reader.next(); // advance cursor start which is current
               build(reader, element, t, name);
-              hit = true;
-              break;
-            }
-          }
-          if (event.isEndElement()) {
-            EndElement e = event.asEndElement();
-            if (e.getName().getLocalPart().equals(name)) {
-              reader.nextEvent(); // advance cursor to end which is current
-              hit = true;
-              break;
+            } else {
+              reader.next(); // advance cursor to end which is current
             }
+            hit = true;
+            break;
           }
         }
         if (!hit) {
@@ -1240,36 +1412,62 @@ public class MetadataParser {
       }
     }
 
-    private XMLEvent skipAnnotations(XMLEventReader reader, XMLEvent event)
-        throws XMLStreamException {
-      boolean skip = false;
-
+    private boolean skipAnnotations(XMLStreamReader reader) throws XMLStreamException {
+      if (!reader.isStartElement() || !"Annotation".equals(reader.getLocalName())) {
+        return false;
+      }
+      reader.next();
       while (reader.hasNext()) {
-        if (event.isStartElement()) {
-          StartElement element = event.asStartElement();
-          if ("Annotation".equals(element.getName().getLocalPart())) {
-            skip = true;
-          }
-        }
-        if (event.isEndElement()) {
-          EndElement element = event.asEndElement();
-          if ("Annotation".equals(element.getName().getLocalPart())) {
-            return reader.peek();
-          }
-        }
-        if (skip) {
-          event = reader.nextEvent();
-        } else {
-          return event;
+        if (reader.isEndElement() && "Annotation".equals(reader.getLocalName())) {
+          reader.next();
+          break;
         }
+        reader.next();
       }
-      return event;
+      return true;
     }
 
-    abstract void build(XMLEventReader reader, StartElement element, T t, String name)
+    abstract void build(XMLStreamReader reader, Element element, T t, String name)
         throws XMLStreamException;
   }
-  
+
+  /**
+   * Start element as seen by the {@link ElementReader}s. Name and attributes are copied from the
+   * stream reader, so that they are still available after the cursor has moved on to the content.
+   */
+  private static final class Element {
+    private final QName name;
+    // namespace URI, local name, and value of each attribute
+    private final String[] attributes;
+
+    Element(XMLStreamReader reader) {
+      name = reader.getName();
+      final int count = reader.getAttributeCount();
+      attributes = new String[count * 3];
+      for (int i = 0; i < count; i++) {
+        attributes[3 * i] = reader.getAttributeNamespace(i);
+        attributes[3 * i + 1] = reader.getAttributeLocalName(i);
+        attributes[3 * i + 2] = reader.getAttributeValue(i);
+      }
+    }
+
+    QName getName() {
+      return name;
+    }
+
+    String getAttribute(String ns, String localName) {
+      for (int i = 0; i < attributes.length; i += 3) {
+        if (localName.equals(attributes[i + 1])) {
+          final String attributeNs = attributes[i];
+          if (ns == null ? attributeNs == null || attributeNs.isEmpty() : ns.equals(attributeNs)) {
+            return attributes[i + 2];
+          }
+        }
+      }
+      return null;
+    }
+  }
+
   private static class DefaultReferenceResolver implements ReferenceResolver {
     @Override
     public InputStream resolveReference(URI referenceUri, String xmlBase) {
@@ -19,13 +19,20 @@
 package org.apache.olingo.server.core;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
@@ -38,6 +45,7 @@ import org.apache.olingo.server.core.legacy.ProcessorServiceHandler;
 
 public class OData4HttpHandler extends ODataHttpHandlerImpl {
   private ServiceHandler handler;
+  private AsyncServiceHandler asyncHandler;
   private final ServiceMetadata serviceMetadata;
   private final OData odata;
   private int split = 0;
@@ -56,25 +64,81 @@ public class OData4HttpHandler extends ODataHttpHandlerImpl {
   @Override
   public void process(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse) {
     ODataRequest request = null;
-    ODataResponse response = new ODataResponse();
+    final ODataResponse response = new ODataResponse();
+    // the adapter holds the state of one request
+    ServiceHandler serviceHandler = this.asyncHandler == null ? this.handler
+        : new AsyncServiceHandlerAdapter(this.asyncHandler);
+    CompletionStage<Void> stage = null;
 
     try {
       request = createODataRequest(httpRequest, this.split);
       validateODataVersion(request, response);
 
       ServiceDispatcher dispatcher = new ServiceDispatcher(this.odata, this.serviceMetadata,
-          handler, this.customContentTypeSupport);
-      dispatcher.execute(request, response);
+          serviceHandler, this.customContentTypeSupport);
+      stage = dispatcher.executeAsync(request, response);
       
     } catch (Exception e) {
       // also handle any unchecked exception thrown by service handler for proper serialization
       ErrorHandler handler = new ErrorHandler(this.odata, this.serviceMetadata,
-          this.handler, ContentType.JSON);
+          serviceHandler, ContentType.JSON);
       handler.handleException(e, request, response);
-    }    
-    convertToHttp(httpResponse, response);
+    }
+    if (stage == null || stage.toCompletableFuture().isDone() || !httpRequest.isAsyncSupported()) {
+      if (stage != null) {
+        stage.toCompletableFuture().join();
+      }
+      convertToHttp(httpResponse, response);
+    } else {
+      convertToHttpAsync(httpRequest.startAsync(), httpResponse, response, stage);
+    }
   }
 
+  /**
+   * Writes the response once the asynchronous service handler is done, without occupying
+   * a container thread while waiting. If the asynchronous request times out before,
+   * "Service Unavailable" is sent and the late response is discarded.
+   */
+  private void convertToHttpAsync(final AsyncContext asyncContext, final HttpServletResponse httpResponse,
+      final ODataResponse response, CompletionStage<Void> stage) {
+    final AtomicBoolean done = new AtomicBoolean();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) throws IOException {
+        if (done.compareAndSet(false, true)) {
+          httpResponse.setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+          asyncContext.complete();
+        }
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) throws IOException {
+        // nothing to do
+      }
+
+      @Override
+      public void onError(AsyncEvent event) throws IOException {
+        done.set(true);
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) throws IOException {
+        done.set(true);
+      }
+    });
+    stage.whenComplete(new BiConsumer<Void, Throwable>() {
+      @Override
+      public void accept(Void result, Throwable error) {
+        if (done.compareAndSet(false, true)) {
+          try {
+            convertToHttp(httpResponse, response);
+          } finally {
+            asyncContext.complete();
+          }
+        }
+      }
+    });
+  }
 
   ODataRequest createODataRequest(final HttpServletRequest httpRequest, final int split)
       throws ODataLibraryException {
@@ -111,6 +175,10 @@ public class OData4HttpHandler extends ODataHttpHandlerImpl {
     if (processor instanceof ServiceHandler) {
       this.handler = (ServiceHandler) processor;
       this.handler.init(this.odata, this.serviceMetadata);
+      this.asyncHandler = null;
+    } else if (processor instanceof AsyncServiceHandler) {
+      this.asyncHandler = (AsyncServiceHandler) processor;
+      this.asyncHandler.init(this.odata, this.serviceMetadata);
     }
 
     if (this.handler instanceof ProcessorServiceHandler) {
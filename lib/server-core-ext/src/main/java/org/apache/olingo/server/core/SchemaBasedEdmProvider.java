@@ -19,6 +19,8 @@
 package org.apache.olingo.server.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +41,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlNamed;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
 import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
@@ -47,8 +50,17 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.edmx.EdmxReferenceInclude;
 import org.apache.olingo.commons.api.ex.ODataException;
 
+/**
+ * <p>{@link CsdlEdmProvider} serving the schemas read from CSDL documents, e.g., by the {@link MetadataParser}.</p>
+ * <p>Each schema is indexed by namespace and alias, and its elements by name, when it is added;
+ * a schema must therefore not be changed after it has been added.
+ * Namespaces resolved through referenced and vocabulary schemas are remembered.</p>
+ */
 public class SchemaBasedEdmProvider implements CsdlEdmProvider {
   private final List<CsdlSchema> edmSchemas = new ArrayList<>();
+  private final Map<String, SchemaIndex> schemaIndexes = new ConcurrentHashMap<>();
+  private final Map<String, SchemaIndex> aliasIndexes = new ConcurrentHashMap<>();
+  private final Map<String, SchemaIndex> resolvedSchemaIndexes = new ConcurrentHashMap<>();
   private final Map<String, EdmxReference> references = new ConcurrentHashMap<>();
   private final Map<String, SchemaBasedEdmProvider> referenceSchemas = 
       new ConcurrentHashMap<>();
@@ -57,6 +69,14 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
   
   protected void addSchema(CsdlSchema schema) {
     this.edmSchemas.add(schema);
+    final SchemaIndex index = new SchemaIndex(schema);
+    if (!this.schemaIndexes.containsKey(schema.getNamespace())) {
+      this.schemaIndexes.put(schema.getNamespace(), index);
+    }
+    if (schema.getAlias() != null && !this.aliasIndexes.containsKey(schema.getAlias())) {
+      this.aliasIndexes.put(schema.getAlias(), index);
+    }
+    this.resolvedSchemaIndexes.clear();
   }
   
   public List<EdmxReference> getReferences(){
@@ -65,10 +85,12 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
   
   protected void addReferenceSchema(String ns, SchemaBasedEdmProvider provider) {
     this.referenceSchemas.put(ns, provider);
+    this.resolvedSchemaIndexes.clear();
   }  
   
   protected void addVocabularySchema(String ns, SchemaBasedEdmProvider provider) {
     this.coreVocabularySchemas.put(ns, provider);
+    this.resolvedSchemaIndexes.clear();
   }
   
   protected void addReference(EdmxReference reference) {
@@ -76,11 +98,24 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
       this.references.put(include.getNamespace(), reference);
     }
   }  
+
+  Map<String, SchemaBasedEdmProvider> getReferenceSchemas() {
+    return this.referenceSchemas;
+  }
+
+  Map<String, SchemaBasedEdmProvider> getVocabularySchemas() {
+    return this.coreVocabularySchemas;
+  }
   
   CsdlSchema getVocabularySchema(String ns) {
+    final SchemaIndex index = getVocabularySchemaIndex(ns);
+    return index == null ? null : index.schema;
+  }
+
+  private SchemaIndex getVocabularySchemaIndex(String ns) {
     SchemaBasedEdmProvider provider = this.coreVocabularySchemas.get(ns);
     if (provider != null) {
-      return provider.getSchema(ns, false);
+      return provider.getSchemaIndexDirectly(ns);
     }
     return null;
   }
@@ -98,19 +133,42 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
   }
 
   CsdlSchema getSchemaDirectly(String ns) {
-    for (CsdlSchema s : this.edmSchemas) {
-      if (s.getNamespace().equals(ns)) {
-        return s;
-      }
+    final SchemaIndex index = getSchemaIndexDirectly(ns);
+    return index == null ? null : index.schema;
+  }
+
+  private SchemaIndex getSchemaIndexDirectly(String ns) {
+    if (ns == null) {
+      return null;
     }
-    return null;
+    final SchemaIndex index = this.schemaIndexes.get(ns);
+    return index == null ? this.aliasIndexes.get(ns) : index;
   }
 
   CsdlSchema getSchemaRecursively(String ns, Set<String> parsedPath) {
+    final SchemaIndex index = getSchemaIndexRecursively(ns, parsedPath);
+    return index == null ? null : index.schema;
+  }
+
+  private SchemaIndex getSchemaIndex(String ns) {
+    if (ns == null) {
+      return null;
+    }
+    SchemaIndex index = this.resolvedSchemaIndexes.get(ns);
+    if (index == null) {
+      index = getSchemaIndexRecursively(ns, new HashSet<String>());
+      if (index != null) {
+        this.resolvedSchemaIndexes.put(ns, index);
+      }
+    }
+    return index;
+  }
+
+  private SchemaIndex getSchemaIndexRecursively(String ns, Set<String> parsedPath) {
     // find the schema by namespace in current provider
-    CsdlSchema schema = getSchemaDirectly(ns);
-    if (schema != null) {
-      return schema;
+    SchemaIndex index = getSchemaIndexDirectly(ns);
+    if (index != null) {
+      return index;
     }
 
     // find the schema by namespace in the reference schema provider
@@ -121,144 +179,64 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
       }
       SchemaBasedEdmProvider provider = entry.getValue();
       parsedPath.add(namespace);
-      schema = provider.getSchemaRecursively(ns, parsedPath);
-      if (schema != null) {
-        return schema;
+      index = provider.getSchemaIndexRecursively(ns, parsedPath);
+      if (index != null) {
+        return index;
       }
     }
 
-    return getVocabularySchema(ns);
+    return getVocabularySchemaIndex(ns);
   }
   
   @Override
   public CsdlEnumType getEnumType(FullQualifiedName fqn) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      List<CsdlEnumType> types = schema.getEnumTypes();
-      if (types != null) {
-        for (CsdlEnumType type : types) {
-          if (type.getName().equals(fqn.getName())) {
-            return type;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.enumTypes.get(fqn.getName());
   }
 
   @Override
   public CsdlTypeDefinition getTypeDefinition(FullQualifiedName fqn) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      List<CsdlTypeDefinition> types = schema.getTypeDefinitions();
-      if (types != null) {
-        for (CsdlTypeDefinition type : types) {
-          if (type.getName().equals(fqn.getName())) {
-            return type;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.typeDefinitions.get(fqn.getName());
   }
 
   @Override
   public List<CsdlFunction> getFunctions(FullQualifiedName fqn) throws ODataException {
-    ArrayList<CsdlFunction> foundFuncs = new ArrayList<>();
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      List<CsdlFunction> functions = schema.getFunctions();
-      if (functions != null) {
-        for (CsdlFunction func : functions) {
-          if (func.getName().equals(fqn.getName())) {
-            foundFuncs.add(func);
-          }
-        }
-      }
-    }
-    return foundFuncs;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    final List<CsdlFunction> functions = index == null ? null : index.functions.get(fqn.getName());
+    return functions == null ? new ArrayList<CsdlFunction>() : new ArrayList<>(functions);
   }
 
   @Override
   public CsdlTerm getTerm(FullQualifiedName fqn) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      List<CsdlTerm> terms = schema.getTerms();
-      if (terms != null) {
-        for (CsdlTerm term : terms) {
-          if (term.getName().equals(fqn.getName())) {
-            return term;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.terms.get(fqn.getName());
   }
 
   @Override
   public CsdlEntitySet getEntitySet(FullQualifiedName fqn, String entitySetName) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      CsdlEntityContainer ec = schema.getEntityContainer();
-      if (ec != null && ec.getEntitySets() != null) {
-        for (CsdlEntitySet es : ec.getEntitySets()) {
-          if (es.getName().equals(entitySetName)) {
-            return es;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.entitySets.get(entitySetName);
   }
 
   @Override
   public CsdlSingleton getSingleton(FullQualifiedName fqn, String singletonName) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      CsdlEntityContainer ec = schema.getEntityContainer();
-      if (ec != null && ec.getSingletons() != null) {
-        for (CsdlSingleton es : ec.getSingletons()) {
-          if (es.getName().equals(singletonName)) {
-            return es;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.singletons.get(singletonName);
   }
 
   @Override
   public CsdlActionImport getActionImport(FullQualifiedName fqn, String actionImportName)
       throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      CsdlEntityContainer ec = schema.getEntityContainer();
-      if (ec != null && ec.getActionImports() != null) {
-        for (CsdlActionImport es : ec.getActionImports()) {
-          if (es.getName().equals(actionImportName)) {
-            return es;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.actionImports.get(actionImportName);
   }
 
   @Override
   public CsdlFunctionImport getFunctionImport(FullQualifiedName fqn, String functionImportName)
       throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      CsdlEntityContainer ec = schema.getEntityContainer();
-      if (ec != null && ec.getFunctionImports() != null) {
-        for (CsdlFunctionImport es : ec.getFunctionImports()) {
-          if (es.getName().equals(functionImportName)) {
-            return es;
-          }
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.functionImports.get(functionImportName);
   }
 
   @Override
@@ -343,53 +321,90 @@ public class SchemaBasedEdmProvider implements CsdlEdmProvider {
 
   @Override
   public CsdlEntityType getEntityType(final FullQualifiedName fqn) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null && schema.getEntityTypes() != null) {
-      for (CsdlEntityType type : schema.getEntityTypes()) {
-        if (type.getName().equals(fqn.getName())) {
-          return type;
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.entityTypes.get(fqn.getName());
   }
 
   @Override
   public CsdlComplexType getComplexType(final FullQualifiedName fqn) throws ODataException {
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null && schema.getComplexTypes() != null) {
-      for (CsdlComplexType type : schema.getComplexTypes()) {
-        if (type.getName().equals(fqn.getName())) {
-          return type;
-        }
-      }
-    }
-    return null;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    return index == null ? null : index.complexTypes.get(fqn.getName());
   }
 
   @Override
   public List<CsdlAction> getActions(final FullQualifiedName fqn) throws ODataException {
-    ArrayList<CsdlAction> actions = new ArrayList<>();
-    CsdlSchema schema = getSchema(fqn.getNamespace());
-    if (schema != null) {
-      List<CsdlAction> types = schema.getActions();
-      if (types != null) {
-        for (CsdlAction type : types) {
-          if (type.getName().equals(fqn.getName())) {
-            actions.add(type);
-          }
-        }
-      }
-    }
-    return actions;
+    final SchemaIndex index = getSchemaIndex(fqn.getNamespace());
+    final List<CsdlAction> actions = index == null ? null : index.actions.get(fqn.getName());
+    return actions == null ? new ArrayList<CsdlAction>() : new ArrayList<>(actions);
   }
 
   @Override
   public CsdlAnnotations getAnnotationsGroup(FullQualifiedName targetName, String qualifier) throws ODataException {
-    CsdlSchema schema = getSchema(targetName.getNamespace());
-    if (schema != null) {
-      return schema.getAnnotationGroup(targetName.getFullQualifiedNameAsString(), qualifier);
+    final SchemaIndex index = getSchemaIndex(targetName.getNamespace());
+    if (index != null) {
+      return index.schema.getAnnotationGroup(targetName.getFullQualifiedNameAsString(), qualifier);
     }
     return null;
-  } 
+  }
+
+  /** Lookup maps for the elements of a schema; the first element with a given name wins. */
+  private static final class SchemaIndex {
+    private final CsdlSchema schema;
+    private final Map<String, CsdlEntityType> entityTypes;
+    private final Map<String, CsdlComplexType> complexTypes;
+    private final Map<String, CsdlEnumType> enumTypes;
+    private final Map<String, CsdlTypeDefinition> typeDefinitions;
+    private final Map<String, CsdlTerm> terms;
+    private final Map<String, List<CsdlAction>> actions;
+    private final Map<String, List<CsdlFunction>> functions;
+    private final Map<String, CsdlEntitySet> entitySets;
+    private final Map<String, CsdlSingleton> singletons;
+    private final Map<String, CsdlActionImport> actionImports;
+    private final Map<String, CsdlFunctionImport> functionImports;
+
+    private SchemaIndex(final CsdlSchema schema) {
+      this.schema = schema;
+      entityTypes = index(schema.getEntityTypes());
+      complexTypes = index(schema.getComplexTypes());
+      enumTypes = index(schema.getEnumTypes());
+      typeDefinitions = index(schema.getTypeDefinitions());
+      terms = index(schema.getTerms());
+      actions = indexOverloads(schema.getActions());
+      functions = indexOverloads(schema.getFunctions());
+      final CsdlEntityContainer container = schema.getEntityContainer();
+      entitySets = index(container == null ? null : container.getEntitySets());
+      singletons = index(container == null ? null : container.getSingletons());
+      actionImports = index(container == null ? null : container.getActionImports());
+      functionImports = index(container == null ? null : container.getFunctionImports());
+    }
+
+    private static <T extends CsdlNamed> Map<String, T> index(final List<T> elements) {
+      if (elements == null || elements.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      Map<String, T> result = new HashMap<>();
+      for (final T element : elements) {
+        if (!result.containsKey(element.getName())) {
+          result.put(element.getName(), element);
+        }
+      }
+      return result;
+    }
+
+    private static <T extends CsdlNamed> Map<String, List<T>> indexOverloads(final List<T> elements) {
+      if (elements == null || elements.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      Map<String, List<T>> result = new HashMap<>();
+      for (final T element : elements) {
+        List<T> overloads = result.get(element.getName());
+        if (overloads == null) {
+          overloads = new ArrayList<>(1);
+          result.put(element.getName(), overloads);
+        }
+        overloads.add(element);
+      }
+      return result;
+    }
+  }
 }
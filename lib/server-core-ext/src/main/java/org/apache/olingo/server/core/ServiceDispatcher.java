@@ -21,6 +21,9 @@ package org.apache.olingo.server.core;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -81,6 +84,18 @@ public class ServiceDispatcher extends RequestURLHierarchyVisitor {
   }
 
   public void execute(ODataRequest odRequest, ODataResponse odResponse) {
+    // the stage does not complete exceptionally, errors are written to the response
+    executeAsync(odRequest, odResponse).toCompletableFuture().join();
+  }
+
+  /**
+   * Executes the request without waiting for an {@link AsyncServiceHandler} registered with the
+   * {@link OData4HttpHandler}.
+   * @param odRequest the request
+   * @param odResponse the response
+   * @return stage completed once the response has been written, also in case of errors
+   */
+  public CompletionStage<Void> executeAsync(ODataRequest odRequest, ODataResponse odResponse) {
     FormatOption formatOption = null;
     ODataException oDataException = null;
     try {
@@ -96,10 +111,15 @@ public class ServiceDispatcher extends RequestURLHierarchyVisitor {
         
         internalExecute(uriInfo, odRequest, odResponse);
       }
-      return;
+      return pendingResponse(formatOption, odRequest, odResponse);
     } catch(ODataLibraryException | ODataApplicationException e) {
     	oDataException = e;
     }
+    handleException(oDataException, getErrorContentType(formatOption, odRequest), odRequest, odResponse);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private ContentType getErrorContentType(FormatOption formatOption, ODataRequest odRequest) {
     ContentType contentType = ContentType.JSON;
     try {
       contentType = ContentNegotiator.doContentNegotiation(formatOption, 
@@ -107,7 +127,41 @@ public class ServiceDispatcher extends RequestURLHierarchyVisitor {
     } catch (ContentNegotiatorException e) {
       // ignore, default to JSON
     }
-    handleException(oDataException, contentType, odRequest, odResponse);
+    return contentType;
+  }
+
+  private CompletionStage<Void> pendingResponse(final FormatOption formatOption, final ODataRequest odRequest,
+      final ODataResponse odResponse) {
+    CompletionStage<Void> stage = null;
+    if (this.handler instanceof AsyncServiceHandlerAdapter) {
+      stage = ((AsyncServiceHandlerAdapter) this.handler).takePending();
+    }
+    if (stage == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return stage.handle(new BiFunction<Void, Throwable, Void>() {
+      @Override
+      public Void apply(Void result, Throwable error) {
+        if (error != null) {
+          handleAsyncException(AsyncServiceHandlerAdapter.unwrap(error), formatOption, odRequest, odResponse);
+        }
+        return null;
+      }
+    });
+  }
+
+  private void handleAsyncException(Throwable error, FormatOption formatOption, ODataRequest odRequest,
+      ODataResponse odResponse) {
+    if (error instanceof ODataException) {
+      handleException((ODataException) error, getErrorContentType(formatOption, odRequest), odRequest,
+          odResponse);
+    } else if (error instanceof Exception) {
+      // same as for unchecked exceptions thrown by a synchronous service handler
+      new ErrorHandler(this.odata, this.metadata, this.handler, ContentType.JSON)
+          .handleException((Exception) error, odRequest, odResponse);
+    } else {
+      throw (Error) error;
+    }
   }
   
   protected void handleException(ODataException e, ContentType contentType,
@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Evaluates <code>$filter</code> and <code>$orderby</code> expressions on a single entity for the
+ * residual operations of a {@link QueryPlan}. Members may address primitive and complex properties of
+ * the entity; lambda expressions, navigation, aliases and enumerations are not supported.
+ * Numbers are compared and calculated as {@link BigDecimal}s, except for <code>NaN</code> and infinite
+ * floating-point values, which are compared and calculated as doubles; <code>null</code> propagates through
+ * all operators and is smaller than any other value when sorting.
+ */
+class EntityExpressionEvaluator implements ExpressionVisitor<Object> {
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private Entity entity;
+
+  Object evaluate(Expression expression, Entity entity) throws ODataApplicationException {
+    this.entity = entity;
+    try {
+      return expression.accept(this);
+    } catch (ExpressionVisitException e) {
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(),
+          Locale.getDefault(), e);
+    }
+  }
+
+  @Override
+  public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, Object right)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case AND:
+      if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+        return Boolean.FALSE;
+      }
+      return left == null || right == null ? null : Boolean.TRUE;
+    case OR:
+      if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+        return Boolean.TRUE;
+      }
+      return left == null || right == null ? null : Boolean.FALSE;
+    case EQ:
+      return isEqual(left, right);
+    case NE:
+      return !isEqual(left, right);
+    case GT:
+      return left == null || right == null ? Boolean.FALSE : compare(left, right) > 0;
+    case GE:
+      return left == null || right == null ? Boolean.FALSE : compare(left, right) >= 0;
+    case LT:
+      return left == null || right == null ? Boolean.FALSE : compare(left, right) < 0;
+    case LE:
+      return left == null || right == null ? Boolean.FALSE : compare(left, right) <= 0;
+    case ADD:
+    case SUB:
+    case MUL:
+    case DIV:
+    case MOD:
+      return calculate(operator, left, right);
+    default:
+      throw notImplemented("The operator " + operator);
+    }
+  }
+
+  @Override
+  public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, List<Object> right)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operator != BinaryOperatorKind.IN) {
+      throw notImplemented("The operator " + operator);
+    }
+    for (Object value : right) {
+      if (isEqual(left, value)) {
+        return Boolean.TRUE;
+      }
+    }
+    return Boolean.FALSE;
+  }
+
+  @Override
+  public Object visitUnaryOperator(UnaryOperatorKind operator, Object operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operand == null) {
+      return null;
+    }
+    if (operator == UnaryOperatorKind.NOT && operand instanceof Boolean) {
+      return !((Boolean) operand);
+    } else if (operator == UnaryOperatorKind.MINUS && operand instanceof Number) {
+      return isNonFinite(operand) ? -((Number) operand).doubleValue() : toDecimal(operand).negate();
+    }
+    throw notImplemented("The operator " + operator + " on " + operand.getClass().getSimpleName());
+  }
+
+  @Override
+  public Object visitMethodCall(MethodKind methodCall, List<Object> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    for (Object parameter : parameters) {
+      if (parameter == null) {
+        return null;
+      }
+    }
+    Object first = parameters.isEmpty() ? null : parameters.get(0);
+    switch (methodCall) {
+    case CONTAINS:
+      return string(first).contains(string(parameters.get(1)));
+    case STARTSWITH:
+      return string(first).startsWith(string(parameters.get(1)));
+    case ENDSWITH:
+      return string(first).endsWith(string(parameters.get(1)));
+    case LENGTH:
+      return string(first).length();
+    case INDEXOF:
+      return string(first).indexOf(string(parameters.get(1)));
+    case SUBSTRING:
+      String value = string(first);
+      int start = Math.min(Math.max(toInt(parameters.get(1)), 0), value.length());
+      int end = parameters.size() > 2
+          ? Math.min(start + Math.min(Math.max(toInt(parameters.get(2)), 0), value.length()), value.length())
+          : value.length();
+      return value.substring(start, end);
+    case TOLOWER:
+      return string(first).toLowerCase(Locale.ROOT);
+    case TOUPPER:
+      return string(first).toUpperCase(Locale.ROOT);
+    case TRIM:
+      return string(first).trim();
+    case CONCAT:
+      return string(first) + string(parameters.get(1));
+    case YEAR:
+      return calendar(first).get(Calendar.YEAR);
+    case MONTH:
+      return calendar(first).get(Calendar.MONTH) + 1;
+    case DAY:
+      return calendar(first).get(Calendar.DAY_OF_MONTH);
+    case HOUR:
+      return calendar(first).get(Calendar.HOUR_OF_DAY);
+    case MINUTE:
+      return calendar(first).get(Calendar.MINUTE);
+    case SECOND:
+      return calendar(first).get(Calendar.SECOND);
+    case ROUND:
+      return isNonFinite(first) ? first : toDecimal(first).setScale(0, RoundingMode.HALF_UP);
+    case FLOOR:
+      return isNonFinite(first) ? first : toDecimal(first).setScale(0, RoundingMode.FLOOR);
+    case CEILING:
+      return isNonFinite(first) ? first : toDecimal(first).setScale(0, RoundingMode.CEILING);
+    default:
+      throw notImplemented("The method " + methodCall);
+    }
+  }
+
+  @Override
+  public Object visitLiteral(Literal literal) throws ExpressionVisitException, ODataApplicationException {
+    EdmType type = literal.getType();
+    if (type == null || "null".equals(literal.getText())) {
+      return null;
+    }
+    if (!(type instanceof EdmPrimitiveType)) {
+      throw notImplemented("The literal " + literal.getText());
+    }
+    EdmPrimitiveType primitiveType = (EdmPrimitiveType) type;
+    try {
+      return primitiveType.valueOfString(primitiveType.fromUriLiteral(literal.getText()),
+          true, null, Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, true, primitiveType.getDefaultType());
+    } catch (EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.getDefault(), e);
+    }
+  }
+
+  @Override
+  public Object visitMember(Member member) throws ExpressionVisitException, ODataApplicationException {
+    Object current = this.entity;
+    for (UriResource part : member.getResourcePath().getUriResourceParts()) {
+      if (part.getKind() == UriResourceKind.it) {
+        continue;
+      }
+      if (!(part instanceof UriResourceProperty) || ((UriResourceProperty) part).isCollection()) {
+        throw notImplemented("The path segment " + part.getSegmentValue());
+      }
+      Property property = getProperty(current, ((UriResourceProperty) part).getProperty().getName());
+      if (property == null || property.isNull()) {
+        return null;
+      }
+      current = property.getValue();
+    }
+    return current;
+  }
+
+  private static Property getProperty(Object structure, String name) {
+    if (structure instanceof Entity) {
+      return ((Entity) structure).getProperty(name);
+    } else if (structure instanceof ComplexValue) {
+      for (Property property : ((ComplexValue) structure).getValue()) {
+        if (name.equals(property.getName())) {
+          return property;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Object visitLambdaExpression(String lambdaFunction, String lambdaVariable, Expression expression)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The lambda expression " + lambdaFunction);
+  }
+
+  @Override
+  public Object visitAlias(String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The alias " + aliasName);
+  }
+
+  @Override
+  public Object visitTypeLiteral(EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The type literal " + type.getName());
+  }
+
+  @Override
+  public Object visitLambdaReference(String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The lambda variable " + variableName);
+  }
+
+  @Override
+  public Object visitEnum(EdmEnumType type, List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The enumeration " + type.getName());
+  }
+
+  /**
+   * Compares two values; <code>null</code> is smaller than any other value. Numbers are compared by
+   * their decimal value, or as doubles if one of them is <code>NaN</code> or infinite, so that
+   * <code>NaN</code> is greater than any other number and equal to itself; dates and times are compared
+   * by their instant. Values which are not comparable with each
+   * other are compared by their string representation.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static int compare(Object left, Object right) {
+    if (left == null || right == null) {
+      return left == null ? right == null ? 0 : -1 : 1;
+    }
+    if (left instanceof Number && right instanceof Number) {
+      return isNonFinite(left) || isNonFinite(right)
+          ? Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue())
+          : toDecimal(left).compareTo(toDecimal(right));
+    }
+    if (isInstant(left) && isInstant(right)) {
+      return Long.compare(toMillis(left), toMillis(right));
+    }
+    if (left instanceof Comparable && left.getClass().isInstance(right)) {
+      return ((Comparable) left).compareTo(right);
+    }
+    return left.toString().compareTo(right.toString());
+  }
+
+  private static boolean isEqual(Object left, Object right) {
+    if (left == null || right == null) {
+      return left == right;
+    }
+    return compare(left, right) == 0;
+  }
+
+  private static Object calculate(BinaryOperatorKind operator, Object left, Object right)
+      throws ODataApplicationException {
+    if (left == null || right == null) {
+      return null;
+    }
+    if (!(left instanceof Number) || !(right instanceof Number)) {
+      throw notImplemented("The operator " + operator + " on " + left.getClass().getSimpleName());
+    }
+    if (isNonFinite(left) || isNonFinite(right)) {
+      return calculateDouble(operator, ((Number) left).doubleValue(), ((Number) right).doubleValue());
+    }
+    BigDecimal first = toDecimal(left);
+    BigDecimal second = toDecimal(right);
+    if ((operator == BinaryOperatorKind.DIV || operator == BinaryOperatorKind.MOD)
+        && second.signum() == 0) {
+      throw new ODataApplicationException("Division by zero", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.getDefault());
+    }
+    switch (operator) {
+    case ADD:
+      return first.add(second);
+    case SUB:
+      return first.subtract(second);
+    case MUL:
+      return first.multiply(second);
+    case DIV:
+      return first.divide(second, MathContext.DECIMAL128);
+    default:
+      return first.remainder(second);
+    }
+  }
+
+  private static double calculateDouble(BinaryOperatorKind operator, double left, double right) {
+    switch (operator) {
+    case ADD:
+      return left + right;
+    case SUB:
+      return left - right;
+    case MUL:
+      return left * right;
+    case DIV:
+      return left / right;
+    default:
+      return left % right;
+    }
+  }
+
+  /** Checks whether the value is <code>NaN</code> or infinite, which has no decimal representation. */
+  private static boolean isNonFinite(Object value) {
+    if (value instanceof Double) {
+      return ((Double) value).isNaN() || ((Double) value).isInfinite();
+    } else if (value instanceof Float) {
+      return ((Float) value).isNaN() || ((Float) value).isInfinite();
+    }
+    return false;
+  }
+
+  private static int toInt(Object value) {
+    return isNonFinite(value) ? ((Number) value).intValue() : toDecimal(value).intValue();
+  }
+
+  private static BigDecimal toDecimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      return new BigDecimal(value.toString());
+    }
+    return BigDecimal.valueOf(((Number) value).longValue());
+  }
+
+  private static boolean isInstant(Object value) {
+    return value instanceof Calendar || value instanceof Date;
+  }
+
+  private static long toMillis(Object value) {
+    return value instanceof Calendar ? ((Calendar) value).getTimeInMillis() : ((Date) value).getTime();
+  }
+
+  private static Calendar calendar(Object value) throws ODataApplicationException {
+    if (value instanceof Calendar) {
+      return (Calendar) value;
+    } else if (value instanceof Date) {
+      Calendar calendar = Calendar.getInstance(UTC);
+      calendar.setTime((Date) value);
+      return calendar;
+    }
+    throw notImplemented("Date and time functions on " + value.getClass().getSimpleName());
+  }
+
+  private static String string(Object value) throws ODataApplicationException {
+    if (value instanceof String) {
+      return (String) value;
+    }
+    throw notImplemented("String functions on " + value.getClass().getSimpleName());
+  }
+
+  static ODataApplicationException notImplemented(String what) {
+    return new ODataApplicationException(what + " is not supported for in-memory query execution",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.getDefault());
+  }
+}
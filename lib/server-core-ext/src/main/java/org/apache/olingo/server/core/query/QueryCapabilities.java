@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.query;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.apache.olingo.server.core.query.QueryOperation.Kind;
+
+/**
+ * Declares which operations of a {@link QueryPlan} a service executes itself ("pushes down" to its
+ * backend). Source operations (scan, key lookup, navigation) are always executed by the service.
+ * Services which support an operation only in some cases, e.g., filters on indexed properties only,
+ * override {@link #canPushDown(QueryOperation)}.
+ */
+public class QueryCapabilities {
+  private final Set<Kind> kinds;
+
+  protected QueryCapabilities(Set<Kind> kinds) {
+    this.kinds = kinds;
+  }
+
+  /**
+   * Whether the service executes the given operation.
+   * @param operation the operation
+   * @return <code>true</code> if the operation is pushed down
+   */
+  public boolean canPushDown(QueryOperation operation) {
+    return operation.isSource() || this.kinds.contains(operation.getKind());
+  }
+
+  /** Capabilities of a service which only executes the source operations. */
+  public static QueryCapabilities none() {
+    return with().build();
+  }
+
+  /** Capabilities of a service which executes all operations. */
+  public static QueryCapabilities all() {
+    return with().pushDown(Kind.values()).build();
+  }
+
+  public static Builder with() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private final Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+
+    private Builder() {}
+
+    public Builder pushDown(Kind... operations) {
+      for (Kind kind : operations) {
+        this.kinds.add(kind);
+      }
+      return this;
+    }
+
+    public QueryCapabilities build() {
+      return new QueryCapabilities(EnumSet.copyOf(this.kinds));
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.query;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * A single step of a {@link QueryPlan}. Each step works on the result of the previous one; the
+ * concrete subclasses carry the information a backend needs to translate the step.
+ */
+public abstract class QueryOperation {
+
+  public enum Kind {
+    /** Reads all entities of an entity set or the singleton. */
+    SCAN,
+    /** Restricts the current result to the entity with the given key. */
+    KEY_LOOKUP,
+    /** Follows a navigation property from the current result. */
+    NAVIGATION,
+    /** Applies <code>$filter</code>. */
+    FILTER,
+    /** Applies <code>$orderby</code>. */
+    SORT,
+    /** Applies <code>$skip</code> and <code>$top</code>. */
+    LIMIT,
+    /** Applies <code>$select</code> and <code>$expand</code>. */
+    PROJECT,
+    /** Counts the result, either inline (<code>$count=true</code>) or as the <code>/$count</code> resource. */
+    COUNT
+  }
+
+  private final Kind kind;
+
+  QueryOperation(Kind kind) {
+    this.kind = kind;
+  }
+
+  public Kind getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Whether the operation selects the entities to work on; these operations can not be executed by
+   * the framework and are always pushed down to the service.
+   */
+  public boolean isSource() {
+    return this.kind == Kind.SCAN || this.kind == Kind.KEY_LOOKUP || this.kind == Kind.NAVIGATION;
+  }
+
+  @Override
+  public String toString() {
+    return this.kind.name();
+  }
+
+  public static final class Scan extends QueryOperation {
+    private final EdmBindingTarget target;
+
+    Scan(EdmBindingTarget target) {
+      super(Kind.SCAN);
+      this.target = target;
+    }
+
+    /** @return the entity set or singleton which is read */
+    public EdmBindingTarget getTarget() {
+      return this.target;
+    }
+  }
+
+  public static final class KeyLookup extends QueryOperation {
+    private final List<UriParameter> keys;
+
+    KeyLookup(List<UriParameter> keys) {
+      super(Kind.KEY_LOOKUP);
+      this.keys = Collections.unmodifiableList(keys);
+    }
+
+    public List<UriParameter> getKeys() {
+      return this.keys;
+    }
+  }
+
+  public static final class Navigation extends QueryOperation {
+    private final EdmNavigationProperty property;
+    private final EdmBindingTarget target;
+
+    Navigation(EdmNavigationProperty property, EdmBindingTarget target) {
+      super(Kind.NAVIGATION);
+      this.property = property;
+      this.target = target;
+    }
+
+    public EdmNavigationProperty getProperty() {
+      return this.property;
+    }
+
+    /** @return the binding target the navigation property leads to; <code>null</code> if it is not bound */
+    public EdmBindingTarget getTarget() {
+      return this.target;
+    }
+  }
+
+  public static final class Filter extends QueryOperation {
+    private final Expression expression;
+
+    Filter(Expression expression) {
+      super(Kind.FILTER);
+      this.expression = expression;
+    }
+
+    public Expression getExpression() {
+      return this.expression;
+    }
+  }
+
+  public static final class Sort extends QueryOperation {
+    private final List<OrderByItem> items;
+
+    Sort(List<OrderByItem> items) {
+      super(Kind.SORT);
+      this.items = Collections.unmodifiableList(items);
+    }
+
+    public List<OrderByItem> getItems() {
+      return this.items;
+    }
+  }
+
+  public static final class Limit extends QueryOperation {
+    private final int skip;
+    private final Integer top;
+
+    Limit(int skip, Integer top) {
+      super(Kind.LIMIT);
+      this.skip = skip;
+      this.top = top;
+    }
+
+    /** @return the number of entities to skip; zero if <code>$skip</code> is not given */
+    public int getSkip() {
+      return this.skip;
+    }
+
+    /** @return the maximum number of entities; <code>null</code> if <code>$top</code> is not given */
+    public Integer getTop() {
+      return this.top;
+    }
+  }
+
+  public static final class Project extends QueryOperation {
+    private final SelectOption select;
+    private final ExpandOption expand;
+
+    Project(SelectOption select, ExpandOption expand) {
+      super(Kind.PROJECT);
+      this.select = select;
+      this.expand = expand;
+    }
+
+    /** @return the <code>$select</code> option or <code>null</code> */
+    public SelectOption getSelect() {
+      return this.select;
+    }
+
+    /** @return the <code>$expand</code> option or <code>null</code> */
+    public ExpandOption getExpand() {
+      return this.expand;
+    }
+  }
+
+  public static final class Count extends QueryOperation {
+    private final boolean inline;
+
+    Count(boolean inline) {
+      super(Kind.COUNT);
+      this.inline = inline;
+    }
+
+    /**
+     * @return <code>true</code> for <code>$count=true</code>, where the entities are returned together
+     * with their count; <code>false</code> for the <code>/$count</code> resource
+     */
+    public boolean isInline() {
+      return this.inline;
+    }
+  }
+}
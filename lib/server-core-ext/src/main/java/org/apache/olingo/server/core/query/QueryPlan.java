@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.core.query.QueryOperation.Kind;
+import org.apache.olingo.server.core.requests.DataRequest;
+
+/**
+ * <p>Backend-neutral description of the data requested by a {@link DataRequest}.</p>
+ * <p>The plan is a chain of {@link QueryOperation}s, each working on the result of the previous one:
+ * the source operations (scan of an entity set or singleton, key lookups and navigations) followed by
+ * filter, count, sort, limit and project in this order. System query options not covered by the plan,
+ * e.g., <code>$search</code>, <code>$apply</code> or <code>$skiptoken</code>, remain with the service.</p>
+ * <p>A service negotiates the plan with its {@link QueryCapabilities}; the negotiated plan is split into
+ * the operations pushed down to the service and the residual operations, which the framework executes
+ * in memory on the entities returned by the service, see {@link #executeResidual(EntityCollection)}.
+ * Only a prefix of the chain is pushed down: once an operation is residual, all following operations are
+ * residual as well, since they depend on its result.</p>
+ */
+public final class QueryPlan {
+  private final List<QueryOperation> operations;
+  private final int pushedDown;
+
+  private QueryPlan(List<QueryOperation> operations, int pushedDown) {
+    this.operations = operations;
+    this.pushedDown = pushedDown;
+  }
+
+  /**
+   * Creates the plan of a request; all of its operations are pushed down to the service until the
+   * plan is {@link #negotiate(QueryCapabilities) negotiated}.
+   * @param request the request
+   * @return the plan
+   */
+  public static QueryPlan create(DataRequest request) {
+    List<QueryOperation> operations = new ArrayList<QueryOperation>();
+    EdmBindingTarget target = null;
+    if (request.isSingleton()) {
+      target = request.getUriResourceSingleton().getSingleton();
+      operations.add(new QueryOperation.Scan(target));
+    } else if (request.getUriResourceEntitySet() != null) {
+      target = request.getEntitySet();
+      operations.add(new QueryOperation.Scan(target));
+      addKeyLookup(operations, request.getKeyPredicates());
+    }
+    for (UriResourceNavigation navigation : request.getNavigations()) {
+      target = target == null ? null : target.getRelatedBindingTarget(navigation.getProperty().getName());
+      operations.add(new QueryOperation.Navigation(navigation.getProperty(), target));
+      addKeyLookup(operations, navigation.getKeyPredicates());
+    }
+
+    UriInfo uriInfo = request.getUriInfo();
+    if (!operations.isEmpty() && !request.isPropertyRequest() && uriInfo != null) {
+      if (request.isCollection()) {
+        if (uriInfo.getFilterOption() != null) {
+          operations.add(new QueryOperation.Filter(uriInfo.getFilterOption().getExpression()));
+        }
+        if (request.isCountRequest()) {
+          operations.add(new QueryOperation.Count(false));
+          return new QueryPlan(Collections.unmodifiableList(operations), operations.size());
+        }
+        if (uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue()) {
+          operations.add(new QueryOperation.Count(true));
+        }
+        if (uriInfo.getOrderByOption() != null && !uriInfo.getOrderByOption().getOrders().isEmpty()) {
+          operations.add(new QueryOperation.Sort(uriInfo.getOrderByOption().getOrders()));
+        }
+        if (uriInfo.getSkipOption() != null || uriInfo.getTopOption() != null) {
+          operations.add(new QueryOperation.Limit(
+              uriInfo.getSkipOption() == null ? 0 : uriInfo.getSkipOption().getValue(),
+              uriInfo.getTopOption() == null ? null : uriInfo.getTopOption().getValue()));
+        }
+      }
+      if (uriInfo.getSelectOption() != null || uriInfo.getExpandOption() != null) {
+        operations.add(new QueryOperation.Project(uriInfo.getSelectOption(), uriInfo.getExpandOption()));
+      }
+    }
+    return new QueryPlan(Collections.unmodifiableList(operations), operations.size());
+  }
+
+  private static void addKeyLookup(List<QueryOperation> operations, List<UriParameter> keys) {
+    if (keys != null && !keys.isEmpty()) {
+      operations.add(new QueryOperation.KeyLookup(keys));
+    }
+  }
+
+  /**
+   * Splits the plan into the operations the service pushes down and the residual operations.
+   * @param capabilities the capabilities of the service
+   * @return the negotiated plan
+   */
+  public QueryPlan negotiate(QueryCapabilities capabilities) {
+    int count = 0;
+    while (count < this.operations.size() && capabilities.canPushDown(this.operations.get(count))) {
+      count++;
+    }
+    return new QueryPlan(this.operations, count);
+  }
+
+  /** @return all operations in the order of execution */
+  public List<QueryOperation> getOperations() {
+    return this.operations;
+  }
+
+  /** @return the operations the service executes */
+  public List<QueryOperation> getPushedDownOperations() {
+    return this.operations.subList(0, this.pushedDown);
+  }
+
+  /** @return the operations the framework executes after the service has returned its result */
+  public List<QueryOperation> getResidualOperations() {
+    return this.operations.subList(this.pushedDown, this.operations.size());
+  }
+
+  /**
+   * Gets the last operation of the given kind which the service has to execute.
+   * @param kind the kind of the operation
+   * @return the operation or <code>null</code> if there is none or it is residual
+   */
+  public QueryOperation getPushedDownOperation(Kind kind) {
+    for (int i = this.pushedDown - 1; i >= 0; i--) {
+      if (this.operations.get(i).getKind() == kind) {
+        return this.operations.get(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Executes the residual operations on the entities returned by the service. The collection is
+   * modified in place: the entities are filtered, sorted and limited, and the count is set if it has
+   * been requested but not pushed down. Projections are not executed here; <code>$select</code> is
+   * applied by the serializer, while <code>$expand</code> remains with the service.
+   * @param entitySet the result of the pushed-down operations; may be <code>null</code>
+   * @return the given collection
+   * @throws ODataApplicationException if an expression can not be evaluated in memory
+   */
+  public EntityCollection executeResidual(EntityCollection entitySet) throws ODataApplicationException {
+    if (entitySet == null) {
+      return null;
+    }
+    List<Entity> entities = entitySet.getEntities();
+    for (QueryOperation operation : getResidualOperations()) {
+      switch (operation.getKind()) {
+      case FILTER:
+        filter(entities, ((QueryOperation.Filter) operation).getExpression());
+        break;
+      case COUNT:
+        entitySet.setCount(entities.size());
+        break;
+      case SORT:
+        sort(entities, ((QueryOperation.Sort) operation).getItems());
+        break;
+      case LIMIT:
+        limit(entities, (QueryOperation.Limit) operation);
+        break;
+      case PROJECT:
+        break;
+      default:
+        throw new ODataApplicationException("The operation " + operation + " must be executed by the service",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.getDefault());
+      }
+    }
+    return entitySet;
+  }
+
+  private static void filter(List<Entity> entities, Expression expression) throws ODataApplicationException {
+    EntityExpressionEvaluator evaluator = new EntityExpressionEvaluator();
+    List<Entity> selected = new ArrayList<Entity>(entities.size());
+    for (Entity entity : entities) {
+      if (Boolean.TRUE.equals(evaluator.evaluate(expression, entity))) {
+        selected.add(entity);
+      }
+    }
+    entities.clear();
+    entities.addAll(selected);
+  }
+
+  private static void sort(List<Entity> entities, final List<OrderByItem> items) throws ODataApplicationException {
+    // evaluate the sort keys once per entity; the comparator itself must not throw
+    EntityExpressionEvaluator evaluator = new EntityExpressionEvaluator();
+    List<SortEntry> entries = new ArrayList<SortEntry>(entities.size());
+    for (Entity entity : entities) {
+      Object[] keys = new Object[items.size()];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = evaluator.evaluate(items.get(i).getExpression(), entity);
+      }
+      entries.add(new SortEntry(entity, keys));
+    }
+    Collections.sort(entries, new Comparator<SortEntry>() {
+      @Override
+      public int compare(SortEntry left, SortEntry right) {
+        for (int i = 0; i < items.size(); i++) {
+          int result = EntityExpressionEvaluator.compare(left.keys[i], right.keys[i]);
+          if (result != 0) {
+            return items.get(i).isDescending() ? -result : result;
+          }
+        }
+        return 0;
+      }
+    });
+    entities.clear();
+    for (SortEntry entry : entries) {
+      entities.add(entry.entity);
+    }
+  }
+
+  private static void limit(List<Entity> entities, QueryOperation.Limit limit) {
+    int from = Math.min(limit.getSkip(), entities.size());
+    int to = limit.getTop() == null ? entities.size() : (int) Math.min(entities.size(), (long) from + limit.getTop());
+    List<Entity> selected = new ArrayList<Entity>(entities.subList(from, to));
+    entities.clear();
+    entities.addAll(selected);
+  }
+
+  @Override
+  public String toString() {
+    return getPushedDownOperations() + " " + getResidualOperations();
+  }
+
+  private static final class SortEntry {
+    private final Entity entity;
+    private final Object[] keys;
+
+    SortEntry(Entity entity, Object[] keys) {
+      this.entity = entity;
+      this.keys = keys;
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.core.BulkServiceHandler;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ServiceDispatcher;
 import org.apache.olingo.server.core.ServiceHandler;
@@ -129,6 +130,9 @@ public class BatchRequest extends ServiceRequest {
 
   ODataResponsePart processChangeSet(BatchRequestPart partRequest, ServiceHandler serviceHandler)
       throws BatchDeserializerException {
+    if (serviceHandler instanceof BulkServiceHandler) {
+      return processBulkChangeSet(partRequest, (BulkServiceHandler) serviceHandler);
+    }
     List<ODataResponse> changeSetResponses = new ArrayList<ODataResponse>();
     // change set need to be a in a atomic operation
     for (ODataRequest changeSetPartRequest : partRequest.getRequests()) {
@@ -150,6 +154,66 @@ public class BatchRequest extends ServiceRequest {
     return new ODataResponsePart(changeSetResponses, true);
   }
 
+  /**
+   * Processes a change set, executing consecutive operations on the same entity set together.
+   * The responses of the collected operations are only written when they are executed, so the
+   * Content-IDs are mapped and the status is checked once a response is final.
+   * Only the last requests may have pending operations; a request completed without the collector
+   * therefore executes the operations collected before it.
+   */
+  ODataResponsePart processBulkChangeSet(BatchRequestPart partRequest, BulkServiceHandler serviceHandler)
+      throws BatchDeserializerException {
+    BulkOperationCollector collector = new BulkOperationCollector(serviceHandler, this.odata,
+        this.serviceMetadata);
+    List<ODataRequest> changeSetRequests = new ArrayList<ODataRequest>();
+    List<ODataResponse> changeSetResponses = new ArrayList<ODataResponse>();
+    int completed = 0;
+    for (ODataRequest changeSetPartRequest : partRequest.getRequests()) {
+      if (this.rewriter.getReferenceInURI(changeSetPartRequest) != null) {
+        // the referenced request must have been executed
+        collector.flush();
+      }
+      int executed = changeSetRequests.size() - collector.getPendingCount();
+      ODataResponse failed = completeChangeSetParts(changeSetRequests, changeSetResponses, completed, executed);
+      if (failed != null) {
+        return new ODataResponsePart(failed, false);
+      }
+      completed = executed;
+
+      this.rewriter.replaceReference(changeSetPartRequest);
+      changeSetRequests.add(changeSetPartRequest);
+      ODataResponse partResponse = executeSingleRequest(changeSetPartRequest, collector);
+      changeSetResponses.add(partResponse);
+      if (!collector.isPending(partResponse)) {
+        // e.g., an error response written without the collector; the operations collected
+        // before must be executed so that the pending operations are always the last ones
+        collector.flush();
+      }
+    }
+    collector.flush();
+    ODataResponse failed = completeChangeSetParts(changeSetRequests, changeSetResponses, completed,
+        changeSetRequests.size());
+    if (failed != null) {
+      return new ODataResponsePart(failed, false);
+    }
+    return new ODataResponsePart(changeSetResponses, true);
+  }
+
+  private ODataResponse completeChangeSetParts(List<ODataRequest> changeSetRequests,
+      List<ODataResponse> changeSetResponses, int from, int to) throws BatchDeserializerException {
+    for (int i = from; i < to; i++) {
+      ODataRequest changeSetPartRequest = changeSetRequests.get(i);
+      ODataResponse partResponse = changeSetResponses.get(i);
+      this.rewriter.addMapping(changeSetPartRequest, partResponse);
+      addContentID(changeSetPartRequest, partResponse);
+      if (partResponse.getStatusCode() >= 400) {
+        // 11.7.4 Responding to a Batch Request
+        return partResponse;
+      }
+    }
+    return null;
+  }
+
   ODataResponse executeSingleRequest(ODataRequest singleRequest, ServiceHandler handler) {
     ServiceDispatcher dispatcher = new ServiceDispatcher(this.odata, this.serviceMetadata, handler,
         this.customContentType);
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.requests;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.BulkServiceHandler;
+import org.apache.olingo.server.core.ContentNegotiatorException;
+import org.apache.olingo.server.core.ErrorHandler;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.MetadataResponse;
+import org.apache.olingo.server.core.responses.NoContentResponse;
+import org.apache.olingo.server.core.responses.PropertyResponse;
+import org.apache.olingo.server.core.responses.ServiceDocumentResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.apache.olingo.server.core.responses.StreamResponse;
+
+/**
+ * Collects consecutive creates, updates, or deletes of entities of one entity set in a change set
+ * and executes them with one call of the {@link BulkServiceHandler}. All other calls are passed on
+ * after the collected operations have been executed.
+ */
+final class BulkOperationCollector implements ServiceHandler {
+
+  private enum Operation {
+    CREATE, UPDATE, MERGE, DELETE
+  }
+
+  private final BulkServiceHandler handler;
+  private final OData odata;
+  private final ServiceMetadata metadata;
+  private Operation operation;
+  private EdmEntitySet entitySet;
+  private List<DataRequest> requests = new ArrayList<DataRequest>();
+  private List<Entity> entities = new ArrayList<Entity>();
+  private List<EntityResponse> responses = new ArrayList<EntityResponse>();
+
+  BulkOperationCollector(BulkServiceHandler handler, OData odata, ServiceMetadata metadata) {
+    this.handler = handler;
+    this.odata = odata;
+    this.metadata = metadata;
+  }
+
+  /**
+   * Gets the number of collected operations, i.e., of the last requests whose responses are not written yet.
+   * @return the number of collected operations
+   */
+  int getPendingCount() {
+    return this.requests.size();
+  }
+
+  /**
+   * Checks whether the response belongs to a collected operation and is therefore not written yet.
+   * @param response the response of a request passed to this handler
+   * @return <code>true</code> if the operation of the response has been collected
+   */
+  boolean isPending(ODataResponse response) {
+    for (EntityResponse pending : this.responses) {
+      if (pending.getODataResponse() == response) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Executes the collected operations. */
+  void flush() {
+    if (this.requests.isEmpty()) {
+      return;
+    }
+    try {
+      switch (this.operation) {
+      case CREATE:
+        this.handler.createEntities(this.requests, this.entities, this.responses);
+        break;
+      case UPDATE:
+        this.handler.updateEntities(this.requests, this.entities, false, this.responses);
+        break;
+      case MERGE:
+        this.handler.updateEntities(this.requests, this.entities, true, this.responses);
+        break;
+      default:
+        this.handler.deleteEntities(this.requests, this.responses);
+        break;
+      }
+    } catch (ODataLibraryException e) {
+      handleException(e);
+    } catch (ODataApplicationException e) {
+      handleException(e);
+    } finally {
+      // the handler may keep the lists
+      this.operation = null;
+      this.entitySet = null;
+      this.requests = new ArrayList<DataRequest>();
+      this.entities = new ArrayList<Entity>();
+      this.responses = new ArrayList<EntityResponse>();
+    }
+  }
+
+  private void handleException(Exception e) {
+    // the change set fails with the first of the collected requests
+    DataRequest request = this.requests.get(0);
+    ContentType contentType = ContentType.JSON;
+    try {
+      contentType = request.getResponseContentType();
+    } catch (ContentNegotiatorException ex) {
+      // ignore, default to JSON
+    }
+    new ErrorHandler(this.odata, this.metadata, this.handler, contentType)
+        .handleException(e, request.getODataRequest(), this.responses.get(0).getODataResponse());
+  }
+
+  private boolean collect(Operation operation, DataRequest request, Entity entity, EntityResponse response) {
+    if (request.isSingleton() || !request.getNavigations().isEmpty()) {
+      flush();
+      return false;
+    }
+    if (operation != this.operation || !request.getEntitySet().equals(this.entitySet)) {
+      flush();
+      this.operation = operation;
+      this.entitySet = request.getEntitySet();
+    }
+    this.requests.add(request);
+    this.entities.add(entity);
+    this.responses.add(response);
+    return true;
+  }
+
+  @Override
+  public void init(OData odata, ServiceMetadata serviceMetadata) {
+    // the handler has been initialized already
+  }
+
+  @Override
+  public void createEntity(DataRequest request, Entity entity, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    if (!collect(Operation.CREATE, request, entity, response)) {
+      this.handler.createEntity(request, entity, response);
+    }
+  }
+
+  @Override
+  public void updateEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException {
+    if (!collect(merge ? Operation.MERGE : Operation.UPDATE, request, entity, response)) {
+      this.handler.updateEntity(request, entity, merge, entityETag, response);
+    }
+  }
+
+  @Override
+  public void deleteEntity(DataRequest request, String entityETag, EntityResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    if (!collect(Operation.DELETE, request, null, response)) {
+      this.handler.deleteEntity(request, entityETag, response);
+    }
+  }
+
+  @Override
+  public void readMetadata(MetadataRequest request, MetadataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.readMetadata(request, response);
+  }
+
+  @Override
+  public void readServiceDocument(ServiceDocumentRequest request, ServiceDocumentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.readServiceDocument(request, response);
+  }
+
+  @Override
+  public <T extends ServiceResponse> void read(DataRequest request, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.read(request, response);
+  }
+
+  @Override
+  public void upsertEntity(DataRequest request, Entity entity, boolean merge, String entityETag,
+      EntityResponse response) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.upsertEntity(request, entity, merge, entityETag, response);
+  }
+
+  @Override
+  public void updateProperty(DataRequest request, Property property, boolean rawValue, boolean merge,
+      String entityETag, PropertyResponse response) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.updateProperty(request, property, rawValue, merge, entityETag, response);
+  }
+
+  @Override
+  public void upsertStreamProperty(DataRequest request, String entityETag, InputStream streamContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.upsertStreamProperty(request, entityETag, streamContent, response);
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(FunctionRequest request, HttpMethod method, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.invoke(request, method, response);
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(ActionRequest request, String eTag, T response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.invoke(request, eTag, response);
+  }
+
+  @Override
+  public void readMediaStream(MediaRequest request, StreamResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.readMediaStream(request, response);
+  }
+
+  @Override
+  public void upsertMediaStream(MediaRequest request, String entityETag, InputStream mediaContent,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.upsertMediaStream(request, entityETag, mediaContent, response);
+  }
+
+  @Override
+  public void anyUnsupported(ODataRequest request, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.anyUnsupported(request, response);
+  }
+
+  @Override
+  public void addReference(DataRequest request, String entityETag, URI referenceId, NoContentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.addReference(request, entityETag, referenceId, response);
+  }
+
+  @Override
+  public void updateReference(DataRequest request, String entityETag, URI referenceId,
+      NoContentResponse response) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.updateReference(request, entityETag, referenceId, response);
+  }
+
+  @Override
+  public void deleteReference(DataRequest request, URI deleteId, String entityETag, NoContentResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.deleteReference(request, deleteId, entityETag, response);
+  }
+
+  @Override
+  public String startTransaction() throws ODataLibraryException, ODataApplicationException {
+    flush();
+    return this.handler.startTransaction();
+  }
+
+  @Override
+  public void commit(String txnId) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.commit(txnId);
+  }
+
+  @Override
+  public void rollback(String txnId) throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.rollback(txnId);
+  }
+
+  @Override
+  public void crossJoin(DataRequest dataRequest, List<String> entitySetNames, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.crossJoin(dataRequest, entitySetNames, response);
+  }
+
+  @Override
+  public boolean supportsDataIsolation() {
+    return this.handler.supportsDataIsolation();
+  }
+
+  @Override
+  public void processError(ODataServerError error, ErrorResponse response) {
+    this.handler.processError(error, response);
+  }
+
+  @Override
+  public void apply(DataRequest dataRequest, ODataResponse response)
+      throws ODataLibraryException, ODataApplicationException {
+    flush();
+    this.handler.apply(dataRequest, response);
+  }
+}
@@ -78,6 +78,8 @@ import org.apache.olingo.server.core.ODataHandlerException;
 import org.apache.olingo.server.core.ReturnRepresentation;
 import org.apache.olingo.server.core.ServiceHandler;
 import org.apache.olingo.server.core.ServiceRequest;
+import org.apache.olingo.server.core.query.QueryCapabilities;
+import org.apache.olingo.server.core.query.QueryPlan;
 import org.apache.olingo.server.core.responses.CountResponse;
 import org.apache.olingo.server.core.responses.EntityResponse;
 import org.apache.olingo.server.core.responses.EntitySetResponse;
@@ -98,6 +100,7 @@ public class DataRequest extends ServiceRequest {
 
   private RequestType type;
   private UriResourceSingleton uriResourceSingleton;
+  private QueryPlan queryPlan;
 
   /**
    * This sub-categorizes the request so that code can be simplified
@@ -205,6 +208,31 @@ public class DataRequest extends ServiceRequest {
     return null;
   }
 
+  /**
+   * Gets the backend-neutral plan of this request, i.e., the entities to read together with
+   * <code>$filter</code>, <code>$count</code>, <code>$orderby</code>, <code>$skip</code>,
+   * <code>$top</code>, <code>$select</code> and <code>$expand</code> as a chain of operations.
+   * All operations are to be executed by the service.
+   * @return the query plan
+   */
+  public QueryPlan getQueryPlan() {
+    if (this.queryPlan == null) {
+      this.queryPlan = QueryPlan.create(this);
+    }
+    return this.queryPlan;
+  }
+
+  /**
+   * Gets the plan of this request split by the given capabilities into the operations the service
+   * executes and the residual operations the framework executes, see
+   * {@link QueryPlan#executeResidual(org.apache.olingo.commons.api.data.EntityCollection)}.
+   * @param capabilities the operations the service can push down to its backend
+   * @return the negotiated query plan
+   */
+  public QueryPlan getQueryPlan(QueryCapabilities capabilities) {
+    return getQueryPlan().negotiate(capabilities);
+  }
+
   public boolean isReferenceRequest() {
     return this.references;
   }
@@ -18,12 +18,14 @@
  */
 package org.apache.olingo.server.core.responses;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmFunction;
@@ -40,6 +42,7 @@ import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ServiceRequest;
+import org.apache.olingo.server.core.query.QueryPlan;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
 public class EntitySetResponse extends ServiceResponse {
@@ -86,6 +89,68 @@ public class EntitySetResponse extends ServiceResponse {
     close();
   }
 
+  /**
+   * Writes a collection of entities after executing the residual operations of the negotiated query
+   * plan on them, i.e., the filtering, counting, sorting and paging the service has not pushed down.
+   * @param entityType type of the entities
+   * @param entitySet the result of the operations pushed down; if <code>null</code>, "Not Found" is written
+   * @param plan the negotiated query plan of the request
+   * @throws SerializerException
+   * @throws ODataApplicationException if a residual operation can not be executed in memory
+   */
+  public void writeReadEntitySet(EdmEntityType entityType, EntityCollection entitySet, QueryPlan plan)
+      throws SerializerException, ODataApplicationException {
+    writeReadEntitySet(entityType, plan.executeResidual(entitySet));
+  }
+
+  /**
+   * Writes a collection of entities while they are read from the given iterator, so that the
+   * entities do not have to be loaded into memory before the response is written.
+   * The count requested with <code>$count=true</code> is taken from {@link EntityIterator#getCount()}
+   * before the first entity is read, the next link from {@link EntityIterator#getNext()} after
+   * the last entity has been read.
+   * @param entityType type of the entities
+   * @param entities iterator over the entities; if <code>null</code>, "Not Found" is written
+   * @throws SerializerException
+   */
+  public void writeReadEntitySet(EdmEntityType entityType, EntityIterator entities)
+      throws SerializerException {
+    writeReadEntitySet(entityType, entities, null);
+  }
+
+  /**
+   * Writes a collection of entities while they are read from the given iterator.
+   * See {@link #writeReadEntitySet(EdmEntityType, EntityIterator)}; additionally the callback is
+   * called for each entity just before it is written to add the navigation properties requested
+   * by the <code>$expand</code> system query option.
+   * @param entityType type of the entities
+   * @param entities iterator over the entities; if <code>null</code>, "Not Found" is written
+   * @param expandCallback callback for <code>$expand</code>; may be <code>null</code>
+   * @throws SerializerException
+   */
+  public void writeReadEntitySet(EdmEntityType entityType, EntityIterator entities,
+      ExpandCallback expandCallback) throws SerializerException {
+
+    assert (!isClosed());
+
+    if (entities == null) {
+      writeNotFound(true);
+      return;
+    }
+
+    EntityIterator iterator = entities;
+    boolean expand = expandCallback != null && this.options.getExpand() != null;
+    boolean operations = ContentTypeHelper.isODataMetadataFull(this.responseContentType);
+    if (expand || operations) {
+      iterator = new StreamedEntities(entityType, entities, expand ? expandCallback : null, operations);
+    }
+    // the entities are written when the response content is written
+    this.response.setODataContent(this.serializer.entityCollectionStreamed(metadata, entityType, iterator,
+        this.options).getODataContent());
+    writeOK(responseContentType);
+    close();
+  }
+
   @Override
   public void accepts(ServiceResponseVisior visitor) throws ODataLibraryException,
       ODataApplicationException {
@@ -108,32 +173,32 @@ public class EntitySetResponse extends ServiceResponse {
     if (action != null) {
       entitySet.getOperations().add(buildOperation(action, buildOperationTarget(options.getContextURL())));
     }
-    
-    action = this.metadata.getEdm().getBoundActionWithBindingType(
-        entityType.getFullQualifiedName(), false);
-    if (action != null) {
-      for (Entity entity:entitySet.getEntities()) {
-        entity.getOperations().add(buildOperation(action, entity.getId().toASCIIString()));
-      }
-    }      
-    
+
     List<EdmFunction> functions = this.metadata.getEdm()
         .getBoundFunctionsWithBindingType(entityType.getFullQualifiedName(),true);
-    
+
     for (EdmFunction function:functions) {
       entitySet.getOperations().add(buildOperation(function, buildOperationTarget(options.getContextURL())));
     }
-    
+
+    action = this.metadata.getEdm().getBoundActionWithBindingType(
+        entityType.getFullQualifiedName(), false);
     functions = this.metadata.getEdm()
         .getBoundFunctionsWithBindingType(entityType.getFullQualifiedName(),false);
-    
     for (Entity entity:entitySet.getEntities()) {
-      for (EdmFunction function:functions) {
-        entity.getOperations().add(buildOperation(function, entity.getId().toASCIIString()));
-      }
+      buildOperations(action, functions, entity);
     }
   }
-  
+
+  private void buildOperations(EdmAction action, List<EdmFunction> functions, Entity entity) {
+    if (action != null) {
+      entity.getOperations().add(buildOperation(action, entity.getId().toASCIIString()));
+    }
+    for (EdmFunction function:functions) {
+      entity.getOperations().add(buildOperation(function, entity.getId().toASCIIString()));
+    }
+  }
+
   private String buildOperationTarget(ContextURL contextURL) {
     StringBuilder result = new StringBuilder();
     if (contextURL.getServiceRoot() != null) {
@@ -153,4 +218,63 @@ public class EntitySetResponse extends ServiceResponse {
     }
     return result.toString();
   }
+
+  /**
+   * Iterator that prepares each entity of a streamed collection just before it is written:
+   * it adds the expanded navigation properties and, for full metadata, the bound operations.
+   */
+  private class StreamedEntities extends EntityIterator {
+    private final EdmEntityType entityType;
+    private final EntityIterator entities;
+    private final ExpandCallback expandCallback;
+    private final EdmAction action;
+    private final List<EdmFunction> functions;
+
+    StreamedEntities(EdmEntityType entityType, EntityIterator entities, ExpandCallback expandCallback,
+        boolean operations) {
+      this.entityType = entityType;
+      this.entities = entities;
+      this.expandCallback = expandCallback;
+      if (operations) {
+        this.action = metadata.getEdm().getBoundActionWithBindingType(entityType.getFullQualifiedName(), false);
+        this.functions = metadata.getEdm().getBoundFunctionsWithBindingType(
+            entityType.getFullQualifiedName(), false);
+      } else {
+        this.action = null;
+        this.functions = null;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.entities.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+      Entity entity = this.entities.next();
+      if (this.expandCallback != null) {
+        this.expandCallback.expand(this.entityType, entity, options.getExpand());
+      }
+      if (this.functions != null) {
+        buildOperations(this.action, this.functions, entity);
+      }
+      return entity;
+    }
+
+    @Override
+    public Integer getCount() {
+      return this.entities.getCount();
+    }
+
+    @Override
+    public URI getNext() {
+      return this.entities.getNext();
+    }
+
+    @Override
+    public URI getDeltaLink() {
+      return this.entities.getDeltaLink();
+    }
+  }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.responses;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+
+/**
+ * Callback that adds the navigation properties requested by the <code>$expand</code> system query option
+ * to the entities of a streamed collection, see
+ * {@link EntitySetResponse#writeReadEntitySet(EdmEntityType, org.apache.olingo.commons.api.data.EntityIterator,
+ * ExpandCallback)}.
+ */
+public interface ExpandCallback {
+
+  /**
+   * Adds the expanded navigation properties to an entity. It is called for each entity
+   * just before the entity is written, while the response content is written.
+   * Since the response status has already been sent at that time, errors cannot be reported
+   * with a different status; a runtime exception aborts writing the response content.
+   * @param entityType type of the entity
+   * @param entity the entity
+   * @param expand the <code>$expand</code> system query option of the request
+   */
+  void expand(EdmEntityType entityType, Entity entity, ExpandOption expand);
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class AsyncServiceHandlerTest {
+  private static final int TOMCAT_PORT = 9901;
+  private Tomcat tomcat;
+  private ExecutorService backend;
+  private ServiceMetadata metadata;
+  private final CountDownLatch processed = new CountDownLatch(1);
+
+  public class AsyncODataServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private final AsyncServiceHandler handler;
+
+    public AsyncODataServlet(AsyncServiceHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void service(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      OData odata = OData4Impl.newInstance();
+      ODataHttpHandler handler = odata.createHandler(metadata);
+      handler.register(this.handler);
+      handler.process(request, response);
+      processed.countDown();
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    MetadataParser parser = new MetadataParser();
+    metadata = parser.buildServiceMetadata(new FileReader("src/test/resources/trippin.xml"));
+    backend = Executors.newSingleThreadExecutor();
+    tomcat = new Tomcat();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    tomcat.stop();
+    tomcat.destroy();
+    backend.shutdownNow();
+  }
+
+  private void start(AsyncServiceHandler handler, boolean asyncSupported) throws Exception {
+    File baseDir = new File(System.getProperty("java.io.tmpdir"));
+    tomcat.setBaseDir(baseDir.getAbsolutePath());
+    tomcat.getHost().setAppBase(baseDir.getAbsolutePath());
+    Context cxt = tomcat.addContext("/trippin", baseDir.getAbsolutePath());
+    Wrapper wrapper = Tomcat.addServlet(cxt, "trippin", new AsyncODataServlet(handler));
+    wrapper.setAsyncSupported(asyncSupported);
+    cxt.addServletMapping("/*", "trippin");
+    tomcat.setPort(TOMCAT_PORT);
+    tomcat.start();
+  }
+
+  private HttpResponse httpGET(String path) throws Exception {
+    return new DefaultHttpClient().execute(new HttpHost(tomcat.getHost().getName(), TOMCAT_PORT),
+        new HttpGet("http://localhost:" + TOMCAT_PORT + "/" + path));
+  }
+
+  /** Handler that reads an empty entity set on the backend thread once the servlet has returned. */
+  private AsyncServiceHandler emptyEntitySetHandler(final boolean waitForServlet) throws Exception {
+    AsyncServiceHandler handler = Mockito.mock(AsyncServiceHandler.class);
+    Mockito.when(handler.read(Mockito.any(DataRequest.class), Mockito.any(ServiceResponse.class)))
+        .thenAnswer(new Answer<CompletableFuture<Void>>() {
+          @Override
+          public CompletableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+            final DataRequest request = (DataRequest) invocation.getArguments()[0];
+            final EntitySetResponse response = (EntitySetResponse) invocation.getArguments()[1];
+            final CompletableFuture<Void> result = new CompletableFuture<Void>();
+            backend.submit(new Runnable() {
+              @Override
+              public void run() {
+                try {
+                  if (waitForServlet) {
+                    assertTrue(processed.await(10, TimeUnit.SECONDS));
+                  }
+                  response.writeReadEntitySet(request.getEntitySet().getEntityType(), new EntityCollection());
+                  result.complete(null);
+                } catch (Exception e) {
+                  result.completeExceptionally(e);
+                }
+              }
+            });
+            return result;
+          }
+        });
+    return handler;
+  }
+
+  @Test
+  public void testReadCompletesAfterServletReturned() throws Exception {
+    start(emptyEntitySetHandler(true), true);
+    HttpResponse response = httpGET("trippin/Airports");
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    String content = IOUtils.toString(response.getEntity().getContent());
+    assertTrue(content, content.contains("\"value\":[]"));
+  }
+
+  @Test
+  public void testReadWithoutAsyncSupport() throws Exception {
+    start(emptyEntitySetHandler(false), false);
+    HttpResponse response = httpGET("trippin/Airports");
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    String content = IOUtils.toString(response.getEntity().getContent());
+    assertTrue(content, content.contains("\"value\":[]"));
+  }
+
+  @Test
+  public void testReadFails() throws Exception {
+    AsyncServiceHandler handler = Mockito.mock(AsyncServiceHandler.class);
+    Mockito.when(handler.read(Mockito.any(DataRequest.class), Mockito.any(ServiceResponse.class)))
+        .thenAnswer(new Answer<CompletableFuture<Void>>() {
+          @Override
+          public CompletableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+            final CompletableFuture<Void> result = new CompletableFuture<Void>();
+            backend.submit(new Runnable() {
+              @Override
+              public void run() {
+                result.completeExceptionally(new ODataApplicationException("Airport not found", 404,
+                    Locale.ROOT));
+              }
+            });
+            return result;
+          }
+        });
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((ErrorResponse) invocation.getArguments()[1]).writeError((ODataServerError) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(handler).processError(Mockito.any(ODataServerError.class), Mockito.any(ErrorResponse.class));
+    start(handler, true);
+    HttpResponse response = httpGET("trippin/Airports('XYZ')");
+    assertEquals(404, response.getStatusLine().getStatusCode());
+    String content = IOUtils.toString(response.getEntity().getContent());
+    assertTrue(content, content.contains("Airport not found"));
+  }
+}
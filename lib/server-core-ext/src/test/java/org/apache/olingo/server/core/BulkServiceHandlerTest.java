@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileReader;
+import java.net.URI;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BulkServiceHandlerTest {
+  private static final String CRLF = "\r\n";
+  private static final String BASE_URI = "http://localhost/trippin";
+
+  private ServiceMetadata metadata;
+  private BulkServiceHandler handler;
+
+  @Before
+  public void setUp() throws Exception {
+    metadata = new MetadataParser().buildServiceMetadata(new FileReader("src/test/resources/trippin.xml"));
+    handler = Mockito.mock(BulkServiceHandler.class);
+    Mockito.when(handler.startTransaction()).thenReturn("txn");
+    Mockito.doAnswer(new Answer<Void>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        List<DataRequest> requests = (List<DataRequest>) invocation.getArguments()[0];
+        List<Entity> entities = (List<Entity>) invocation.getArguments()[1];
+        List<EntityResponse> responses = (List<EntityResponse>) invocation.getArguments()[2];
+        for (int i = 0; i < requests.size(); i++) {
+          Entity entity = entities.get(i);
+          entity.setId(URI.create("Airlines('" + entity.getProperty("AirlineCode").getValue() + "')"));
+          responses.get(i).writeCreatedEntity(requests.get(i).getEntitySet(), entity);
+        }
+        return null;
+      }
+    }).when(handler).createEntities(Mockito.anyListOf(DataRequest.class), Mockito.anyListOf(Entity.class),
+        Mockito.anyListOf(EntityResponse.class));
+    Mockito.doAnswer(new Answer<Void>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        for (EntityResponse response : (List<EntityResponse>) invocation.getArguments()[3]) {
+          response.writeUpdatedEntity();
+        }
+        return null;
+      }
+    }).when(handler).updateEntities(Mockito.anyListOf(DataRequest.class), Mockito.anyListOf(Entity.class),
+        Mockito.anyBoolean(), Mockito.anyListOf(EntityResponse.class));
+    Mockito.doAnswer(new Answer<Void>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        for (EntityResponse response : (List<EntityResponse>) invocation.getArguments()[1]) {
+          response.writeDeletedEntityOrReference();
+        }
+        return null;
+      }
+    }).when(handler).deleteEntities(Mockito.anyListOf(DataRequest.class), Mockito.anyListOf(EntityResponse.class));
+  }
+
+  private static String part(String contentId, String method, String path, String ifMatch, String body) {
+    return "--changeset_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + "Content-ID: " + contentId + CRLF
+        + CRLF
+        + method + " " + path + " HTTP/1.1" + CRLF
+        + "Content-Type: application/json;odata.metadata=minimal" + CRLF
+        + (ifMatch == null ? "" : "If-Match: " + ifMatch + CRLF)
+        + CRLF
+        + (body == null ? "" : body) + CRLF;
+  }
+
+  private String executeChangeSet(String... parts) throws Exception {
+    StringBuilder content = new StringBuilder()
+        .append("--batch_1").append(CRLF)
+        .append("Content-Type: multipart/mixed; boundary=changeset_1").append(CRLF)
+        .append(CRLF);
+    for (String part : parts) {
+      content.append(part);
+    }
+    content.append("--changeset_1--").append(CRLF)
+        .append(CRLF)
+        .append("--batch_1--");
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.POST);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("$batch");
+    request.setRawQueryPath("");
+    request.setRawRequestUri(BASE_URI + "/$batch");
+    request.setRawServiceResolutionUri("");
+    request.addHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed;boundary=batch_1");
+    request.setBody(new ByteArrayInputStream(content.toString().getBytes("UTF-8")));
+    ODataResponse response = new ODataResponse();
+    new ServiceDispatcher(OData4Impl.newInstance(), metadata, handler, null).execute(request, response);
+    assertEquals(202, response.getStatusCode());
+    return IOUtils.toString(response.getContent());
+  }
+
+  @Test
+  public void testCreatesAreCollected() throws Exception {
+    String response = executeChangeSet(
+        part("1", "POST", "Airlines", null, "{\"AirlineCode\":\"AB\",\"Name\":\"Airline B\"}"),
+        part("2", "POST", "Airlines", null, "{\"AirlineCode\":\"AC\",\"Name\":\"Airline C\"}"),
+        part("3", "POST", "Airlines", null, "{\"AirlineCode\":\"AD\",\"Name\":\"Airline D\"}"));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Entity>> entities = ArgumentCaptor.forClass((Class<List<Entity>>) (Class<?>) List.class);
+    Mockito.verify(handler).createEntities(Mockito.anyListOf(DataRequest.class), entities.capture(),
+        Mockito.anyListOf(EntityResponse.class));
+    assertEquals(3, entities.getValue().size());
+    assertEquals("AD", entities.getValue().get(2).getProperty("AirlineCode").getValue());
+    Mockito.verify(handler, Mockito.never()).createEntity(Mockito.any(DataRequest.class),
+        Mockito.any(Entity.class), Mockito.any(EntityResponse.class));
+    Mockito.verify(handler).commit("txn");
+
+    assertEquals(3, response.split("HTTP/1.1 201 Created").length - 1);
+    assertTrue(response.contains("Content-ID: 3"));
+  }
+
+  @Test
+  public void testReferenceEndsCollection() throws Exception {
+    String response = executeChangeSet(
+        part("1", "POST", "Airlines", null, "{\"AirlineCode\":\"AB\",\"Name\":\"Airline B\"}"),
+        part("2", "POST", "Airlines", null, "{\"AirlineCode\":\"AC\",\"Name\":\"Airline C\"}"),
+        part("3", "PATCH", "$1", "*", "{\"Name\":\"Airline B2\"}"),
+        part("4", "DELETE", "Airlines('AA')", "*", null),
+        part("5", "DELETE", "Airlines('FM')", "*", null));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<DataRequest>> requests =
+        ArgumentCaptor.forClass((Class<List<DataRequest>>) (Class<?>) List.class);
+    Mockito.verify(handler).createEntities(Mockito.anyListOf(DataRequest.class),
+        Mockito.anyListOf(Entity.class), Mockito.anyListOf(EntityResponse.class));
+    Mockito.verify(handler).updateEntities(requests.capture(), Mockito.anyListOf(Entity.class),
+        Mockito.eq(true), Mockito.anyListOf(EntityResponse.class));
+    assertEquals("'AB'", requests.getValue().get(0).getKeyPredicates().get(0).getText());
+    Mockito.verify(handler).deleteEntities(requests.capture(), Mockito.anyListOf(EntityResponse.class));
+    assertEquals(2, requests.getValue().size());
+    Mockito.verify(handler).commit("txn");
+
+    assertEquals(3, response.split("HTTP/1.1 204 No Content").length - 1);
+  }
+
+  @Test
+  public void testFailedBulkOperation() throws Exception {
+    Mockito.doThrow(new ODataHandlerException("backend failed",
+        ODataHandlerException.MessageKeys.FUNCTIONALITY_NOT_IMPLEMENTED, "bulk"))
+        .when(handler).deleteEntities(Mockito.anyListOf(DataRequest.class), Mockito.anyListOf(EntityResponse.class));
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((ErrorResponse) invocation.getArguments()[1]).writeError((ODataServerError) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(handler).processError(Mockito.any(ODataServerError.class), Mockito.any(ErrorResponse.class));
+    String response = executeChangeSet(
+        part("1", "DELETE", "Airlines('AA')", "*", null),
+        part("2", "DELETE", "Airlines('FM')", "*", null));
+
+    Mockito.verify(handler).rollback("txn");
+    Mockito.verify(handler, Mockito.never()).commit(Mockito.anyString());
+    assertTrue(response.contains("HTTP/1.1 501 Not Implemented"));
+    assertEquals(1, response.split("HTTP/1.1").length - 1);
+  }
+
+  @Test
+  public void testFailedRequestBetweenCollectedOperations() throws Exception {
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((ErrorResponse) invocation.getArguments()[1]).writeError((ODataServerError) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(handler).processError(Mockito.any(ODataServerError.class), Mockito.any(ErrorResponse.class));
+    String response = executeChangeSet(
+        part("1", "POST", "Airlines", null, "{\"AirlineCode\":\"AB\",\"Name\":\"Airline B\"}"),
+        part("2", "POST", "NoAirlines", null, "{\"AirlineCode\":\"AC\",\"Name\":\"Airline C\"}"),
+        part("3", "POST", "Airlines", null, "{\"AirlineCode\":\"AD\",\"Name\":\"Airline D\"}"));
+
+    // the create before the failed request is executed on its own, the one after it not at all
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Entity>> entities = ArgumentCaptor.forClass((Class<List<Entity>>) (Class<?>) List.class);
+    Mockito.verify(handler).createEntities(Mockito.anyListOf(DataRequest.class), entities.capture(),
+        Mockito.anyListOf(EntityResponse.class));
+    assertEquals(1, entities.getValue().size());
+    assertEquals("AB", entities.getValue().get(0).getProperty("AirlineCode").getValue());
+    Mockito.verify(handler).rollback("txn");
+    Mockito.verify(handler, Mockito.never()).commit(Mockito.anyString());
+    assertTrue(response.contains("HTTP/1.1 404 Not Found"));
+    assertEquals(1, response.split("HTTP/1.1").length - 1);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EdmSnapshotTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ReferenceResolver testReferenceResolver = new ReferenceResolver() {
+    @Override
+    public InputStream resolveReference(URI uri, String xmlBase) {
+      String str = uri.toASCIIString();
+      if (str.startsWith("http://localhost/")) {
+        try {
+          return new FileInputStream("src/test/resources/" + str.substring(17));
+        } catch (FileNotFoundException e) {
+          return null;
+        }
+      }
+      return null;
+    }
+  };
+
+  @Test
+  public void metadataDocument() throws Exception {
+    SchemaBasedEdmProvider provider = new MetadataParser().parseAnnotations(true)
+        .implicitlyLoadCoreVocabularies(true)
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    final byte[] snapshot = snapshot(provider);
+    SchemaBasedEdmProvider snapshotProvider = EdmSnapshot.read(ByteBuffer.wrap(snapshot));
+
+    assertEquals(metadataDocument(provider), metadataDocument(snapshotProvider));
+    assertNotNull(snapshotProvider.getVocabularySchema("Org.OData.Core.V1"));
+    assertArrayEquals(snapshot, snapshot(snapshotProvider));
+  }
+
+  @Test
+  public void annotations() throws Exception {
+    SchemaBasedEdmProvider provider = new MetadataParser().parseAnnotations(true)
+        .buildEdmProvider(new FileReader("src/test/resources/annotations.xml"));
+    final byte[] snapshot = snapshot(provider);
+    SchemaBasedEdmProvider snapshotProvider = EdmSnapshot.read(ByteBuffer.wrap(snapshot));
+
+    assertEquals(provider.getSchemas().size(), snapshotProvider.getSchemas().size());
+    assertEquals(provider.getSchemas().get(0).getAnnotations(),
+        snapshotProvider.getSchemas().get(0).getAnnotations());
+    assertEquals(provider.getSchemas().get(0).getAnnotationGroups().get(0).getAnnotations(),
+        snapshotProvider.getSchemas().get(0).getAnnotationGroups().get(0).getAnnotations());
+    assertArrayEquals(snapshot, snapshot(snapshotProvider));
+  }
+
+  @Test
+  public void references() throws Exception {
+    SchemaBasedEdmProvider provider = new MetadataParser().recursivelyLoadReferences(true)
+        .referenceResolver(testReferenceResolver)
+        .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+    final Path file = folder.newFile("test.edm").toPath();
+    EdmSnapshot.write(provider, file);
+    SchemaBasedEdmProvider snapshotProvider = EdmSnapshot.read(file);
+
+    assertEquals(provider.getReferences().size(), snapshotProvider.getReferences().size());
+    final EdmxReference reference = snapshotProvider.getReferences().get(0);
+    assertEquals(URI.create("http://localhost/a.xml"), reference.getUri());
+    assertEquals("A", reference.getIncludes().get(0).getAlias());
+    assertNull(snapshotProvider.getSchema("org.apache.olingo.a", false));
+    assertNotNull(snapshotProvider.getSchema("org.apache.olingo.a", true));
+    assertNotNull(snapshotProvider.getSchema("org.apache.olingo.b", true));
+    assertNotNull(snapshotProvider.getComplexType(
+        new FullQualifiedName("Microsoft.OData.SampleService.Models.TripPin", "City")));
+    assertEquals(metadataDocument(provider), metadataDocument(snapshotProvider));
+  }
+
+  @Test
+  public void commandLine() throws Exception {
+    final Path file = folder.newFile("trippin.edm").toPath();
+    EdmSnapshot.main(new String[] { "-annotations", "-coreVocabularies", "src/test/resources/trippin.xml",
+        file.toString() });
+    SchemaBasedEdmProvider snapshotProvider = EdmSnapshot.read(file);
+
+    assertEquals(metadataDocument(new MetadataParser().parseAnnotations(true).implicitlyLoadCoreVocabularies(true)
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"))),
+        metadataDocument(snapshotProvider));
+  }
+
+  @Test(expected = IOException.class)
+  public void invalidSnapshot() throws Exception {
+    EdmSnapshot.read(ByteBuffer.wrap("<edmx:Edmx/>".getBytes("UTF-8")));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedSnapshot() throws Exception {
+    SchemaBasedEdmProvider provider = new MetadataParser()
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    final byte[] snapshot = snapshot(provider);
+    EdmSnapshot.read(ByteBuffer.wrap(snapshot, 0, snapshot.length / 2));
+  }
+
+  private static byte[] snapshot(SchemaBasedEdmProvider provider) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    EdmSnapshot.write(provider, out);
+    return out.toByteArray();
+  }
+
+  private static String metadataDocument(SchemaBasedEdmProvider provider) throws Exception {
+    final OData odata = OData.newInstance();
+    return IOUtils.toString(odata.createSerializer(ContentType.APPLICATION_XML)
+        .metadataDocument(odata.createServiceMetadata(provider, provider.getReferences()))
+        .getContent());
+  }
+}
@@ -27,9 +27,16 @@ import static org.junit.Assert.assertTrue;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.StringReader;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -256,4 +263,168 @@ public class MetadataParserTest {
     Assert.assertNotNull(provider.getSchema("Org.OData.Core.V1"));
 
   }
+
+  @Test
+  public void testIndexedLookups() throws Exception {
+    final String csdl = "<edmx:Edmx xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\" Version=\"4.0\">"
+        + "<edmx:DataServices><Schema xmlns=\"http://docs.oasis-open.org/odata/ns/edm\" Namespace=\"ns.one\""
+        + " Alias=\"One\">"
+        + "<EntityType Name=\"E\"><Key><PropertyRef Name=\"Id\"/></Key>"
+        + "<Property Name=\"Id\" Type=\"Edm.Int32\" Nullable=\"false\"/></EntityType>"
+        + "<ComplexType Name=\"C\"><Property Name=\"P\" Type=\"Edm.String\"/></ComplexType>"
+        + "<Function Name=\"F\"><ReturnType Type=\"Edm.Int32\"/></Function>"
+        + "<Function Name=\"F\"><Parameter Name=\"p\" Type=\"Edm.Int32\"/>"
+        + "<ReturnType Type=\"Edm.Int32\"/></Function>"
+        + "<EntityContainer Name=\"Container\"><EntitySet Name=\"Es\" EntityType=\"One.E\"/>"
+        + "<FunctionImport Name=\"Fi\" Function=\"One.F\"/></EntityContainer>"
+        + "</Schema></edmx:DataServices></edmx:Edmx>";
+    MetadataParser parser = new MetadataParser();
+    parser.implicitlyLoadCoreVocabularies(true);
+    SchemaBasedEdmProvider provider = parser.buildEdmProvider(new StringReader(csdl));
+
+    Assert.assertEquals("E", provider.getEntityType(new FullQualifiedName("ns.one", "E")).getName());
+    Assert.assertSame(provider.getEntityType(new FullQualifiedName("ns.one", "E")),
+        provider.getEntityType(new FullQualifiedName("One", "E")));
+    Assert.assertNull(provider.getEntityType(new FullQualifiedName("ns.one", "C")));
+    Assert.assertNotNull(provider.getComplexType(new FullQualifiedName("ns.one", "C")));
+    Assert.assertEquals(2, provider.getFunctions(new FullQualifiedName("ns.one", "F")).size());
+    Assert.assertTrue(provider.getFunctions(new FullQualifiedName("ns.one", "G")).isEmpty());
+    Assert.assertTrue(provider.getActions(new FullQualifiedName("ns.one", "F")).isEmpty());
+    Assert.assertNotNull(provider.getEntitySet(new FullQualifiedName("ns.one", "Container"), "Es"));
+    Assert.assertNull(provider.getEntitySet(new FullQualifiedName("ns.two", "Container"), "Es"));
+    Assert.assertNotNull(provider.getFunctionImport(new FullQualifiedName("ns.one", "Container"), "Fi"));
+    Assert.assertNull(provider.getSingleton(new FullQualifiedName("ns.one", "Container"), "Es"));
+    Assert.assertNotNull(provider.getTerm(new FullQualifiedName("Org.OData.Core.V1", "Description")));
+  }
+
+  @Test
+  public void testSharedCoreVocabularies() throws Exception {
+    SchemaBasedEdmProvider first = new MetadataParser().implicitlyLoadCoreVocabularies(true)
+        .referenceResolver(testReferenceResolver)
+        .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+    SchemaBasedEdmProvider second = new MetadataParser().implicitlyLoadCoreVocabularies(true)
+        .referenceResolver(testReferenceResolver)
+        .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+
+    Assert.assertNotNull(first.getVocabularySchema("Org.OData.Core.V1"));
+    Assert.assertSame(first.getVocabularySchema("Org.OData.Core.V1"),
+        second.getVocabularySchema("Org.OData.Core.V1"));
+    Assert.assertSame(first.getVocabularySchema("Org.OData.Capabilities.V1"),
+        second.getVocabularySchema("Org.OData.Capabilities.V1"));
+  }
+
+  @Test
+  public void testReferenceLoadConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      MetadataParser parser = new MetadataParser();
+      parser.recursivelyLoadReferences(true);
+      parser.referenceResolver(testReferenceResolver);
+      parser.referenceExecutor(executor);
+      SchemaBasedEdmProvider providerTest = parser.buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+
+      Assert.assertNotNull(providerTest.getSchema("Microsoft.OData.SampleService.Models.TripPin", false));
+      Assert.assertNull(providerTest.getSchema("org.apache.olingo.a", false));
+      Assert.assertNotNull(providerTest.getSchema("org.apache.olingo.a", true));
+      Assert.assertNotNull(providerTest.getSchema("org.apache.olingo.b", true));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCachedReferences() throws Exception {
+    try {
+      SchemaBasedEdmProvider first = new MetadataParser().cacheReferences(true)
+          .referenceResolver(testReferenceResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      SchemaBasedEdmProvider second = new MetadataParser().cacheReferences(true)
+          .referenceResolver(testReferenceResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+
+      Assert.assertNotNull(first.getSchema("org.apache.olingo.a", true));
+      Assert.assertSame(first.getSchema("org.apache.olingo.a", true),
+          second.getSchema("org.apache.olingo.a", true));
+
+      MetadataParser.clearReferenceCache();
+      SchemaBasedEdmProvider third = new MetadataParser().cacheReferences(true)
+          .referenceResolver(testReferenceResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      Assert.assertNotSame(first.getSchema("org.apache.olingo.a", true),
+          third.getSchema("org.apache.olingo.a", true));
+    } finally {
+      MetadataParser.clearReferenceCache();
+    }
+  }
+
+  @Test
+  public void testCachedReferencesPerResolver() throws Exception {
+    final ReferenceResolver otherResolver = new ReferenceResolver() {
+      @Override
+      public InputStream resolveReference(URI uri, String xmlBase) {
+        return testReferenceResolver.resolveReference(uri, xmlBase);
+      }
+    };
+    try {
+      SchemaBasedEdmProvider first = new MetadataParser().cacheReferences(true)
+          .referenceResolver(testReferenceResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      SchemaBasedEdmProvider other = new MetadataParser().cacheReferences(true)
+          .referenceResolver(otherResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      Assert.assertNotSame(first.getSchema("org.apache.olingo.a", true),
+          other.getSchema("org.apache.olingo.a", true));
+
+      MetadataParser.clearReferenceCache(testReferenceResolver);
+      SchemaBasedEdmProvider second = new MetadataParser().cacheReferences(true)
+          .referenceResolver(testReferenceResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      SchemaBasedEdmProvider otherSecond = new MetadataParser().cacheReferences(true)
+          .referenceResolver(otherResolver)
+          .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+      Assert.assertNotSame(first.getSchema("org.apache.olingo.a", true),
+          second.getSchema("org.apache.olingo.a", true));
+      Assert.assertSame(other.getSchema("org.apache.olingo.a", true),
+          otherSecond.getSchema("org.apache.olingo.a", true));
+    } finally {
+      MetadataParser.clearReferenceCache();
+    }
+  }
+
+  @Test
+  public void testClearVocabularyCache() throws Exception {
+    SchemaBasedEdmProvider first = new MetadataParser().implicitlyLoadCoreVocabularies(true)
+        .referenceResolver(testReferenceResolver)
+        .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+    MetadataParser.clearVocabularyCache();
+    SchemaBasedEdmProvider second = new MetadataParser().implicitlyLoadCoreVocabularies(true)
+        .referenceResolver(testReferenceResolver)
+        .buildEdmProvider(new FileReader("src/test/resources/test.xml"));
+
+    Assert.assertNotNull(second.getVocabularySchema("Org.OData.Core.V1"));
+    Assert.assertNotSame(first.getVocabularySchema("Org.OData.Core.V1"),
+        second.getVocabularySchema("Org.OData.Core.V1"));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testEventReader() throws Exception {
+    MetadataParser parser = new MetadataParser().referenceResolver(testReferenceResolver);
+    XMLEventReader reader = XMLInputFactory.newInstance().createXMLEventReader(
+        new FileReader("src/test/resources/test.xml"));
+    SchemaBasedEdmProvider eventProvider = parser.buildEdmProvider(reader, testReferenceResolver,
+        false, true, true, null);
+
+    Assert.assertNotNull(eventProvider.getSchema("Microsoft.OData.SampleService.Models.TripPin", false));
+    Assert.assertNotNull(eventProvider.getComplexType(
+        new FullQualifiedName("Microsoft.OData.SampleService.Models.TripPin", "City")));
+    Assert.assertNotNull(eventProvider.getSchema("org.apache.olingo.a", true));
+  }
+
+  @Test(expected = XMLStreamException.class)
+  public void testIncompleteDocument() throws Exception {
+    new MetadataParser().buildEdmProvider(new StringReader(
+        "<edmx:Edmx xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\" Version=\"4.0\">"
+        + "<edmx:DataServices>"));
+  }
 }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.OData4Impl;
+import org.apache.olingo.server.core.ServiceDispatcher;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.query.QueryOperation.Kind;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.CountResponse;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class QueryPlanTest {
+  private static final String BASE_URI = "http://localhost/trippin";
+
+  private ServiceMetadata metadata;
+  private ServiceHandler handler;
+  private QueryCapabilities capabilities;
+  private QueryPlan plan;
+
+  @Before
+  public void setUp() throws Exception {
+    metadata = new MetadataParser().buildServiceMetadata(new FileReader("src/test/resources/trippin.xml"));
+    capabilities = QueryCapabilities.none();
+    handler = Mockito.mock(ServiceHandler.class);
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        DataRequest request = (DataRequest) invocation.getArguments()[0];
+        plan = request.getQueryPlan(capabilities);
+        Object response = invocation.getArguments()[1];
+        if (response instanceof EntitySetResponse) {
+          ((EntitySetResponse) response).writeReadEntitySet(request.getEntitySet().getEntityType(),
+              request.getEntitySet().getName().equals("People") ? people() : airports(), plan);
+        } else if (response instanceof CountResponse) {
+          ((CountResponse) response).writeCount(plan.executeResidual(people()).getCount());
+        }
+        return null;
+      }
+    }).when(handler).read(Mockito.any(DataRequest.class), Mockito.any(ServiceResponse.class));
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((ErrorResponse) invocation.getArguments()[1]).writeError((ODataServerError) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(handler).processError(Mockito.any(ODataServerError.class), Mockito.any(ErrorResponse.class));
+  }
+
+  private static Entity person(String userName, String firstName, String lastName, long concurrency) {
+    return new Entity()
+        .addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, userName))
+        .addProperty(new Property(null, "FirstName", ValueType.PRIMITIVE, firstName))
+        .addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName))
+        .addProperty(new Property(null, "Concurrency", ValueType.PRIMITIVE, concurrency));
+  }
+
+  private static EntityCollection people() {
+    EntityCollection people = new EntityCollection();
+    people.getEntities().add(person("russellwhyte", "Russell", "Whyte", 1));
+    people.getEntities().add(person("scottketchum", "Scott", "Ketchum", 2));
+    people.getEntities().add(person("ronaldmundy", "Ronald", "Mundy", 3));
+    people.getEntities().add(person("javieralfred", "Javier", "Alfred", 4));
+    people.getEntities().add(person("willieashmore", null, "Ashmore", 5));
+    return people;
+  }
+
+  private static Entity airport(String icaoCode, String name, String address) {
+    ComplexValue location = new ComplexValue();
+    location.getValue().add(new Property(null, "Address", ValueType.PRIMITIVE, address));
+    return new Entity()
+        .addProperty(new Property(null, "IcaoCode", ValueType.PRIMITIVE, icaoCode))
+        .addProperty(new Property(null, "Name", ValueType.PRIMITIVE, name))
+        .addProperty(new Property(null, "IataCode", ValueType.PRIMITIVE, icaoCode.substring(1)))
+        .addProperty(new Property(null, "Location", ValueType.COMPLEX, location));
+  }
+
+  private static EntityCollection airports() {
+    EntityCollection airports = new EntityCollection();
+    airports.getEntities().add(airport("KSFO", "San Francisco International Airport", "South McDonnell Road"));
+    airports.getEntities().add(airport("KLAX", "Los Angeles International Airport", "1 World Way"));
+    airports.getEntities().add(airport("ZSSS", "Shanghai Hongqiao International Airport", "Hongqiao Road 2550"));
+    return airports;
+  }
+
+  private ODataResponse execute(String path, String query) throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    request.setRawRequestUri(BASE_URI + "/" + path + "?" + query);
+    request.setRawServiceResolutionUri("");
+    ODataResponse response = new ODataResponse();
+    new ServiceDispatcher(OData4Impl.newInstance(), metadata, handler, null).execute(request, response);
+    return response;
+  }
+
+  private static List<Kind> kinds(List<QueryOperation> operations) {
+    Kind[] kinds = new Kind[operations.size()];
+    for (int i = 0; i < kinds.length; i++) {
+      kinds[i] = operations.get(i).getKind();
+    }
+    return Arrays.asList(kinds);
+  }
+
+  @Test
+  public void testPlanOfNavigation() throws Exception {
+    capabilities = QueryCapabilities.all();
+    execute("People('russellwhyte')/Friends",
+        "$filter=Concurrency%20gt%201&$count=true&$orderby=LastName&$skip=1&$top=2&$select=FirstName");
+    assertEquals(Arrays.asList(Kind.SCAN, Kind.KEY_LOOKUP, Kind.NAVIGATION, Kind.FILTER, Kind.COUNT, Kind.SORT,
+        Kind.LIMIT, Kind.PROJECT), kinds(plan.getOperations()));
+    assertTrue(plan.getResidualOperations().isEmpty());
+    QueryOperation.Navigation navigation = (QueryOperation.Navigation) plan.getOperations().get(2);
+    assertEquals("Friends", navigation.getProperty().getName());
+    assertEquals("People", navigation.getTarget().getName());
+    QueryOperation.Limit limit = (QueryOperation.Limit) plan.getPushedDownOperation(Kind.LIMIT);
+    assertEquals(1, limit.getSkip());
+    assertEquals(Integer.valueOf(2), limit.getTop());
+    assertTrue(((QueryOperation.Count) plan.getPushedDownOperation(Kind.COUNT)).isInline());
+  }
+
+  @Test
+  public void testNegotiationPushesDownPrefix() throws Exception {
+    capabilities = QueryCapabilities.with().pushDown(Kind.FILTER, Kind.LIMIT, Kind.PROJECT).build();
+    execute("People", "$filter=Concurrency%20gt%201&$orderby=LastName&$top=2&$select=FirstName");
+    assertEquals(Arrays.asList(Kind.SCAN, Kind.FILTER), kinds(plan.getPushedDownOperations()));
+    assertEquals(Arrays.asList(Kind.SORT, Kind.LIMIT, Kind.PROJECT), kinds(plan.getResidualOperations()));
+    assertNull(plan.getPushedDownOperation(Kind.LIMIT));
+  }
+
+  @Test
+  public void testResidualFilterSortAndLimit() throws Exception {
+    ODataResponse response = execute("People",
+        "$filter=Concurrency%20gt%201%20and%20length(LastName)%20lt%208"
+        + "&$count=true&$orderby=LastName%20desc&$skip=1&$top=2&$select=UserName");
+    assertEquals(200, response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"@odata.count\":4"));
+    assertTrue(content, content.contains("[{\"UserName\":\"scottketchum\"},{\"UserName\":\"willieashmore\"}]"));
+    assertEquals(Arrays.asList(Kind.SCAN), kinds(plan.getPushedDownOperations()));
+  }
+
+  @Test
+  public void testResidualCount() throws Exception {
+    ODataResponse response = execute("People/$count", "$filter=FirstName%20eq%20null%20or%20Concurrency%20mod%202"
+        + "%20eq%200");
+    assertEquals(200, response.getStatusCode());
+    assertEquals("3", IOUtils.toString(response.getContent()));
+    assertEquals(Arrays.asList(Kind.SCAN, Kind.FILTER, Kind.COUNT), kinds(plan.getOperations()));
+    assertTrue(!((QueryOperation.Count) plan.getResidualOperations().get(1)).isInline());
+  }
+
+  @Test
+  public void testResidualFilterWithDecimalLiteral() throws Exception {
+    ODataResponse response = execute("People", "$filter=Concurrency%20lt%202.50&$select=UserName");
+    assertEquals(200, response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("[{\"UserName\":\"russellwhyte\"},{\"UserName\":\"scottketchum\"}]"));
+  }
+
+  @Test
+  public void testResidualLimitWithMaximumTop() throws Exception {
+    ODataResponse response = execute("People", "$skip=1&$top=2147483647&$select=UserName");
+    assertEquals(200, response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("{\"UserName\":\"scottketchum\"}"));
+    assertTrue(content, content.contains("{\"UserName\":\"willieashmore\"}"));
+    assertTrue(content, !content.contains("russellwhyte"));
+  }
+
+  @Test
+  public void testResidualFilterWithNonFiniteLiterals() throws Exception {
+    ODataResponse response = execute("People", "$filter=Concurrency%20lt%20INF%20and%20Concurrency%20gt%20-INF"
+        + "%20and%20Concurrency%20mul%20INF%20eq%20INF%20and%20Concurrency%20add%20NaN%20ne%201"
+        + "%20and%20Concurrency%20ne%20NaN&$count=true&$select=UserName");
+    assertEquals(200, response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"@odata.count\":5"));
+  }
+
+  @Test
+  public void testResidualFilterOnComplexProperty() throws Exception {
+    ODataResponse response = execute("Airports",
+        "$filter=contains(tolower(Location/Address),'road')&$orderby=Name&$select=IcaoCode");
+    assertEquals(200, response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("[{\"IcaoCode\":\"KSFO\"},{\"IcaoCode\":\"ZSSS\"}]"));
+  }
+
+  @Test
+  public void testUnsupportedResidualExpression() throws Exception {
+    ODataResponse response = execute("People", "$filter=Friends/any(d:d/UserName%20eq%20'foo')");
+    assertEquals(501, response.getStatusCode());
+  }
+}
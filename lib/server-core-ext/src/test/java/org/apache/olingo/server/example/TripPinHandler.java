@@ -22,12 +22,14 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Random;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.data.ValueType;
@@ -38,6 +40,7 @@ import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmSingleton;
 import org.apache.olingo.commons.api.ex.ODataNotSupportedException;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.OData;
@@ -49,6 +52,8 @@ import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.core.ServiceHandler;
 import org.apache.olingo.server.core.requests.ActionRequest;
 import org.apache.olingo.server.core.requests.DataRequest;
@@ -60,6 +65,7 @@ import org.apache.olingo.server.core.responses.CountResponse;
 import org.apache.olingo.server.core.responses.EntityResponse;
 import org.apache.olingo.server.core.responses.EntitySetResponse;
 import org.apache.olingo.server.core.responses.ErrorResponse;
+import org.apache.olingo.server.core.responses.ExpandCallback;
 import org.apache.olingo.server.core.responses.MetadataResponse;
 import org.apache.olingo.server.core.responses.NoContentResponse;
 import org.apache.olingo.server.core.responses.PrimitiveValueResponse;
@@ -210,6 +216,8 @@ public class TripPinHandler implements ServiceHandler {
         }
         if (details.entity == null && !request.getNavigations().isEmpty()) {
           response.writeReadEntitySet(details.entityType, new EntityCollection());
+        } else if (request.getNavigations().isEmpty() && details.entitySet != null) {
+          response.writeReadEntitySet(details.entityType, stream(details.entitySet), expander());
         } else {
           response.writeReadEntitySet(details.entityType, details.entitySet);
         }
@@ -227,6 +235,59 @@ public class TripPinHandler implements ServiceHandler {
     });
   }
 
+  private static EntityIterator stream(final EntityCollection entitySet) {
+    final Iterator<Entity> entities = entitySet.iterator();
+    EntityIterator iterator = new EntityIterator() {
+      @Override
+      public boolean hasNext() {
+        if (entities.hasNext()) {
+          return true;
+        }
+        // like a database cursor, the next link is only known after the last row
+        setNext(entitySet.getNext());
+        return false;
+      }
+
+      @Override
+      public Entity next() {
+        return entities.next();
+      }
+    };
+    iterator.setCount(entitySet.getCount());
+    return iterator;
+  }
+
+  private ExpandCallback expander() {
+    return new ExpandCallback() {
+      @Override
+      public void expand(EdmEntityType entityType, Entity entity, ExpandOption expand) {
+        for (ExpandItem item : expand.getExpandItems()) {
+          if (item.getResourcePath() == null) {
+            continue;
+          }
+          UriResourceNavigation navigation =
+              (UriResourceNavigation) item.getResourcePath().getUriResourceParts().get(0);
+          String name = navigation.getProperty().getName();
+          Link link = entity.getNavigationLink(name);
+          if (link == null) {
+            link = new Link();
+            link.setTitle(name);
+            entity.getNavigationLinks().add(link);
+          }
+          try {
+            if (navigation.isCollection()) {
+              link.setInlineEntitySet(dataModel.getNavigableEntitySet(entity, navigation));
+            } else {
+              link.setInlineEntity(dataModel.getNavigableEntity(entity, navigation));
+            }
+          } catch (ODataApplicationException e) {
+            throw new ODataRuntimeException(e);
+          }
+        }
+      }
+    };
+  }
+
   private int getPageSize(DataRequest request) {
     String size = request.getPreference("odata.maxpagesize");
     if (size == null) {
@@ -155,6 +155,34 @@ public class TripPinServiceTest {
     assertEquals("odata.maxpagesize=10", getHeader(response, "Preference-Applied"));
   }
 
+  @Test
+  public void testReadEntitySetWithCount() throws Exception {
+    HttpResponse response = httpGET(baseURL + "/Airlines?$count=true", 200);
+    JsonNode node = getJSONNode(response);
+    assertEquals(15, node.get("@odata.count").asInt());
+    assertEquals(8, ((ArrayNode) node.get("value")).size());
+    assertTrue(node.get("@odata.nextLink").asText().endsWith("$skiptoken=8"));
+  }
+
+  @Test
+  public void testReadEntitySetWithExpand() throws Exception {
+    HttpResponse response = httpGET(baseURL + "/People?$expand=Friends", 200);
+    JsonNode node = getJSONNode(response);
+    JsonNode person = ((ArrayNode) node.get("value")).get(0);
+    assertEquals("russellwhyte", person.get("UserName").asText());
+    assertEquals("scottketchum", ((ArrayNode) person.get("Friends")).get(0).get("UserName").asText());
+  }
+
+  @Test
+  public void testReadEntitySetWithFullMetadata() throws Exception {
+    HttpResponse response = httpGET(
+        baseURL + "/People?$format=application/json;odata.metadata=full", 200);
+    JsonNode node = getJSONNode(response);
+    JsonNode person = ((ArrayNode) node.get("value")).get(0);
+    assertEquals("/People('russellwhyte')/Microsoft.OData.SampleService.Models.TripPin.ShareTrip",
+        person.get("#Microsoft.OData.SampleService.Models.TripPin.ShareTrip").get("target").asText());
+  }
+
   @Test
   public void testReadEntityWithKey() throws Exception {
     HttpResponse response = httpGET(baseURL + "/Airlines('AA')", 200);
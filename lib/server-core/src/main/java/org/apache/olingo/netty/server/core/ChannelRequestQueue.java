@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.netty.util.AttributeKey;
+
+/**
+ * <p>Queue of the requests of one channel which are processed by an executor.</p>
+ * <p>HTTP/1.1 clients may pipeline requests, and the responses must be written in the order of the requests.
+ * Therefore the requests of a channel are processed one after the other, while requests of different
+ * channels are processed concurrently. A response is written by the thread processing its request,
+ * so the writes of consecutive requests reach the event loop in order.</p>
+ */
+final class ChannelRequestQueue {
+
+  static final AttributeKey<ChannelRequestQueue> KEY =
+      AttributeKey.valueOf(ChannelRequestQueue.class, "requests");
+
+  /** A queued request. */
+  interface Task {
+    /** Processes the request and writes the response. */
+    void run();
+
+    /** Answers the request without processing it, because the executor has rejected it. */
+    void reject();
+  }
+
+  private final Queue<Task> tasks = new ArrayDeque<Task>();
+  private boolean active = false;
+
+  /**
+   * Processes a task with the executor after all tasks queued before.
+   * If the executor rejects the processing, all queued tasks are rejected.
+   */
+  void execute(final Task task, final Executor executor) {
+    synchronized (tasks) {
+      tasks.add(task);
+      if (active) {
+        return;
+      }
+      active = true;
+    }
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          Task next;
+          while ((next = next()) != null) {
+            next.run();
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      Task next;
+      while ((next = next()) != null) {
+        next.reject();
+      }
+    }
+  }
+
+  private Task next() {
+    synchronized (tasks) {
+      final Task next = tasks.poll();
+      if (next == null) {
+        active = false;
+      }
+      return next;
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * <p>Writable channel that emits the written bytes as HTTP content chunks to a Netty channel.</p>
+ * <p>The bytes are collected in buffers taken from the channel's (pooled) allocator; each full buffer is
+ * written and flushed as one {@link DefaultHttpContent}. Closing the channel writes the remaining bytes
+ * followed by the {@link LastHttpContent}.</p>
+ * <p>If the Netty channel is not writable, i.e., the outbound buffer exceeds its high water mark,
+ * writing blocks until the pending chunks have been flushed. This is only possible outside the
+ * event loop. Inside the event loop the chunks are kept back while the channel is not writable
+ * and passed on when it becomes writable again, signalled by the {@link ContentFlowControlHandler},
+ * or when a write of this channel has completed. The content pushed by the producer is thus held
+ * by this channel instead of the outbound buffer; content which can be read on demand is therefore
+ * written with a {@link io.netty.handler.stream.ChunkedWriteHandler} on the event loop.
+ * Responses written in the meantime are deferred until the kept-back chunks have been passed on,
+ * see {@link #runAfterContent(Runnable)}.</p>
+ */
+final class ChunkedContentChannel implements WritableByteChannel {
+
+  /** Channel attribute holding the content channel waiting for the Netty channel to become writable. */
+  static final AttributeKey<ChunkedContentChannel> WAITING =
+      AttributeKey.valueOf(ChunkedContentChannel.class, "WAITING");
+
+  private final ChannelHandlerContext context;
+  private final int chunkSize;
+  private final boolean inEventLoop;
+  /** Whether a {@link ContentFlowControlHandler} resumes this channel when the Netty channel becomes writable. */
+  private final boolean resumedOnWritable;
+  private final ArrayDeque<HttpContent> pending = new ArrayDeque<HttpContent>();
+  private final ArrayDeque<Runnable> deferred = new ArrayDeque<Runnable>();
+  private final ChannelFutureListener writeListener = new ChannelFutureListener() {
+    @Override
+    public void operationComplete(final ChannelFuture future) {
+      inFlight--;
+      if (future.isSuccess()) {
+        resume();
+      } else {
+        fail(future.cause());
+      }
+    }
+  };
+  private ByteBuf chunk;
+  private ChannelFuture lastWrite;
+  private ChannelPromise endWrite;
+  private int inFlight;
+  private Throwable failure;
+  private boolean open = true;
+
+  ChunkedContentChannel(final ChannelHandlerContext context, final int chunkSize) {
+    this.context = context;
+    this.chunkSize = chunkSize;
+    inEventLoop = context.executor().inEventLoop();
+    resumedOnWritable = context.pipeline().get(ContentFlowControlHandler.class) != null;
+  }
+
+  @Override
+  public int write(final ByteBuffer source) throws IOException {
+    if (!open) {
+      throw failure == null ? new ClosedChannelException() :
+          new IOException("Error on writing response content", failure);
+    }
+    final int written = source.remaining();
+    while (source.hasRemaining()) {
+      if (chunk == null) {
+        chunk = context.alloc().buffer(chunkSize);
+      }
+      final int length = Math.min(source.remaining(), chunkSize - chunk.writerIndex());
+      final int limit = source.limit();
+      source.limit(source.position() + length);
+      chunk.writeBytes(source);
+      source.limit(limit);
+      if (chunk.writerIndex() == chunkSize) {
+        emit();
+      }
+    }
+    return written;
+  }
+
+  private void emit() throws IOException {
+    final ByteBuf content = chunk;
+    chunk = null;
+    if (inEventLoop) {
+      pending.add(new DefaultHttpContent(content));
+      resume();
+      return;
+    }
+    lastWrite = context.writeAndFlush(new DefaultHttpContent(content));
+    if (!context.channel().isWritable()) {
+      // All earlier writes are flushed once the last one has completed.
+      lastWrite.awaitUninterruptibly();
+    }
+    if (lastWrite.isDone() && !lastWrite.isSuccess()) {
+      open = false;
+      throw new IOException("Error on writing response content", lastWrite.cause());
+    }
+  }
+
+  /**
+   * Writes the chunks kept back, as long as the Netty channel is writable.
+   * Without a {@link ContentFlowControlHandler} a chunk is also written if none of this channel is
+   * in flight, since no completed write would resume this channel otherwise.
+   * Must be called in the event loop.
+   */
+  void resume() {
+    boolean written = false;
+    while (!pending.isEmpty()
+        && (context.channel().isWritable() || !resumedOnWritable && inFlight == 0)) {
+      final HttpContent content = pending.poll();
+      inFlight++;
+      if (content instanceof LastHttpContent) {
+        context.write(content, endWrite);
+      } else {
+        context.write(content).addListener(writeListener);
+      }
+      written = true;
+    }
+    if (written) {
+      context.flush();
+    }
+    if (pending.isEmpty()) {
+      if (context.channel().attr(WAITING).compareAndSet(this, null) && !open) {
+        runDeferred();
+      }
+    } else {
+      context.channel().attr(WAITING).set(this);
+    }
+  }
+
+  /**
+   * Runs a task, e.g., the writing of the next response, once the content of this channel
+   * has been passed on completely. Must be called in the event loop while this channel is waiting.
+   * @param task the task
+   */
+  void runAfterContent(final Runnable task) {
+    deferred.add(task);
+  }
+
+  private void runDeferred() {
+    Runnable task;
+    while ((task = deferred.poll()) != null) {
+      task.run();
+      final ChunkedContentChannel waiting = context.channel().attr(WAITING).get();
+      if (waiting != null && waiting != this) {
+        // The task has left content behind; the remaining tasks must wait for it.
+        waiting.deferred.addAll(deferred);
+        deferred.clear();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Discards the kept-back chunks after a failure, e.g., because the Netty channel has been closed.
+   * @param cause the cause of the failure
+   */
+  void fail(final Throwable cause) {
+    if (failure == null) {
+      failure = cause;
+    }
+    open = false;
+    releasePending();
+    if (endWrite != null) {
+      endWrite.tryFailure(cause);
+    }
+    // The deferred writes fail on their own if the Netty channel has been closed.
+    runDeferred();
+  }
+
+  /**
+   * Gets the future of the last write operation.
+   * @return the future or <code>null</code> if nothing has been written yet
+   */
+  ChannelFuture getLastWrite() {
+    return lastWrite;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  /** Writes the remaining bytes and the end of the content. */
+  @Override
+  public void close() throws IOException {
+    if (!open) {
+      if (failure != null) {
+        throw new IOException("Error on writing response content", failure);
+      }
+      return;
+    }
+    if (chunk != null && chunk.isReadable()) {
+      emit();
+    }
+    open = false;
+    if (chunk != null) {
+      chunk.release();
+      chunk = null;
+    }
+    if (inEventLoop) {
+      endWrite = context.newPromise();
+      endWrite.addListener(writeListener);
+      lastWrite = endWrite;
+      pending.add(LastHttpContent.EMPTY_LAST_CONTENT);
+      resume();
+    } else {
+      lastWrite = context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+  }
+
+  /** Releases the current buffer without writing the end of the content, e.g., after a failure. */
+  void abort() {
+    open = false;
+    if (chunk != null) {
+      chunk.release();
+      chunk = null;
+    }
+    releasePending();
+  }
+
+  private void releasePending() {
+    HttpContent content;
+    while ((content = pending.poll()) != null) {
+      ReferenceCountUtil.release(content);
+    }
+    context.channel().attr(WAITING).compareAndSet(this, null);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.nio.channels.ClosedChannelException;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * <p>Channel handler resuming pushed response content once the channel has become writable again.</p>
+ * <p>A {@link ChunkedContentChannel} written in the event loop keeps its chunks back while the channel
+ * is not writable; this handler passes them on as soon as the outbound buffer has dropped below its
+ * low water mark. It is added once per channel, see
+ * {@link ODataNettyHandlerImpl#initChannelPipeline(io.netty.channel.ChannelPipeline)}.</p>
+ */
+final class ContentFlowControlHandler extends ChannelInboundHandlerAdapter {
+
+  @Override
+  public void channelWritabilityChanged(final ChannelHandlerContext context) throws Exception {
+    if (context.channel().isWritable()) {
+      final ChunkedContentChannel waiting = context.channel().attr(ChunkedContentChannel.WAITING).get();
+      if (waiting != null) {
+        waiting.resume();
+      }
+    }
+    super.channelWritabilityChanged(context);
+  }
+
+  @Override
+  public void channelInactive(final ChannelHandlerContext context) throws Exception {
+    final ChunkedContentChannel waiting = context.channel().attr(ChunkedContentChannel.WAITING).get();
+    if (waiting != null) {
+      waiting.fail(new ClosedChannelException());
+    }
+    super.channelInactive(context);
+  }
+}
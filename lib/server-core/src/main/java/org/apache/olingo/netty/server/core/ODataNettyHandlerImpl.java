@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
@@ -30,10 +31,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.netty.server.api.ODataNettyHandler;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataContent;
@@ -41,6 +44,7 @@ import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.core.ODataExceptionHelper;
@@ -51,11 +55,27 @@ import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
 
 public class ODataNettyHandlerImpl implements ODataNettyHandler {
 
@@ -69,12 +89,21 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 
   private int split = 0;
 
+  /** Executor processing streamed requests, or <code>null</code> to process them on the calling thread. */
+  private final Executor executor;
+
   public ODataNettyHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
+    this(odata, serviceMetadata, null);
+  }
+
+  public ODataNettyHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata, final Executor executor) {
     debugger = new ServerCoreDebugger(odata);
     handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    this.executor = executor;
   }
   
-  private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
+  private static ODataResponse handleException(final ODataHandlerImpl requestHandler,
+      final ODataRequest odRequest, final Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
     if (e instanceof ODataHandlerException) {
@@ -84,7 +113,7 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
     } else {
       serverError = ODataExceptionHelper.createServerErrorObject(e);
     }
-    handler.handleException(odRequest, resp, serverError, e);
+    requestHandler.handleException(odRequest, resp, serverError, e);
     return resp;
   }
   
@@ -168,8 +197,12 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	    final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
 	    try {
 	    	ByteBuf byteBuf = ((HttpContent)httpRequest).content();
-	    	ByteBufInputStream inputStream = new ByteBufInputStream(byteBuf);
-	      odRequest.setBody(inputStream);
+	    	if (byteBuf.nioBufferCount() == 1) {
+	    	  // The payload is exposed without copying it.
+	    	  odRequest.setBody(byteBuf.nioBuffer());
+	    	} else {
+	    	  odRequest.setBody(new ByteBufInputStream(byteBuf));
+	    	}
 	      
 	      odRequest.setProtocol(httpRequest.protocolVersion().text());
 	      odRequest.setMethod(extractMethod(httpRequest));
@@ -295,13 +328,191 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	  }
   }
   
-@SuppressWarnings("unused")
 @Override
 public void processNettyRequest(HttpRequest request, HttpResponse response, 
 		Map<String, String> requestParameters) {
+    convertToHttp(response, handleNettyRequest(request, requestParameters));
+  }
+
+  @Override
+  public ChannelFuture processNettyRequest(final HttpRequest request, final ChannelHandlerContext context,
+      final Map<String, String> requestParameters) {
+    // The response content may be read while it is written, and it may refer to the request content,
+    // so the request must stay available until the response has been written.
+    ReferenceCountUtil.retain(request);
+    if (executor == null) {
+      ChannelFuture written;
+      try {
+        written = writeResponse(context, request.protocolVersion(), handleNettyRequest(request, requestParameters));
+      } catch (final RuntimeException e) {
+        ReferenceCountUtil.release(request);
+        throw e;
+      }
+      return releaseOnCompletion(written, request);
+    }
+
+    final ChannelPromise promise = context.newPromise();
+    ChannelRequestQueue queue = context.channel().attr(ChannelRequestQueue.KEY).get();
+    if (queue == null) {
+      queue = new ChannelRequestQueue();
+      final ChannelRequestQueue existingQueue = context.channel().attr(ChannelRequestQueue.KEY).setIfAbsent(queue);
+      queue = existingQueue == null ? queue : existingQueue;
+    }
+    queue.execute(new ChannelRequestQueue.Task() {
+      @Override
+      public void run() {
+        ChannelFuture written;
+        try {
+          written = writeResponse(context, request.protocolVersion(), handleNettyRequest(request, requestParameters));
+        } catch (final RuntimeException e) {
+          ReferenceCountUtil.release(request);
+          context.close();
+          promise.tryFailure(e);
+          return;
+        }
+        notifyOnCompletion(releaseOnCompletion(written, request), promise);
+      }
+
+      @Override
+      public void reject() {
+        // Writes of requests processed before have been submitted to the event loop as tasks;
+        // submitting this write as task, too, keeps the responses in order.
+        context.executor().execute(new Runnable() {
+          @Override
+          public void run() {
+            final ODataResponse odResponse = new ODataResponse();
+            odResponse.setStatusCode(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+            notifyOnCompletion(releaseOnCompletion(writeResponse(context, request.protocolVersion(), odResponse),
+                request), promise);
+          }
+        });
+      }
+    }, executor);
+    return promise;
+  }
+
+  private static ChannelFuture releaseOnCompletion(final ChannelFuture future, final HttpRequest request) {
+    return future.addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(final ChannelFuture completedFuture) {
+        ReferenceCountUtil.release(request);
+      }
+    });
+  }
+
+  private static void notifyOnCompletion(final ChannelFuture future, final ChannelPromise promise) {
+    future.addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(final ChannelFuture completedFuture) {
+        if (completedFuture.isSuccess()) {
+          promise.trySuccess();
+        } else {
+          promise.tryFailure(completedFuture.cause());
+        }
+      }
+    });
+  }
+
+  /**
+   * Write the OData Response to the channel, streaming its content in chunks
+   * @param context
+   * @param version
+   * @param odResponse
+   * @return the future of the last write operation
+   */
+  static ChannelFuture writeResponse(final ChannelHandlerContext context, final HttpVersion version,
+      final ODataResponse odResponse) {
+    if (context.executor().inEventLoop()) {
+      final ChunkedContentChannel waiting = context.channel().attr(ChunkedContentChannel.WAITING).get();
+      if (waiting != null) {
+        // Content of an earlier response is kept back until the channel is writable; this response follows it.
+        final ChannelPromise promise = context.newPromise();
+        waiting.runAfterContent(new Runnable() {
+          @Override
+          public void run() {
+            notifyOnCompletion(writeResponse(context, version, odResponse), promise);
+          }
+        });
+        return promise;
+      }
+    }
+    final HttpResponse response =
+        new DefaultHttpResponse(version, HttpResponseStatus.valueOf(odResponse.getStatusCode()));
+    for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
+      for (String headerValue : entry.getValue()) {
+        response.headers().add(entry.getKey(), headerValue);
+      }
+    }
+
+    final FileChannel file = odResponse.getFileContent();
+    if (file != null) {
+      HttpUtil.setContentLength(response, odResponse.getFileContentLength());
+      // Encrypted connections cannot transfer the file directly; its content is copied below instead.
+      if (context.pipeline().get(SslHandler.class) == null) {
+        context.write(response);
+        if (odResponse.getFileContentLength() > 0) {
+          // The file region closes the file channel once it has been written.
+          context.write(new DefaultFileRegion(file, odResponse.getFileContentPosition(),
+              odResponse.getFileContentLength()));
+        } else {
+          closeStream(file);
+        }
+        return context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+      }
+    }
+
+    if (odResponse.getContent() == null && odResponse.getODataContent() == null) {
+      if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
+        HttpUtil.setContentLength(response, 0);
+      }
+      context.write(response);
+      return context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+
+    if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH) && !HttpVersion.HTTP_1_0.equals(version)) {
+      HttpUtil.setTransferEncodingChunked(response, true);
+    }
+    if (odResponse.getContent() != null && context.executor().inEventLoop()
+        && context.pipeline().get(ChunkedWriteHandler.class) != null) {
+      // The event loop must not wait for the channel to become writable, so the content is pulled
+      // by the chunked-write handler whenever the channel is writable.
+      context.write(response);
+      return context.writeAndFlush(new HttpChunkedInput(new ChunkedStream(odResponse.getContent(), COPY_BUFFER_SIZE)))
+          .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    }
+    context.write(response);
+    final ChunkedContentChannel output = new ChunkedContentChannel(context, COPY_BUFFER_SIZE);
+    try {
+      if (odResponse.getContent() != null) {
+        final ReadableByteChannel input = Channels.newChannel(odResponse.getContent());
+        try {
+          final ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+          while (input.read(buffer) >= 0) {
+            buffer.flip();
+            output.write(buffer);
+            buffer.clear();
+          }
+        } finally {
+          closeStream(input);
+        }
+      } else {
+        odResponse.getODataContent().write(output);
+      }
+      output.close();
+      return output.getLastWrite();
+    } catch (final IOException | RuntimeException e) {
+      output.abort();
+      // The status line has already been sent, so the response cannot be replaced by an error response;
+      // closing the connection signals the incomplete content to the client.
+      return context.close();
+    }
+  }
+
+  private ODataResponse handleNettyRequest(final HttpRequest request, final Map<String, String> requestParameters) {
 	  ODataRequest odRequest = new ODataRequest();
-    Exception exception = null;
     ODataResponse odResponse;
+    // Requests on other channels or executor threads are processed concurrently, each with its own handler.
+    final ODataHandlerImpl requestHandler = handler.copy();
     
     final int processMethodHandle = 
     		debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
@@ -310,23 +521,37 @@ public void processNettyRequest(HttpRequest request, HttpResponse response,
           requestParameters.get(SPLIT) != null? Integer.parseInt(requestParameters.get(SPLIT)) : split, 
               requestParameters.get(CONTEXT_PATH));
 
-      odResponse = process(odRequest);
+      odResponse = requestHandler.process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
-      exception = e;
-      odResponse = handleException(odRequest, e);
+      odResponse = handleException(requestHandler, odRequest, e);
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
+    requestHandler.encodeResponse(odRequest, odResponse);
 
-    convertToHttp(response, odResponse);
+    return odResponse;
+  }
+
+  /**
+   * Adds a {@link ChunkedWriteHandler}, pulling readable response content while the channel is writable,
+   * and a handler resuming pushed response content when the channel has become writable again.
+   */
+  @Override
+  public void initChannelPipeline(final ChannelPipeline pipeline) {
+    pipeline.addLast(new ChunkedWriteHandler(), new ContentFlowControlHandler());
   }
 
   public ODataResponse process(ODataRequest request) {
-    return handler.process(request);
+    return handler.copy().process(request);
   }
 
   @Override
   public void register(Processor processor) {
     handler.register(processor);
   }
+
+  @Override
+  public void register(final OlingoExtension extension) {
+    handler.register(extension);
+  }
 }
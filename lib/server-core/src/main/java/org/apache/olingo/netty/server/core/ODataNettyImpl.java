@@ -20,6 +20,7 @@ package org.apache.olingo.netty.server.core;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
@@ -72,6 +73,11 @@ public class ODataNettyImpl extends ODataNetty {
     return new ODataNettyHandlerImpl(this, serviceMetadata);
   }
 
+  @Override
+  public ODataNettyHandler createNettyHandler(final ServiceMetadata serviceMetadata, final Executor executor) {
+    return new ODataNettyHandlerImpl(this, serviceMetadata, executor);
+  }
+
   @Override
   public ODataSerializer createSerializer(ContentType contentType) throws SerializerException {
     return odata.createSerializer(contentType);
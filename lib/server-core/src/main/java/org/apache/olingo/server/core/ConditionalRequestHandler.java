@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.etag.PreconditionException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceSingleton;
+import org.apache.olingo.server.core.etag.ETagHelperImpl;
+
+/**
+ * <p>Evaluates conditional requests before they are dispatched to a processor,
+ * after the request method has been validated for the addressed resource.</p>
+ * <p>If the registered {@link CustomETagSupport} provides the current etag of the addressed entity
+ * by key, <code>If-Match</code> and <code>If-None-Match</code> headers are validated here;
+ * read requests may be answered with "Not Modified" and failed preconditions result in a
+ * {@link PreconditionException} without loading the entity.
+ * Read requests to entity sets get a weak etag built from the collection version token
+ * provided by {@link CustomETagSupport#getCollectionETag(EdmEntitySet)}.</p>
+ * <p>Only entities addressed directly by entity-set key or singleton are supported,
+ * optionally followed by (complex) property segments and <code>$value</code>;
+ * all other requests are left to the processors.</p>
+ */
+final class ConditionalRequestHandler {
+
+  private static final ETagHelperImpl ETAG_HELPER = new ETagHelperImpl();
+  /** Request headers the representation of an entity collection depends on. */
+  private static final String[] REPRESENTATION_HEADERS = {
+      HttpHeader.ACCEPT, HttpHeader.ACCEPT_CHARSET, HttpHeader.PREFER, HttpHeader.ODATA_MAX_VERSION };
+
+  private final UriInfo uriInfo;
+  private final CustomETagSupport eTagSupport;
+  private String collectionETag;
+
+  ConditionalRequestHandler(final UriInfo uriInfo, final CustomETagSupport eTagSupport) {
+    this.uriInfo = uriInfo;
+    this.eTagSupport = eTagSupport;
+  }
+
+  /**
+   * Validates the preconditions of the request, if possible without calling a processor.
+   * @param request the request
+   * @param response the response; filled only if the request has been answered completely
+   * @return <code>true</code> if the request has been answered with "Not Modified"
+   * @throws PreconditionException if the preconditions are not fulfilled
+   */
+  boolean handlePreconditions(final ODataRequest request, final ODataResponse response)
+      throws PreconditionException {
+    if (eTagSupport == null || uriInfo.getKind() != UriInfoKind.resource) {
+      return false;
+    }
+    final List<UriResource> parts = uriInfo.getUriResourceParts();
+    final UriResource first = parts.get(0);
+    final HttpMethod method = request.getMethod();
+
+    if (parts.size() == 1 && first instanceof UriResourceEntitySet
+        && ((UriResourceEntitySet) first).getKeyPredicates().isEmpty()) {
+      if (method == HttpMethod.GET) {
+        return handleCollection(((UriResourceEntitySet) first).getEntitySet(), request, response);
+      }
+      return false;
+    }
+
+    final List<String> ifMatch = request.getHeaders(HttpHeader.IF_MATCH);
+    final List<String> ifNoneMatch = request.getHeaders(HttpHeader.IF_NONE_MATCH);
+    if (ifMatch == null && ifNoneMatch == null) {
+      return false;
+    }
+    final String eTag = getEntityETag(parts);
+    if (eTag == null) {
+      return false;
+    }
+    if (method == HttpMethod.GET) {
+      if (ETAG_HELPER.checkReadPreconditions(eTag, ifMatch, ifNoneMatch)) {
+        response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+        response.setHeader(HttpHeader.ETAG, eTag);
+        return true;
+      }
+    } else {
+      ETAG_HELPER.checkChangePreconditions(eTag, ifMatch, ifNoneMatch);
+    }
+    return false;
+  }
+
+  /**
+   * Sets the weak etag of an entity collection on a successful response
+   * that does not have an etag yet.
+   * @param response the response
+   */
+  void handleResponse(final ODataResponse response) {
+    if (collectionETag != null
+        && response.getStatusCode() == HttpStatusCode.OK.getStatusCode()
+        && response.getHeader(HttpHeader.ETAG) == null) {
+      response.setHeader(HttpHeader.ETAG, collectionETag);
+    }
+  }
+
+  private boolean handleCollection(final EdmEntitySet entitySet, final ODataRequest request,
+      final ODataResponse response) throws PreconditionException {
+    final String token = eTagSupport.getCollectionETag(entitySet);
+    if (token == null) {
+      return false;
+    }
+    // The representation depends on the query options, on the requested format and charset,
+    // on the preferences (e.g., maxpagesize or return), and on the maximum OData version.
+    final String query = request.getRawQueryPath();
+    int hash = query == null ? 0 : query.hashCode();
+    for (final String name : REPRESENTATION_HEADERS) {
+      final List<String> values = request.getHeaders(name);
+      hash = 31 * hash + (values == null ? 0 : values.hashCode());
+    }
+    collectionETag = "W/\"" + token + '-' + Integer.toHexString(hash) + '"';
+    if (ETAG_HELPER.checkReadPreconditions(collectionETag, null, request.getHeaders(HttpHeader.IF_NONE_MATCH))) {
+      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+      response.setHeader(HttpHeader.ETAG, collectionETag);
+      return true;
+    }
+    return false;
+  }
+
+  private String getEntityETag(final List<UriResource> parts) {
+    final UriResource first = parts.get(0);
+    EdmBindingTarget target;
+    List<UriParameter> keyPredicates;
+    if (first instanceof UriResourceEntitySet && !((UriResourceEntitySet) first).getKeyPredicates().isEmpty()) {
+      target = ((UriResourceEntitySet) first).getEntitySet();
+      keyPredicates = ((UriResourceEntitySet) first).getKeyPredicates();
+    } else if (first instanceof UriResourceSingleton) {
+      target = ((UriResourceSingleton) first).getSingleton();
+      keyPredicates = Collections.<UriParameter> emptyList();
+    } else {
+      return null;
+    }
+    for (int index = 1; index < parts.size(); index++) {
+      final UriResourceKind kind = parts.get(index).getKind();
+      if (kind != UriResourceKind.primitiveProperty && kind != UriResourceKind.complexProperty
+          && kind != UriResourceKind.value) {
+        return null;
+      }
+    }
+    if (parts.size() == 2 && parts.get(1).getKind() == UriResourceKind.value) {
+      return eTagSupport.hasMediaETag(target) ? eTagSupport.getMediaETag(target, keyPredicates) : null;
+    } else {
+      return eTagSupport.hasETag(target) ? eTagSupport.getETag(target, keyPredicates) : null;
+    }
+  }
+}
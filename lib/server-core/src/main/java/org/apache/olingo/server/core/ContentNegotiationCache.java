@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
+import org.apache.olingo.server.api.serializer.RepresentationType;
+
+/**
+ * <p>Thread-safe cache for results of the content negotiation.</p>
+ * <p>The negotiated content type depends only on the representation type, the values of the
+ * <code>Accept</code> and <code>Accept-Charset</code> headers, the <code>$format</code> system query option,
+ * and the registered {@link CustomContentTypeSupport}. A cache holds the results for one custom
+ * content-type support, which is expected to always modify the supported content types in the same way.
+ * Only successful negotiations are cached; header values longer than {@link #MAX_VALUE_LENGTH}
+ * characters are not cached at all.</p>
+ * <p>The cache is bounded; when it is full, an arbitrary entry is evicted for a new one.
+ * Lookups do not lock, since only a small set of header combinations is expected in practice.</p>
+ */
+public final class ContentNegotiationCache {
+
+  /** Default maximum number of cached negotiation results. */
+  public static final int DEFAULT_MAX_ENTRIES = 256;
+  /** Maximum length of a header or format value that is used as part of a key. */
+  public static final int MAX_VALUE_LENGTH = 512;
+
+  private final ConcurrentMap<Key, ContentType> entries = new ConcurrentHashMap<Key, ContentType>();
+  private final int maxEntries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a cache.
+   * @param maxEntries maximum number of cached negotiation results
+   */
+  public ContentNegotiationCache(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("The maximum number of entries must be positive.");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Creates the key of a negotiation result.
+   * @return the key or <code>null</code> if the result must not be cached
+   */
+  static Key createKey(final RepresentationType representationType, final String accept,
+      final String acceptCharset, final String format) {
+    return isCacheable(accept) && isCacheable(acceptCharset) && isCacheable(format) ?
+        new Key(representationType, accept, acceptCharset, format) :
+        null;
+  }
+
+  private static boolean isCacheable(final String value) {
+    return value == null || value.length() <= MAX_VALUE_LENGTH;
+  }
+
+  ContentType get(final Key key) {
+    final ContentType result = entries.get(key);
+    (result == null ? misses : hits).incrementAndGet();
+    return result;
+  }
+
+  void put(final Key key, final ContentType contentType) {
+    if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+      final Iterator<Key> iterator = entries.keySet().iterator();
+      if (iterator.hasNext()) {
+        entries.remove(iterator.next());
+      }
+    }
+    entries.put(key, contentType);
+  }
+
+  /** Removes all cached results and resets the statistics. */
+  public void clear() {
+    entries.clear();
+    hits.set(0);
+    misses.set(0);
+  }
+
+  /**
+   * Gets the number of cached negotiation results.
+   * @return the number of cached results
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the number of negotiations answered from the cache.
+   * @return the number of cache hits
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Gets the number of negotiations that had to be computed although they were cacheable.
+   * @return the number of cache misses
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** Key of a negotiation result. */
+  static final class Key {
+    private final RepresentationType representationType;
+    private final String accept;
+    private final String acceptCharset;
+    private final String format;
+    private final int hashCode;
+
+    private Key(final RepresentationType representationType, final String accept, final String acceptCharset,
+        final String format) {
+      this.representationType = representationType;
+      this.accept = accept;
+      this.acceptCharset = acceptCharset;
+      this.format = format;
+      int hash = representationType.hashCode();
+      hash = 31 * hash + (accept == null ? 0 : accept.hashCode());
+      hash = 31 * hash + (acceptCharset == null ? 0 : acceptCharset.hashCode());
+      hashCode = 31 * hash + (format == null ? 0 : format.hashCode());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return hashCode == other.hashCode
+          && representationType == other.representationType
+          && (accept == null ? other.accept == null : accept.equals(other.accept))
+          && (acceptCharset == null ? other.acceptCharset == null : acceptCharset.equals(other.acceptCharset))
+          && (format == null ? other.format == null : format.equals(other.format));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
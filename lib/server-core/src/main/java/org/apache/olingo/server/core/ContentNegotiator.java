@@ -18,11 +18,13 @@
  */
 package org.apache.olingo.server.core;
 
+import java.lang.ref.WeakReference;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -54,6 +56,15 @@ public final class ContentNegotiator {
           ContentType.APPLICATION_ATOM_XML,
           ContentType.APPLICATION_XML));
 
+  private static final ContentNegotiationCache DEFAULT_CACHE =
+      new ContentNegotiationCache(ContentNegotiationCache.DEFAULT_MAX_ENTRIES);
+  // Weak keys so that a custom content-type support, and its class loader, can be garbage-collected
+  // together with its cached results.
+  private static final Map<CustomContentTypeSupport, ContentNegotiationCache> CUSTOM_CACHES =
+      new WeakHashMap<CustomContentTypeSupport, ContentNegotiationCache>();
+  // The cache used last, so that services with one custom content-type support do not lock per request.
+  private static volatile CustomCacheReference lastCustomCache;
+
   private ContentNegotiator() {}
 
   private static List<ContentType> getDefaultSupportedContentTypes(final RepresentationType type) {
@@ -88,17 +99,73 @@ public final class ContentNegotiator {
     }
   }
 
+  /**
+   * Gets the cache of negotiation results for a custom content-type support, e.g., to read its statistics.
+   * The cache is discarded when the custom content-type support is no longer referenced.
+   * @param customContentTypeSupport the custom content-type support or <code>null</code>
+   * @return the cache used for negotiations with the given custom content-type support
+   */
+  public static ContentNegotiationCache getCache(final CustomContentTypeSupport customContentTypeSupport) {
+    if (customContentTypeSupport == null) {
+      return DEFAULT_CACHE;
+    }
+    final CustomCacheReference last = lastCustomCache;
+    if (last != null && last.get() == customContentTypeSupport) {
+      return last.cache;
+    }
+    synchronized (CUSTOM_CACHES) {
+      ContentNegotiationCache cache = CUSTOM_CACHES.get(customContentTypeSupport);
+      if (cache == null) {
+        cache = new ContentNegotiationCache(ContentNegotiationCache.DEFAULT_MAX_ENTRIES);
+        CUSTOM_CACHES.put(customContentTypeSupport, cache);
+      }
+      lastCustomCache = new CustomCacheReference(customContentTypeSupport, cache);
+      return cache;
+    }
+  }
+
+  /** Weak reference to a custom content-type support together with its cache. */
+  private static final class CustomCacheReference extends WeakReference<CustomContentTypeSupport> {
+    private final ContentNegotiationCache cache;
+
+    private CustomCacheReference(final CustomContentTypeSupport customContentTypeSupport,
+        final ContentNegotiationCache cache) {
+      super(customContentTypeSupport);
+      this.cache = cache;
+    }
+  }
+
   public static ContentType doContentNegotiation(final FormatOption formatOption, final ODataRequest request,
       final CustomContentTypeSupport customContentTypeSupport, final RepresentationType representationType)
           throws ContentNegotiatorException {
+    final String acceptHeaderValue = join(request.getHeaders(HttpHeader.ACCEPT));
+    final String acceptCharset = join(request.getHeaders(HttpHeader.ACCEPT_CHARSET));
+    final String format = formatOption == null ? null : formatOption.getFormat();
+    final ContentNegotiationCache.Key key = ContentNegotiationCache.createKey(representationType,
+        acceptHeaderValue, acceptCharset, format);
+    final ContentNegotiationCache cache = key == null ? null : getCache(customContentTypeSupport);
+    ContentType result = cache == null ? null : cache.get(key);
+    if (result == null) {
+      result = negotiate(formatOption, acceptHeaderValue, acceptCharset,
+          customContentTypeSupport, representationType);
+      if (cache != null) {
+        cache.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  private static String join(final List<String> values) {
+    return values == null ? null :
+        values.size() == 1 ? values.get(0) :
+            values.stream().collect(Collectors.joining(", "));
+  }
+
+  private static ContentType negotiate(final FormatOption formatOption, final String acceptHeaderValue,
+      final String acceptCharset, final CustomContentTypeSupport customContentTypeSupport,
+      final RepresentationType representationType) throws ContentNegotiatorException {
     final List<ContentType> supportedContentTypes =
         getSupportedContentTypes(customContentTypeSupport, representationType);
-    final List<String> acceptHeaderValueList = request.getHeaders(HttpHeader.ACCEPT);
-    final String acceptHeaderValue = acceptHeaderValueList != null ? 
-    		acceptHeaderValueList.stream().collect(Collectors.joining(", ")) : null;
-    List<String> acceptCharsetValueList = request.getHeaders(HttpHeader.ACCEPT_CHARSET);
-    String acceptCharset = acceptCharsetValueList != null ? 
-    		acceptCharsetValueList.stream().collect(Collectors.joining(", ")) : null;
     List<AcceptCharset> charsets = null;
       
     ContentType result = null;
@@ -81,6 +81,7 @@ public class ODataDispatcher {
   private static final String NOT_IMPLEMENTED_MESSAGE = "not implemented";
   private final UriInfo uriInfo;
   private final ODataHandlerImpl handler;
+  private ConditionalRequestHandler conditionalRequestHandler;
   private static final String RETURN_MINIMAL = "return=minimal";
   private static final String RETURN_REPRESENTATION = "return=representation";
   private static final String EDMSTREAM = "Edm.Stream";
@@ -116,7 +117,9 @@ public class ODataDispatcher {
 
     case resource:
     case entityId:
+      conditionalRequestHandler = new ConditionalRequestHandler(uriInfo, handler.getCustomETagSupport());
       handleResourceDispatching(request, response);
+      conditionalRequestHandler.handleResponse(response);
       break;
 
     case batch:
@@ -341,6 +344,9 @@ public class ODataDispatcher {
       final ContentType requestedContentType = ContentNegotiator.
           doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), RepresentationType.MEDIA);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(MediaEntityProcessor.class)
           .readMediaEntity(request, response, uriInfo, requestedContentType);
       // PUT and DELETE can only be called on EntitySets or Navigation properties which are media resources
@@ -350,10 +356,16 @@ public class ODataDispatcher {
       final ContentType requestFormat = ContentType.parse(request.getHeader(HttpHeader.CONTENT_TYPE));
       final ContentType responseFormat = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), RepresentationType.ENTITY);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(MediaEntityProcessor.class)
           .updateMediaEntity(request, response, uriInfo, requestFormat, responseFormat);
     } else if (method == HttpMethod.DELETE && isEntityOrNavigationMedia(resource)) {
       validatePreconditions(request, true);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(MediaEntityProcessor.class)
           .deleteMediaEntity(request, response, uriInfo);
     } else {
@@ -377,6 +389,9 @@ public class ODataDispatcher {
           doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), valueRepresentationType);
 
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(PrimitiveValueProcessor.class)
           .readPrimitiveValue(request, response, uriInfo, requestedContentType);
     } else if (method == HttpMethod.PUT && resource instanceof UriResourceProperty) {
@@ -385,11 +400,17 @@ public class ODataDispatcher {
           valueRepresentationType, true);
       final ContentType responseFormat = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), valueRepresentationType);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(PrimitiveValueProcessor.class)
           .updatePrimitiveValue(request, response, uriInfo, requestFormat, responseFormat);
     } else if (method == HttpMethod.DELETE && resource instanceof UriResourceProperty) {
       validatePreferHeader(request);
       validatePreconditions(request, false);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(PrimitiveValueProcessor.class)
           .deletePrimitiveValue(request, response, uriInfo);
     } else {
@@ -406,6 +427,9 @@ public class ODataDispatcher {
       validatePreferHeader(request);
       final ContentType requestedContentType = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), complexRepresentationType);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(ComplexCollectionProcessor.class)
             .readComplexCollection(request, response, uriInfo, requestedContentType);
@@ -420,6 +444,9 @@ public class ODataDispatcher {
           complexRepresentationType, true);
       final ContentType responseFormat = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), complexRepresentationType);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(ComplexCollectionProcessor.class)
             .updateComplexCollection(request, response, uriInfo, requestFormat, responseFormat);
@@ -430,6 +457,9 @@ public class ODataDispatcher {
     } else if (method == HttpMethod.DELETE) {
       validatePreferHeader(request);
       validatePreconditions(request, false);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(ComplexCollectionProcessor.class)
             .deleteComplexCollection(request, response, uriInfo);
@@ -451,6 +481,9 @@ public class ODataDispatcher {
       validatePreferHeader(request);
       final ContentType requestedContentType = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), representationType);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(PrimitiveCollectionProcessor.class)
             .readPrimitiveCollection(request, response, uriInfo, requestedContentType);
@@ -474,6 +507,9 @@ public class ODataDispatcher {
       }
       final ContentType responseFormat = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), representationType);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(PrimitiveCollectionProcessor.class)
             .updatePrimitiveCollection(request, response, uriInfo, requestFormat, responseFormat);
@@ -484,6 +520,9 @@ public class ODataDispatcher {
     } else if (method == HttpMethod.DELETE) {
       validatePreferHeader(request);
       validatePreconditions(request, false);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       if (isCollection) {
         handler.selectProcessor(PrimitiveCollectionProcessor.class)
             .deletePrimitiveCollection(request, response, uriInfo);
@@ -537,6 +576,9 @@ public class ODataDispatcher {
       final ContentType requestedContentType = ContentNegotiator.
           doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), RepresentationType.COLLECTION_ENTITY);
+      if (handlePreconditions(request, response)) {
+        return;
+      }
       handler.selectProcessor(EntityCollectionProcessor.class)
           .readEntityCollection(request, response, uriInfo, requestedContentType);
     } else if (method == HttpMethod.POST) {
@@ -617,6 +659,9 @@ public class ODataDispatcher {
         final ContentType requestedContentType = ContentNegotiator.
             doContentNegotiation(uriInfo.getFormatOption(),
             request, handler.getCustomContentTypeSupport(), RepresentationType.ENTITY);
+        if (handlePreconditions(request, response)) {
+          return;
+        }
         handler.selectProcessor(EntityProcessor.class)
             .readEntity(request, response, uriInfo, requestedContentType);
       } else if (method == HttpMethod.PUT || method == HttpMethod.PATCH) {
@@ -630,12 +675,18 @@ public class ODataDispatcher {
         final ContentType responseFormat = ContentNegotiator.
             doContentNegotiation(uriInfo.getFormatOption(),
             request, handler.getCustomContentTypeSupport(), RepresentationType.ENTITY);
+        if (handlePreconditions(request, response)) {
+          return;
+        }
         handler.selectProcessor(EntityProcessor.class)
             .updateEntity(request, response, uriInfo, requestFormat, responseFormat);
       } else if (method == HttpMethod.DELETE && !isSingleton) {
         validateIsSingleton(method);
         validatePreconditions(request, false);
         validatePreferHeader(request);
+        if (handlePreconditions(request, response)) {
+          return;
+        }
         if (isMedia) {
           ((MediaEntityProcessor) handler.selectProcessor(MediaEntityProcessor.class))
           .deleteEntity(request, response, uriInfo);
@@ -675,6 +726,16 @@ public class ODataDispatcher {
     }
   }
 
+  /**
+   * Evaluates the preconditions of a resource request without calling a processor, if possible.
+   * Must be called only after the request method has been validated for the addressed resource.
+   * @return <code>true</code> if the request has been answered with "Not Modified"
+   */
+  private boolean handlePreconditions(final ODataRequest request, final ODataResponse response)
+      throws PreconditionException {
+    return conditionalRequestHandler != null && conditionalRequestHandler.handlePreconditions(request, response);
+  }
+
   private void checkMethod(final HttpMethod requestMethod, final HttpMethod allowedMethod)
       throws ODataHandlerException {
     if (requestMethod != allowedMethod) {
@@ -41,6 +41,10 @@ public class ODataHandlerException extends ODataLibraryException {
     UNSUPPORTED_CONTENT_TYPE,
     /** parameter: content type */
     INVALID_CONTENT_TYPE,
+    /** parameter: content encoding */
+    UNSUPPORTED_CONTENT_ENCODING,
+    /** parameter: maximum size */
+    PAYLOAD_TOO_LARGE,
     /** parameter: version */
     ODATA_VERSION_NOT_SUPPORTED,
     /** parameter: prefer header */
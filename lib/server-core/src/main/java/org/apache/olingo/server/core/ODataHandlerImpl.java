@@ -36,6 +36,7 @@ import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.compression.CompressionSupport;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.etag.PreconditionException;
 import org.apache.olingo.server.api.processor.DefaultProcessor;
@@ -47,7 +48,9 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.core.compression.ContentEncodingHandler;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.serializer.json.JsonFormat;
 import org.apache.olingo.server.core.uri.parser.Parser;
 import org.apache.olingo.server.core.uri.parser.UriParserException;
 import org.apache.olingo.server.core.uri.parser.UriParserSemanticException;
@@ -58,18 +61,21 @@ import org.apache.olingo.server.core.uri.validator.UriValidator;
 
 public class ODataHandlerImpl implements ODataHandler {
 
-  private final OData odata;
+  private final OData baseOData;
+  private OData odata;
   private final ServiceMetadata serviceMetadata;
   private final List<Processor> processors = new LinkedList<>();
   private final ServerCoreDebugger debugger;
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private CompressionSupport compressionSupport;
 
   private UriInfo uriInfo;
   private Exception lastThrownException;
 
   public ODataHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata, final ServerCoreDebugger debugger) {
+    this.baseOData = odata;
     this.odata = odata;
     this.serviceMetadata = serviceMetadata;
     this.debugger = debugger;
@@ -78,6 +84,27 @@ public class ODataHandlerImpl implements ODataHandler {
     register(new DefaultProcessor());
   }
 
+  private ODataHandlerImpl(final ODataHandlerImpl handler) {
+    baseOData = handler.baseOData;
+    odata = handler.odata;
+    serviceMetadata = handler.serviceMetadata;
+    debugger = handler.debugger;
+    processors.addAll(handler.processors);
+    customContentTypeSupport = handler.customContentTypeSupport;
+    customETagSupport = handler.customETagSupport;
+    compressionSupport = handler.compressionSupport;
+  }
+
+  /**
+   * Creates a handler with the registered processors and extensions of this handler.
+   * A handler keeps the state of the request it processes, e.g., its URI info, so requests
+   * processed concurrently need a handler each.
+   * @return the new handler
+   */
+  public ODataHandlerImpl copy() {
+    return new ODataHandlerImpl(this);
+  }
+
   public ODataResponse process(final ODataRequest request) {
     ODataResponse response = new ODataResponse();
     final int responseHandle = debugger.startRuntimeMeasurement("ODataHandler", "process");
@@ -132,6 +159,9 @@ public class ODataHandlerImpl implements ODataHandler {
     
     try {
       validateODataVersion(request);
+      if (compressionSupport != null) {
+        ContentEncodingHandler.decodeRequest(request, compressionSupport.getMaximumDecompressedSize());
+      }
     } catch (final ODataHandlerException e) {
       debugger.stopRuntimeMeasurement(measurementHandle);
       throw e;
@@ -162,6 +192,7 @@ public class ODataHandlerImpl implements ODataHandler {
     final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
     try {
       new ODataDispatcher(uriInfo, this).dispatch(request, response);
+      RangeRequestHandler.handle(request, response);
     } finally {
       debugger.stopRuntimeMeasurement(measurementDispatcher);
       debugger.stopRuntimeMeasurement(measurementHandle);
@@ -189,8 +220,12 @@ public class ODataHandlerImpl implements ODataHandler {
     } catch (final ContentNegotiatorException e) {
       requestedContentType = ContentType.JSON;
     }
+    // A too large decompressed body is only noticed while it is read, wherever that happens.
+    final ODataHandlerException payloadTooLarge = ContentEncodingHandler.getPayloadTooLargeException(exception);
     final int measurementError = debugger.startRuntimeMeasurement("ErrorProcessor", "processError");
-    exceptionProcessor.processError(request, response, serverError, requestedContentType);
+    exceptionProcessor.processError(request, response,
+        payloadTooLarge == null ? serverError : ODataExceptionHelper.createServerErrorObject(payloadTooLarge, null),
+        requestedContentType);
     debugger.stopRuntimeMeasurement(measurementError);
     debugger.stopRuntimeMeasurement(measurementHandle);
   }
@@ -259,14 +294,33 @@ public class ODataHandlerImpl implements ODataHandler {
   public void register(OlingoExtension extension) {
     if(extension instanceof CustomContentTypeSupport) {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
+      // The format replaces a format registered before and is not visible to other handlers.
+      odata = extension instanceof JsonFormat && baseOData instanceof ODataImpl ?
+          ((ODataImpl) baseOData).withJsonFormat((JsonFormat) extension) :
+          baseOData;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if (extension instanceof CompressionSupport) {
+      compressionSupport = (CompressionSupport) extension;
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
     }
   }
 
+  /**
+   * Compresses the content of a response to be sent to the client if a {@link CompressionSupport}
+   * has been registered and the client accepts a supported content encoding.
+   * Responses to parts of batch requests are not compressed individually.
+   * @param request the request
+   * @param response the response for the request
+   */
+  public void encodeResponse(final ODataRequest request, final ODataResponse response) {
+    if (compressionSupport != null) {
+      ContentEncodingHandler.encodeResponse(request, response, compressionSupport);
+    }
+  }
+
   public CustomContentTypeSupport getCustomContentTypeSupport() {
     return customContentTypeSupport;
   }
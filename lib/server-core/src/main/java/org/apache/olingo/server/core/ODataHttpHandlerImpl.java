@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Collections;
@@ -103,6 +104,7 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
           debugger.createDebugResponse(odRequest, odResponse, exception, handler.getUriInfo(),
               serverEnvironmentVariables);
     }
+    handler.encodeResponse(odRequest, odResponse);
 
     convertToHttp(response, odResponse);
   }
@@ -158,12 +160,35 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
       }
     }
 
-    if (odResponse.getContent() != null) {
+    if (odResponse.getFileContent() != null) {
+      transferContent(odResponse, response);
+    } else if (odResponse.getContent() != null) {
       copyContent(odResponse.getContent(), response);
     } else if (odResponse.getODataContent() != null) {
       writeContent(odResponse, response);
     }
   }
+
+  static void transferContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
+    final FileChannel input = odataResponse.getFileContent();
+    long position = odataResponse.getFileContentPosition();
+    final long end = position + odataResponse.getFileContentLength();
+    servletResponse.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(end - position));
+    try (WritableByteChannel output = Channels.newChannel(servletResponse.getOutputStream());) {
+      while (position < end) {
+        final long count = input.transferTo(position, end - position, output);
+        if (count <= 0) {
+          // The file is shorter than announced.
+          break;
+        }
+        position += count;
+      }
+    } catch (IOException e) {
+      throw new ODataRuntimeException("Error on writing response content", e);
+    } finally {
+      closeStream(input);
+    }
+  }
   
   static void writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
     try {
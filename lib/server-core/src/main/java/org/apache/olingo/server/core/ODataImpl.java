@@ -20,6 +20,7 @@ package org.apache.olingo.server.core;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.olingo.commons.api.constants.Constantsv00;
 import org.apache.olingo.commons.api.constants.Constantsv01;
@@ -56,14 +57,61 @@ import org.apache.olingo.server.core.etag.ETagHelperImpl;
 import org.apache.olingo.server.core.prefer.PreferencesImpl;
 import org.apache.olingo.server.core.serializer.FixedFormatSerializerImpl;
 import org.apache.olingo.server.core.serializer.json.EdmAssistedJsonSerializer;
+import org.apache.olingo.server.core.serializer.json.JsonFormat;
 import org.apache.olingo.server.core.serializer.json.ODataJsonSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializerWithNavigations;
 import org.apache.olingo.server.core.serializer.xml.ODataXmlSerializer;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
+import com.fasterxml.jackson.core.JsonFactory;
+
 public class ODataImpl extends OData {
 
+  private final List<JsonFormat> jsonFormats = new CopyOnWriteArrayList<JsonFormat>();
+
+  /**
+   * Adds a data format with the structure of OData JSON; serializers and deserializers
+   * for its content type are created with the format's Jackson factory.
+   * An added format with the same content type is replaced.
+   * @param format the data format
+   */
+  public synchronized void addJsonFormat(final JsonFormat format) {
+    for (final JsonFormat added : jsonFormats) {
+      if (added.getContentType().equals(format.getContentType())) {
+        jsonFormats.remove(added);
+      }
+    }
+    jsonFormats.add(format);
+  }
+
+  /**
+   * Creates a new instance with the data formats added to this one and the given format;
+   * this instance stays unchanged.
+   * This is done by the handler when the format is registered as extension,
+   * so that the format is used only for the requests of that handler.
+   * @param format the data format
+   * @return the new instance
+   */
+  public ODataImpl withJsonFormat(final JsonFormat format) {
+    final ODataImpl odata = new ODataImpl();
+    odata.jsonFormats.addAll(jsonFormats);
+    odata.addJsonFormat(format);
+    return odata;
+  }
+
+  /** Gets the Jackson factory of an added data format compatible with the given content type. */
+  private JsonFactory getJsonFactory(final ContentType contentType) {
+    if (contentType != null) {
+      for (final JsonFormat format : jsonFormats) {
+        if (contentType.isCompatible(format.getContentType())) {
+          return format.getFactory();
+        }
+      }
+    }
+    return null;
+  }
+
   @Override
   public ODataSerializer createSerializer(final ContentType contentType) throws SerializerException {
     ODataSerializer serializer = null;
@@ -79,6 +127,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       serializer = new ODataXmlSerializer();
+    } else if (getJsonFactory(contentType) != null) {
+      serializer = new ODataJsonSerializer(contentType, new Constantsv00(), getJsonFactory(contentType));
     }
 
     if (serializer == null) {
@@ -110,6 +160,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       serializer = new ODataXmlSerializer();
+    } else if (getJsonFactory(contentType) != null) {
+      serializer = new ODataJsonSerializer(contentType, constants, getJsonFactory(contentType));
     }
 
     if (serializer == null) {
@@ -132,6 +184,9 @@ public class ODataImpl extends OData {
     if (contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON)) {
       return new EdmAssistedJsonSerializer(contentType);
     }
+    if (getJsonFactory(contentType) != null) {
+      return new EdmAssistedJsonSerializer(contentType, new Constantsv00(), getJsonFactory(contentType));
+    }
     throw new SerializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
         SerializerException.MessageKeys.UNSUPPORTED_FORMAT, 
@@ -148,6 +203,9 @@ public class ODataImpl extends OData {
     if (contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON)) {
       return new EdmAssistedJsonSerializer(contentType, constants);
     }
+    if (getJsonFactory(contentType) != null) {
+      return new EdmAssistedJsonSerializer(contentType, constants, getJsonFactory(contentType));
+    }
     throw new SerializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
         SerializerException.MessageKeys.UNSUPPORTED_FORMAT, 
@@ -158,12 +216,16 @@ public class ODataImpl extends OData {
   @Override
   public EdmDeltaSerializer createEdmDeltaSerializer(final ContentType contentType, final List<String> versions)
       throws SerializerException {
-    if (contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON)) {
+    final JsonFactory jsonFactory =
+        contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON) ?
+            JsonFormat.DEFAULT_FACTORY :
+            getJsonFactory(contentType);
+    if (jsonFactory != null) {
       if(versions!=null && !versions.isEmpty()){
-       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType):
-         new JsonDeltaSerializer(contentType);
+       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType, jsonFactory):
+         new JsonDeltaSerializer(contentType, jsonFactory);
       }
-      return new JsonDeltaSerializerWithNavigations(contentType);
+      return new JsonDeltaSerializerWithNavigations(contentType, jsonFactory);
     }
     throw new SerializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -222,6 +284,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       return new ODataXmlDeserializer();
+    } else if (getJsonFactory(contentType) != null) {
+      return new ODataJsonDeserializer(contentType, null, new Constantsv00(), getJsonFactory(contentType));
     } else {
       throw new DeserializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -237,6 +301,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       return new ODataXmlDeserializer(metadata);
+    } else if (getJsonFactory(contentType) != null) {
+      return new ODataJsonDeserializer(contentType, metadata, new Constantsv00(), getJsonFactory(contentType));
     } else {
       throw new DeserializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -279,6 +345,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       return new ODataXmlDeserializer();
+    } else if (getJsonFactory(contentType) != null) {
+      return new ODataJsonDeserializer(contentType, null, constants, getJsonFactory(contentType));
     } else {
       throw new DeserializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -300,6 +368,8 @@ public class ODataImpl extends OData {
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
       return new ODataXmlDeserializer(metadata);
+    } else if (getJsonFactory(contentType) != null) {
+      return new ODataJsonDeserializer(contentType, metadata, constants, getJsonFactory(contentType));
     } else {
       throw new DeserializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
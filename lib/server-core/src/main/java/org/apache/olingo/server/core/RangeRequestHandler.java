@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+
+/**
+ * <p>Handles <code>Range</code> requests for responses with file content.</p>
+ * <p>Only single byte ranges are supported; requests for multiple ranges and syntactically invalid
+ * ranges are answered with the complete content as allowed by RFC 7233.
+ * An <code>If-Range</code> header is compared with the entity tag (strong comparison)
+ * or with the last-modification date of the response.</p>
+ * @see <a href="http://www.rfc-editor.org/rfc/rfc7233.txt">RFC 7233</a>
+ */
+final class RangeRequestHandler {
+
+  private static final String BYTES_UNIT = "bytes";
+
+  private RangeRequestHandler() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Restricts the file content of a successful GET response to the requested range.
+   * @param request the request, possibly with a <code>Range</code> header
+   * @param response the response; only responses with file content are changed
+   */
+  static void handle(final ODataRequest request, final ODataResponse response) {
+    if (request.getMethod() != HttpMethod.GET
+        || response.getFileContent() == null
+        || response.getStatusCode() != HttpStatusCode.OK.getStatusCode()) {
+      return;
+    }
+    response.setHeader(HttpHeader.ACCEPT_RANGES, BYTES_UNIT);
+    final String range = request.getHeader(HttpHeader.RANGE);
+    if (range == null || !isIfRangeFulfilled(request.getHeader(HttpHeader.IF_RANGE), response)) {
+      return;
+    }
+    final long length = response.getFileContentLength();
+    final long[] bounds = parseRange(range, length);
+    if (bounds == null) {
+      return;
+    }
+    if (bounds[0] > bounds[1]) {
+      response.setStatusCode(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_RANGE, BYTES_UNIT + " */" + length);
+      closeContent(response);
+    } else {
+      response.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_RANGE,
+          BYTES_UNIT + ' ' + bounds[0] + '-' + bounds[1] + '/' + length);
+      response.setContent(response.getFileContent(), response.getFileContentPosition() + bounds[0],
+          bounds[1] - bounds[0] + 1);
+    }
+  }
+
+  private static boolean isIfRangeFulfilled(final String ifRange, final ODataResponse response) {
+    if (ifRange == null) {
+      return true;
+    }
+    final String validator = ifRange.trim();
+    if (validator.startsWith("\"")) {
+      return validator.equals(response.getHeader(HttpHeader.ETAG));
+    } else if (validator.startsWith("W/")) {
+      // Weak entity tags cannot be used for range requests.
+      return false;
+    } else {
+      return validator.equals(response.getHeader(HttpHeader.LAST_MODIFIED));
+    }
+  }
+
+  /**
+   * Parses a byte-range header value.
+   * @param range the header value
+   * @param length the length of the complete content
+   * @return the first and the last byte position, an array with first position greater than the last one
+   *         if the range cannot be satisfied, or <code>null</code> if the header must be ignored
+   */
+  static long[] parseRange(final String range, final long length) {
+    final int equals = range.indexOf('=');
+    if (equals < 0 || !BYTES_UNIT.equalsIgnoreCase(range.substring(0, equals).trim())
+        || range.indexOf(',', equals) >= 0) {
+      return null;
+    }
+    final String spec = range.substring(equals + 1).trim();
+    final int dash = spec.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+    final long first = parseBytePosition(spec, 0, dash);
+    final long last = parseBytePosition(spec, dash + 1, spec.length());
+    if (dash == 0) {
+      // suffix range: the last bytes of the content
+      if (last <= 0) {
+        return last == 0 ? new long[] { 1, 0 } : null;
+      }
+      return new long[] { Math.max(0, length - last), length - 1 };
+    }
+    if (first < 0 || dash < spec.length() - 1 && (last < 0 || last < first)) {
+      return null;
+    }
+    if (first >= length) {
+      return new long[] { 1, 0 };
+    }
+    return new long[] { first, dash == spec.length() - 1 || last >= length ? length - 1 : last };
+  }
+
+  private static long parseBytePosition(final String spec, final int start, final int end) {
+    if (start == end || end - start > 18) {
+      return -1;
+    }
+    long result = 0;
+    for (int index = start; index < end; index++) {
+      final char c = spec.charAt(index);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  private static void closeContent(final ODataResponse response) {
+    final InputStream content = response.getContent();
+    response.setContent((InputStream) null);
+    try {
+      content.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
+}
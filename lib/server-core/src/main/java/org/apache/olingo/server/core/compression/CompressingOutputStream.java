@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>Output stream compressing its data in one of the {@link ContentEncoding}s
+ * with a pooled deflater.</p>
+ * <p>Flushing the stream flushes all data compressed so far, so that streamed content
+ * reaches the client without waiting for the end of the compression.</p>
+ */
+public class CompressingOutputStream extends DeflaterOutputStream {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final byte[] GZIP_HEADER = new byte[] {
+      (byte) 0x1f, (byte) 0x8b, // magic number
+      8, // compression method "deflate"
+      0, // flags
+      0, 0, 0, 0, // modification time
+      0, // extra flags
+      (byte) 0xff // operating system "unknown"
+  };
+
+  private final ContentEncoding encoding;
+  private final CRC32 crc;
+  private boolean completed = false;
+  private boolean released = false;
+
+  /**
+   * Creates a compressing stream.
+   * @param out the stream receiving the compressed data
+   * @param encoding the content encoding
+   * @param level the compression level
+   */
+  public CompressingOutputStream(final OutputStream out, final ContentEncoding encoding, final int level)
+      throws IOException {
+    super(out, encoding.acquireDeflater(level), BUFFER_SIZE, true);
+    this.encoding = encoding;
+    if (encoding == ContentEncoding.GZIP) {
+      crc = new CRC32();
+      try {
+        out.write(GZIP_HEADER);
+      } catch (final IOException e) {
+        release();
+        throw e;
+      }
+    } else {
+      crc = null;
+    }
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+    super.write(bytes, offset, length);
+    if (crc != null) {
+      crc.update(bytes, offset, length);
+    }
+  }
+
+  /**
+   * Writes the remaining compressed data and, for gzip, the trailer,
+   * without closing the underlying stream. The stream must not be written to afterwards.
+   */
+  public void complete() throws IOException {
+    if (completed) {
+      return;
+    }
+    completed = true;
+    try {
+      finish();
+      if (crc != null) {
+        writeInt((int) crc.getValue());
+        writeInt((int) def.getBytesRead());
+      }
+      out.flush();
+    } finally {
+      release();
+    }
+  }
+
+  private void writeInt(final int value) throws IOException {
+    out.write(value & 0xff);
+    out.write((value >> 8) & 0xff);
+    out.write((value >> 16) & 0xff);
+    out.write((value >> 24) & 0xff);
+  }
+
+  /** Returns the deflater to its pool, e.g., after the underlying stream has failed. */
+  public void release() {
+    if (!released) {
+      released = true;
+      encoding.releaseDeflater(def);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      complete();
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.compression;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Content encodings supported for compression, together with pools of their
+ * {@link Deflater} and {@link Inflater} instances.</p>
+ * <p>Deflaters and inflaters hold native memory and are expensive to create;
+ * they are therefore reset and reused instead of being created per request.</p>
+ */
+public enum ContentEncoding {
+  /** gzip file format (RFC 1952) */
+  GZIP("gzip", true),
+  /** zlib data format (RFC 1950) */
+  DEFLATE("deflate", false);
+
+  /** Maximum number of idle instances kept per pool. */
+  private static final int MAX_POOLED = 32;
+
+  private final String name;
+  private final boolean nowrap;
+  private final Deque<Deflater> deflaters = new ArrayDeque<Deflater>();
+  private final Deque<Inflater> inflaters = new ArrayDeque<Inflater>();
+
+  private ContentEncoding(final String name, final boolean nowrap) {
+    this.name = name;
+    this.nowrap = nowrap;
+  }
+
+  /**
+   * Gets the name of the encoding as used in HTTP headers.
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the encoding with the given name.
+   * @param name the name as used in the <code>Content-Encoding</code> header
+   * @return the encoding or <code>null</code> if the name is unknown
+   */
+  public static ContentEncoding fromName(final String name) {
+    final String trimmed = name.trim();
+    for (final ContentEncoding encoding : values()) {
+      if (encoding.name.equalsIgnoreCase(trimmed)) {
+        return encoding;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Selects the encoding preferred by the client.
+   * @param acceptEncoding the value of the <code>Accept-Encoding</code> header, or <code>null</code>
+   * @return the encoding with the highest quality value (gzip on equal values),
+   *         or <code>null</code> if the client accepts none of them
+   */
+  public static ContentEncoding negotiate(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    ContentEncoding result = null;
+    float resultQuality = 0;
+    float wildcardQuality = -1;
+    float[] qualities = new float[values().length];
+    Arrays.fill(qualities, -1);
+    int start = 0;
+    while (start < acceptEncoding.length()) {
+      int end = acceptEncoding.indexOf(',', start);
+      if (end < 0) {
+        end = acceptEncoding.length();
+      }
+      int semicolon = acceptEncoding.indexOf(';', start);
+      if (semicolon < 0 || semicolon > end) {
+        semicolon = end;
+      }
+      final String coding = acceptEncoding.substring(start, semicolon).trim();
+      final float quality = semicolon < end ? parseQuality(acceptEncoding.substring(semicolon + 1, end)) : 1;
+      if ("*".equals(coding)) {
+        wildcardQuality = quality;
+      } else {
+        final ContentEncoding encoding = fromName(coding);
+        if (encoding != null) {
+          qualities[encoding.ordinal()] = quality;
+        }
+      }
+      start = end + 1;
+    }
+    for (final ContentEncoding encoding : values()) {
+      final float quality = qualities[encoding.ordinal()] < 0 ? wildcardQuality : qualities[encoding.ordinal()];
+      if (quality > resultQuality) {
+        result = encoding;
+        resultQuality = quality;
+      }
+    }
+    return result;
+  }
+
+  private static float parseQuality(final String parameters) {
+    final String parameter = parameters.trim();
+    if (parameter.length() < 2 || Character.toLowerCase(parameter.charAt(0)) != 'q') {
+      return 1;
+    }
+    final int equals = parameter.indexOf('=');
+    try {
+      return equals < 0 ? 0 : Float.parseFloat(parameter.substring(equals + 1).trim());
+    } catch (final NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Takes a deflater from the pool or creates a new one.
+   * @param level the compression level
+   * @return the deflater
+   */
+  Deflater acquireDeflater(final int level) {
+    Deflater deflater;
+    synchronized (deflaters) {
+      deflater = deflaters.pollFirst();
+    }
+    if (deflater == null) {
+      return new Deflater(level, nowrap);
+    }
+    deflater.setLevel(level);
+    return deflater;
+  }
+
+  /**
+   * Returns a deflater to the pool.
+   * @param deflater the deflater which must not be used anymore by the caller
+   */
+  void releaseDeflater(final Deflater deflater) {
+    deflater.reset();
+    synchronized (deflaters) {
+      if (deflaters.size() < MAX_POOLED) {
+        deflaters.addFirst(deflater);
+        return;
+      }
+    }
+    deflater.end();
+  }
+
+  /**
+   * Takes an inflater from the pool or creates a new one.
+   * @return the inflater
+   */
+  Inflater acquireInflater() {
+    Inflater inflater;
+    synchronized (inflaters) {
+      inflater = inflaters.pollFirst();
+    }
+    return inflater == null ? new Inflater(nowrap) : inflater;
+  }
+
+  /**
+   * Returns an inflater to the pool.
+   * @param inflater the inflater which must not be used anymore by the caller
+   */
+  void releaseInflater(final Inflater inflater) {
+    inflater.reset();
+    synchronized (inflaters) {
+      if (inflaters.size() < MAX_POOLED) {
+        inflaters.addFirst(inflater);
+        return;
+      }
+    }
+    inflater.end();
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.compression.CompressionSupport;
+import org.apache.olingo.server.core.ODataHandlerException;
+
+/**
+ * Decompresses request bodies and compresses response content
+ * according to a {@link CompressionSupport} configuration.
+ */
+public final class ContentEncodingHandler {
+
+  private static final String IDENTITY = "identity";
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Buffer of each thread for the head of response content; the head of compressed content is held
+   * until the content has been written, so the buffer is taken out while in use.
+   */
+  private static final ThreadLocal<byte[]> HEAD_BUFFER = new ThreadLocal<byte[]>();
+
+  private ContentEncodingHandler() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Replaces a compressed request body by its decompressed content.
+   * @param request the request
+   * @throws ODataHandlerException if the content encoding of the request is not supported
+   */
+  public static void decodeRequest(final ODataRequest request) throws ODataHandlerException {
+    decodeRequest(request, Long.MAX_VALUE);
+  }
+
+  /**
+   * Replaces a compressed request body by its decompressed content.
+   * @param request the request
+   * @param maximumSize the maximum size in bytes of the decompressed content
+   * @throws ODataHandlerException if the content encoding of the request is not supported
+   * @see #getPayloadTooLargeException(Throwable)
+   */
+  public static void decodeRequest(final ODataRequest request, final long maximumSize)
+      throws ODataHandlerException {
+    final String contentEncoding = request.getHeader(HttpHeader.CONTENT_ENCODING);
+    if (contentEncoding == null || IDENTITY.equalsIgnoreCase(contentEncoding.trim())
+        || request.getBody() == null) {
+      return;
+    }
+    final ContentEncoding encoding = ContentEncoding.fromName(contentEncoding);
+    if (encoding == null) {
+      throw new ODataHandlerException("Unsupported content encoding: " + contentEncoding,
+          ODataHandlerException.MessageKeys.UNSUPPORTED_CONTENT_ENCODING, contentEncoding);
+    }
+    request.setBody(new DecompressingInputStream(request.getBody(), encoding, maximumSize));
+  }
+
+  /**
+   * Translates an exception caused by a decompressed request body exceeding its maximum size.
+   * The size is only known while the body is read, so the exception may surface wrapped,
+   * e.g., in a deserializer exception.
+   * @param exception the exception thrown while processing the request
+   * @return an exception with message key {@link ODataHandlerException.MessageKeys#PAYLOAD_TOO_LARGE},
+   * or <code>null</code> if the exception has not been caused by an exceeded size
+   */
+  public static ODataHandlerException getPayloadTooLargeException(final Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DecompressingInputStream.SizeLimitExceededException) {
+        return new ODataHandlerException(cause.getMessage(), cause,
+            ODataHandlerException.MessageKeys.PAYLOAD_TOO_LARGE,
+            Long.toString(((DecompressingInputStream.SizeLimitExceededException) cause).getMaximumSize()));
+      }
+      if (cause.getCause() == cause) {
+        break;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compresses the content of a response if the client accepts a supported content encoding.
+   * @param request the request
+   * @param response the response
+   * @param support the compression configuration
+   */
+  public static void encodeResponse(final ODataRequest request, final ODataResponse response,
+      final CompressionSupport support) {
+    final int statusCode = response.getStatusCode();
+    if (statusCode == HttpStatusCode.NO_CONTENT.getStatusCode()
+        || statusCode == HttpStatusCode.NOT_MODIFIED.getStatusCode()
+        || response.getFileContent() != null
+        || response.getContent() == null && response.getODataContent() == null
+        || response.getHeader(HttpHeader.CONTENT_ENCODING) != null
+        || response.getHeader(HttpHeader.CONTENT_LENGTH) != null
+        || !support.isCompressible(response.getHeader(HttpHeader.CONTENT_TYPE))) {
+      return;
+    }
+    addVary(response);
+    final ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeader.ACCEPT_ENCODING));
+    if (encoding == null) {
+      return;
+    }
+
+    if (response.getContent() == null) {
+      // Streamed content has no known size; it is always compressed.
+      response.setODataContent(new CompressedContent(encoding, support.getLevel(),
+          null, 0, null, response.getODataContent()));
+    } else {
+      // Only content reaching the minimum size is compressed.
+      final InputStream content = response.getContent();
+      final int minimumSize = support.getMinimumSize();
+      final byte[] head = acquireHeadBuffer(minimumSize);
+      int length = 0;
+      try {
+        int count;
+        while (length < minimumSize && (count = content.read(head, length, minimumSize - length)) >= 0) {
+          length += count;
+        }
+      } catch (final IOException e) {
+        // The error will occur again when the rest of the content is read.
+        response.setContent(new SequenceInputStream(
+            new ByteArrayInputStream(Arrays.copyOf(head, length)), content));
+        releaseHeadBuffer(head);
+        return;
+      }
+      if (length < minimumSize) {
+        response.setContent(new ByteArrayInputStream(Arrays.copyOf(head, length)));
+        releaseHeadBuffer(head);
+        closeQuietly(content);
+        return;
+      }
+      response.setContent((InputStream) null);
+      response.setODataContent(new CompressedContent(encoding, support.getLevel(), head, length, content, null));
+    }
+    response.setHeader(HttpHeader.CONTENT_ENCODING, encoding.getName());
+  }
+
+  /**
+   * Takes the head buffer of the current thread, or creates one if there is none of sufficient size.
+   * The buffer also serves for copying the rest of the content, so it has at least that size.
+   */
+  private static byte[] acquireHeadBuffer(final int minimumSize) {
+    final byte[] buffer = HEAD_BUFFER.get();
+    if (buffer != null && buffer.length >= minimumSize) {
+      HEAD_BUFFER.remove();
+      return buffer;
+    }
+    return new byte[Math.max(minimumSize, BUFFER_SIZE)];
+  }
+
+  private static void releaseHeadBuffer(final byte[] buffer) {
+    if (HEAD_BUFFER.get() == null) {
+      HEAD_BUFFER.set(buffer);
+    }
+  }
+
+  private static void addVary(final ODataResponse response) {
+    final List<String> vary = response.getHeaders(HttpHeader.VARY);
+    if (vary == null) {
+      response.setHeader(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+    } else {
+      for (final String value : vary) {
+        if (value.toLowerCase().contains(HttpHeader.ACCEPT_ENCODING.toLowerCase()) || value.trim().equals("*")) {
+          return;
+        }
+      }
+      response.addHeader(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+    }
+  }
+
+  private static void closeQuietly(final InputStream stream) {
+    try {
+      stream.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
+
+  /** Response content written through a compressing stream. */
+  private static final class CompressedContent implements ODataContent {
+    private final ContentEncoding encoding;
+    private final int level;
+    private final byte[] head;
+    private final int headLength;
+    private final InputStream rest;
+    private final ODataContent content;
+
+    private CompressedContent(final ContentEncoding encoding, final int level,
+        final byte[] head, final int headLength, final InputStream rest, final ODataContent content) {
+      this.encoding = encoding;
+      this.level = level;
+      this.head = head;
+      this.headLength = headLength;
+      this.rest = rest;
+      this.content = content;
+    }
+
+    @Override
+    public void write(final WritableByteChannel channel) {
+      write(Channels.newOutputStream(channel));
+    }
+
+    @Override
+    public void write(final OutputStream stream) {
+      CompressingOutputStream output = null;
+      try {
+        output = new CompressingOutputStream(stream, encoding, level);
+        if (content == null) {
+          output.write(head, 0, headLength);
+          // The head has been written, so its buffer takes the rest of the content.
+          int count;
+          while ((count = rest.read(head)) >= 0) {
+            output.write(head, 0, count);
+          }
+        } else {
+          content.write(output);
+        }
+        output.complete();
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on compressing response content", e);
+      } finally {
+        if (output != null) {
+          output.release();
+        }
+        if (rest != null) {
+          closeQuietly(rest);
+          releaseHeadBuffer(head);
+        }
+      }
+    }
+  }
+}
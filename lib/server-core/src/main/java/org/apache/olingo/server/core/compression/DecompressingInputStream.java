@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.compression;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * <p>Input stream decompressing data in one of the {@link ContentEncoding}s
+ * with a pooled inflater.</p>
+ * <p>The inflater is returned to its pool as soon as the end of the compressed data has been reached
+ * or the stream is closed.</p>
+ * <p>Reading more decompressed bytes than the maximum size fails with a {@link SizeLimitExceededException}.</p>
+ */
+public class DecompressingInputStream extends InflaterInputStream {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int GZIP_MAGIC = 0x8b1f;
+  private static final int FLAG_HEADER_CRC = 2;
+  private static final int FLAG_EXTRA = 4;
+  private static final int FLAG_NAME = 8;
+  private static final int FLAG_COMMENT = 16;
+
+  private final ContentEncoding encoding;
+  private final CRC32 crc;
+  private final long maximumSize;
+  private long size = 0;
+  private boolean started = false;
+  private boolean finished = false;
+  private boolean released = false;
+
+  /**
+   * Creates a decompressing stream.
+   * @param in the stream with the compressed data
+   * @param encoding the content encoding of the data
+   */
+  public DecompressingInputStream(final InputStream in, final ContentEncoding encoding) {
+    this(in, encoding, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a decompressing stream with a limit on the decompressed size.
+   * @param in the stream with the compressed data
+   * @param encoding the content encoding of the data
+   * @param maximumSize the maximum number of decompressed bytes
+   */
+  public DecompressingInputStream(final InputStream in, final ContentEncoding encoding, final long maximumSize) {
+    super(in, encoding.acquireInflater(), BUFFER_SIZE);
+    this.encoding = encoding;
+    this.maximumSize = maximumSize;
+    crc = encoding == ContentEncoding.GZIP ? new CRC32() : null;
+  }
+
+  @Override
+  public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+    if (finished) {
+      return -1;
+    }
+    if (!started) {
+      started = true;
+      if (crc != null) {
+        readHeader();
+      }
+    }
+    final int count = super.read(bytes, offset, length);
+    if (count < 0) {
+      if (crc != null) {
+        readTrailer();
+      }
+      finished = true;
+      release();
+    } else {
+      size += count;
+      if (size > maximumSize) {
+        finished = true;
+        release();
+        throw new SizeLimitExceededException(maximumSize);
+      }
+      if (crc != null) {
+        crc.update(bytes, offset, count);
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return finished ? 0 : super.available();
+  }
+
+  private void readHeader() throws IOException {
+    if (readShort() != GZIP_MAGIC) {
+      throw new ZipException("Not in GZIP format");
+    }
+    if (readByte() != 8) {
+      throw new ZipException("Unsupported compression method");
+    }
+    final int flags = readByte();
+    skipBytes(6);
+    if ((flags & FLAG_EXTRA) != 0) {
+      skipBytes(readShort());
+    }
+    if ((flags & FLAG_NAME) != 0) {
+      while (readByte() != 0) {
+        // skip zero-terminated file name
+      }
+    }
+    if ((flags & FLAG_COMMENT) != 0) {
+      while (readByte() != 0) {
+        // skip zero-terminated comment
+      }
+    }
+    if ((flags & FLAG_HEADER_CRC) != 0) {
+      skipBytes(2);
+    }
+  }
+
+  private void readTrailer() throws IOException {
+    // The inflater may have consumed (part of) the trailer into the input buffer already.
+    final byte[] trailer = new byte[8];
+    final int remaining = inf.getRemaining();
+    final int buffered = Math.min(remaining, trailer.length);
+    System.arraycopy(buf, len - remaining, trailer, 0, buffered);
+    for (int index = buffered; index < trailer.length; index++) {
+      trailer[index] = (byte) readByte();
+    }
+    if (readInt(trailer, 0) != (int) crc.getValue()
+        || readInt(trailer, 4) != (int) inf.getBytesWritten()) {
+      throw new ZipException("Corrupt GZIP trailer");
+    }
+  }
+
+  private static int readInt(final byte[] bytes, final int offset) {
+    return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+        | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+  }
+
+  private int readShort() throws IOException {
+    return readByte() | readByte() << 8;
+  }
+
+  private int readByte() throws IOException {
+    final int value = in.read();
+    if (value < 0) {
+      throw new EOFException("Unexpected end of GZIP data");
+    }
+    return value;
+  }
+
+  private void skipBytes(final int count) throws IOException {
+    for (int index = 0; index < count; index++) {
+      readByte();
+    }
+  }
+
+  private void release() {
+    if (!released) {
+      released = true;
+      encoding.releaseInflater(inf);
+    }
+  }
+
+  /** Signals that the decompressed data exceed the maximum size. */
+  public static final class SizeLimitExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final long maximumSize;
+
+    private SizeLimitExceededException(final long maximumSize) {
+      super("The decompressed data exceed the maximum size of " + maximumSize + " bytes.");
+      this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets the maximum size.
+     * @return the size in bytes
+     */
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    // The inflater must not be used anymore once it is back in the pool.
+    finished = true;
+    release();
+    super.close();
+  }
+}
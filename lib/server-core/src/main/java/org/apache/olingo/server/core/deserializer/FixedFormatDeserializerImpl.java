@@ -22,7 +22,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.Parameter;
@@ -44,23 +44,39 @@ import org.apache.olingo.server.core.deserializer.json.ODataJsonDeserializer;
 
 public class FixedFormatDeserializerImpl implements FixedFormatDeserializer {
 
-  private static final int DEFAULT_BUFFER_SIZE = 128;
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
 
   @Override
   public byte[] binary(final InputStream content) throws DeserializerException {
-    ByteArrayOutputStream result = new ByteArrayOutputStream();
-    byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-    int count;
     try {
+      // If the stream knows its length, the data are read directly into the result array.
+      final int expected = content.available();
+      byte[] result = new byte[expected];
+      int length = 0;
+      int count;
+      while (length < expected && (count = content.read(result, length, expected - length)) > -1) {
+        length += count;
+      }
+      if (length < expected) {
+        return Arrays.copyOf(result, length);
+      }
+      final int next = content.read();
+      if (next == -1) {
+        return result;
+      }
+
+      ByteArrayOutputStream rest = new ByteArrayOutputStream(Math.max(length, DEFAULT_BUFFER_SIZE));
+      rest.write(result, 0, length);
+      rest.write(next);
+      byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
       while ((count = content.read(buffer)) > -1) {
-        result.write(buffer, 0, count);
+        rest.write(buffer, 0, count);
       }
-      result.flush();
+      return rest.toByteArray();
     } catch (final IOException e) {
       throw new DeserializerException("An I/O exception occurred.", e,
           DeserializerException.MessageKeys.IO_EXCEPTION);
     }
-    return result.toByteArray();
   }
 
   @Override
@@ -69,14 +85,15 @@ public class FixedFormatDeserializerImpl implements FixedFormatDeserializer {
       throw new DeserializerException("Wrong property.", DeserializerException.MessageKeys.NOT_IMPLEMENTED);
     }
     try {
-      StringWriter writer = new StringWriter();
+      StringBuilder value = new StringBuilder();
       InputStreamReader reader = new InputStreamReader(content, "UTF-8");
-      int c = -1;
-      while ((c = reader.read()) != -1) {
-        writer.append((char) c);
+      final char[] buffer = new char[256];
+      int count;
+      while ((count = reader.read(buffer)) != -1) {
+        value.append(buffer, 0, count);
       }
       final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
-      return type.valueOfString(writer.toString(),
+      return type.valueOfString(value, 0, value.length(),
           property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
           property.isUnicode(), type.getDefaultType());
     } catch (final EdmPrimitiveTypeException e) {
@@ -86,6 +86,7 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilder;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
+import org.apache.olingo.server.core.serializer.json.JsonFormat;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -119,10 +120,15 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   private static final String ODATA_STREAM_PROPERTY_MEDIA_READ_LINK = "mediaReadLink";
   private static final String ODATA_STREAM_PROPERTY_MEDIA_EDIT_LINK = "mediaEditLink";
   private static final String ODATA_STREAM_PROPERTY_MEDIA_MIME_TYPE = "mediaMimeType";
+  /** Configured once and shared; it only builds trees and is thread-safe. */
+  private static final ObjectMapper TREE_READER = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true)
+      .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
 
   private final boolean isIEEE754Compatible;
   private ServiceMetadata serviceMetadata;
   private IConstants constants;
+  private final JsonFactory jsonFactory;
   private ODataJsonInstanceAnnotationDeserializer instanceAnnotDeserializer;
 
   public ODataJsonDeserializer(final ContentType contentType) {
@@ -130,22 +136,31 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   public ODataJsonDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata) {
-    isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    this.serviceMetadata = serviceMetadata;
-    this.constants = new Constantsv00();
-    instanceAnnotDeserializer = new ODataJsonInstanceAnnotationDeserializer();
+    this(contentType, serviceMetadata, new Constantsv00());
   }
 
   public ODataJsonDeserializer(ContentType contentType, ServiceMetadata serviceMetadata, IConstants constants) {
-    isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    this.serviceMetadata = serviceMetadata;
-    this.constants = constants;
-    instanceAnnotDeserializer = new ODataJsonInstanceAnnotationDeserializer();
+    this(contentType, serviceMetadata, constants, JsonFormat.DEFAULT_FACTORY);
   }
 
   public ODataJsonDeserializer(ContentType contentType, IConstants constants) {
+    this(contentType, null, constants);
+  }
+
+  /**
+   * Creates a deserializer reading through parsers of the given factory.
+   * A factory for a binary JSON data format, e.g., Smile or CBOR, reads payloads in that format.
+   * @param contentType the content type, used for the format parameters
+   * @param serviceMetadata the metadata of the service, may be <code>null</code>
+   * @param constants the constants of the OData version
+   * @param jsonFactory the factory creating the parsers
+   */
+  public ODataJsonDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata,
+      final IConstants constants, final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
+    this.serviceMetadata = serviceMetadata;
     this.constants = constants;
+    this.jsonFactory = jsonFactory;
     instanceAnnotDeserializer = new ODataJsonInstanceAnnotationDeserializer();
   }
 
@@ -341,11 +356,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
-    objectMapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
-    JsonParser parser = new JsonFactory(objectMapper).createParser(stream);
-    final JsonNode tree = parser.getCodec().readTree(parser);
+    JsonParser parser = jsonFactory.createParser(stream);
+    final JsonNode tree = TREE_READER.readTree(parser);
     if (tree == null || !tree.isObject()) {
       throw new DeserializerException("Invalid JSON syntax.",
           DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
@@ -888,12 +900,12 @@ public class ODataJsonDeserializer implements ODataDeserializer {
             // Although a line string with less than two points is not really one, the OData specification says:
             // "The coordinates member of a LineString can have zero or more positions".
             // Therefore the required minimal size of the points array currently is zero.
-            return new LineString(dimension, srid, readGeoPointValues(name, dimension, 0, false, topNode));
+            return readGeoLineString(name, dimension, topNode, srid);
           } else if (geoDataType.equals(MultiLineString.class)) {
             List<LineString> lines = new ArrayList<>();
             for (final JsonNode element : topNode) {
               // Line strings can be empty (see above).
-              lines.add(new LineString(dimension, srid, readGeoPointValues(name, dimension, 0, false, element)));
+              lines.add(readGeoLineString(name, dimension, element, srid));
             }
             return new MultiLineString(dimension, srid, lines);
           } else if (geoDataType.equals(Polygon.class)) {
@@ -968,6 +980,32 @@ public class ODataJsonDeserializer implements ODataDeserializer {
         DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY, name);
   }
 
+  /**
+   * Reads a line string into a coordinate array.
+   * Line strings with three-dimensional positions are read point by point since the array only holds x and y.
+   */
+  private LineString readGeoLineString(final String name, final Geospatial.Dimension dimension, JsonNode node,
+      SRID srid) throws DeserializerException, EdmPrimitiveTypeException {
+    if (node.isArray()) {
+      final double[] coordinates = new double[2 * node.size()];
+      int index = 0;
+      for (final JsonNode element : node) {
+        if (element.isArray() && element.size() == 3) {
+          return new LineString(dimension, srid, readGeoPointValues(name, dimension, 0, false, node));
+        }
+        if (!element.isArray() || element.size() != 2 || !element.get(0).isNumber() || !element.get(1).isNumber()) {
+          throw new DeserializerException("Invalid point value '" + element + "' in property: " + name,
+              DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY, name);
+        }
+        coordinates[index++] = getDoubleValue(element.get(0).asText());
+        coordinates[index++] = getDoubleValue(element.get(1).asText());
+      }
+      return new LineString(dimension, srid, coordinates);
+    }
+    throw new DeserializerException("Invalid point values '" + node + "' in property: " + name,
+        DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY, name);
+  }
+
   private Polygon readGeoPolygon(final String name, final Geospatial.Dimension dimension, JsonNode node, SRID srid)
       throws DeserializerException, EdmPrimitiveTypeException {
     // GeoJSON would allow for more than one interior polygon (hole).
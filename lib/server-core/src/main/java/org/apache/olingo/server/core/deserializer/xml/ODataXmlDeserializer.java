@@ -24,20 +24,20 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.AbstractODataObject;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.Property;
@@ -55,6 +55,7 @@ import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.core.edm.EdmTypeInfo;
 import org.apache.olingo.commons.core.edm.primitivetype.AbstractGeospatialType;
@@ -65,9 +66,16 @@ import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 
+/**
+ * <p>Deserializer for the Atom/XML format.</p>
+ * <p>The payload is read with the cursor-based {@link XMLStreamReader}; every method reading an element
+ * is called with the reader positioned on the element's start tag and returns with the reader
+ * positioned on the matching end tag.</p>
+ */
 public class ODataXmlDeserializer implements ODataDeserializer {
 
-  private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+  /** Factory configured once; it is not modified afterwards and can therefore be shared between threads. */
+  private static final XMLInputFactory FACTORY = createFactory();
 
   private static final QName propertiesQName = new QName(Constants.NS_METADATA, Constants.PROPERTIES);
   private static final QName propertyValueQName = new QName(Constants.NS_METADATA, Constants.VALUE);
@@ -79,7 +87,13 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   private static final QName countQName = new QName(Constants.NS_METADATA, Constants.ATOM_ELEM_COUNT);
   private static final QName parametersQName = new QName(Constants.NS_METADATA, "parameters");
   private static final QName typeQName = new QName(Constants.NS_METADATA, Constants.ATTR_TYPE);
-  
+  private static final QName relQName = new QName(Constants.ATTR_REL);
+  private static final QName titleQName = new QName(Constants.ATTR_TITLE);
+  private static final QName hrefQName = new QName(Constants.ATTR_HREF);
+  private static final QName attrTypeQName = new QName(Constants.ATTR_TYPE);
+  private static final QName termQName = new QName(Constants.ATOM_ATTR_TERM);
+  private static final QName srcQName = new QName(Constants.ATOM_ATTR_SRC);
+
   private ServiceMetadata serviceMetadata;
 
   public ODataXmlDeserializer() {
@@ -92,134 +106,216 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   public void setMetadata(ServiceMetadata metadata) {
     this.serviceMetadata = metadata;
   }
-  
-  protected XMLEventReader getReader(final InputStream input) throws XMLStreamException {
-    FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-    FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-    return FACTORY.createXMLEventReader(input);
-  }
 
-  private Object primitive(final XMLEventReader reader, final StartElement start,
-      final EdmType type, final boolean isNullable, final Integer maxLength, final Integer precision,
-      final Integer scale, final boolean isUnicode) throws XMLStreamException, EdmPrimitiveTypeException,
-      DeserializerException {
+  private static XMLInputFactory createFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
 
-    Object value = null;
+  protected XMLStreamReader getReader(final InputStream input) throws XMLStreamException {
+    return FACTORY.createXMLStreamReader(input);
+  }
 
-    boolean foundEndProperty = false;
-    while (reader.hasNext() && !foundEndProperty) {
-      final XMLEvent event = reader.nextEvent();
+  /** Checks whether the reader is positioned on an element with the given name. */
+  private static boolean isElement(final XMLStreamReader reader, final QName name) {
+    if (!name.getLocalPart().equals(reader.getLocalName())) {
+      return false;
+    }
+    final String namespace = reader.getNamespaceURI();
+    return name.getNamespaceURI().equals(namespace == null ? "" : namespace);
+  }
 
-      if (event.isCharacters() && !event.asCharacters().isWhiteSpace()) {
-        if (type instanceof AbstractGeospatialType<?>) {
-          throw new DeserializerException("geo types support not implemented",
-              DeserializerException.MessageKeys.NOT_IMPLEMENTED);
+  /** Gets the value of the attribute with the given name of the current start element or <code>null</code>. */
+  private static String attribute(final XMLStreamReader reader, final QName name) {
+    final int count = reader.getAttributeCount();
+    for (int index = 0; index < count; index++) {
+      if (name.getLocalPart().equals(reader.getAttributeLocalName(index))) {
+        final String namespace = reader.getAttributeNamespace(index);
+        if (name.getNamespaceURI().equals(namespace == null ? "" : namespace)) {
+          return reader.getAttributeValue(index);
         }
-        final EdmPrimitiveType primitiveType = (EdmPrimitiveType) type;
-        final String stringValue = event.asCharacters().getData();
-        value = primitiveType.valueOfString(stringValue,
-            isNullable,
-            maxLength,
-            precision,
-            scale,
-            isUnicode,
-            primitiveType.getDefaultType());
       }
+    }
+    return null;
+  }
 
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndProperty = true;
+  /**
+   * Moves the reader to the start tag of the next child element of the current element.
+   * @return <code>false</code> if the reader has reached the end tag of the current element instead
+   */
+  private static boolean nextChild(final XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
       }
     }
-    return value;
+    return false;
   }
 
-  private Object complex(final XMLEventReader reader, final StartElement start, final EdmComplexType edmComplex)
-      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
-    ComplexValue value = new ComplexValue();
-    EdmType resolvedType = edmComplex;
-    boolean foundEndProperty = false;
-    while (reader.hasNext() && !foundEndProperty) {
-      final XMLEvent event = reader.nextEvent();
-      
-      if (event.isStartElement()) {        
-        //Get the derived type from the element tag
-        final Attribute attrType = start.getAttributeByName(typeQName);
-        if (attrType != null ) {
-          String type = new EdmTypeInfo.Builder().setTypeExpression(attrType.getValue()).build().internal();
-          if (type.startsWith("Collection(") && type.endsWith(")")) {
-            type = type.substring(11, type.length()-1);
+  /** Moves the reader from the start tag of the current element to its end tag. */
+  private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0 && reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * Reads the text content of the current element; text of child elements is ignored.
+   * @return the text or <code>null</code> if the element contains only whitespace
+   */
+  private static String text(final XMLStreamReader reader) throws XMLStreamException {
+    final CharSequence text = characters(reader);
+    return text == null ? null : text.toString();
+  }
+
+  /**
+   * Reads the character data of the current element up to its end element.
+   * @return the character data, or <code>null</code> if there is none but white space
+   */
+  private static CharSequence characters(final XMLStreamReader reader) throws XMLStreamException {
+    String text = null;
+    StringBuilder builder = null;
+    while (reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+          || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+        if (text == null) {
+          text = reader.getText();
+        } else {
+          if (builder == null) {
+            builder = new StringBuilder(text);
           }
-          resolvedType = getDerivedType(edmComplex, type);
+          builder.append(reader.getText());
         }
-        
-        
-        StartElement se = event.asStartElement();
-        EdmProperty p = (EdmProperty) ((EdmComplexType)resolvedType).getProperty(se.getName().getLocalPart());
-        value.getValue().add(property(reader, se, p.getType(), p.isNullable(), p.getMaxLength(),
-            p.getPrecision(), p.getScale(), p.isUnicode(), p.isCollection()));
-        value.setTypeName(resolvedType.getFullQualifiedName().getFullQualifiedNameAsString());
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        skipElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        break;
       }
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndProperty = true;
+    }
+    final CharSequence result = builder == null ? text : builder;
+    return result == null || isWhiteSpace(result) ? null : result;
+  }
+
+  private static boolean isWhiteSpace(final CharSequence text) {
+    for (int index = 0; index < text.length(); index++) {
+      final char c = text.charAt(index);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+        return false;
       }
     }
+    return true;
+  }
+
+  /** Moves the reader to the start tag of the document element. */
+  private void skipBeforeFirstStartElement(final XMLStreamReader reader) throws XMLStreamException {
+    while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+      if (!reader.hasNext()) {
+        throw new IllegalArgumentException("Cannot find any XML start element");
+      }
+      reader.next();
+    }
+  }
+
+  private String typeName(final String typeExpression) {
+    String type = new EdmTypeInfo.Builder().setTypeExpression(typeExpression).build().internal();
+    if (type.startsWith("Collection(") && type.endsWith(")")) {
+      type = type.substring(11, type.length() - 1);
+    }
+    return type;
+  }
+
+  private Object primitive(final XMLStreamReader reader, final EdmType type, final boolean isNullable,
+      final Integer maxLength, final Integer precision, final Integer scale, final boolean isUnicode)
+      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    final CharSequence value = characters(reader);
+    if (value == null) {
+      return null;
+    }
+    if (type instanceof AbstractGeospatialType<?>) {
+      throw new DeserializerException("geo types support not implemented",
+          DeserializerException.MessageKeys.NOT_IMPLEMENTED);
+    }
+    final EdmPrimitiveType primitiveType = (EdmPrimitiveType) type;
+    return primitiveType.valueOfString(value, 0, value.length(),
+        isNullable,
+        maxLength,
+        precision,
+        scale,
+        isUnicode,
+        primitiveType.getDefaultType());
+  }
+
+  private Object complex(final XMLStreamReader reader, final EdmComplexType edmComplex)
+      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    ComplexValue value = new ComplexValue();
+    // Get the derived type from the element tag.
+    final String typeAttribute = attribute(reader, typeQName);
+    final EdmComplexType resolvedType = typeAttribute == null ? edmComplex :
+        (EdmComplexType) getDerivedType(edmComplex, typeName(typeAttribute));
+    while (nextChild(reader)) {
+      EdmProperty p = (EdmProperty) resolvedType.getProperty(reader.getLocalName());
+      value.getValue().add(property(reader, p.getType(), p.isNullable(), p.getMaxLength(),
+          p.getPrecision(), p.getScale(), p.isUnicode(), p.isCollection()));
+      value.setTypeName(resolvedType.getFullQualifiedName().getFullQualifiedNameAsString());
+    }
     return value;
   }
 
-  private void collection(final Valuable valuable, final XMLEventReader reader, final StartElement start,
+  private void collection(final Valuable valuable, final XMLStreamReader reader,
       final EdmType edmType, final boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final boolean isUnicode) throws XMLStreamException, EdmPrimitiveTypeException,
       DeserializerException {
 
     List<Object> values = new ArrayList<Object>();
-    boolean foundEndProperty = false;
-    while (reader.hasNext() && !foundEndProperty) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        if (edmType instanceof EdmPrimitiveType) {
-          values.add(primitive(reader, event.asStartElement(), edmType, isNullable,
-              maxLength, precision, scale, isUnicode));
-        } else if (edmType instanceof EdmComplexType) {
-          values.add(complex(reader, event.asStartElement(), (EdmComplexType) edmType));
-        }
-        // do not add null or empty values
-      }
-
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndProperty = true;
+    while (nextChild(reader)) {
+      if (edmType instanceof EdmPrimitiveType) {
+        values.add(primitive(reader, edmType, isNullable, maxLength, precision, scale, isUnicode));
+      } else if (edmType instanceof EdmComplexType) {
+        values.add(complex(reader, (EdmComplexType) edmType));
+      } else {
+        skipElement(reader);
       }
+      // do not add null or empty values
     }
     valuable.setValue(getValueType(edmType, true), values);
   }
 
-  private Property property(final XMLEventReader reader, final StartElement start, final EdmType edmType,
+  private Property property(final XMLStreamReader reader, final EdmType edmType,
       final boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final boolean isUnicode, final boolean isCollection)
           throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
 
     final Property property = new Property();
 
-    if (propertyValueQName.equals(start.getName())) {
+    if (isElement(reader, propertyValueQName)) {
       // retrieve name from context
-      final Attribute context = start.getAttributeByName(contextQName);
-      if (context != null && context.getValue() != null) {
-        final int pos = context.getValue().lastIndexOf('/');
-        property.setName(pos == -1 ? "" : context.getValue().substring(pos + 1));
+      final String context = attribute(reader, contextQName);
+      if (context != null) {
+        final int pos = context.lastIndexOf('/');
+        property.setName(pos == -1 ? "" : context.substring(pos + 1));
       }
     } else {
-      property.setName(start.getName().getLocalPart());
+      property.setName(reader.getLocalName());
     }
     
     EdmType resolvedType = edmType;
-    final Attribute attrType = start.getAttributeByName(typeQName);
+    final String attrType = attribute(reader, typeQName);
     if (attrType != null && (edmType instanceof EdmComplexType)) {
-      String type = new EdmTypeInfo.Builder().setTypeExpression(attrType.getValue()).build().internal();
-      if (type.startsWith("Collection(") && type.endsWith(")")) {
-        type = type.substring(11, type.length()-1);
-      }
-      resolvedType = getDerivedType((EdmComplexType)edmType, type);
+      resolvedType = getDerivedType((EdmComplexType) edmType, typeName(attrType));
     }
-    valuable(property, reader, start, resolvedType, isNullable, maxLength, precision, scale, isUnicode, isCollection);
+    valuable(property, reader, resolvedType, isNullable, maxLength, precision, scale, isUnicode, isCollection);
     return property;
   }
 
@@ -237,21 +333,14 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
   }
 
-  private void valuable(final Valuable valuable, final XMLEventReader reader, final StartElement start,
+  private void valuable(final Valuable valuable, final XMLStreamReader reader,
       final EdmType edmType, final boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final boolean isUnicode, final boolean isCollection) throws XMLStreamException,
       EdmPrimitiveTypeException, DeserializerException {
 
-    final Attribute nullAttr = start.getAttributeByName(nullQName);
-    if (nullAttr != null) {
+    if (attribute(reader, nullQName) != null) {
       // found null
-      boolean foundEndProperty = false;
-      while (reader.hasNext() && !foundEndProperty) {
-        final XMLEvent event = reader.nextEvent();
-        if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-          foundEndProperty = true;
-        }
-      }
+      skipElement(reader);
       valuable.setValue(getValueType(edmType, false), null);
       return;
     }
@@ -259,14 +348,16 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     final String typeName = edmType.getFullQualifiedName().getFullQualifiedNameAsString();
     valuable.setType(isCollection ? ("Collection(" + typeName + ")") : typeName);
     if (isCollection) {
-      collection(valuable, reader, start, edmType, isNullable, maxLength, precision, scale, isUnicode);
+      collection(valuable, reader, edmType, isNullable, maxLength, precision, scale, isUnicode);
     } else if (edmType instanceof EdmPrimitiveType) {
       valuable.setValue(getValueType(edmType, false),
-          primitive(reader, start, edmType, isNullable, maxLength, precision, scale, isUnicode));
+          primitive(reader, edmType, isNullable, maxLength, precision, scale, isUnicode));
     } else if (edmType instanceof EdmComplexType) {
-      valuable.setValue(ValueType.COMPLEX, complex(reader, start, (EdmComplexType) edmType));
+      valuable.setValue(ValueType.COMPLEX, complex(reader, (EdmComplexType) edmType));
     } else if (edmType instanceof EdmEntityType) {
-      valuable.setValue(ValueType.ENTITY, entity(reader, start, (EdmEntityType) edmType));
+      valuable.setValue(ValueType.ENTITY, entity(reader, (EdmEntityType) edmType));
+    } else {
+      skipElement(reader);
     }
     // do not add null or empty values
   }
@@ -275,9 +366,9 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   public DeserializerResult property(final InputStream input, final EdmProperty edmProperty)
       throws DeserializerException {
     try {
-      final XMLEventReader reader = getReader(input);
-      final StartElement start = skipBeforeFirstStartElement(reader);
-      Property property = property(reader, start,
+      final XMLStreamReader reader = getReader(input);
+      skipBeforeFirstStartElement(reader);
+      Property property = property(reader,
           edmProperty.getType(),
           edmProperty.isNullable(),
           edmProperty.getMaxLength(),
@@ -295,309 +386,243 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
   }
 
-  private StartElement skipBeforeFirstStartElement(final XMLEventReader reader) throws XMLStreamException {
-    StartElement startEvent = null;
-    while (reader.hasNext() && startEvent == null) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        startEvent = event.asStartElement();
-      }
-    }
-    if (startEvent == null) {
-      throw new IllegalArgumentException("Cannot find any XML start element");
-    }
-
-    return startEvent;
-  }
-
-  private void common(final XMLEventReader reader, final StartElement start,
-      final AbstractODataObject object, final String key) throws XMLStreamException {
-
-    boolean foundEndElement = false;
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-
-      if (event.isCharacters() && !event.asCharacters().isWhiteSpace()) {
-        object.setCommonProperty(key, event.asCharacters().getData());
-      }
-
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
-      }
+  private void common(final XMLStreamReader reader, final AbstractODataObject object, final String key)
+      throws XMLStreamException {
+    final String value = text(reader);
+    if (value != null) {
+      object.setCommonProperty(key, value);
     }
   }
 
-  private void inline(final XMLEventReader reader, final StartElement start, final Link link,
+  private void inline(final XMLStreamReader reader, final Link link,
       final EdmEntityType edmEntityType) throws XMLStreamException, EdmPrimitiveTypeException,
       DeserializerException {
 
-    boolean foundEndElement = false;
     EdmNavigationProperty navigationProperty = edmEntityType.getNavigationProperty(link.getTitle());
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-
-      if (event.isStartElement()) {
-        if (inlineQName.equals(event.asStartElement().getName())) {
-          StartElement inline = getStartElement(reader);
-          if (inline != null) {
-            if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(inline.getName())) {
-              if (navigationProperty.isCollection()) {
-                throw new DeserializerException("Navigation Property " + link.getTitle() +
-                    " must be collection entities",
-                    DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
-              }
-
-              link.setInlineEntity(entity(reader, inline, navigationProperty.getType()));
+    while (nextChild(reader)) {
+      if (isElement(reader, inlineQName)) {
+        while (nextChild(reader)) {
+          if (isElement(reader, Constants.QNAME_ATOM_ELEM_ENTRY)) {
+            if (navigationProperty.isCollection()) {
+              throw new DeserializerException("Navigation Property " + link.getTitle() +
+                  " must be collection entities",
+                  DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
             }
-            if (Constants.QNAME_ATOM_ELEM_FEED.equals(inline.getName())) {
-              if (!navigationProperty.isCollection()) {
-                throw new DeserializerException("Navigation Property " + link.getTitle() +
-                    " must be single entity",
-                    DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
-              }
-              link.setInlineEntitySet(entitySet(reader, inline, navigationProperty.getType()));
+            link.setInlineEntity(entity(reader, navigationProperty.getType()));
+          } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_FEED)) {
+            if (!navigationProperty.isCollection()) {
+              throw new DeserializerException("Navigation Property " + link.getTitle() +
+                  " must be single entity",
+                  DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
             }
+            link.setInlineEntitySet(entitySet(reader, navigationProperty.getType()));
+          } else {
+            skipElement(reader);
           }
-        } else if (entryRefQName.equals(event.asStartElement().getName())) {
-          if (navigationProperty.isCollection()) {
-            throw new DeserializerException("Binding annotation: " + link.getTitle() +
-                " must be collection of entity references",
-                DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
-          }
-          link.setBindingLink(entityRef(reader, event.asStartElement()));
-          link.setType(Constants.ENTITY_BINDING_LINK_TYPE);
-        } else if (Constants.QNAME_ATOM_ELEM_FEED.equals(event.asStartElement().getName())) {
-          if (navigationProperty.isCollection()) {
-            throw new DeserializerException("Binding annotation: " + link.getTitle() +
-                " must be single entity references",
-                DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
-          }
-          link.setBindingLinks(entityRefCollection(reader, event.asStartElement()));
-          link.setType(Constants.ENTITY_COLLECTION_BINDING_LINK_TYPE);
         }
-      }
-
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
+      } else if (isElement(reader, entryRefQName)) {
+        if (navigationProperty.isCollection()) {
+          throw new DeserializerException("Binding annotation: " + link.getTitle() +
+              " must be collection of entity references",
+              DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
+        }
+        link.setBindingLink(entityRefId(reader));
+        link.setType(Constants.ENTITY_BINDING_LINK_TYPE);
+      } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_FEED)) {
+        if (navigationProperty.isCollection()) {
+          throw new DeserializerException("Binding annotation: " + link.getTitle() +
+              " must be single entity references",
+              DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
+        }
+        link.setBindingLinks(entityRefCollection(reader));
+        link.setType(Constants.ENTITY_COLLECTION_BINDING_LINK_TYPE);
+      } else {
+        skipElement(reader);
       }
     }
   }
 
-  private List<String> entityRefCollection(final XMLEventReader reader, final StartElement start)
-      throws XMLStreamException {
-    boolean foundEndElement = false;
+  private List<String> entityRefCollection(final XMLStreamReader reader) throws XMLStreamException {
     ArrayList<String> references = new ArrayList<String>();
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-
-      if (event.isStartElement() && entryRefQName.equals(event.asStartElement().getName())) {
-        references.add(entityRef(reader, event.asStartElement()));
-      }
-
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
+    while (nextChild(reader)) {
+      if (isElement(reader, entryRefQName)) {
+        references.add(entityRefId(reader));
+      } else {
+        skipElement(reader);
       }
     }
     return references;
   }
 
-  private String entityRef(final XMLEventReader reader, final StartElement start) throws XMLStreamException {
-    boolean foundEndElement = false;
-    final Attribute entityRefId = start.getAttributeByName(Constants.QNAME_ATOM_ATTR_ID);
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
-      }
-    }
-    return entityRefId.getValue();
-  }
-
-  private StartElement getStartElement(final XMLEventReader reader) throws XMLStreamException {
-    while (reader.hasNext()) {
-      final XMLEvent innerEvent = reader.peek();
-      if (innerEvent.isCharacters() && innerEvent.asCharacters().isWhiteSpace()) {
-        reader.nextEvent();
-      } else if (innerEvent.isStartElement()) {
-        return innerEvent.asStartElement();
-      } else if (innerEvent.isEndElement() && inlineQName.equals(innerEvent.asEndElement().getName())) {
-        return null;
-      }
-    }
-    return null;
+  private String entityRefId(final XMLStreamReader reader) throws XMLStreamException {
+    final String entityRefId = attribute(reader, Constants.QNAME_ATOM_ATTR_ID);
+    skipElement(reader);
+    return entityRefId;
   }
 
-  private void properties(final XMLEventReader reader, final StartElement start, final Entity entity,
-      final EdmEntityType edmEntityType)
-          throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
-
-    boolean foundEndProperties = false;
-    while (reader.hasNext() && !foundEndProperties) {
-      final XMLEvent event = reader.nextEvent();
-
-      if (event.isStartElement()) {
-        String propertyName = event.asStartElement().getName().getLocalPart();
-        EdmProperty edmProperty = (EdmProperty) edmEntityType.getProperty(propertyName);
-        if (edmProperty == null) {
-          throw new DeserializerException("Invalid Property in payload with name: " + propertyName,
-              DeserializerException.MessageKeys.UNKNOWN_CONTENT, propertyName);
-        }
-        entity.getProperties().add(property(reader, event.asStartElement(),
-            edmProperty.getType(),
-            edmProperty.isNullable(),
-            edmProperty.getMaxLength(),
-            edmProperty.getPrecision(),
-            edmProperty.getScale(),
-            edmProperty.isUnicode(),
-            edmProperty.isCollection()));
-      }
-
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndProperties = true;
-      }
+  private void properties(final XMLStreamReader reader, final Entity entity, final EdmEntityType edmEntityType)
+      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    while (nextChild(reader)) {
+      String propertyName = reader.getLocalName();
+      EdmProperty edmProperty = (EdmProperty) edmEntityType.getProperty(propertyName);
+      if (edmProperty == null) {
+        throw new DeserializerException("Invalid Property in payload with name: " + propertyName,
+            DeserializerException.MessageKeys.UNKNOWN_CONTENT, propertyName);
+      }
+      entity.getProperties().add(property(reader,
+          edmProperty.getType(),
+          edmProperty.isNullable(),
+          edmProperty.getMaxLength(),
+          edmProperty.getPrecision(),
+          edmProperty.getScale(),
+          edmProperty.isUnicode(),
+          edmProperty.isCollection()));
     }
   }
 
-  private Entity entityRef(final StartElement start) throws XMLStreamException {
+  private Entity entityRef(final XMLStreamReader reader) throws XMLStreamException {
     final Entity entity = new Entity();
-
-    final Attribute entityRefId = start.getAttributeByName(Constants.QNAME_ATOM_ATTR_ID);
+    final String entityRefId = entityRefId(reader);
     if (entityRefId != null) {
-      entity.setId(URI.create(entityRefId.getValue()));
+      entity.setId(URI.create(entityRefId));
     }
-
     return entity;
   }
 
-  private Entity entity(final XMLEventReader reader, final StartElement start, final EdmEntityType edmEntityType)
+  private Entity entity(final XMLStreamReader reader, final EdmEntityType edmEntityType)
       throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
     Entity entity = null;
     EdmEntityType resolvedType = edmEntityType;
-    if (entryRefQName.equals(start.getName())) {
-      entity = entityRef(start);
-    } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(start.getName())) {
+    if (isElement(reader, entryRefQName)) {
+      entity = entityRef(reader);
+    } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_ENTRY)) {
       entity = new Entity();
-      final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
+      final String xmlBase = attribute(reader, Constants.QNAME_ATTR_XML_BASE);
       if (xmlBase != null) {
-        entity.setBaseURI(URI.create(xmlBase.getValue()));
+        entity.setBaseURI(URI.create(xmlBase));
       }
 
-      final Attribute etag = start.getAttributeByName(etagQName);
+      final String etag = attribute(reader, etagQName);
       if (etag != null) {
-        entity.setETag(etag.getValue());
-      }
-
-      boolean foundEndEntry = false;
-      while (reader.hasNext() && !foundEndEntry) {
-        final XMLEvent event = reader.nextEvent();
-
-        if (event.isStartElement()) {
-          if (Constants.QNAME_ATOM_ELEM_ID.equals(event.asStartElement().getName())) {
-            common(reader, event.asStartElement(), entity, "id");
-          } else if (Constants.QNAME_ATOM_ELEM_CATEGORY.equals(event.asStartElement().getName())) {
-            final Attribute term = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATOM_ATTR_TERM));
-            if (term != null) {
-              String type = new EdmTypeInfo.Builder().setTypeExpression(term.getValue()).build().internal();
-              entity.setType(type);
-              resolvedType = (EdmEntityType)getDerivedType(edmEntityType, type);
-            }
-          } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(event.asStartElement().getName())) {
-            final Link link = new Link();
-            final Attribute rel = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_REL));
-            if (rel != null) {
-              link.setRel(rel.getValue());
-            }
-            final Attribute title = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_TITLE));
-            if (title != null) {
-              link.setTitle(title.getValue());
-            }
-            final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-            if (href != null) {
-              link.setBindingLink(href.getValue());
-            }
-            final Attribute linktype = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_TYPE));
-            if (linktype != null) {
-              link.setType(linktype.getValue());
-            }
-            if (Constants.SELF_LINK_REL.equals(link.getRel())) {
-              entity.setSelfLink(link);
-            } else if (Constants.EDIT_LINK_REL.equals(link.getRel())) {
-              entity.setEditLink(link);
-            } else if (Constants.EDITMEDIA_LINK_REL.equals(link.getRel())) {
-              final Attribute mediaETag = event.asStartElement().getAttributeByName(etagQName);
-              if (mediaETag != null) {
-                entity.setMediaETag(mediaETag.getValue());
-              }
-            } else if (link.getRel().startsWith(Constants.NS_NAVIGATION_LINK_REL)) {
-              inline(reader, event.asStartElement(), link, resolvedType);
-              if (link.getInlineEntity() == null && link.getInlineEntitySet() == null) {
-                entity.getNavigationBindings().add(link);
-              } else {
-                if (link.getInlineEntitySet() != null) {
-                  List<String> bindings = new ArrayList<String>();
-                  List<Entity> entities = link.getInlineEntitySet().getEntities();
-
-                  for (Entity inlineEntity : entities) {
-                    // check if this is reference
-                    if (inlineEntity.getId() != null && inlineEntity.getProperties().isEmpty()) {
-                      bindings.add(inlineEntity.getId().toASCIIString());
-                    }
-                  }
-                  if (!bindings.isEmpty()) {
-                    link.setInlineEntitySet(null);
-                    link.setBindingLinks(bindings);
-                    entity.getNavigationBindings().add(link);
-                  } else {
-                    entity.getNavigationLinks().add(link);
-                  }
-                } else {
-                  // add link
-                  entity.getNavigationLinks().add(link);
-                }
-              }
-            } else if (link.getRel().startsWith(Constants.NS_ASSOCIATION_LINK_REL)) {
-              entity.getAssociationLinks().add(link);
-            } else if (link.getRel().startsWith(Constants.NS_MEDIA_EDIT_LINK_REL) ||
-                link.getRel().startsWith(Constants.NS_MEDIA_READ_LINK_REL)) {
-              final Attribute metag = event.asStartElement().getAttributeByName(etagQName);
-              if (metag != null) {
-                link.setMediaETag(metag.getValue());
-              }
-              entity.getMediaEditLinks().add(link);
+        entity.setETag(etag);
+      }
+
+      while (nextChild(reader)) {
+        if (isElement(reader, Constants.QNAME_ATOM_ELEM_ID)) {
+          common(reader, entity, "id");
+        } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_CATEGORY)) {
+          final String term = attribute(reader, termQName);
+          if (term != null) {
+            String type = new EdmTypeInfo.Builder().setTypeExpression(term).build().internal();
+            entity.setType(type);
+            resolvedType = (EdmEntityType) getDerivedType(edmEntityType, type);
+          }
+          skipElement(reader);
+        } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_LINK)) {
+          link(reader, entity, resolvedType);
+        } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_CONTENT)) {
+          final String contenttype = attribute(reader, attrTypeQName);
+          if (contenttype == null || ContentType.APPLICATION_XML.toContentTypeString().equals(contenttype)) {
+            while (nextChild(reader)) {
+              properties(reader, entity, resolvedType);
             }
-          } else if (Constants.QNAME_ATOM_ELEM_CONTENT.equals(event.asStartElement().getName())) {
-            final Attribute contenttype = event.asStartElement()
-                .getAttributeByName(QName.valueOf(Constants.ATTR_TYPE));
-            if (contenttype == null || ContentType.APPLICATION_XML.toContentTypeString()
-                .equals(contenttype.getValue())) {
-              properties(reader, skipBeforeFirstStartElement(reader), entity, resolvedType);
-            } else {
-              entity.setMediaContentType(contenttype.getValue());
-              final Attribute src = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATOM_ATTR_SRC));
-              if (src != null) {
-                entity.setMediaContentSource(URI.create(src.getValue()));
-              }
+          } else {
+            entity.setMediaContentType(contenttype);
+            final String src = attribute(reader, srcQName);
+            if (src != null) {
+              entity.setMediaContentSource(URI.create(src));
             }
-          } else if (propertiesQName.equals(event.asStartElement().getName())) {
-            properties(reader, event.asStartElement(), entity, resolvedType);
+            skipElement(reader);
           }
+        } else if (isElement(reader, propertiesQName)) {
+          properties(reader, entity, resolvedType);
+        } else {
+          skipElement(reader);
         }
+      }
+    } else {
+      skipElement(reader);
+    }
+    return entity;
+  }
 
-        if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-          foundEndEntry = true;
+  private void link(final XMLStreamReader reader, final Entity entity, final EdmEntityType edmEntityType)
+      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    final Link link = new Link();
+    final String rel = attribute(reader, relQName);
+    if (rel != null) {
+      link.setRel(rel);
+    }
+    final String title = attribute(reader, titleQName);
+    if (title != null) {
+      link.setTitle(title);
+    }
+    final String href = attribute(reader, hrefQName);
+    if (href != null) {
+      link.setBindingLink(href);
+    }
+    final String linktype = attribute(reader, attrTypeQName);
+    if (linktype != null) {
+      link.setType(linktype);
+    }
+    if (Constants.SELF_LINK_REL.equals(link.getRel())) {
+      entity.setSelfLink(link);
+    } else if (Constants.EDIT_LINK_REL.equals(link.getRel())) {
+      entity.setEditLink(link);
+    } else if (Constants.EDITMEDIA_LINK_REL.equals(link.getRel())) {
+      final String mediaETag = attribute(reader, etagQName);
+      if (mediaETag != null) {
+        entity.setMediaETag(mediaETag);
+      }
+    } else if (link.getRel().startsWith(Constants.NS_NAVIGATION_LINK_REL)) {
+      inline(reader, link, edmEntityType);
+      if (link.getInlineEntity() == null && link.getInlineEntitySet() == null) {
+        entity.getNavigationBindings().add(link);
+      } else {
+        if (link.getInlineEntitySet() != null) {
+          List<String> bindings = new ArrayList<String>();
+          List<Entity> entities = link.getInlineEntitySet().getEntities();
+
+          for (Entity inlineEntity : entities) {
+            // check if this is reference
+            if (inlineEntity.getId() != null && inlineEntity.getProperties().isEmpty()) {
+              bindings.add(inlineEntity.getId().toASCIIString());
+            }
+          }
+          if (!bindings.isEmpty()) {
+            link.setInlineEntitySet(null);
+            link.setBindingLinks(bindings);
+            entity.getNavigationBindings().add(link);
+          } else {
+            entity.getNavigationLinks().add(link);
+          }
+        } else {
+          // add link
+          entity.getNavigationLinks().add(link);
         }
       }
+      // The inline content has been consumed up to the end of the link.
+      return;
+    } else if (link.getRel().startsWith(Constants.NS_ASSOCIATION_LINK_REL)) {
+      entity.getAssociationLinks().add(link);
+    } else if (link.getRel().startsWith(Constants.NS_MEDIA_EDIT_LINK_REL) ||
+        link.getRel().startsWith(Constants.NS_MEDIA_READ_LINK_REL)) {
+      final String metag = attribute(reader, etagQName);
+      if (metag != null) {
+        link.setMediaETag(metag);
+      }
+      entity.getMediaEditLinks().add(link);
     }
-    return entity;
+    skipElement(reader);
   }
 
   @Override
   public DeserializerResult entity(final InputStream input, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
-      final XMLEventReader reader = getReader(input);
-      final StartElement start = skipBeforeFirstStartElement(reader);
-      final Entity entity = entity(reader, start, edmEntityType);
+      final XMLStreamReader reader = getReader(input);
+      skipBeforeFirstStartElement(reader);
+      final Entity entity = entity(reader, edmEntityType);
       if (entity == null) {
         throw new DeserializerException("No entity found!", DeserializerException.MessageKeys.INVALID_ENTITY);
       }
@@ -612,66 +637,68 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
   }
 
-  private void count(final XMLEventReader reader, final StartElement start, final EntityCollection entitySet)
-      throws XMLStreamException {
+  private Integer count(final XMLStreamReader reader) throws XMLStreamException {
+    final String count = text(reader);
+    return count == null ? null : Integer.valueOf(count);
+  }
 
-    boolean foundEndElement = false;
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isCharacters() && !event.asCharacters().isWhiteSpace()) {
-        entitySet.setCount(Integer.valueOf(event.asCharacters().getData()));
+  /**
+   * Reads a feed-level element which is not an entry: count, id, and next and delta links.
+   * The entries themselves are read by the caller.
+   */
+  private void feedElement(final XMLStreamReader reader, final AbstractODataObject feed,
+      final EntityCollection entitySet, final EntityIterator iterator) throws XMLStreamException {
+    if (isElement(reader, countQName)) {
+      final Integer count = count(reader);
+      if (count != null) {
+        if (entitySet == null) {
+          iterator.setCount(count);
+        } else {
+          entitySet.setCount(count);
+        }
       }
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
+    } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_ID)) {
+      common(reader, feed, "id");
+    } else if (isElement(reader, Constants.QNAME_ATOM_ELEM_LINK)) {
+      final String rel = attribute(reader, relQName);
+      final String href = attribute(reader, hrefQName);
+      if (href != null) {
+        if (Constants.NEXT_LINK_REL.equals(rel)) {
+          if (entitySet == null) {
+            iterator.setNext(URI.create(href));
+          } else {
+            entitySet.setNext(URI.create(href));
+          }
+        }
+        if (Constants.NS_DELTA_LINK_REL.equals(rel) && entitySet != null) {
+          entitySet.setDeltaLink(URI.create(href));
+        }
       }
+      skipElement(reader);
+    } else {
+      skipElement(reader);
     }
   }
 
-  private EntityCollection entitySet(final XMLEventReader reader, final StartElement start,
-      final EdmEntityType edmEntityType) throws XMLStreamException, EdmPrimitiveTypeException,
-      DeserializerException {
-    if (!Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName())) {
+  private EntityCollection entitySet(final XMLStreamReader reader, final EdmEntityType edmEntityType)
+      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    if (!isElement(reader, Constants.QNAME_ATOM_ELEM_FEED)) {
+      skipElement(reader);
       return null;
     }
     final EntityCollection entitySet = new EntityCollection();
-    final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
+    final String xmlBase = attribute(reader, Constants.QNAME_ATTR_XML_BASE);
     if (xmlBase != null) {
-      entitySet.setBaseURI(URI.create(xmlBase.getValue()));
-    }
-
-    boolean foundEndFeed = false;
-    while (reader.hasNext() && !foundEndFeed) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        if (countQName.equals(event.asStartElement().getName())) {
-          count(reader, event.asStartElement(), entitySet);
-        } else if (Constants.QNAME_ATOM_ELEM_ID.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "id");
-        } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(event.asStartElement().getName())) {
-          final Attribute rel = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_REL));
-          if (rel != null) {
-            if (Constants.NEXT_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setNext(URI.create(href.getValue()));
-              }
-            }
-            if (Constants.NS_DELTA_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setDeltaLink(URI.create(href.getValue()));
-              }
-            }
-          }
-        } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entity(reader, event.asStartElement(), edmEntityType));
-        } else if (entryRefQName.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entityRef(event.asStartElement()));
-        }
-      }
+      entitySet.setBaseURI(URI.create(xmlBase));
+    }
 
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndFeed = true;
+    while (nextChild(reader)) {
+      if (isElement(reader, Constants.QNAME_ATOM_ELEM_ENTRY)) {
+        entitySet.getEntities().add(entity(reader, edmEntityType));
+      } else if (isElement(reader, entryRefQName)) {
+        entitySet.getEntities().add(entityRef(reader));
+      } else {
+        feedElement(reader, entitySet, entitySet, null);
       }
     }
     return entitySet;
@@ -681,9 +708,9 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   public DeserializerResult entityCollection(final InputStream input, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
-      final XMLEventReader reader = getReader(input);
-      final StartElement start = skipBeforeFirstStartElement(reader);
-      EntityCollection entityCollection = entitySet(reader, start, edmEntityType);
+      final XMLStreamReader reader = getReader(input);
+      skipBeforeFirstStartElement(reader);
+      EntityCollection entityCollection = entitySet(reader, edmEntityType);
       if (entityCollection != null) {
         for (Entity entity : entityCollection.getEntities()) {
           entity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
@@ -698,21 +725,117 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
   }
 
+  /**
+   * <p>Reads an Atom feed entry by entry.</p>
+   * <p>In contrast to {@link #entityCollection(InputStream, EdmEntityType)} the entities are not collected
+   * in memory; each entity is deserialized when it is requested from the returned iterator.
+   * The count is available as soon as it has been read, i.e., usually before the first entity;
+   * the next link is available after the last entity has been read.</p>
+   * <p>Errors in the payload found while iterating are reported as {@link ODataRuntimeException}
+   * with the {@link DeserializerException} as cause. The input stream is not closed.</p>
+   * @param input the Atom feed
+   * @param edmEntityType the type of the entities
+   * @return an iterator over the entities
+   * @throws DeserializerException if the payload does not start with a feed
+   */
+  public EntityIterator entityCollectionIterator(final InputStream input, final EdmEntityType edmEntityType)
+      throws DeserializerException {
+    try {
+      final XMLStreamReader reader = getReader(input);
+      skipBeforeFirstStartElement(reader);
+      if (!isElement(reader, Constants.QNAME_ATOM_ELEM_FEED)) {
+        throw new DeserializerException("No feed found!", DeserializerException.MessageKeys.UNKNOWN_CONTENT,
+            reader.getLocalName());
+      }
+      return new FeedIterator(reader, edmEntityType);
+    } catch (final XMLStreamException e) {
+      throw new DeserializerException(e.getMessage(), e, DeserializerException.MessageKeys.IO_EXCEPTION);
+    }
+  }
+
+  /** Iterator pulling the entities of a feed from the reader on demand. */
+  private class FeedIterator extends EntityIterator {
+
+    private final XMLStreamReader reader;
+    private final EdmEntityType edmEntityType;
+    private final String typeName;
+    private Entity nextEntity;
+    private boolean finished;
+
+    private FeedIterator(final XMLStreamReader reader, final EdmEntityType edmEntityType) {
+      this.reader = reader;
+      this.edmEntityType = edmEntityType;
+      typeName = edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextEntity == null && !finished) {
+        try {
+          nextEntity = readEntity();
+        } catch (final XMLStreamException e) {
+          finish();
+          throw new ODataRuntimeException(
+              new DeserializerException(e.getMessage(), e, DeserializerException.MessageKeys.IO_EXCEPTION));
+        } catch (final EdmPrimitiveTypeException e) {
+          finish();
+          throw new ODataRuntimeException(new DeserializerException(e.getMessage(), e,
+              DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY));
+        } catch (final DeserializerException e) {
+          finish();
+          throw new ODataRuntimeException(e);
+        }
+      }
+      return nextEntity != null;
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Entity entity = nextEntity;
+      nextEntity = null;
+      return entity;
+    }
+
+    private Entity readEntity() throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+      while (nextChild(reader)) {
+        if (isElement(reader, Constants.QNAME_ATOM_ELEM_ENTRY)) {
+          final Entity entity = entity(reader, edmEntityType);
+          entity.setType(typeName);
+          return entity;
+        } else if (isElement(reader, entryRefQName)) {
+          final Entity entity = entityRef(reader);
+          entity.setType(typeName);
+          return entity;
+        } else {
+          feedElement(reader, this, null, this);
+        }
+      }
+      finish();
+      return null;
+    }
+
+    private void finish() {
+      finished = true;
+      try {
+        reader.close();
+      } catch (final XMLStreamException e) {
+        // Closing the reader does not close the underlying stream; there is nothing to recover.
+      }
+    }
+  }
+
   @Override
   public DeserializerResult entityReferences(final InputStream stream) throws DeserializerException {
     try {
-      XMLEventReader reader = getReader(stream);
+      XMLStreamReader reader = getReader(stream);
       ArrayList<URI> references = new ArrayList<URI>();
 
       while (reader.hasNext()) {
-        final XMLEvent event = reader.nextEvent();
-        if (event.isStartElement()) {
-          StartElement start = event.asStartElement();
-          if (entryRefQName.equals(start.getName())) {
-            Attribute context = start.getAttributeByName(Constants.QNAME_ATOM_ATTR_ID);
-            URI uri = URI.create(context.getValue());
-            references.add(uri);
-          }
+        if (reader.next() == XMLStreamConstants.START_ELEMENT && isElement(reader, entryRefQName)) {
+          references.add(URI.create(attribute(reader, Constants.QNAME_ATOM_ATTR_ID)));
         }
       }
       return DeserializerResultImpl.with().entityReferences(references).build();
@@ -732,11 +855,10 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
 
     try {
-      final XMLEventReader reader = getReader(stream);
+      final XMLStreamReader reader = getReader(stream);
       while (reader.hasNext()) {
-        final XMLEvent event = reader.nextEvent();
-        if (event.isStartElement() && parametersQName.equals(event.asStartElement().getName())) {
-          consumeParameters(edmAction, reader, event.asStartElement(), parameters);
+        if (reader.next() == XMLStreamConstants.START_ELEMENT && isElement(reader, parametersQName)) {
+          consumeParameters(edmAction, reader, parameters);
         }
       }
       // EDM checks.
@@ -769,8 +891,8 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     }
   }
 
-  private void consumeParameters(final EdmAction edmAction, final XMLEventReader reader,
-      final StartElement start, final Map<String, Parameter> parameters) throws DeserializerException,
+  private void consumeParameters(final EdmAction edmAction, final XMLStreamReader reader,
+      final Map<String, Parameter> parameters) throws DeserializerException,
       EdmPrimitiveTypeException, XMLStreamException {
 
     List<String> parameterNames = edmAction.getParameterNames();
@@ -779,36 +901,22 @@ public class ODataXmlDeserializer implements ODataDeserializer {
       parameterNames = parameterNames.subList(1, parameterNames.size());
     }
 
-    boolean foundEndElement = false;
-    while (reader.hasNext() && !foundEndElement) {
-      final XMLEvent event = reader.nextEvent();
-      if (event.isStartElement()) {
-        boolean found = false;
-        for (String paramName : parameterNames) {
-          if (paramName.equals(event.asStartElement().getName().getLocalPart())) {
-            found = true;
-            Parameter parameter = createParameter(reader, event.asStartElement(), paramName,
-                edmAction.getParameter(paramName));
-            Parameter previous = parameters.put(paramName, parameter);
-            if (previous != null) {
-              throw new DeserializerException("Duplicate property detected",
-                  DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
-            }
-            break; // for
-          }
-        }
-        if (!found) {
-          throw new DeserializerException("failed to read " + event.asStartElement().getName().getLocalPart(),
-              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
-        }
+    while (nextChild(reader)) {
+      final String name = reader.getLocalName();
+      if (!parameterNames.contains(name)) {
+        throw new DeserializerException("failed to read " + name,
+            DeserializerException.MessageKeys.UNKNOWN_CONTENT);
       }
-      if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndElement = true;
+      Parameter parameter = createParameter(reader, name, edmAction.getParameter(name));
+      Parameter previous = parameters.put(name, parameter);
+      if (previous != null) {
+        throw new DeserializerException("Duplicate property detected",
+            DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
       }
     }
   }
 
-  private Parameter createParameter(final XMLEventReader reader, final StartElement start, final String paramName,
+  private Parameter createParameter(final XMLStreamReader reader, final String paramName,
       final EdmParameter edmParameter) throws DeserializerException, EdmPrimitiveTypeException, XMLStreamException {
 
     Parameter parameter = new Parameter();
@@ -818,7 +926,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     case ENUM:
     case DEFINITION:
     case COMPLEX:
-      Property property = property(reader, start,
+      Property property = property(reader,
           edmParameter.getType(),
           edmParameter.isNullable(),
           edmParameter.getMaxLength(),
@@ -829,12 +937,18 @@ public class ODataXmlDeserializer implements ODataDeserializer {
       parameter.setValue(property.getValueType(), property.getValue());
       break;
     case ENTITY:
-      if (edmParameter.isCollection()) {
-        final EntityCollection entityCollection = entitySet(reader, start, (EdmEntityType) edmParameter.getType());
-        parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
-      } else {
-        final Entity entity = entity(reader, start, (EdmEntityType) edmParameter.getType());
-        parameter.setValue(ValueType.ENTITY, entity);
+      // The parameter element wraps the entry or the feed.
+      if (nextChild(reader)) {
+        if (edmParameter.isCollection()) {
+          final EntityCollection entityCollection = entitySet(reader, (EdmEntityType) edmParameter.getType());
+          parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
+        } else {
+          final Entity entity = entity(reader, (EdmEntityType) edmParameter.getType());
+          parameter.setValue(ValueType.ENTITY, entity);
+        }
+        while (nextChild(reader)) {
+          skipElement(reader);
+        }
       }
       break;
     default:
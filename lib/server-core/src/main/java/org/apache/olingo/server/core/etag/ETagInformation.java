@@ -62,9 +62,12 @@ public class ETagInformation {
     } else if (all) {
       return true;
     } else {
+      final int offset = eTag.startsWith("W/") ? 2 : 0;
+      final int length = eTag.length() - offset;
       for (final String candidate : eTags) {
-        if ((eTag.startsWith("W/") ? eTag.substring(2) : eTag)
-            .equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+        final int candidateOffset = candidate.startsWith("W/") ? 2 : 0;
+        if (candidate.length() - candidateOffset == length
+            && eTag.regionMatches(offset, candidate, candidateOffset, length)) {
           return true;
         }
       }
@@ -22,8 +22,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * <p>Parses the values of HTTP header fields that contain a list of entity tags or a
@@ -38,12 +36,12 @@ import java.util.regex.Pattern;
  * opaque-tag = DQUOTE *etagc DQUOTE
  * etagc = %x21 / %x23-7E / %x80-FF
  * </pre>
- * <p>Values with illegal syntax do not contribute to the result but no exception is thrown.</p>
+ * <p>Values with illegal syntax do not contribute to the result but no exception is thrown.
+ * Parsing of a value stops at the first list element that is not an entity tag; an entity tag
+ * directly followed by anything else than a list separator invalidates the whole value.</p>
  */
 public class ETagParser {
 
-  private static final Pattern ETAG = Pattern.compile("\\s*(,\\s*)+|((?:W/)?\"[!#-~\\x80-\\xFF]*\")");
-
   private ETagParser() {
     // Private constructor for utility classes
   }
@@ -66,25 +64,61 @@ public class ETagParser {
   }
 
   private static Collection<String> parse(final String value) {
-    if ("*".equals(value.trim())) {
+    final int end = value.length();
+    int index = skipWhitespace(value, 0);
+    if (index < end && value.charAt(index) == '*' && skipWhitespace(value, index + 1) == end) {
       return Collections.singleton("*");
-    } else {
-      Set<String> result = new HashSet<>();
-      String separator = "";
-      int start = 0;
-      Matcher matcher = ETAG.matcher(value.trim());
-      while (matcher.find() && matcher.start() == start) {
-        start = matcher.end();
-        if (matcher.group(1) != null) {
-          separator = matcher.group(1);
-        } else if (separator != null) {
-          result.add(matcher.group(2));
-          separator = null;
-        } else {
-          return Collections.<String> emptySet();
+    }
+    Set<String> result = new HashSet<>();
+    boolean separated = true;
+    while (index < end) {
+      if (value.charAt(index) == ',') {
+        separated = true;
+        index = skipWhitespace(value, index + 1);
+      } else if (separated) {
+        final int tagEnd = scanEntityTag(value, index);
+        if (tagEnd < 0) {
+          break;
         }
+        result.add(value.substring(index, tagEnd));
+        separated = false;
+        index = skipWhitespace(value, tagEnd);
+      } else {
+        return Collections.<String> emptySet();
       }
-      return matcher.hitEnd() ? result : Collections.<String> emptySet();
     }
+    return result;
+  }
+
+  /**
+   * Scans an entity tag.
+   * @return the index after the closing quote or -1 if there is no valid entity tag at the given index
+   */
+  private static int scanEntityTag(final String value, final int start) {
+    int index = value.startsWith("W/", start) ? start + 2 : start;
+    if (index >= value.length() || value.charAt(index) != '"') {
+      return -1;
+    }
+    for (index++; index < value.length(); index++) {
+      final char c = value.charAt(index);
+      if (c == '"') {
+        return index + 1;
+      } else if (!(c == 0x21 || c >= 0x23 && c <= 0x7E || c >= 0x80 && c <= 0xFF)) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static int skipWhitespace(final String value, final int start) {
+    int index = start;
+    while (index < value.length() && isWhitespace(value.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isWhitespace(final char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
   }
-}
\ No newline at end of file
+}
@@ -21,10 +21,11 @@ package org.apache.olingo.server.core.prefer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.server.api.prefer.Preferences.Preference;
 
@@ -47,17 +48,17 @@ import org.apache.olingo.server.api.prefer.Preferences.Preference;
  * BWS = OWS ; "bad" whitespace
  * </pre>
  * <p>Values with illegal syntax do not contribute to the result but no exception is thrown.</p>
+ * <p>The parsed preferences of recently seen header values are cached, since clients typically send
+ * the same few values again and again. The cache is read without locking; when it is full,
+ * an arbitrary entry is evicted for a new one.</p>
  */
 public class PreferParser {
 
-  private static final String TOKEN = "(?:[-!#$%&'*+.^_`|~]|\\w)+";
-  private static final String QUOTED_STRING = "(?:\"(?:[\\t !#-\\[\\]-~\\x80-\\xFF]|"
-      + "(?:\\\\[\\t !-~\\x80-\\xFF]))*\")";
-  private static final String NAMED_VALUE =
-      "(" + TOKEN + ")(?:\\s*=\\s*(" + TOKEN + "|" + QUOTED_STRING + "))?";
-  private static final Pattern PREFERENCE = Pattern.compile("\\s*(,\\s*)+|"
-      + "(?:" + NAMED_VALUE + "((?:\\s*;\\s*(?:" + NAMED_VALUE + ")?)*))");
-  private static final Pattern PARAMETER = Pattern.compile("\\s*(;\\s*)+|(?:" + NAMED_VALUE + ")");
+  private static final int MAX_CACHED_VALUES = 128;
+  private static final int MAX_CACHED_VALUE_LENGTH = 512;
+
+  private static final ConcurrentMap<String, Map<String, Preference>> CACHE =
+      new ConcurrentHashMap<String, Map<String, Preference>>();
 
   private PreferParser() {
     // Private constructor for utility classes
@@ -67,88 +68,212 @@ public class PreferParser {
     if (values == null || values.isEmpty()) {
       return Collections.emptyMap();
     }
+    if (values.size() == 1) {
+      final String value = values.iterator().next();
+      return value == null || value.isEmpty() ? Collections.<String, Preference> emptyMap() : parseCached(value);
+    }
 
     Map<String, Preference> result = new HashMap<>();
     for (final String value : values) {
       if (value != null && !value.isEmpty()) {
-        parse(value, result);
+        // Here we also have to keep already existing preferences.
+        for (final Map.Entry<String, Preference> entry : parseCached(value).entrySet()) {
+          if (!result.containsKey(entry.getKey())) {
+            result.put(entry.getKey(), entry.getValue());
+          }
+        }
       }
     }
     return result;
   }
 
-  private static void parse(final String value, final Map<String, Preference> result) {
-    Map<String, Preference> partResult = new HashMap<>();
-    String separator = "";
-    int start = 0;
-    Matcher matcher = PREFERENCE.matcher(value.trim());
-    while (matcher.find() && matcher.start() == start) {
-      start = matcher.end();
-      if (matcher.group(1) != null) {
-        separator = matcher.group(1);
-      } else if (separator != null) {
-        final String name = matcher.group(2).toLowerCase(Locale.ROOT);
-        // RFC 7240:
-        // If any preference is specified more than once, only the first instance is to be
-        // considered. All subsequent occurrences SHOULD be ignored without signaling
-        // an error or otherwise altering the processing of the request.
-        if (!partResult.containsKey(name)) {
-          final String preferenceValue = getValue(matcher.group(3));
-          final Map<String, String> parameters =
-              matcher.group(4) == null || matcher.group(4).isEmpty() ? null :
-                parseParameters(matcher.group(4));
-          partResult.put(name, new Preference(preferenceValue, parameters));
+  private static Map<String, Preference> parseCached(final String value) {
+    if (value.length() > MAX_CACHED_VALUE_LENGTH) {
+      return parse(value);
+    }
+    Map<String, Preference> result = CACHE.get(value);
+    if (result == null) {
+      result = parse(value);
+      if (CACHE.size() >= MAX_CACHED_VALUES) {
+        final Iterator<String> iterator = CACHE.keySet().iterator();
+        if (iterator.hasNext()) {
+          CACHE.remove(iterator.next());
         }
-        separator = null;
-      } else {
-        return;
       }
+      CACHE.put(value, result);
     }
-    if (matcher.hitEnd()) {
-      // Here we also have to keep already existing preferences.
-      for (final Map.Entry<String, Preference> entry : partResult.entrySet()) {
-        if (!result.containsKey(entry.getKey())) {
-          result.put(entry.getKey(), entry.getValue());
+    return result;
+  }
+
+  /**
+   * Parses one header value.
+   * @return an unmodifiable map of the preferences; empty if the value has illegal syntax
+   */
+  private static Map<String, Preference> parse(final String value) {
+    final Tokenizer tokenizer = new Tokenizer(value);
+    Map<String, Preference> result = new HashMap<>();
+    boolean separated = true;
+    tokenizer.skipWhitespace();
+    while (!tokenizer.isAtEnd()) {
+      if (tokenizer.skip(',')) {
+        separated = true;
+        tokenizer.skipWhitespace();
+        continue;
+      }
+      final String name = separated ? tokenizer.nextToken() : null;
+      if (name == null) {
+        return Collections.emptyMap();
+      }
+      tokenizer.skipWhitespace();
+      final String preferenceValue = tokenizer.nextValue();
+      if (tokenizer.isInvalid()) {
+        return Collections.emptyMap();
+      }
+      Map<String, String> parameters = null;
+      while (tokenizer.skip(';')) {
+        tokenizer.skipWhitespace();
+        final String parameterName = tokenizer.nextToken();
+        if (parameterName != null) {
+          tokenizer.skipWhitespace();
+          final String parameterValue = tokenizer.nextValue();
+          if (tokenizer.isInvalid()) {
+            return Collections.emptyMap();
+          }
+          if (parameters == null) {
+            parameters = new HashMap<>();
+          }
+          // We have to keep already existing parameters.
+          final String key = parameterName.toLowerCase(Locale.ROOT);
+          if (!parameters.containsKey(key)) {
+            parameters.put(key, parameterValue);
+          }
         }
       }
+      // RFC 7240:
+      // If any preference is specified more than once, only the first instance is to be
+      // considered. All subsequent occurrences SHOULD be ignored without signaling
+      // an error or otherwise altering the processing of the request.
+      final String key = name.toLowerCase(Locale.ROOT);
+      if (!result.containsKey(key)) {
+        result.put(key, new Preference(preferenceValue,
+            parameters == null ? null : Collections.unmodifiableMap(parameters)));
+      }
+      separated = false;
     }
+    return Collections.unmodifiableMap(result);
   }
 
-  private static Map<String, String> parseParameters(final String parameters) {
-    Map<String, String> result = new HashMap<>();
-    String separator = "";
-    int start = 0;
-    Matcher matcher = PARAMETER.matcher(parameters.trim());
-    while (matcher.find() && matcher.start() == start) {
-      start = matcher.end();
-      if (matcher.group(1) != null) {
-        separator = matcher.group(1);
-      } else if (separator != null) {
-        final String name = matcher.group(2).toLowerCase(Locale.ROOT);
-        // We have to keep already existing parameters.
-        if (!result.containsKey(name)) {
-          result.put(name, getValue(matcher.group(3)));
-        }
-        separator = null;
-      } else {
+  /** Scanner for the lexical elements of a <code>Prefer</code> header value. */
+  private static final class Tokenizer {
+    private final String value;
+    private int index;
+    private boolean invalid;
+
+    private Tokenizer(final String value) {
+      this.value = value;
+    }
+
+    private boolean isAtEnd() {
+      return index >= value.length();
+    }
+
+    private boolean isInvalid() {
+      return invalid;
+    }
+
+    private void skipWhitespace() {
+      while (index < value.length() && isWhitespace(value.charAt(index))) {
+        index++;
+      }
+    }
+
+    /** Skips the given character and any whitespace following it. */
+    private boolean skip(final char c) {
+      if (index < value.length() && value.charAt(index) == c) {
+        index++;
+        skipWhitespace();
+        return true;
+      }
+      return false;
+    }
+
+    /** Reads a token or returns <code>null</code> if there is none at the current position. */
+    private String nextToken() {
+      final int start = index;
+      while (index < value.length() && isTokenCharacter(value.charAt(index))) {
+        index++;
+      }
+      return index > start ? value.substring(start, index) : null;
+    }
+
+    /**
+     * Reads an optional <code>"=" word</code> construct, including any whitespace following it.
+     * If the equals sign is not followed by a word, the tokenizer is marked as invalid.
+     * @return the unquoted value or <code>null</code> if there is no value
+     */
+    private String nextValue() {
+      if (!skip('=')) {
         return null;
       }
+      String result = nextToken();
+      if (result == null) {
+        result = nextQuotedString();
+      }
+      if (result == null) {
+        invalid = true;
+      } else {
+        skipWhitespace();
+      }
+      return result;
     }
-    return matcher.hitEnd() ? Collections.unmodifiableMap(result) : null;
-  }
 
-  private static String getValue(final String value) {
-    if (value == null) {
+    private String nextQuotedString() {
+      if (index >= value.length() || value.charAt(index) != '"') {
+        return null;
+      }
+      StringBuilder result = null;
+      int start = index + 1;
+      for (int position = start; position < value.length(); position++) {
+        final char c = value.charAt(position);
+        if (c == '"') {
+          index = position + 1;
+          return result == null ?
+              value.substring(start, position) :
+              result.append(value, start, position).toString();
+        } else if (c == '\\') {
+          if (position + 1 >= value.length() || !isQuotedPairCharacter(value.charAt(position + 1))) {
+            return null;
+          }
+          if (result == null) {
+            result = new StringBuilder();
+          }
+          result.append(value, start, position);
+          position++;
+          start = position;
+        } else if (!isQuotedTextCharacter(c)) {
+          return null;
+        }
+      }
       return null;
     }
-    String result = value;
-    if (value.startsWith("\"")) {
-      result = value.substring(1, value.length() - 1);
+
+    private static boolean isWhitespace(final char c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
     }
-    // Unquote backslash-quoted characters.
-    if (result.indexOf('\\') >= 0) {
-      result = result.replaceAll("\\\\(.)", "$1");
+
+    private static boolean isTokenCharacter(final char c) {
+      return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+          || c == '!' || c == '#' || c == '$' || c == '%' || c == '&' || c == '\'' || c == '*'
+          || c == '+' || c == '-' || c == '.' || c == '^' || c == '_' || c == '`' || c == '|' || c == '~';
+    }
+
+    private static boolean isQuotedTextCharacter(final char c) {
+      return c == '\t' || c == ' ' || c == 0x21 || c >= 0x23 && c <= 0x5B || c >= 0x5D && c <= 0x7E
+          || c >= 0x80 && c <= 0xFF;
+    }
+
+    private static boolean isQuotedPairCharacter(final char c) {
+      return c == '\t' || c >= 0x20 && c <= 0x7E || c >= 0x80 && c <= 0xFF;
     }
-    return result;
   }
 }
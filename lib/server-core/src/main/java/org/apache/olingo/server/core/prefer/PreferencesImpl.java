@@ -37,9 +37,16 @@ public class PreferencesImpl implements Preferences {
   private static final String URL = "url";
 
   private final Map<String, Preference> preferences;
+  private final Integer maxPageSize;
+  private final Integer wait;
+  private final Return returnPreference;
 
   public PreferencesImpl(final Collection<String> preferHeaders) {
     preferences = PreferParser.parse(preferHeaders);
+    // The typed values are computed once since processors may ask for them repeatedly.
+    maxPageSize = getNonNegativeIntegerPreference(PreferenceName.MAX_PAGE_SIZE.getName());
+    wait = getNonNegativeIntegerPreference(PreferenceName.WAIT.getName());
+    returnPreference = parseReturn();
   }
 
   @Override
@@ -73,7 +80,7 @@ public class PreferencesImpl implements Preferences {
 
   @Override
   public Integer getMaxPageSize() {
-    return getNonNegativeIntegerPreference(PreferenceName.MAX_PAGE_SIZE.getName());
+    return maxPageSize;
   }
 
   @Override
@@ -84,11 +91,15 @@ public class PreferencesImpl implements Preferences {
 
   @Override
   public Return getReturn() {
+    return returnPreference;
+  }
+
+  private Return parseReturn() {
     if (preferences.containsKey(PreferenceName.RETURN.getName())) {
       final String value = preferences.get(PreferenceName.RETURN.getName()).getValue();
-      if (Return.REPRESENTATION.toString().toLowerCase(Locale.ROOT).equals(value)) {
+      if ("representation".equals(value)) {
         return Return.REPRESENTATION;
-      } else if (Return.MINIMAL.toString().toLowerCase(Locale.ROOT).equals(value)) {
+      } else if ("minimal".equals(value)) {
         return Return.MINIMAL;
       }
     }
@@ -102,7 +113,7 @@ public class PreferencesImpl implements Preferences {
 
   @Override
   public Integer getWait() {
-    return getNonNegativeIntegerPreference(PreferenceName.WAIT.getName());
+    return wait;
   }
 
   private Integer getNonNegativeIntegerPreference(final String name) {
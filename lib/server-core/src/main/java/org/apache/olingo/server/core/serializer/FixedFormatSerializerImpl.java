@@ -23,6 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.EntityMediaObject;
@@ -46,12 +49,39 @@ public class FixedFormatSerializerImpl implements FixedFormatSerializer {
   
   protected void binary(final EntityMediaObject mediaEntity, 
 		  OutputStream outputStream) throws SerializerException {
+	  if (mediaEntity.getFileChannel() != null) {
+		  transfer(mediaEntity.getFileChannel(), outputStream);
+		  return;
+	  }
 	  try {
 		outputStream.write(mediaEntity.getBytes());
 	} catch (IOException e) {
 		throw new SerializerException("IO Exception occured ", e, SerializerException.MessageKeys.IO_EXCEPTION);
 	}
   }
+
+  private void transfer(final FileChannel file, final OutputStream outputStream) throws SerializerException {
+    try {
+      final WritableByteChannel output = Channels.newChannel(outputStream);
+      long position = file.position();
+      final long size = file.size();
+      while (position < size) {
+        final long count = file.transferTo(position, size - position, output);
+        if (count <= 0) {
+          break;
+        }
+        position += count;
+      }
+    } catch (IOException e) {
+      throw new SerializerException("IO Exception occured ", e, SerializerException.MessageKeys.IO_EXCEPTION);
+    } finally {
+      try {
+        file.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
   
   public void binaryIntoStreamed(final EntityMediaObject mediaEntity, 
 		  final OutputStream outputStream) throws SerializerException {
@@ -71,19 +71,23 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
   protected final boolean isODataMetadataNone;
   protected final boolean isODataMetadataFull;
   private IConstants constants;
+  private final JsonFactory jsonFactory;
 
   public EdmAssistedJsonSerializer(final ContentType contentType) {
-    this.isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    this.isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
-    this.isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
-    this.constants = new Constantsv00();
+    this(contentType, new Constantsv00());
   }
   
   public EdmAssistedJsonSerializer(final ContentType contentType, final IConstants constants) {
+    this(contentType, constants, JsonFormat.DEFAULT_FACTORY);
+  }
+
+  public EdmAssistedJsonSerializer(final ContentType contentType, final IConstants constants,
+      final JsonFactory jsonFactory) {
     this.isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     this.isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     this.isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
     this.constants = constants;
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -110,7 +114,7 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       if (obj instanceof AbstractEntityCollection) {
         doSerialize(entityType, (AbstractEntityCollection) obj, contextURLString, metadataETag, json);
       } else if (obj instanceof Entity) {
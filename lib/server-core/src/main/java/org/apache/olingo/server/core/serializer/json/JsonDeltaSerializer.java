@@ -78,11 +78,22 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
   private final boolean isIEEE754Compatible;
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
+  private final JsonFactory jsonFactory;
 
   public JsonDeltaSerializer(final ContentType contentType) {
+    this(contentType, JsonFormat.DEFAULT_FACTORY);
+  }
+
+  /**
+   * Creates a serializer writing through generators of the given factory.
+   * @param contentType the content type, used for the format parameters
+   * @param jsonFactory the factory creating the generators
+   */
+  public JsonDeltaSerializer(final ContentType contentType, final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -93,7 +104,7 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       boolean pagination = false;
       json.writeStartObject();
 
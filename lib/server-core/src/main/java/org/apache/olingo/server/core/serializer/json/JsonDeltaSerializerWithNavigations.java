@@ -76,11 +76,22 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
   private final boolean isIEEE754Compatible;
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
+  private final JsonFactory jsonFactory;
 
   public JsonDeltaSerializerWithNavigations(final ContentType contentType) {
+    this(contentType, JsonFormat.DEFAULT_FACTORY);
+  }
+
+  /**
+   * Creates a serializer writing through generators of the given factory.
+   * @param contentType the content type, used for the format parameters
+   * @param jsonFactory the factory creating the generators
+   */
+  public JsonDeltaSerializerWithNavigations(final ContentType contentType, final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -92,7 +103,7 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
     
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+      try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
         json.writeStartObject();
 
         final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
+import org.apache.olingo.server.api.serializer.RepresentationType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * <p>Data format with the document structure of OData JSON that is written and read through the
+ * generators and parsers of a dedicated Jackson factory, e.g., the binary formats Smile
+ * (<code>com.fasterxml.jackson.dataformat.smile.SmileFactory</code>) or CBOR
+ * (<code>com.fasterxml.jackson.dataformat.cbor.CBORFactory</code>).</p>
+ * <p>Registering the format as extension at the handler adds its content type to the supported
+ * content types of all representations that are serialized as JSON; the {@link org.apache.olingo.server.api.OData}
+ * instance of the handler then creates JSON (de-)serializers using the factory for this content type.
+ * Only one {@link CustomContentTypeSupport} can be registered at a handler; an application-specific
+ * content-type support can be passed as delegate.</p>
+ */
+public class JsonFormat implements CustomContentTypeSupport {
+
+  /** Factory for the standard JSON text format; it is thread-safe and shared by all (de-)serializers. */
+  public static final JsonFactory DEFAULT_FACTORY = new JsonFactory();
+
+  private final ContentType contentType;
+  private final JsonFactory factory;
+  private final CustomContentTypeSupport delegate;
+
+  /**
+   * Creates a data format.
+   * @param contentType the content type of the format, e.g., <code>application/x-jackson-smile</code>
+   * @param factory the factory creating the generators and parsers for the format
+   */
+  public JsonFormat(final ContentType contentType, final JsonFactory factory) {
+    this(contentType, factory, null);
+  }
+
+  /**
+   * Creates a data format.
+   * @param contentType the content type of the format, e.g., <code>application/x-jackson-smile</code>
+   * @param factory the factory creating the generators and parsers for the format
+   * @param delegate content-type support modifying the supported content types first, may be <code>null</code>
+   */
+  public JsonFormat(final ContentType contentType, final JsonFactory factory,
+      final CustomContentTypeSupport delegate) {
+    this.contentType = contentType;
+    this.factory = factory;
+    this.delegate = delegate;
+  }
+
+  public ContentType getContentType() {
+    return contentType;
+  }
+
+  public JsonFactory getFactory() {
+    return factory;
+  }
+
+  @Override
+  public List<ContentType> modifySupportedContentTypes(final List<ContentType> defaultContentTypes,
+      final RepresentationType type) {
+    final List<ContentType> contentTypes = delegate == null ? defaultContentTypes :
+        delegate.modifySupportedContentTypes(defaultContentTypes, type);
+    switch (type) {
+    case METADATA:
+    case MEDIA:
+    case BINARY:
+    case VALUE:
+    case COUNT:
+    case BATCH:
+      return contentTypes;
+    default:
+      if (contentTypes == null || contentTypes.contains(contentType)) {
+        return contentTypes;
+      }
+      List<ContentType> result = new ArrayList<ContentType>(contentTypes.size() + 1);
+      result.addAll(contentTypes);
+      result.add(contentType);
+      return result;
+    }
+  }
+}
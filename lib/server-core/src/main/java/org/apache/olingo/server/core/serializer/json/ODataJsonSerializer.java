@@ -90,6 +90,7 @@ import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.PropertyIndexHelper;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
@@ -115,21 +116,36 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
   private IConstants constants;
+  private final JsonFactory jsonFactory;
   private ODataJsonInstanceAnnotationSerializer instanceAnnotSerializer;
+  // Scratch buffers for literals, per thread since a serializer may be used by several threads at once;
+  // they hold only JDK types so that they do not pin this class loader.
+  private static final ThreadLocal<StringBuilder> LITERAL_BUFFER = new ThreadLocal<StringBuilder>();
+  private static final ThreadLocal<char[]> LITERAL_CHARS = new ThreadLocal<char[]>();
 
   public ODataJsonSerializer(final ContentType contentType, final IConstants constants) {
-    isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
-    isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
-    this.constants = constants;
-    instanceAnnotSerializer = new ODataJsonInstanceAnnotationSerializer(contentType, constants);
+    this(contentType, constants, JsonFormat.DEFAULT_FACTORY);
   }
 
   public ODataJsonSerializer(final ContentType contentType) {
+    this(contentType, new Constantsv00());
+  }
+
+  /**
+   * Creates a serializer writing through generators of the given factory.
+   * A factory for a binary JSON data format, e.g., Smile or CBOR, produces the same
+   * document structure in that format.
+   * @param contentType the content type, used for the format parameters
+   * @param constants the constants of the OData version
+   * @param jsonFactory the factory creating the generators
+   */
+  public ODataJsonSerializer(final ContentType contentType, final IConstants constants,
+      final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
-    this.constants = new Constantsv00();
+    this.constants = constants;
+    this.jsonFactory = jsonFactory;
     instanceAnnotSerializer = new ODataJsonInstanceAnnotationSerializer(contentType, constants);
   }
 
@@ -141,7 +157,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       new ServiceDocumentJsonSerializer(metadata, serviceRoot, isODataMetadataNone).writeServiceDocument(json);
 
       json.close();
@@ -163,7 +179,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       new MetadataDocumentJsonSerializer(serviceMetadata).writeMetadataDocument(json);
       json.close();
       return SerializerResultImpl.with().content(buffer.getInputStream()).build();
@@ -183,7 +199,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       new ODataErrorSerializer().writeErrorDocument(json, error);
 
       json.close();
@@ -207,7 +223,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -256,7 +272,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException;
     boolean pagination = false;
     try {
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -295,7 +311,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       String name =  contextURL == null ? null:contextURL.getEntitySetOrSingletonOrType();
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -516,10 +532,13 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
     addKeyPropertiesToSelected(selected, type);
     Set<List<String>> expandedPaths = ExpandSelectHelper.getExpandedItemsPath(expand);
-    for (final String propertyName : type.getPropertyNames()) {
+    final List<String> propertyNames = type.getPropertyNames();
+    final Property[] propertiesByIndex = PropertyIndexHelper.byIndex(type, properties);
+    for (int index = 0; index < propertyNames.size(); index++) {
+      final String propertyName = propertyNames.get(index);
       if (all || selected.contains(propertyName)) {
         final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
+        final Property property = propertiesByIndex[index];
         final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
             ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
         writeProperty(metadata, edmProperty, property, selectedPaths, json, expandedPaths, linked, expand);
@@ -920,6 +939,35 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    if (primitiveValue != null && writeNumericValue(type, primitiveValue, json)) {
+      return;
+    }
+    if (isFormattedInPlace(type)) {
+      StringBuilder literalBuffer = LITERAL_BUFFER.get();
+      if (literalBuffer == null) {
+        literalBuffer = new StringBuilder(64);
+        LITERAL_BUFFER.set(literalBuffer);
+      }
+      literalBuffer.setLength(0);
+      if (type.appendValueToString(primitiveValue, isNullable, maxLength, precision, scale, isUnicode,
+          literalBuffer)) {
+        final int length = literalBuffer.length();
+        char[] literalChars = LITERAL_CHARS.get();
+        if (literalChars == null || literalChars.length < length) {
+          literalChars = new char[Math.max(length, literalChars == null ? 64 : 2 * literalChars.length)];
+          LITERAL_CHARS.set(literalChars);
+        }
+        literalBuffer.getChars(0, length, literalChars, 0);
+        if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Decimal) && !isIEEE754Compatible) {
+          json.writeNumber(literalChars, 0, length);
+        } else {
+          json.writeString(literalChars, 0, length);
+        }
+      } else {
+        json.writeNull();
+      }
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
@@ -961,6 +1009,52 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     }
   }
 
+  /**
+   * Writes values of the numeric types Int32, Int64, and Double directly as JSON numbers
+   * without converting them to their literal representation first.
+   * Only value classes that need no facet or range validation are handled here.
+   * @return <code>true</code> if the value has been written, <code>false</code> if the general path must be used
+   */
+  private boolean writeNumericValue(final EdmPrimitiveType type, final Object value, final JsonGenerator json)
+      throws IOException {
+    if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int32)) {
+      if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        json.writeNumber(((Number) value).intValue());
+        return true;
+      }
+    } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int64)) {
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        final long longValue = ((Number) value).longValue();
+        if (isIEEE754Compatible) {
+          json.writeString(Long.toString(longValue));
+        } else {
+          json.writeNumber(longValue);
+        }
+        return true;
+      }
+    } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Double)) {
+      // Infinite values and NaN have special literals.
+      if (value instanceof Double && !((Double) value).isInfinite() && !((Double) value).isNaN()) {
+        json.writeNumber(((Double) value).doubleValue());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Determines whether the type's literal representation is written to the generator from the
+   * thread's literal buffer instead of creating an intermediate string per value.
+   */
+  private static boolean isFormattedInPlace(final EdmPrimitiveType type) {
+    return type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Decimal)
+        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Date)
+        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.DateTimeOffset)
+        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.TimeOfDay)
+        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Guid)
+        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Duration);
+  }
+
   /** Writes a geospatial value following the GeoJSON specification defined in RFC 7946. */
   protected void writeGeoValue(final String name, final EdmPrimitiveType type, final Geospatial geoValue,
       final Boolean isNullable, JsonGenerator json, SRID parentSrid)
@@ -1043,6 +1137,20 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   }
 
   private void writeGeoPoints(JsonGenerator json, final ComposedGeospatial<Point> points) throws IOException {
+    if (points instanceof LineString) {
+      // Line strings provide indexed access to their coordinates without creating points.
+      final LineString lineString = (LineString) points;
+      for (int i = 0; i < lineString.getPointCount(); i++) {
+        json.writeStartArray();
+        json.writeNumber(lineString.getX(i));
+        json.writeNumber(lineString.getY(i));
+        if (lineString.getZ(i) != 0) {
+          json.writeNumber(lineString.getZ(i));
+        }
+        json.writeEndArray();
+      }
+      return;
+    }
     for (final Point point : points) {
       json.writeStartArray();
       writeGeoPoint(json, point);
@@ -1078,10 +1186,12 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       }
     }
     
-    for (final String propertyName : type.getPropertyNames()) {
-      final Property property = findProperty(propertyName, properties);
+    final List<String> propertyNames = type.getPropertyNames();
+    final Property[] propertiesByIndex = PropertyIndexHelper.byIndex(type, properties);
+    for (int index = 0; index < propertyNames.size(); index++) {
+      final String propertyName = propertyNames.get(index);
       if (selectedPaths == null || ExpandSelectHelper.isSelected(selectedPaths, propertyName)) {
-        writeProperty(metadata, (EdmProperty) type.getProperty(propertyName), property,
+        writeProperty(metadata, type.getStructuralProperty(propertyName), propertiesByIndex[index],
             selectedPaths == null ? null : ExpandSelectHelper.getReducedSelectedPaths(selectedPaths, propertyName),
             json, expandedPaths, linked, expand);
       }
@@ -1094,15 +1204,6 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   }
     
 
-  private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
-  }
-
   @Override
   public SerializerResult primitive(final ServiceMetadata metadata, final EdmPrimitiveType type,
       final Property property, final PrimitiveSerializerOptions options) throws SerializerException {
@@ -1112,7 +1213,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1157,7 +1258,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         contextURL.getEntitySetOrSingletonOrType();
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);      
@@ -1212,7 +1313,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1250,7 +1351,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1296,7 +1397,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
-    try (final JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (final JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
 
       json.writeStartObject();
       writeContextURL(contextURL, json);
@@ -1326,7 +1427,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
-    try (final JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (final JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
 
       writeContextURL(contextURL, json);
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+
+/**
+ * Addresses the properties of an entity or complex value by the ordinals of their structured type
+ * (see {@link EdmStructuredType#getPropertyIndex(String)}), so that serializers iterating over the
+ * type's properties do not have to search the property list for each of them.
+ */
+public final class PropertyIndexHelper {
+
+  private PropertyIndexHelper() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Arranges properties by the ordinals of the given type.
+   * Properties not declared in the type (e.g., dynamic properties of open types) are skipped;
+   * if a property occurs more than once, the first occurrence is used.
+   * @param type the structured type
+   * @param properties the properties of an entity or complex value
+   * @return an array aligned with {@link EdmStructuredType#getPropertyNames()},
+   * with <code>null</code> entries for absent properties
+   */
+  public static Property[] byIndex(final EdmStructuredType type, final List<Property> properties) {
+    final List<String> propertyNames = type.getPropertyNames();
+    final Property[] result = new Property[propertyNames.size()];
+    if (properties != null) {
+      for (final Property property : properties) {
+        int index = type.getPropertyIndex(property.getName());
+        if (index >= result.length || index >= 0 && !propertyNames.get(index).equals(property.getName())) {
+          // The type does not provide consistent ordinals; fall back to searching the names.
+          index = propertyNames.indexOf(property.getName());
+        }
+        if (index >= 0 && result[index] == null) {
+          result[index] = property;
+        }
+      }
+    }
+    return result;
+  }
+}
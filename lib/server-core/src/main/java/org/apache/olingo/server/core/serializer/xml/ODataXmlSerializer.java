@@ -80,6 +80,7 @@ import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.PropertyIndexHelper;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
@@ -630,10 +631,13 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
         ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
     addKeyPropertiesToSelected(selected, type);
     Set<List<String>> expandedPaths = ExpandSelectHelper.getExpandedItemsPath(expand);
-    for (final String propertyName : type.getPropertyNames()) {
+    final List<String> propertyNames = type.getPropertyNames();
+    final Property[] propertiesByIndex = PropertyIndexHelper.byIndex(type, properties);
+    for (int index = 0; index < propertyNames.size(); index++) {
+      final String propertyName = propertyNames.get(index);
       if (all || selected.contains(propertyName)) {
         final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
+        final Property property = propertiesByIndex[index];
         final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
             ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
         writeProperty(metadata, edmProperty, property, selectedPaths, 
@@ -1014,10 +1018,12 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       }
     }
     
-    for (final String propertyName : type.getPropertyNames()) {
-      final Property property = findProperty(propertyName, properties);
+    final List<String> propertyNames = type.getPropertyNames();
+    final Property[] propertiesByIndex = PropertyIndexHelper.byIndex(type, properties);
+    for (int index = 0; index < propertyNames.size(); index++) {
+      final String propertyName = propertyNames.get(index);
       if (selectedPaths == null || ExpandSelectHelper.isSelected(selectedPaths, propertyName)) {
-        writeProperty(metadata, (EdmProperty) type.getProperty(propertyName), property,
+        writeProperty(metadata, type.getStructuralProperty(propertyName), propertiesByIndex[index],
             selectedPaths == null ? null : ExpandSelectHelper.getReducedSelectedPaths(selectedPaths, propertyName),
             xml10InvalidCharReplacement, writer, expandedPaths, linked, expand);
       }
@@ -1026,15 +1032,6 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
         expand, null, xml10InvalidCharReplacement, null, complexPropName, writer);
   }
 
-  private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
-  }
-
   @Override
   public SerializerResult primitive(final ServiceMetadata metadata, final EdmPrimitiveType type,
       final Property property, final PrimitiveSerializerOptions options) throws SerializerException {
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataResponse;
+import org.junit.Test;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+
+public class ChunkedContentChannelTest {
+
+  @Test
+  public void chunksAreKeptBackWhileNotWritable() throws Exception {
+    final EmbeddedChannel channel = new EmbeddedChannel(new ContentFlowControlHandler(),
+        new ChannelInboundHandlerAdapter());
+    final ChannelHandlerContext context = channel.pipeline().lastContext();
+    setWritable(channel, false);
+
+    final ChunkedContentChannel output = new ChunkedContentChannel(context, 4);
+    output.write(ByteBuffer.wrap("abcdefghij".getBytes(StandardCharsets.UTF_8)));
+    assertNull(channel.readOutbound());
+
+    // A response written in the meantime follows the kept-back content.
+    final ODataResponse next = new ODataResponse();
+    next.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    final ChannelFuture nextWrite = ODataNettyHandlerImpl.writeResponse(context, HttpVersion.HTTP_1_1, next);
+    output.close();
+    assertNull(channel.readOutbound());
+    assertFalse(output.getLastWrite().isDone());
+    assertFalse(nextWrite.isDone());
+
+    setWritable(channel, true);
+    assertEquals("abcd", readContent(channel));
+    assertEquals("efgh", readContent(channel));
+    assertEquals("ij", readContent(channel));
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertTrue(output.getLastWrite().isSuccess());
+    assertEquals(HttpResponseStatus.NO_CONTENT, ((HttpResponse) channel.readOutbound()).status());
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertTrue(nextWrite.isSuccess());
+    assertNull(channel.readOutbound());
+    assertNull(channel.attr(ChunkedContentChannel.WAITING).get());
+    assertFalse(channel.finishAndReleaseAll());
+  }
+
+  @Test
+  public void contentIsCompletedWithoutFlowControlHandler() throws Exception {
+    final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    setWritable(channel, false);
+
+    // Without a handler signalling the writability, each completed write passes on the next chunk.
+    final ChunkedContentChannel output = new ChunkedContentChannel(channel.pipeline().lastContext(), 4);
+    output.write(ByteBuffer.wrap("abcdef".getBytes(StandardCharsets.UTF_8)));
+    output.close();
+    assertTrue(output.getLastWrite().isSuccess());
+    assertEquals("abcd", readContent(channel));
+    assertEquals("ef", readContent(channel));
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertFalse(channel.finishAndReleaseAll());
+  }
+
+  @Test
+  public void keptBackChunksAreReleasedOnClose() throws Exception {
+    final EmbeddedChannel channel = new EmbeddedChannel(new ContentFlowControlHandler(),
+        new ChannelInboundHandlerAdapter());
+    final ChannelHandlerContext context = channel.pipeline().lastContext();
+    setWritable(channel, false);
+
+    final ChunkedContentChannel output = new ChunkedContentChannel(context, 4);
+    output.write(ByteBuffer.wrap("abcdefgh".getBytes(StandardCharsets.UTF_8)));
+    output.close();
+    final ODataResponse next = new ODataResponse();
+    next.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    final ChannelFuture nextWrite = ODataNettyHandlerImpl.writeResponse(context, HttpVersion.HTTP_1_1, next);
+
+    channel.close();
+    assertFalse(output.getLastWrite().isSuccess());
+    assertTrue(output.getLastWrite().isDone());
+    assertTrue(nextWrite.isDone());
+    assertFalse(nextWrite.isSuccess());
+    assertNull(channel.readOutbound());
+    assertNull(channel.attr(ChunkedContentChannel.WAITING).get());
+  }
+
+  private static void setWritable(final EmbeddedChannel channel, final boolean writable) {
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+    // The change of the writability is signalled by a task of the event loop.
+    channel.runPendingTasks();
+  }
+
+  private static String readContent(final EmbeddedChannel channel) {
+    final HttpContent content = channel.readOutbound();
+    try {
+      return content.content().toString(StandardCharsets.UTF_8);
+    } finally {
+      content.release();
+    }
+  }
+}
@@ -337,6 +337,76 @@ public class ContentNegotiatorTest {
         createCustomContentTypeSupport("a/b"), RepresentationType.BINARY));
   }
   
+  @Test
+  public void cache() throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.ACCEPT, Arrays.asList(ACCEPT_CASE_FULL + ";q=0.9"));
+    final CustomContentTypeSupport customContentTypeSupport = createCustomContentTypeSupport(ACCEPT_CASE_FULL);
+    final ContentNegotiationCache cache = ContentNegotiator.getCache(customContentTypeSupport);
+
+    final long hits = cache.getHitCount();
+    final long misses = cache.getMissCount();
+    final ContentType first = ContentNegotiator.doContentNegotiation(null, request, customContentTypeSupport,
+        RepresentationType.ENTITY);
+    assertEquals(ContentType.JSON_FULL_METADATA, first);
+    assertEquals(misses + 1, cache.getMissCount());
+    assertSame(first, ContentNegotiator.doContentNegotiation(null, request, customContentTypeSupport,
+        RepresentationType.ENTITY));
+    assertEquals(hits + 1, cache.getHitCount());
+
+    // Other representation types and other custom content-type support are negotiated separately.
+    assertEquals(ContentType.JSON_FULL_METADATA, ContentNegotiator.doContentNegotiation(null, request,
+        customContentTypeSupport, RepresentationType.COLLECTION_ENTITY));
+    assertEquals(misses + 2, cache.getMissCount());
+    final CustomContentTypeSupport otherSupport = createCustomContentTypeSupport("a/b");
+    final ContentNegotiationCache otherCache = ContentNegotiator.getCache(otherSupport);
+    assertNotSame(cache, otherCache);
+    assertSame(otherCache, ContentNegotiator.getCache(otherSupport));
+    try {
+      ContentNegotiator.doContentNegotiation(null, request, otherSupport, RepresentationType.ENTITY);
+      fail("Exception expected");
+    } catch (final ContentNegotiatorException e) {
+      assertEquals(ContentNegotiatorException.MessageKeys.UNSUPPORTED_ACCEPT_TYPES, e.getMessageKey());
+    }
+    assertEquals(1, otherCache.getMissCount());
+    assertEquals(0, otherCache.size());
+    assertEquals(misses + 2, cache.getMissCount());
+    assertEquals(hits + 1, cache.getHitCount());
+    assertSame(cache, ContentNegotiator.getCache(customContentTypeSupport));
+  }
+
+  @Test
+  public void cacheIsBounded() throws Exception {
+    final ContentNegotiationCache cache = new ContentNegotiationCache(2);
+    final ContentNegotiationCache.Key jsonKey =
+        ContentNegotiationCache.createKey(RepresentationType.ENTITY, ACCEPT_CASE_JSON, null, null);
+    cache.put(jsonKey, ContentType.JSON);
+    cache.put(ContentNegotiationCache.createKey(RepresentationType.ENTITY, ACCEPT_CASE_MIN, null, null),
+        ContentType.JSON_NO_METADATA);
+    cache.put(jsonKey, ContentType.JSON);
+    assertEquals(2, cache.size());
+    assertSame(ContentType.JSON, cache.get(jsonKey));
+
+    cache.put(ContentNegotiationCache.createKey(RepresentationType.ENTITY, ACCEPT_CASE_FULL, null, null),
+        ContentType.JSON_FULL_METADATA);
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void cacheIgnoresLongValues() throws Exception {
+    final ContentNegotiationCache cache = ContentNegotiator.getCache(null);
+    StringBuilder accept = new StringBuilder(ACCEPT_CASE_MIN);
+    while (accept.length() <= ContentNegotiationCache.MAX_VALUE_LENGTH) {
+      accept.append(", ").append(ACCEPT_CASE_JSON);
+    }
+    ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.ACCEPT, Arrays.asList(accept.toString()));
+    final long misses = cache.getMissCount();
+    assertEquals(ContentType.JSON, ContentNegotiator.doContentNegotiation(null, request, null,
+        RepresentationType.ENTITY));
+    assertEquals(misses, cache.getMissCount());
+  }
+
   @Test
   public void checBatchkSupport() throws Exception {
     testContentNegotiation(new String[] { ACCEPT_CASE_MULTIPART_MIXED, null, ACCEPT_CASE_MULTIPART_MIXED, null },
@@ -19,15 +19,27 @@
 package org.apache.olingo.server.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
 import org.junit.Test;
 
 public class ODataHttpHandlerImplTest {
@@ -224,4 +236,36 @@ public class ODataHttpHandlerImplTest {
     
     }
   }
+
+  @Test
+  public void convertToHttpTransfersFileContent() throws Exception {
+    final File file = File.createTempFile("olingo", ".bin");
+    try {
+      FileOutputStream fileStream = new FileOutputStream(file);
+      fileStream.write("0123456789".getBytes("US-ASCII"));
+      fileStream.close();
+      final FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+
+      ODataResponse odResponse = new ODataResponse();
+      odResponse.setStatusCode(206);
+      odResponse.setContent(channel, 2, 5);
+
+      final ByteArrayOutputStream content = new ByteArrayOutputStream();
+      HttpServletResponse response = mock(HttpServletResponse.class);
+      when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+        @Override
+        public void write(final int b) throws IOException {
+          content.write(b);
+        }
+      });
+      ODataHttpHandlerImpl.convertToHttp(response, odResponse);
+
+      verify(response).setStatus(206);
+      verify(response).setHeader("Content-Length", "5");
+      assertEquals("23456", content.toString("US-ASCII"));
+      assertFalse(channel.isOpen());
+    } finally {
+      file.delete();
+    }
+  }
 }
@@ -18,19 +18,37 @@
  */
 package org.apache.olingo.server.core;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.serializer.RepresentationType;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.serializer.json.JsonFormat;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
 public class ODataImplTest {
 
   private final OData odata = OData.newInstance();
@@ -118,4 +136,79 @@ public class ODataImplTest {
 	  versions.add("5");
 	  assertNotNull(odata.createEdmAssistedSerializer(ContentType.APPLICATION_JSON, versions));
   }
+
+  @Test
+  public void jsonFormat() throws Exception {
+    final ContentType contentType = ContentType.create("application/x-test-json");
+    final CountingJsonFactory factory = new CountingJsonFactory();
+    final JsonFormat format = new JsonFormat(contentType, factory);
+    ((ODataImpl) odata).addJsonFormat(format);
+
+    final InputStream content = odata.createSerializer(contentType)
+        .error(new ODataServerError().setCode("Code").setMessage("Message")).getContent();
+    assertEquals("{\"error\":{\"code\":\"Code\",\"message\":\"Message\"}}", IOUtils.toString(content));
+    assertEquals(1, factory.generators);
+
+    final List<URI> references = odata.createDeserializer(contentType, new ArrayList<String>())
+        .entityReferences(new ByteArrayInputStream("{\"@odata.id\":\"ESAllPrim(0)\"}".getBytes()))
+        .getEntityReferences();
+    assertEquals(URI.create("ESAllPrim(0)"), references.get(0));
+    assertEquals(1, factory.parsers);
+
+    assertTrue(format.modifySupportedContentTypes(Collections.singletonList(ContentType.JSON),
+        RepresentationType.ENTITY).contains(contentType));
+    assertFalse(format.modifySupportedContentTypes(Collections.singletonList(ContentType.JSON),
+        RepresentationType.METADATA).contains(contentType));
+  }
+
+  @Test(expected = SerializerException.class)
+  public void jsonFormatNotAdded() throws SerializerException {
+    odata.createSerializer(ContentType.create("application/x-test-json"));
+  }
+
+  @Test
+  public void jsonFormatReplaced() throws Exception {
+    final ContentType contentType = ContentType.create("application/x-test-json");
+    final CountingJsonFactory first = new CountingJsonFactory();
+    final CountingJsonFactory second = new CountingJsonFactory();
+    ((ODataImpl) odata).addJsonFormat(new JsonFormat(contentType, first));
+    ((ODataImpl) odata).addJsonFormat(new JsonFormat(contentType, second));
+
+    odata.createSerializer(contentType).error(new ODataServerError().setCode("Code"));
+    assertEquals(0, first.generators);
+    assertEquals(1, second.generators);
+    assertNotNull(odata.createEdmDeltaSerializer(contentType, null));
+  }
+
+  @Test
+  public void withJsonFormat() throws Exception {
+    final ContentType contentType = ContentType.create("application/x-test-json");
+    final OData withFormat = ((ODataImpl) odata).withJsonFormat(new JsonFormat(contentType, new JsonFactory()));
+
+    assertNotNull(withFormat.createSerializer(contentType));
+    try {
+      odata.createSerializer(contentType);
+      fail("Expected a SerializerException.");
+    } catch (final SerializerException e) {
+      assertEquals(SerializerException.MessageKeys.UNSUPPORTED_FORMAT, e.getMessageKey());
+    }
+  }
+
+  private static class CountingJsonFactory extends JsonFactory {
+    private static final long serialVersionUID = 1L;
+    private int generators;
+    private int parsers;
+
+    @Override
+    public JsonGenerator createGenerator(final OutputStream out) throws IOException {
+      generators++;
+      return super.createGenerator(out);
+    }
+
+    @Override
+    public JsonParser createParser(final InputStream in) throws IOException {
+      parsers++;
+      return super.createParser(in);
+    }
+  }
 }
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.compression.CompressionSupport;
+import org.apache.olingo.server.core.ODataHandlerException;
+import org.junit.Test;
+
+public class ContentEncodingHandlerTest {
+
+  private static final byte[] CONTENT = createContent();
+
+  private static byte[] createContent() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      builder.append("{\"PropertyInt16\":").append(i).append(",\"PropertyString\":\"Value\"}");
+    }
+    return builder.toString().getBytes();
+  }
+
+  @Test
+  public void negotiate() {
+    assertNull(ContentEncoding.negotiate(null));
+    assertNull(ContentEncoding.negotiate("identity"));
+    assertNull(ContentEncoding.negotiate("gzip;q=0, deflate;q=0.0"));
+    assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip"));
+    assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("deflate, gzip"));
+    assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*"));
+    assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("br, deflate"));
+    assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+    assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("GZIP; q=0, *"));
+  }
+
+  @Test
+  public void compressingStreams() throws Exception {
+    // The output must be readable by the JDK implementations and vice versa.
+    for (int run = 0; run < 3; run++) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      CompressingOutputStream output = new CompressingOutputStream(buffer, ContentEncoding.GZIP, 6);
+      output.write(CONTENT);
+      output.close();
+      assertArrayEquals(CONTENT, IOUtils.toByteArray(new GZIPInputStream(
+          new ByteArrayInputStream(buffer.toByteArray()))));
+
+      buffer = new ByteArrayOutputStream();
+      output = new CompressingOutputStream(buffer, ContentEncoding.DEFLATE, 1);
+      output.write(CONTENT, 0, 10);
+      output.write(CONTENT, 10, CONTENT.length - 10);
+      output.close();
+      assertArrayEquals(CONTENT, IOUtils.toByteArray(new InflaterInputStream(
+          new ByteArrayInputStream(buffer.toByteArray()))));
+    }
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+    gzip.write(CONTENT);
+    gzip.close();
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(new DecompressingInputStream(
+        new ByteArrayInputStream(buffer.toByteArray()), ContentEncoding.GZIP)));
+
+    buffer = new ByteArrayOutputStream();
+    DeflaterOutputStream deflate = new DeflaterOutputStream(buffer);
+    deflate.write(CONTENT);
+    deflate.close();
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(new DecompressingInputStream(
+        new ByteArrayInputStream(buffer.toByteArray()), ContentEncoding.DEFLATE)));
+  }
+
+  @Test
+  public void corruptGzipTrailer() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+    gzip.write(CONTENT);
+    gzip.close();
+    final byte[] compressed = buffer.toByteArray();
+    compressed[compressed.length - 6]++;
+    try {
+      IOUtils.toByteArray(new DecompressingInputStream(new ByteArrayInputStream(compressed), ContentEncoding.GZIP));
+      fail("Expected exception not thrown.");
+    } catch (final ZipException e) {
+      assertEquals("Corrupt GZIP trailer", e.getMessage());
+    }
+  }
+
+  @Test
+  public void decodeRequest() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+    gzip.write(CONTENT);
+    gzip.close();
+    ODataRequest request = new ODataRequest();
+    request.setHeader(HttpHeader.CONTENT_ENCODING, "gzip");
+    request.setBody(new ByteArrayInputStream(buffer.toByteArray()));
+    ContentEncodingHandler.decodeRequest(request);
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(request.getBody()));
+
+    request.setHeader(HttpHeader.CONTENT_ENCODING, "br");
+    try {
+      ContentEncodingHandler.decodeRequest(request);
+      fail("Expected exception not thrown.");
+    } catch (final ODataHandlerException e) {
+      assertEquals(ODataHandlerException.MessageKeys.UNSUPPORTED_CONTENT_ENCODING, e.getMessageKey());
+    }
+  }
+
+  @Test
+  public void decodeRequestWithMaximumSize() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DeflaterOutputStream deflater = new DeflaterOutputStream(buffer);
+    deflater.write(CONTENT);
+    deflater.close();
+    ODataRequest request = new ODataRequest();
+    request.setHeader(HttpHeader.CONTENT_ENCODING, "deflate");
+    request.setBody(new ByteArrayInputStream(buffer.toByteArray()));
+    ContentEncodingHandler.decodeRequest(request, CONTENT.length);
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(request.getBody()));
+
+    request.setBody(new ByteArrayInputStream(buffer.toByteArray()));
+    ContentEncodingHandler.decodeRequest(request, CONTENT.length - 1);
+    try {
+      IOUtils.toByteArray(request.getBody());
+      fail("Expected exception not thrown.");
+    } catch (final DecompressingInputStream.SizeLimitExceededException e) {
+      assertEquals(CONTENT.length - 1, e.getMaximumSize());
+      final ODataHandlerException exception =
+          ContentEncodingHandler.getPayloadTooLargeException(new IOException("wrapped", e));
+      assertEquals(ODataHandlerException.MessageKeys.PAYLOAD_TOO_LARGE, exception.getMessageKey());
+    }
+    assertEquals(-1, request.getBody().read());
+    assertNull(ContentEncodingHandler.getPayloadTooLargeException(new IOException("other")));
+  }
+
+  @Test
+  public void encodeResponse() throws Exception {
+    ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT));
+    ContentEncodingHandler.encodeResponse(createRequest("gzip"), response, new CompressionSupport());
+    assertEquals("gzip", response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+    assertNull(response.getContent());
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    response.getODataContent().write(buffer);
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(new GZIPInputStream(
+        new ByteArrayInputStream(buffer.toByteArray()))));
+  }
+
+  @Test
+  public void encodeConsecutiveResponses() throws Exception {
+    // The head buffer of the first response is reused by the following ones.
+    for (int i = 0; i < 3; i++) {
+      final byte[] content = Arrays.copyOfRange(CONTENT, i, CONTENT.length);
+      ODataResponse response = createResponse(new ByteArrayInputStream(content));
+      ContentEncodingHandler.encodeResponse(createRequest("gzip"), response, new CompressionSupport());
+      ODataResponse smallResponse = createResponse(new ByteArrayInputStream(CONTENT, i, 100));
+      ContentEncodingHandler.encodeResponse(createRequest("gzip"), smallResponse, new CompressionSupport());
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      response.getODataContent().write(buffer);
+      assertArrayEquals(content, IOUtils.toByteArray(new GZIPInputStream(
+          new ByteArrayInputStream(buffer.toByteArray()))));
+      assertArrayEquals(Arrays.copyOfRange(CONTENT, i, i + 100), IOUtils.toByteArray(smallResponse.getContent()));
+    }
+  }
+
+  @Test
+  public void encodeStreamedResponse() throws Exception {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setODataContent(new ODataContent() {
+      @Override
+      public void write(final WritableByteChannel channel) {
+        write(Channels.newOutputStream(channel));
+      }
+
+      @Override
+      public void write(final OutputStream stream) {
+        try {
+          stream.write(CONTENT, 0, 10);
+          stream.close();
+        } catch (final IOException e) {
+          fail(e.getMessage());
+        }
+      }
+    });
+    ContentEncodingHandler.encodeResponse(createRequest("deflate"), response, new CompressionSupport());
+    assertEquals("deflate", response.getHeader(HttpHeader.CONTENT_ENCODING));
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    response.getODataContent().write(buffer);
+    assertArrayEquals(Arrays.copyOf(CONTENT, 10), IOUtils.toByteArray(new InflaterInputStream(
+        new ByteArrayInputStream(buffer.toByteArray()))));
+  }
+
+  @Test
+  public void responseBelowMinimumSize() throws Exception {
+    ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT, 0, 100));
+    ContentEncodingHandler.encodeResponse(createRequest("gzip"), response, new CompressionSupport());
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+    assertArrayEquals(Arrays.copyOf(CONTENT, 100), IOUtils.toByteArray(response.getContent()));
+  }
+
+  @Test
+  public void responsesNotToBeCompressed() throws Exception {
+    ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT));
+    ContentEncodingHandler.encodeResponse(createRequest(null), response, new CompressionSupport());
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertArrayEquals(CONTENT, IOUtils.toByteArray(response.getContent()));
+
+    response = createResponse(new ByteArrayInputStream(CONTENT));
+    response.setHeader(HttpHeader.CONTENT_TYPE, "image/png");
+    ContentEncodingHandler.encodeResponse(createRequest("gzip"), response, new CompressionSupport());
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertNull(response.getHeader(HttpHeader.VARY));
+
+    final InputStream content = new ByteArrayInputStream(CONTENT);
+    response = createResponse(content);
+    response.setHeader(HttpHeader.CONTENT_ENCODING, "gzip");
+    ContentEncodingHandler.encodeResponse(createRequest("gzip"), response, new CompressionSupport());
+    assertEquals(content, response.getContent());
+  }
+
+  private ODataRequest createRequest(final String acceptEncoding) {
+    ODataRequest request = new ODataRequest();
+    if (acceptEncoding != null) {
+      request.setHeader(HttpHeader.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return request;
+  }
+
+  private ODataResponse createResponse(final InputStream content) {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, "application/json");
+    response.setContent(content);
+    return response;
+  }
+}
@@ -21,10 +21,15 @@ package org.apache.olingo.server.core.deserializer;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -50,6 +55,32 @@ public class FixedFormatDeserializerTest {
                 + "ABCDEFGHIJKLMNOPQRSTUVWXYZABCDEFGHIJKLMNOPQRSTUVWXYZABCDEFGHIJKLMNOPQRSTUVWXYZ")).length);
   }
 
+  @Test
+  public void binaryWithPartiallyKnownLength() throws Exception {
+    final byte[] content = new byte[20000];
+    content[19999] = 0x42;
+    // The stream reports less available bytes than it actually has.
+    assertArrayEquals(content, deserializer.binary(new ByteArrayInputStream(content) {
+      @Override
+      public synchronized int available() {
+        return Math.min(super.available(), 100);
+      }
+    }));
+  }
+
+  @Test
+  public void binaryChannel() throws Exception {
+    ODataRequest request = new ODataRequest();
+    assertEquals(-1, deserializer.binaryChannel(request).read(ByteBuffer.allocate(1)));
+
+    request.setBody(ByteBuffer.wrap(new byte[] { 0x41, 0x42, 0x43 }));
+    final ReadableByteChannel channel = deserializer.binaryChannel(request);
+    ByteBuffer target = ByteBuffer.allocate(4);
+    assertEquals(3, channel.read(target));
+    assertEquals(-1, channel.read(target));
+    assertArrayEquals(new byte[] { 0x41, 0x42, 0x43, 0 }, target.array());
+  }
+
   @Test
   public void primitiveValue() throws Exception {
     EdmProperty property = Mockito.mock(EdmProperty.class);
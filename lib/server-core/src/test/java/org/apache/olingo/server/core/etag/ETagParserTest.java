@@ -111,6 +111,24 @@ public class ETagParserTest {
     assertThat(eTagInformation.getETags(), hasItems("\"ETag1\"", "\"ETag10\""));
   }
 
+  @Test
+  public void whitespace() {
+    final ETagInformation eTagInformation = eTagHelper.createETagInformation(
+        Arrays.asList("\t\"ETag1\"\t,\r\n W/\"ETag2\" ", " * ,\"ETag3\""));
+    assertFalse(eTagInformation.isAll());
+    assertThat(eTagInformation.getETags().size(), equalTo(2));
+    assertThat(eTagInformation.getETags(), hasItems("\"ETag1\"", "W/\"ETag2\""));
+    assertTrue(eTagHelper.createETagInformation(Collections.singleton("\t*\r\n")).isAll());
+  }
+
+  @Test
+  public void unterminated() {
+    final ETagInformation eTagInformation = eTagHelper.createETagInformation(
+        Arrays.asList("\"ETag1\", \"ETag2", "W/", "\"", "\"ETag3\"\u0100"));
+    assertThat(eTagInformation.getETags().size(), equalTo(1));
+    assertThat(eTagInformation.getETags(), hasItems("\"ETag1\""));
+  }
+
   @Test
   public void match() {
     assertFalse(eTagHelper.createETagInformation(Collections.<String> emptySet()).isMatchedBy("\"ETag\""));
@@ -125,5 +143,7 @@ public class ETagParserTest {
         .isMatchedBy("\"ETag4\""));
     assertFalse(eTagHelper.createETagInformation(Arrays.asList("\"ETag1\",\"ETag2\"", "\"ETag3\",\"ETag4\""))
         .isMatchedBy("\"ETag5\""));
+    assertFalse(eTagHelper.createETagInformation(Collections.singleton("\"ETag\"")).isMatchedBy("\"ETag1\""));
+    assertFalse(eTagHelper.createETagInformation(Collections.singleton("W/\"ETag1\"")).isMatchedBy("\"ETag\""));
   }
 }
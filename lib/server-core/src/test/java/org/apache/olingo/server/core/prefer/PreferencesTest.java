@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
@@ -165,4 +166,57 @@ public class PreferencesTest {
         "wait=10"));
     assertEquals(Integer.valueOf(10), preferences.getWait());
   }
+
+  @Test
+  public void typedValues() {
+    final Preferences preferences = new PreferencesImpl(Collections.singleton("odata.maxpagesize=20"));
+    assertEquals(20, preferences.getMaxPageSize(100));
+    assertEquals(30, preferences.getWait(30));
+    assertEquals(100, new PreferencesImpl(Collections.singleton("odata.maxpagesize=x")).getMaxPageSize(100));
+  }
+
+  @Test
+  public void whitespace() {
+    final Preferences preferences = new PreferencesImpl(Collections.singleton(
+        "\treturn = minimal\t;\tp = \"v\" , odata.track-changes ,\twait\t=\t5\t"));
+    assertEquals(Return.MINIMAL, preferences.getReturn());
+    assertEquals("v", preferences.getPreference("return").getParameters().get("p"));
+    assertTrue(preferences.hasTrackChanges());
+    assertEquals(Integer.valueOf(5), preferences.getWait());
+  }
+
+  @Test
+  public void unterminatedQuotedValue() {
+    final Preferences preferences = new PreferencesImpl(Arrays.asList(
+        "return=minimal, wait=\"1",
+        "wait=\"2\\",
+        "wait=\"3\u0100\"",
+        "wait=4"));
+    assertNull(preferences.getReturn());
+    assertEquals(Integer.valueOf(4), preferences.getWait());
+  }
+
+  @Test
+  public void cachedValues() {
+    final String value = "return=minimal, odata.maxpagesize=10";
+    final Map<String, Preference> first = PreferParser.parse(Collections.singleton(value));
+    assertSame(first, PreferParser.parse(Collections.singleton(new String(value))));
+    assertEquals(2, first.size());
+    final Map<String, Preference> combined =
+        PreferParser.parse(Arrays.asList(value, "wait=1, return=representation"));
+    assertEquals(3, combined.size());
+    assertEquals("minimal", combined.get("return").getValue());
+  }
+
+  @Test
+  public void manyCachedValues() {
+    for (int size = 0; size < 1000; size++) {
+      final Map<String, Preference> result =
+          PreferParser.parse(Collections.singleton("odata.maxpagesize=" + size));
+      assertEquals(1, result.size());
+      assertEquals(String.valueOf(size), result.get("odata.maxpagesize").getValue());
+    }
+    assertEquals("0", PreferParser.parse(Collections.singleton("odata.maxpagesize=0"))
+        .get("odata.maxpagesize").getValue());
+  }
 }
@@ -21,6 +21,10 @@ package org.apache.olingo.server.core.serializer;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.data.EntityMediaObject;
@@ -67,6 +71,26 @@ public class FixedFormatSerializerTest {
     assertEquals(mediaObject.getBytes().length, outputStream.toByteArray().length);
   }
   
+  @Test
+  public void binaryIntoStreamedFromFile() throws Exception {
+    final File file = File.createTempFile("olingo", ".bin");
+    try {
+      FileOutputStream fileStream = new FileOutputStream(file);
+      fileStream.write(new byte[] { 0x41, 0x42, 0x43 });
+      fileStream.close();
+      final FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+      channel.position(1);
+      EntityMediaObject mediaObject = new EntityMediaObject();
+      mediaObject.setFileChannel(channel);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      new FixedFormatSerializerImpl().binaryIntoStreamed(mediaObject, outputStream);
+      assertEquals("BC", outputStream.toString("US-ASCII"));
+      assertFalse(channel.isOpen());
+    } finally {
+      file.delete();
+    }
+  }
+
   @Test
   public void mediaEntityStreamed() throws Exception {
 	  EntityMediaObject mediaObject = new EntityMediaObject();
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.BitSet;
+
+/** Column of boolean values stored as bits. */
+final class BooleanColumn extends Column {
+  private final BitSet values = new BitSet();
+
+  @Override
+  void ensureCapacity(int capacity) {
+    // the bit set grows on demand
+  }
+
+  @Override
+  void setValue(int row, Object value) {
+    this.values.set(row, (Boolean) value);
+  }
+
+  @Override
+  Object getValue(int row) {
+    return this.values.get(row);
+  }
+
+  @Override
+  boolean accepts(Object operand) {
+    return operand instanceof Boolean;
+  }
+
+  @Override
+  void selectValues(Comparison comparison, Object operand, int size, BitSet result) {
+    // false < true; so the comparison can be done on whole words
+    boolean value = (Boolean) operand;
+    BitSet trueRows = this.values.get(0, size);
+    boolean matchesTrue = comparison.matches(Boolean.compare(true, value));
+    boolean matchesFalse = comparison.matches(Boolean.compare(false, value));
+    if (matchesFalse) {
+      result.set(0, size);
+      if (!matchesTrue) {
+        result.andNot(trueRows);
+      }
+    } else if (matchesTrue) {
+      result.or(trueRows);
+    }
+  }
+
+  @Override
+  int compareValues(int row, int other) {
+    return Boolean.compare(this.values.get(row), this.values.get(other));
+  }
+}
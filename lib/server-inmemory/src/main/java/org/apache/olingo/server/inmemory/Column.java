@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.BitSet;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+
+/**
+ * <p>Values of one property for all rows of a {@link ColumnarTable}.</p>
+ * <p>Integer, floating-point and boolean properties are stored in primitive arrays, so that comparisons
+ * run over a contiguous array without unboxing; all other values are stored as objects.
+ * <code>null</code> values are tracked in a separate bit set.</p>
+ */
+abstract class Column {
+  protected final BitSet nulls = new BitSet();
+
+  static Column create(EdmProperty property) {
+    if (!property.isCollection() && property.getType().getKind() == EdmTypeKind.PRIMITIVE) {
+      EdmPrimitiveTypeKind kind = EdmPrimitiveTypeKind.valueOfFQN(property.getType().getFullQualifiedName());
+      switch (kind) {
+      case Byte:
+      case SByte:
+      case Int16:
+      case Int32:
+      case Int64:
+        return new LongColumn(kind);
+      case Single:
+      case Double:
+        return new DoubleColumn(kind);
+      case Boolean:
+        return new BooleanColumn();
+      case Stream:
+        return new ObjectColumn(false);
+      default:
+        return new ObjectColumn(true);
+      }
+    }
+    return new ObjectColumn(false);
+  }
+
+  /** Makes room for rows up to the given capacity. */
+  abstract void ensureCapacity(int capacity);
+
+  abstract void setValue(int row, Object value);
+
+  abstract Object getValue(int row);
+
+  /** Whether {@link #select(Comparison, Object, int)} supports the given non-<code>null</code> operand. */
+  abstract boolean accepts(Object operand);
+
+  /** Sets the bits of all rows below <code>size</code> whose value satisfies the comparison with the operand. */
+  abstract void selectValues(Comparison comparison, Object operand, int size, BitSet result);
+
+  abstract int compareValues(int row, int other);
+
+  /** Whether the values can be compared and sorted. */
+  boolean isComparable() {
+    return true;
+  }
+
+  /** Sets the value of a row to <code>null</code>. */
+  void clear(int row) {
+    this.nulls.set(row);
+  }
+
+  final void set(int row, Object value) {
+    if (value == null) {
+      clear(row);
+    } else {
+      this.nulls.clear(row);
+      setValue(row, value);
+    }
+  }
+
+  final Object get(int row) {
+    return this.nulls.get(row) ? null : getValue(row);
+  }
+
+  final boolean isNull(int row) {
+    return this.nulls.get(row);
+  }
+
+  /**
+   * Selects the rows below <code>size</code> satisfying the comparison with the operand. A <code>null</code>
+   * value is only equal to <code>null</code> and not equal to any other value; it is neither greater nor less
+   * than any value.
+   */
+  final BitSet select(Comparison comparison, Object operand, int size) {
+    BitSet result = new BitSet(size);
+    if (operand == null) {
+      if (comparison == Comparison.EQ) {
+        result.or(this.nulls.get(0, size));
+      } else if (comparison == Comparison.NE) {
+        result.set(0, size);
+        result.andNot(this.nulls);
+      }
+      return result;
+    }
+    selectValues(comparison, operand, size, result);
+    if (comparison == Comparison.NE) {
+      result.or(this.nulls.get(0, size));
+    } else {
+      result.andNot(this.nulls);
+    }
+    return result;
+  }
+
+  /** Compares the values of two rows; <code>null</code> is less than any other value. */
+  final int compare(int row, int other) {
+    boolean rowNull = this.nulls.get(row);
+    boolean otherNull = this.nulls.get(other);
+    if (rowNull || otherNull) {
+      return rowNull == otherNull ? 0 : rowNull ? -1 : 1;
+    }
+    return compareValues(row, other);
+  }
+
+  static int newCapacity(int current, int required) {
+    return Math.max(required, current + (current >> 1) + 16);
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * <p>Evaluates a <code>$filter</code> expression on all rows of a {@link ColumnarTable} at once.</p>
+ * <p>Each comparison of a primitive property with a constant is evaluated by a single pass over the
+ * column (or by a hash index lookup for equality on an indexed property) into a bit set of matching rows;
+ * <code>and</code>, <code>or</code>, and <code>not</code> combine these bit sets word by word.
+ * Supported are the comparison operators, <code>in</code>, <code>contains</code>, <code>startswith</code>,
+ * and <code>endswith</code> on string properties, and comparisons of two properties of the same entity;
+ * everything else, e.g., arithmetic, other functions, or paths into complex properties, results in
+ * "Not Implemented".</p>
+ * <p>The logic is two-valued: <code>not</code> selects exactly the rows its operand does not select.</p>
+ */
+final class ColumnarFilter implements ExpressionVisitor<Object> {
+  private final ColumnarTable table;
+  private final int rowCount;
+
+  ColumnarFilter(ColumnarTable table) {
+    this.table = table;
+    this.rowCount = table.getRowCount();
+  }
+
+  /** A constant value; it wraps the value so that <code>null</code> can be distinguished from "no value". */
+  private static final class Constant {
+    private final Object value;
+
+    Constant(Object value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Selects the rows matching the filter.
+   * @param filter the filter expression
+   * @return the matching rows; never includes deleted rows
+   */
+  BitSet select(Expression filter) throws ODataApplicationException {
+    try {
+      BitSet selected = toSelection(filter.accept(this));
+      selected.and(this.table.getRows());
+      return selected;
+    } catch (ExpressionVisitException e) {
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT, e);
+    }
+  }
+
+  /** Gets the column of a member expression addressing a primitive property; <code>null</code> otherwise. */
+  static Column getColumn(ColumnarTable table, Expression expression) {
+    if (!(expression instanceof Member)) {
+      return null;
+    }
+    List<UriResource> parts = ((Member) expression).getResourcePath().getUriResourceParts();
+    if (parts.size() != 1 || !(parts.get(0) instanceof UriResourcePrimitiveProperty)
+        || ((UriResourcePrimitiveProperty) parts.get(0)).isCollection()) {
+      return null;
+    }
+    return table.getColumn(((UriResourcePrimitiveProperty) parts.get(0)).getProperty().getName());
+  }
+
+  private BitSet toSelection(Object value) throws ODataApplicationException {
+    if (value instanceof BitSet) {
+      return (BitSet) value;
+    } else if (value instanceof BooleanColumn) {
+      return ((Column) value).select(Comparison.EQ, Boolean.TRUE, this.rowCount);
+    } else if (value instanceof Constant && Boolean.TRUE.equals(((Constant) value).value)) {
+      BitSet all = new BitSet(this.rowCount);
+      all.set(0, this.rowCount);
+      return all;
+    } else if (value instanceof Constant
+        && (((Constant) value).value == null || Boolean.FALSE.equals(((Constant) value).value))) {
+      return new BitSet();
+    }
+    throw new ODataApplicationException("The filter expression is not a boolean expression.",
+        HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  @Override
+  public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, Object right)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case AND:
+      BitSet both = toSelection(left);
+      both.and(toSelection(right));
+      return both;
+    case OR:
+      BitSet either = toSelection(left);
+      either.or(toSelection(right));
+      return either;
+    case EQ:
+      return compare(Comparison.EQ, left, right);
+    case NE:
+      return compare(Comparison.NE, left, right);
+    case GT:
+      return compare(Comparison.GT, left, right);
+    case GE:
+      return compare(Comparison.GE, left, right);
+    case LT:
+      return compare(Comparison.LT, left, right);
+    case LE:
+      return compare(Comparison.LE, left, right);
+    default:
+      throw notImplemented("The operator " + operator.toString());
+    }
+  }
+
+  @Override
+  public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, List<Object> right)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operator != BinaryOperatorKind.IN) {
+      throw notImplemented("The operator " + operator.toString());
+    }
+    BitSet any = new BitSet();
+    for (Object value : right) {
+      any.or(compare(Comparison.EQ, left, value));
+    }
+    return any;
+  }
+
+  private BitSet compare(Comparison comparison, Object left, Object right) throws ODataApplicationException {
+    if (left instanceof Column && right instanceof Constant) {
+      return select((Column) left, comparison, ((Constant) right).value);
+    } else if (left instanceof Constant && right instanceof Column) {
+      return select((Column) right, comparison.swap(), ((Constant) left).value);
+    } else if (left instanceof Column && right instanceof Column) {
+      return compareColumns(comparison, (Column) left, (Column) right);
+    } else if (left instanceof Constant && right instanceof Constant) {
+      Object leftValue = ((Constant) left).value;
+      Object rightValue = ((Constant) right).value;
+      boolean matches = leftValue == null || rightValue == null
+          ? comparison == Comparison.EQ && leftValue == rightValue
+              || comparison == Comparison.NE && leftValue != rightValue
+          : comparison.matches(Values.compare(leftValue, rightValue));
+      return toSelection(new Constant(matches));
+    }
+    throw notImplemented("The comparison of computed values");
+  }
+
+  private BitSet select(Column column, Comparison comparison, Object value) throws ODataApplicationException {
+    if (!column.isComparable()) {
+      throw notImplemented("The comparison of structured values");
+    }
+    if (value != null && !column.accepts(value)) {
+      throw new ODataApplicationException("The value " + value + " can not be compared with the property.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    Map<Object, BitSet> index = this.table.getIndex(column);
+    if (index != null && comparison == Comparison.EQ && value != null) {
+      BitSet indexRows = index.get(Values.toKey(value));
+      return indexRows == null ? new BitSet() : (BitSet) indexRows.clone();
+    }
+    return column.select(comparison, value, this.rowCount);
+  }
+
+  private BitSet compareColumns(Comparison comparison, Column left, Column right)
+      throws ODataApplicationException {
+    if (!left.isComparable() || !right.isComparable()) {
+      throw notImplemented("The comparison of structured values");
+    }
+    BitSet result = new BitSet(this.rowCount);
+    for (int row = 0; row < this.rowCount; row++) {
+      Object leftValue = left.get(row);
+      Object rightValue = right.get(row);
+      if (leftValue == null || rightValue == null
+          ? comparison == Comparison.EQ && leftValue == rightValue
+              || comparison == Comparison.NE && leftValue != rightValue
+          : comparison.matches(Values.compare(leftValue, rightValue))) {
+        result.set(row);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Object visitUnaryOperator(UnaryOperatorKind operator, Object operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operator == UnaryOperatorKind.NOT) {
+      BitSet all = new BitSet(this.rowCount);
+      all.set(0, this.rowCount);
+      all.andNot(toSelection(operand));
+      return all;
+    } else if (operand instanceof Constant && ((Constant) operand).value instanceof Number) {
+      return new Constant(Values.toDecimal(((Constant) operand).value).negate());
+    }
+    throw notImplemented("The operator " + operator.toString());
+  }
+
+  @Override
+  public Object visitMethodCall(MethodKind methodCall, List<Object> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    if ((methodCall == MethodKind.CONTAINS || methodCall == MethodKind.STARTSWITH
+        || methodCall == MethodKind.ENDSWITH)
+        && parameters.get(0) instanceof ObjectColumn && parameters.get(1) instanceof Constant
+        && ((Constant) parameters.get(1)).value instanceof String) {
+      return ((ObjectColumn) parameters.get(0)).selectString(methodCall,
+          (String) ((Constant) parameters.get(1)).value, this.rowCount);
+    }
+    throw notImplemented("The method " + methodCall.toString());
+  }
+
+  @Override
+  public Object visitLiteral(Literal literal) throws ExpressionVisitException, ODataApplicationException {
+    EdmType type = literal.getType();
+    if (type == null || "null".equals(literal.getText())) {
+      return new Constant(null);
+    }
+    if (!(type instanceof EdmPrimitiveType)) {
+      throw notImplemented("The literal " + literal.getText());
+    }
+    EdmPrimitiveType primitiveType = (EdmPrimitiveType) type;
+    try {
+      Object value = primitiveType.valueOfString(primitiveType.fromUriLiteral(literal.getText()),
+          true, null, Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, true, primitiveType.getDefaultType());
+      return new Constant(value);
+    } catch (EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT, e);
+    }
+  }
+
+  @Override
+  public Object visitMember(Member member) throws ExpressionVisitException, ODataApplicationException {
+    Column column = getColumn(this.table, member);
+    if (column == null) {
+      throw notImplemented("The path " + member.getResourcePath().getUriResourceParts());
+    }
+    return column;
+  }
+
+  @Override
+  public Object visitLambdaExpression(String lambdaFunction, String lambdaVariable, Expression expression)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The lambda expression " + lambdaFunction);
+  }
+
+  @Override
+  public Object visitAlias(String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The alias " + aliasName);
+  }
+
+  @Override
+  public Object visitTypeLiteral(EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The type literal " + type.getName());
+  }
+
+  @Override
+  public Object visitLambdaReference(String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The lambda variable " + variableName);
+  }
+
+  @Override
+  public Object visitEnum(EdmEnumType type, List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notImplemented("The enumeration " + type.getName());
+  }
+
+  static ODataApplicationException notImplemented(String what) {
+    return new ODataApplicationException(what + " is not supported by the in-memory columnar store.",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+}
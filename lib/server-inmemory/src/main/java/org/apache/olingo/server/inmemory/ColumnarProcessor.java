@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.ContextURL.Suffix;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.processor.EntityProcessor;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+
+/**
+ * <p>Processor serving entity sets from a {@link ColumnarStore}.</p>
+ * <p>Supported are reading entity collections with <code>$filter</code>, <code>$orderby</code>,
+ * <code>$skip</code>, <code>$top</code>, <code>$count</code>, and <code>$select</code>, as well as reading,
+ * creating, updating, and deleting single entities addressed by their key. Navigation,
+ * <code>$expand</code>, <code>$search</code>, and <code>$apply</code> result in "Not Implemented".</p>
+ */
+public class ColumnarProcessor implements EntityCollectionProcessor, EntityProcessor {
+  private final ColumnarStore store;
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+
+  public ColumnarProcessor(ColumnarStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public void init(OData odata, ServiceMetadata serviceMetadata) {
+    this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
+  }
+
+  @Override
+  public void readEntityCollection(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+      ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    final UriResourceEntitySet resource = getEntitySetResource(uriInfo, false);
+    if (uriInfo.getExpandOption() != null || uriInfo.getSearchOption() != null
+        || uriInfo.getApplyOption() != null || uriInfo.getSkipTokenOption() != null) {
+      throw ColumnarFilter.notImplemented("$expand, $search, $apply, or $skiptoken");
+    }
+    final EdmEntitySet entitySet = resource.getEntitySet();
+    final EdmEntityType entityType = entitySet.getEntityType();
+
+    final EntityCollection entities = this.store.getTable(entitySet).query(
+        uriInfo.getFilterOption() == null ? null : uriInfo.getFilterOption().getExpression(),
+        uriInfo.getOrderByOption() == null ? null : uriInfo.getOrderByOption().getOrders(),
+        uriInfo.getSkipOption() == null ? 0 : uriInfo.getSkipOption().getValue(),
+        uriInfo.getTopOption() == null ? null : uriInfo.getTopOption().getValue(),
+        uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue());
+    for (Entity entity : entities.getEntities()) {
+      setId(entitySet, entity);
+    }
+
+    final SelectOption select = uriInfo.getSelectOption();
+    final ContextURL contextUrl = ContextURL.with().entitySet(entitySet)
+        .selectList(this.odata.createUriHelper().buildContextURLSelectList(entityType, null, select))
+        .build();
+    response.setContent(this.odata.createSerializer(responseFormat).entityCollection(this.serviceMetadata,
+        entityType, entities, EntityCollectionSerializerOptions.with()
+            .contextURL(contextUrl)
+            .id(request.getRawBaseUri() + '/' + entitySet.getName())
+            .count(uriInfo.getCountOption())
+            .select(select)
+            .build()).getContent());
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+  }
+
+  @Override
+  public void readEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+      ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    final UriResourceEntitySet resource = getEntitySetResource(uriInfo, true);
+    if (uriInfo.getExpandOption() != null) {
+      throw ColumnarFilter.notImplemented("$expand");
+    }
+    final EdmEntitySet entitySet = resource.getEntitySet();
+    final Entity entity = this.store.getTable(entitySet)
+        .read(getKey(entitySet.getEntityType(), resource.getKeyPredicates()));
+    if (entity == null) {
+      throw notFound();
+    }
+    writeEntity(response, entitySet, entity, uriInfo.getSelectOption(), responseFormat);
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+  }
+
+  @Override
+  public void createEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+      ContentType requestFormat, ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    final EdmEntitySet entitySet = getEntitySetResource(uriInfo, false).getEntitySet();
+    final EdmEntityType entityType = entitySet.getEntityType();
+    final Entity entity = this.odata.createDeserializer(requestFormat, this.serviceMetadata)
+        .entity(request.getBody(), entityType).getEntity();
+    final ColumnarTable table = this.store.getTable(entitySet);
+
+    final List<EdmKeyPropertyRef> keyRefs = entityType.getKeyPropertyRefs();
+    final Object[] key = new Object[keyRefs.size()];
+    for (int i = 0; i < key.length; i++) {
+      if (entity.getProperty(keyRefs.get(i).getName()) == null
+          || entity.getProperty(keyRefs.get(i).getName()).isNull()) {
+        throw new ODataApplicationException("The key property " + keyRefs.get(i).getName() + " is missing.",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+      }
+      key[i] = entity.getProperty(keyRefs.get(i).getName()).getValue();
+    }
+    try {
+      table.insert(entity);
+    } catch (IllegalArgumentException e) {
+      throw new ODataApplicationException(e.getMessage(), HttpStatusCode.CONFLICT.getStatusCode(),
+          Locale.ROOT, e);
+    }
+
+    final Entity created = table.read(key);
+    writeEntity(response, entitySet, created, null, responseFormat);
+    response.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+    response.setHeader(HttpHeader.LOCATION, request.getRawBaseUri() + '/' + created.getId().toASCIIString());
+  }
+
+  @Override
+  public void updateEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+      ContentType requestFormat, ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+    final UriResourceEntitySet resource = getEntitySetResource(uriInfo, true);
+    final EdmEntitySet entitySet = resource.getEntitySet();
+    final Entity changes = this.odata.createDeserializer(requestFormat, this.serviceMetadata)
+        .entity(request.getBody(), entitySet.getEntityType()).getEntity();
+    if (this.store.getTable(entitySet).update(changes, request.getMethod() == HttpMethod.PATCH,
+        getKey(entitySet.getEntityType(), resource.getKeyPredicates())) == null) {
+      throw notFound();
+    }
+    response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+  }
+
+  @Override
+  public void deleteEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo)
+      throws ODataApplicationException, ODataLibraryException {
+    final UriResourceEntitySet resource = getEntitySetResource(uriInfo, true);
+    final EdmEntitySet entitySet = resource.getEntitySet();
+    if (!this.store.getTable(entitySet).delete(getKey(entitySet.getEntityType(), resource.getKeyPredicates()))) {
+      throw notFound();
+    }
+    response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+  }
+
+  private void writeEntity(ODataResponse response, EdmEntitySet entitySet, Entity entity, SelectOption select,
+      ContentType responseFormat) throws SerializerException {
+    setId(entitySet, entity);
+    final EdmEntityType entityType = entitySet.getEntityType();
+    final ContextURL contextUrl = ContextURL.with().entitySet(entitySet)
+        .selectList(this.odata.createUriHelper().buildContextURLSelectList(entityType, null, select))
+        .suffix(Suffix.ENTITY)
+        .build();
+    response.setContent(this.odata.createSerializer(responseFormat).entity(this.serviceMetadata, entityType, entity,
+        EntitySerializerOptions.with().contextURL(contextUrl).select(select).build()).getContent());
+    response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+  }
+
+  private void setId(EdmEntitySet entitySet, Entity entity) throws SerializerException {
+    entity.setId(URI.create(this.odata.createUriHelper().buildCanonicalURL(entitySet, entity)));
+  }
+
+  private static UriResourceEntitySet getEntitySetResource(UriInfo uriInfo, boolean withKey)
+      throws ODataApplicationException {
+    final List<UriResource> parts = uriInfo.getUriResourceParts();
+    if (parts.size() != 1 || !(parts.get(0) instanceof UriResourceEntitySet)
+        || ((UriResourceEntitySet) parts.get(0)).getKeyPredicates().isEmpty() == withKey) {
+      throw ColumnarFilter.notImplemented("The resource path");
+    }
+    return (UriResourceEntitySet) parts.get(0);
+  }
+
+  /** Gets the key values in the order of the key properties from the key predicates of the URI. */
+  private static Object[] getKey(EdmEntityType entityType, List<UriParameter> keyPredicates)
+      throws ODataApplicationException {
+    final List<EdmKeyPropertyRef> keyRefs = entityType.getKeyPropertyRefs();
+    final Object[] key = new Object[keyRefs.size()];
+    for (int i = 0; i < key.length; i++) {
+      final EdmKeyPropertyRef keyRef = keyRefs.get(i);
+      for (UriParameter keyPredicate : keyPredicates) {
+        if (keyRef.getName().equals(keyPredicate.getName()) && keyPredicate.getText() != null) {
+          final EdmProperty property = keyRef.getProperty();
+          final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+          try {
+            key[i] = type.valueOfString(type.fromUriLiteral(keyPredicate.getText()), property.isNullable(),
+                property.getMaxLength(), property.getPrecision(), property.getScale(), property.isUnicode(),
+                type.getDefaultType());
+          } catch (EdmPrimitiveTypeException e) {
+            throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+                Locale.ROOT, e);
+          }
+        }
+      }
+      if (key[i] == null) {
+        throw ColumnarFilter.notImplemented("The key predicate for " + keyRef.getName());
+      }
+    }
+    return key;
+  }
+
+  private static ODataApplicationException notFound() {
+    return new ODataApplicationException("Nothing found.", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+
+/** The {@link ColumnarTable}s of the entity sets of a service. */
+public class ColumnarStore {
+  private final ConcurrentMap<String, ColumnarTable> tables = new ConcurrentHashMap<String, ColumnarTable>();
+
+  /**
+   * Gets the table of an entity set; it is created empty on first access.
+   * @param entitySet the entity set
+   * @return the table
+   */
+  public ColumnarTable getTable(EdmEntitySet entitySet) {
+    ColumnarTable table = this.tables.get(entitySet.getName());
+    if (table == null) {
+      ColumnarTable created = new ColumnarTable(entitySet.getEntityType());
+      table = this.tables.putIfAbsent(entitySet.getName(), created);
+      if (table == null) {
+        table = created;
+      }
+    }
+    return table;
+  }
+}
@@ -0,0 +1,447 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * <p>In-memory table holding the entities of one entity set column-wise.</p>
+ * <p>Each structural property of the entity type is stored in its own column; integer, floating-point,
+ * and boolean properties in primitive arrays. The entities are identified by a hash index over their
+ * key properties; further hash indexes on single properties can be created with
+ * {@link #createIndex(String)} and are used for equality conditions in filters.
+ * Filters are evaluated column by column into bit sets of matching rows, see {@link #query}.</p>
+ * <p>Navigation properties, media content, and ETags are not stored.</p>
+ * <p>The table is thread-safe; reads run concurrently, while writes are exclusive.</p>
+ */
+public class ColumnarTable {
+  private final EdmEntityType entityType;
+  private final String[] names;
+  private final String[] typeNames;
+  private final ValueType[] valueTypes;
+  private final Column[] columns;
+  private final Map<String, Integer> positions = new HashMap<String, Integer>();
+  private final int[] keyPositions;
+  private final Map<Object, Integer> primaryIndex = new HashMap<Object, Integer>();
+  private final Map<Column, Map<Object, BitSet>> secondaryIndexes = new HashMap<Column, Map<Object, BitSet>>();
+  /** Rows holding an entity; the other rows below <code>size</code> have been deleted and can be reused. */
+  private final BitSet rows = new BitSet();
+  private int size;
+  private int deleted;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public ColumnarTable(EdmEntityType entityType) {
+    this.entityType = entityType;
+    List<String> propertyNames = entityType.getPropertyNames();
+    this.names = propertyNames.toArray(new String[propertyNames.size()]);
+    this.typeNames = new String[this.names.length];
+    this.valueTypes = new ValueType[this.names.length];
+    this.columns = new Column[this.names.length];
+    for (int i = 0; i < this.names.length; i++) {
+      EdmProperty property = entityType.getStructuralProperty(this.names[i]);
+      this.typeNames[i] = property.getType().getFullQualifiedName().getFullQualifiedNameAsString();
+      this.valueTypes[i] = getValueType(property);
+      this.columns[i] = Column.create(property);
+      this.positions.put(this.names[i], i);
+    }
+    List<EdmKeyPropertyRef> keyRefs = entityType.getKeyPropertyRefs();
+    this.keyPositions = new int[keyRefs.size()];
+    for (int i = 0; i < this.keyPositions.length; i++) {
+      Integer position = this.positions.get(keyRefs.get(i).getName());
+      if (position == null) {
+        throw new IllegalArgumentException("Key property " + keyRefs.get(i).getName() + " of "
+            + entityType.getName() + " is not a direct property of the entity type.");
+      }
+      this.keyPositions[i] = position;
+    }
+  }
+
+  private static ValueType getValueType(EdmProperty property) {
+    EdmType type = property.getType();
+    ValueType valueType;
+    switch (type.getKind()) {
+    case COMPLEX:
+      valueType = ValueType.COMPLEX;
+      break;
+    case ENUM:
+      valueType = ValueType.ENUM;
+      break;
+    default:
+      valueType = EdmPrimitiveType.EDM_NAMESPACE.equals(type.getNamespace()) && type.getName().startsWith("Geo")
+          ? ValueType.GEOSPATIAL : ValueType.PRIMITIVE;
+    }
+    return property.isCollection() ? ValueType.valueOf("COLLECTION_" + valueType.name()) : valueType;
+  }
+
+  public EdmEntityType getEntityType() {
+    return this.entityType;
+  }
+
+  /** @return the number of entities in the table */
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.rows.cardinality();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Inserts an entity.
+   * @param entity the entity; it must have values for all key properties
+   * @throws IllegalArgumentException if a key value is missing or an entity with the same key exists
+   */
+  public void insert(Entity entity) {
+    this.lock.writeLock().lock();
+    try {
+      insertRow(entity);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Inserts entities, e.g., to load reference data.
+   * @param entities the entities
+   * @throws IllegalArgumentException if a key value is missing or an entity with the same key exists;
+   * the entities before the failing one have been inserted
+   */
+  public void insertAll(Iterable<Entity> entities) {
+    this.lock.writeLock().lock();
+    try {
+      for (Entity entity : entities) {
+        insertRow(entity);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  private void insertRow(Entity entity) {
+    Object[] values = new Object[this.columns.length];
+    for (int i = 0; i < values.length; i++) {
+      Property property = entity.getProperty(this.names[i]);
+      values[i] = property == null ? null : property.getValue();
+    }
+    Object key = getKey(values);
+    if (this.primaryIndex.containsKey(key)) {
+      throw new IllegalArgumentException("An entity with the key " + key + " already exists.");
+    }
+    int row = allocateRow();
+    for (int i = 0; i < values.length; i++) {
+      setValue(row, i, values[i]);
+    }
+    this.primaryIndex.put(key, row);
+    this.rows.set(row);
+  }
+
+  private Object getKey(Object[] values) {
+    if (this.keyPositions.length == 1) {
+      return getKeyValue(values[this.keyPositions[0]], 0);
+    }
+    Object[] key = new Object[this.keyPositions.length];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = getKeyValue(values[this.keyPositions[i]], i);
+    }
+    return Arrays.asList(key);
+  }
+
+  private Object getKeyValue(Object value, int keyIndex) {
+    if (value == null) {
+      throw new IllegalArgumentException("The key property " + this.names[this.keyPositions[keyIndex]]
+          + " has no value.");
+    }
+    return Values.toKey(value);
+  }
+
+  private int allocateRow() {
+    if (this.deleted > 0) {
+      this.deleted--;
+      return this.rows.nextClearBit(0);
+    }
+    int row = this.size++;
+    for (Column column : this.columns) {
+      column.ensureCapacity(this.size);
+    }
+    return row;
+  }
+
+  private void setValue(int row, int position, Object value) {
+    Column column = this.columns[position];
+    Map<Object, BitSet> index = this.secondaryIndexes.get(column);
+    if (index != null) {
+      if (this.rows.get(row)) {
+        removeFromIndex(column, row);
+      }
+      addToIndex(index, value, row);
+    }
+    column.set(row, value);
+  }
+
+  private void removeFromIndex(Column column, int row) {
+    Map<Object, BitSet> index = this.secondaryIndexes.get(column);
+    if (index != null) {
+      Object key = Values.toKey(column.get(row));
+      BitSet indexRows = index.get(key);
+      if (indexRows != null) {
+        indexRows.clear(row);
+        if (indexRows.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+  }
+
+  private static void addToIndex(Map<Object, BitSet> index, Object value, int row) {
+    Object key = Values.toKey(value);
+    BitSet indexRows = index.get(key);
+    if (indexRows == null) {
+      indexRows = new BitSet();
+      index.put(key, indexRows);
+    }
+    indexRows.set(row);
+  }
+
+  private int findRow(Object... key) {
+    if (key.length != this.keyPositions.length) {
+      throw new IllegalArgumentException("The key of " + this.entityType.getName() + " has "
+          + this.keyPositions.length + " properties.");
+    }
+    Object[] values = new Object[this.columns.length];
+    for (int i = 0; i < key.length; i++) {
+      values[this.keyPositions[i]] = key[i];
+    }
+    Integer row = this.primaryIndex.get(getKey(values));
+    return row == null ? -1 : row;
+  }
+
+  /**
+   * Reads an entity by its key.
+   * @param key the values of the key properties in the order of their definition
+   * @return the entity or <code>null</code> if there is no entity with the key
+   */
+  public Entity read(Object... key) {
+    this.lock.readLock().lock();
+    try {
+      int row = findRow(key);
+      return row < 0 ? null : getEntity(row);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Updates an entity. Key properties can not be changed; their values in the changes are ignored.
+   * @param changes the new property values
+   * @param merge if <code>true</code>, properties missing in the changes keep their values,
+   * otherwise they are set to <code>null</code>
+   * @param key the values of the key properties in the order of their definition
+   * @return the updated entity or <code>null</code> if there is no entity with the key
+   */
+  public Entity update(Entity changes, boolean merge, Object... key) {
+    this.lock.writeLock().lock();
+    try {
+      int row = findRow(key);
+      if (row < 0) {
+        return null;
+      }
+      for (int i = 0; i < this.columns.length; i++) {
+        if (isKeyPosition(i)) {
+          continue;
+        }
+        Property property = changes.getProperty(this.names[i]);
+        if (property != null || !merge) {
+          setValue(row, i, property == null ? null : property.getValue());
+        }
+      }
+      return getEntity(row);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  private boolean isKeyPosition(int position) {
+    for (int keyPosition : this.keyPositions) {
+      if (keyPosition == position) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Deletes an entity.
+   * @param key the values of the key properties in the order of their definition
+   * @return <code>false</code> if there is no entity with the key
+   */
+  public boolean delete(Object... key) {
+    this.lock.writeLock().lock();
+    try {
+      int row = findRow(key);
+      if (row < 0) {
+        return false;
+      }
+      Object[] values = new Object[this.columns.length];
+      for (int i = 0; i < this.columns.length; i++) {
+        values[i] = this.columns[i].get(row);
+        removeFromIndex(this.columns[i], row);
+        this.columns[i].clear(row);
+      }
+      this.primaryIndex.remove(getKey(values));
+      this.rows.clear(row);
+      this.deleted++;
+      return true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Creates a hash index on a property, which is used to evaluate filter conditions
+   * <code>Property eq value</code> without scanning the column.
+   * @param propertyName name of a primitive property
+   */
+  public void createIndex(String propertyName) {
+    this.lock.writeLock().lock();
+    try {
+      Column column = getColumn(propertyName);
+      if (column == null || !column.isComparable()) {
+        throw new IllegalArgumentException("The property " + propertyName + " can not be indexed.");
+      }
+      if (!this.secondaryIndexes.containsKey(column)) {
+        Map<Object, BitSet> index = new HashMap<Object, BitSet>();
+        for (int row = this.rows.nextSetBit(0); row >= 0; row = this.rows.nextSetBit(row + 1)) {
+          addToIndex(index, column.get(row), row);
+        }
+        this.secondaryIndexes.put(column, index);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Queries the table.
+   * @param filter the <code>$filter</code> expression or <code>null</code>
+   * @param orderBy the <code>$orderby</code> items or <code>null</code>; without, the entities are returned
+   * in the order of their rows
+   * @param skip number of entities to skip
+   * @param top maximum number of entities to return or <code>null</code>
+   * @param count whether to set the number of all entities matching the filter
+   * @return the entities
+   * @throws ODataApplicationException if the filter or the order can not be evaluated on the columns
+   */
+  public EntityCollection query(Expression filter, List<OrderByItem> orderBy, int skip, Integer top,
+      boolean count) throws ODataApplicationException {
+    this.lock.readLock().lock();
+    try {
+      BitSet selected = filter == null ? (BitSet) this.rows.clone() : new ColumnarFilter(this).select(filter);
+      EntityCollection result = new EntityCollection();
+      int matches = selected.cardinality();
+      if (count) {
+        result.setCount(matches);
+      }
+      int end = top == null ? matches : (int) Math.min(matches, (long) skip + top);
+      if (orderBy == null || orderBy.isEmpty()) {
+        int position = 0;
+        for (int row = selected.nextSetBit(0); row >= 0 && position < end; row = selected.nextSetBit(row + 1)) {
+          if (position++ >= skip) {
+            result.getEntities().add(getEntity(row));
+          }
+        }
+      } else {
+        int[] ordered = sort(selected, matches, orderBy);
+        for (int position = skip; position < end; position++) {
+          result.getEntities().add(getEntity(ordered[position]));
+        }
+      }
+      return result;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  private int[] sort(BitSet selected, int matches, List<OrderByItem> orderBy)
+      throws ODataApplicationException {
+    Column[] sortColumns = new Column[orderBy.size()];
+    boolean[] descending = new boolean[sortColumns.length];
+    for (int i = 0; i < sortColumns.length; i++) {
+      sortColumns[i] = ColumnarFilter.getColumn(this, orderBy.get(i).getExpression());
+      if (sortColumns[i] == null || !sortColumns[i].isComparable()) {
+        throw ColumnarFilter.notImplemented("Ordering by other expressions than primitive properties");
+      }
+      descending[i] = orderBy.get(i).isDescending();
+    }
+    int[] ordered = new int[matches];
+    int position = 0;
+    for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+      ordered[position++] = row;
+    }
+    new RowOrder(sortColumns, descending).sort(ordered);
+    return ordered;
+  }
+
+  private Entity getEntity(int row) {
+    Entity entity = new Entity();
+    entity.setType(this.entityType.getFullQualifiedName().getFullQualifiedNameAsString());
+    for (int i = 0; i < this.columns.length; i++) {
+      entity.addProperty(new Property(this.typeNames[i], this.names[i], this.valueTypes[i],
+          this.columns[i].get(row)));
+    }
+    return entity;
+  }
+
+  Column getColumn(String propertyName) {
+    Integer position = this.positions.get(propertyName);
+    return position == null ? null : this.columns[position];
+  }
+
+  Map<Object, BitSet> getIndex(Column column) {
+    return this.secondaryIndexes.get(column);
+  }
+
+  /** Gets the number of rows including deleted ones; column operations work on the rows below it. */
+  int getRowCount() {
+    return this.size;
+  }
+
+  BitSet getRows() {
+    return this.rows;
+  }
+}
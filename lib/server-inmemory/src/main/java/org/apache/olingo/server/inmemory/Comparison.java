@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+/** Comparison operators which are evaluated column-wise. */
+enum Comparison {
+  EQ, NE, GT, GE, LT, LE;
+
+  /**
+   * Whether the result of a comparison satisfies this operator.
+   * @param result the result of comparing the column value with the operand, as in {@link Comparable}
+   */
+  boolean matches(int result) {
+    switch (this) {
+    case EQ:
+      return result == 0;
+    case NE:
+      return result != 0;
+    case GT:
+      return result > 0;
+    case GE:
+      return result >= 0;
+    case LT:
+      return result < 0;
+    default:
+      return result <= 0;
+    }
+  }
+
+  /** Gets the operator for swapped operands, e.g., <code>LT</code> for <code>5 gt Price</code>. */
+  Comparison swap() {
+    switch (this) {
+    case GT:
+      return LT;
+    case GE:
+      return LE;
+    case LT:
+      return GT;
+    case LE:
+      return GE;
+    default:
+      return this;
+    }
+  }
+}
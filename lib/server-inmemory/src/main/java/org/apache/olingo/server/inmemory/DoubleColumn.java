@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+
+/** Column of floating-point values stored as <code>double</code>s. */
+final class DoubleColumn extends Column {
+  private final EdmPrimitiveTypeKind kind;
+  private double[] values = new double[0];
+
+  DoubleColumn(EdmPrimitiveTypeKind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  void ensureCapacity(int capacity) {
+    if (capacity > this.values.length) {
+      this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, capacity));
+    }
+  }
+
+  @Override
+  void setValue(int row, Object value) {
+    this.values[row] = ((Number) value).doubleValue();
+  }
+
+  @Override
+  Object getValue(int row) {
+    return this.kind == EdmPrimitiveTypeKind.Single ? (Object) (float) this.values[row] : this.values[row];
+  }
+
+  @Override
+  boolean accepts(Object operand) {
+    return operand instanceof Number;
+  }
+
+  @Override
+  void selectValues(Comparison comparison, Object operand, int size, BitSet result) {
+    final double[] column = this.values;
+    final double value = ((Number) operand).doubleValue();
+    for (int row = 0; row < size; row++) {
+      if (comparison.matches(Double.compare(column[row], value))) {
+        result.set(row);
+      }
+    }
+  }
+
+  @Override
+  int compareValues(int row, int other) {
+    return Double.compare(this.values[row], this.values[other]);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+
+/**
+ * Column of object values, e.g., strings, decimals, and dates, but also of complex and collection values,
+ * which can only be stored and read.
+ */
+final class ObjectColumn extends Column {
+  private final boolean comparable;
+  private Object[] values = new Object[0];
+
+  ObjectColumn(boolean comparable) {
+    this.comparable = comparable;
+  }
+
+  @Override
+  void ensureCapacity(int capacity) {
+    if (capacity > this.values.length) {
+      this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, capacity));
+    }
+  }
+
+  @Override
+  void setValue(int row, Object value) {
+    this.values[row] = value;
+  }
+
+  @Override
+  Object getValue(int row) {
+    return this.values[row];
+  }
+
+  @Override
+  void clear(int row) {
+    super.clear(row);
+    this.values[row] = null;
+  }
+
+  @Override
+  boolean isComparable() {
+    return this.comparable;
+  }
+
+  @Override
+  boolean accepts(Object operand) {
+    return this.comparable;
+  }
+
+  @Override
+  void selectValues(Comparison comparison, Object operand, int size, BitSet result) {
+    final Object[] column = this.values;
+    for (int row = 0; row < size; row++) {
+      if (column[row] != null && comparison.matches(Values.compare(column[row], operand))) {
+        result.set(row);
+      }
+    }
+  }
+
+  /**
+   * Selects the rows below <code>size</code> whose string value contains, starts with, or ends with the
+   * given string.
+   */
+  BitSet selectString(MethodKind method, String operand, int size) {
+    final Object[] column = this.values;
+    BitSet result = new BitSet(size);
+    for (int row = 0; row < size; row++) {
+      if (column[row] instanceof String) {
+        String value = (String) column[row];
+        if (method == MethodKind.CONTAINS ? value.contains(operand)
+            : method == MethodKind.STARTSWITH ? value.startsWith(operand) : value.endsWith(operand)) {
+          result.set(row);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  int compareValues(int row, int other) {
+    return Values.compare(this.values[row], this.values[other]);
+  }
+}
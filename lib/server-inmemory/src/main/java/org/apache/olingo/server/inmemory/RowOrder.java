@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+/**
+ * Order of the rows of a {@link ColumnarTable} by the values of one or more columns.
+ * Rows are sorted as primitive row numbers with a stable merge sort, so that rows with equal values
+ * keep their order and no row number is boxed.
+ */
+final class RowOrder {
+  /** Ranges up to this length are sorted by insertion. */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private final Column[] columns;
+  private final boolean[] descending;
+
+  /**
+   * @param columns the columns to order by, the most significant first
+   * @param descending for each column whether it is ordered descending
+   */
+  RowOrder(Column[] columns, boolean[] descending) {
+    this.columns = columns;
+    this.descending = descending;
+  }
+
+  /** Compares two rows; <code>null</code> values are less than any other value. */
+  int compare(int row, int other) {
+    for (int i = 0; i < this.columns.length; i++) {
+      int result = this.columns[i].compare(row, other);
+      if (result != 0) {
+        return this.descending[i] ? -result : result;
+      }
+    }
+    return 0;
+  }
+
+  /** Sorts the row numbers in place. */
+  void sort(int[] rows) {
+    if (rows.length > INSERTION_SORT_THRESHOLD) {
+      mergeSort(rows.clone(), rows, 0, rows.length);
+    } else {
+      insertionSort(rows, 0, rows.length);
+    }
+  }
+
+  /** Sorts <code>target</code> from <code>from</code> to <code>to</code>; <code>source</code> has the same rows. */
+  private void mergeSort(int[] source, int[] target, int from, int to) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      insertionSort(target, from, to);
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    // The halves are sorted in the source, so that they can be merged into the target without copying.
+    mergeSort(target, source, from, middle);
+    mergeSort(target, source, middle, to);
+    if (compare(source[middle - 1], source[middle]) <= 0) {
+      System.arraycopy(source, from, target, from, to - from);
+      return;
+    }
+    int left = from;
+    int right = middle;
+    for (int position = from; position < to; position++) {
+      if (right >= to || left < middle && compare(source[left], source[right]) <= 0) {
+        target[position] = source[left++];
+      } else {
+        target[position] = source[right++];
+      }
+    }
+  }
+
+  private void insertionSort(int[] rows, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      int row = rows[i];
+      int j = i - 1;
+      while (j >= from && compare(rows[j], row) > 0) {
+        rows[j + 1] = rows[j];
+        j--;
+      }
+      rows[j + 1] = row;
+    }
+  }
+}
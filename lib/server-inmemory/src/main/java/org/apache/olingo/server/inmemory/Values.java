@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Calendar;
+import java.util.Date;
+
+/** Helpers for comparing and hashing values of different Java types representing the same EDM value. */
+final class Values {
+
+  private Values() {}
+
+  static boolean isIntegral(Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+        || value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE;
+  }
+
+  static BigDecimal toDecimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      return new BigDecimal(value.toString());
+    }
+    return BigDecimal.valueOf(((Number) value).longValue());
+  }
+
+  static boolean isInstant(Object value) {
+    return value instanceof Calendar || value instanceof Date;
+  }
+
+  static long toMillis(Object value) {
+    return value instanceof Calendar ? ((Calendar) value).getTimeInMillis() : ((Date) value).getTime();
+  }
+
+  /**
+   * Compares two non-<code>null</code> values. Numbers are compared by their decimal value, dates and times
+   * by their instant; values which are not comparable with each other are compared by their string
+   * representation.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static int compare(Object left, Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      return isIntegral(left) && isIntegral(right)
+          ? Long.compare(((Number) left).longValue(), ((Number) right).longValue())
+          : toDecimal(left).compareTo(toDecimal(right));
+    }
+    if (isInstant(left) && isInstant(right)) {
+      return Long.compare(toMillis(left), toMillis(right));
+    }
+    if (left instanceof Comparable && left.getClass().isInstance(right)) {
+      return ((Comparable) left).compareTo(right);
+    }
+    return left.toString().compareTo(right.toString());
+  }
+
+  /**
+   * Normalizes a value for use as hash key, so that equal EDM values have equal keys regardless of the
+   * Java type the application or the URI parser has chosen for them; numbers with an integral value
+   * are represented as {@link Long}, other finite numbers as {@link BigDecimal}.
+   */
+  static Object toKey(Object value) {
+    if (value == null) {
+      return null;
+    } else if (isIntegral(value)) {
+      return ((Number) value).longValue();
+    } else if (value instanceof Number) {
+      if (value instanceof Double || value instanceof Float) {
+        double number = ((Number) value).doubleValue();
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+          return number;
+        }
+      }
+      BigDecimal decimal = toDecimal(value).stripTrailingZeros();
+      if (decimal.scale() <= 0 && decimal.toBigInteger().bitLength() < Long.SIZE) {
+        return decimal.longValue();
+      }
+      return decimal;
+    } else if (isInstant(value)) {
+      return toMillis(value);
+    } else if (value instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) value);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+
+/** Model with a product type with a single key and an order-line type with a composite key. */
+public class ColumnarEdmProvider extends CsdlAbstractEdmProvider {
+  private static final String NAMESPACE = "olingo.inmemory";
+  private static final FullQualifiedName CONTAINER = new FullQualifiedName(NAMESPACE, "Container");
+  private static final FullQualifiedName PRODUCT = new FullQualifiedName(NAMESPACE, "Product");
+  private static final FullQualifiedName ORDER_LINE = new FullQualifiedName(NAMESPACE, "OrderLine");
+
+  public static ServiceMetadata createServiceMetadata() {
+    return OData.newInstance().createServiceMetadata(new ColumnarEdmProvider(),
+        Collections.<EdmxReference> emptyList());
+  }
+
+  private static CsdlProperty property(String name, EdmPrimitiveTypeKind kind) {
+    return new CsdlProperty().setName(name).setType(kind.getFullQualifiedName());
+  }
+
+  @Override
+  public CsdlEntityType getEntityType(FullQualifiedName entityTypeName) {
+    if (PRODUCT.equals(entityTypeName)) {
+      return new CsdlEntityType().setName(PRODUCT.getName())
+          .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+          .setProperties(Arrays.asList(
+              property("ID", EdmPrimitiveTypeKind.Int32).setNullable(false),
+              property("Name", EdmPrimitiveTypeKind.String),
+              property("Category", EdmPrimitiveTypeKind.String),
+              property("Price", EdmPrimitiveTypeKind.Double),
+              property("Quantity", EdmPrimitiveTypeKind.Int64),
+              property("Available", EdmPrimitiveTypeKind.Boolean)));
+    } else if (ORDER_LINE.equals(entityTypeName)) {
+      return new CsdlEntityType().setName(ORDER_LINE.getName())
+          .setKey(Arrays.asList(new CsdlPropertyRef().setName("OrderID"), new CsdlPropertyRef().setName("Line")))
+          .setProperties(Arrays.asList(
+              property("OrderID", EdmPrimitiveTypeKind.Int32).setNullable(false),
+              property("Line", EdmPrimitiveTypeKind.Int16).setNullable(false),
+              property("Amount", EdmPrimitiveTypeKind.Decimal).setScale(2)));
+    }
+    return null;
+  }
+
+  @Override
+  public CsdlEntitySet getEntitySet(FullQualifiedName entityContainer, String entitySetName) {
+    if ("Products".equals(entitySetName)) {
+      return new CsdlEntitySet().setName(entitySetName).setType(PRODUCT);
+    } else if ("OrderLines".equals(entitySetName)) {
+      return new CsdlEntitySet().setName(entitySetName).setType(ORDER_LINE);
+    }
+    return null;
+  }
+
+  @Override
+  public CsdlEntityContainerInfo getEntityContainerInfo(FullQualifiedName entityContainerName) {
+    if (entityContainerName == null || CONTAINER.equals(entityContainerName)) {
+      return new CsdlEntityContainerInfo().setContainerName(CONTAINER);
+    }
+    return null;
+  }
+
+  @Override
+  public CsdlEntityContainer getEntityContainer() {
+    return new CsdlEntityContainer().setName(CONTAINER.getName())
+        .setEntitySets(Arrays.asList(getEntitySet(CONTAINER, "Products"), getEntitySet(CONTAINER, "OrderLines")));
+  }
+
+  @Override
+  public List<CsdlSchema> getSchemas() {
+    return Collections.singletonList(new CsdlSchema().setNamespace(NAMESPACE)
+        .setEntityTypes(Arrays.asList(getEntityType(PRODUCT), getEntityType(ORDER_LINE)))
+        .setEntityContainer(getEntityContainer()));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarProcessorTest {
+  private static final String BASE_URI = "http://localhost/service";
+
+  private ODataHandler handler;
+  private ColumnarTable products;
+
+  @Before
+  public void setUp() {
+    ServiceMetadata metadata = ColumnarEdmProvider.createServiceMetadata();
+    ColumnarStore store = new ColumnarStore();
+    EdmEntitySet entitySet = metadata.getEdm().getEntityContainer().getEntitySet("Products");
+    products = store.getTable(entitySet);
+    List<Entity> entities = new ArrayList<Entity>();
+    entities.add(ColumnarTableTest.product(1, "Pencil", "Office", 0.5, 100));
+    entities.add(ColumnarTableTest.product(2, "Apple", "Food", 0.3, 0));
+    entities.add(ColumnarTableTest.product(3, "Pen", "Office", 1.5, 10));
+    entities.add(ColumnarTableTest.product(4, "Paper", "Office", 4.99, 0));
+    entities.add(ColumnarTableTest.product(5, "Banana", "Food", 0.25, 80));
+    entities.add(ColumnarTableTest.product(6, "Stapler", null, 12.0, 3));
+    products.insertAll(entities);
+
+    handler = OData.newInstance().createRawHandler(metadata);
+    handler.register(new ColumnarProcessor(store));
+  }
+
+  private ODataResponse execute(HttpMethod method, String path, String query, String body) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    request.setRawRequestUri(BASE_URI + path + (query == null ? "" : "?" + query));
+    request.setRawServiceResolutionUri("");
+    if (body != null) {
+      request.addHeader(HttpHeader.CONTENT_TYPE, "application/json");
+      request.setBody(new ByteArrayInputStream(body.getBytes()));
+    }
+    return handler.process(request);
+  }
+
+  private String read(String path, String query) throws Exception {
+    ODataResponse response = execute(HttpMethod.GET, path, query, null);
+    String content = IOUtils.toString(response.getContent(), "UTF-8");
+    assertEquals(content, 200, response.getStatusCode());
+    return content;
+  }
+
+  @Test
+  public void filterSortAndPage() throws Exception {
+    String content = read("/Products",
+        "$filter=Category%20eq%20'Office'%20and%20Price%20lt%2010&$orderby=Price%20desc&$top=2&$count=true"
+        + "&$select=ID");
+    assertTrue(content, content.contains("\"@odata.count\":3"));
+    assertTrue(content, content.contains("\"value\":[{\"ID\":4},{\"ID\":3}]"));
+  }
+
+  @Test
+  public void filterWithIndex() throws Exception {
+    products.createIndex("Category");
+    String content = read("/Products", "$filter=Category%20eq%20'Food'%20or%20Category%20eq%20null&$select=ID");
+    assertTrue(content, content.contains("\"value\":[{\"ID\":2},{\"ID\":5},{\"ID\":6}]"));
+  }
+
+  @Test
+  public void filterFunctionsAndBooleans() throws Exception {
+    String content = read("/Products",
+        "$filter=startswith(Name,'P')%20and%20not%20Available%20or%20Quantity%20in%20(3,80)&$select=ID");
+    assertTrue(content, content.contains("\"value\":[{\"ID\":4},{\"ID\":5},{\"ID\":6}]"));
+    content = read("/Products", "$filter=2%20le%20Price%20or%20Price%20gt%20Quantity&$select=ID");
+    assertTrue(content, content.contains("\"value\":[{\"ID\":2},{\"ID\":4},{\"ID\":6}]"));
+  }
+
+  @Test
+  public void unsupportedFilter() {
+    assertEquals(501, execute(HttpMethod.GET, "/Products", "$filter=Price%20add%201%20gt%202", null)
+        .getStatusCode());
+  }
+
+  @Test
+  public void entityLifecycle() throws Exception {
+    String content = read("/Products(2)", null);
+    assertTrue(content, content.contains("\"Name\":\"Apple\""));
+    assertEquals(404, execute(HttpMethod.GET, "/Products(7)", null, null).getStatusCode());
+
+    ODataResponse response = execute(HttpMethod.POST, "/Products", null,
+        "{\"ID\":7,\"Name\":\"Eraser\",\"Category\":\"Office\",\"Price\":0.75,\"Quantity\":5,\"Available\":true}");
+    assertEquals(201, response.getStatusCode());
+    assertEquals(BASE_URI + "/Products(7)", response.getHeader(HttpHeader.LOCATION));
+    assertEquals(409, execute(HttpMethod.POST, "/Products", null, "{\"ID\":7,\"Name\":\"Eraser\"}")
+        .getStatusCode());
+
+    assertEquals(204, execute(HttpMethod.PATCH, "/Products(7)", null, "{\"Price\":0.8}").getStatusCode());
+    content = read("/Products(7)", "$select=Name,Price");
+    assertTrue(content, content.contains("\"Name\":\"Eraser\",\"Price\":0.8"));
+
+    assertEquals(204, execute(HttpMethod.DELETE, "/Products(7)", null, null).getStatusCode());
+    assertEquals(404, execute(HttpMethod.DELETE, "/Products(7)", null, null).getStatusCode());
+  }
+
+  @Test
+  public void compositeKey() throws Exception {
+    assertEquals(201, execute(HttpMethod.POST, "/OrderLines", null,
+        "{\"OrderID\":1,\"Line\":2,\"Amount\":12.5}").getStatusCode());
+    String content = read("/OrderLines(OrderID=1,Line=2)", null);
+    assertTrue(content, content.contains("\"Amount\":12.5"));
+    content = read("/OrderLines", "$filter=Amount%20eq%2012.50");
+    assertTrue(content, content.contains("\"Line\":2"));
+  }
+}
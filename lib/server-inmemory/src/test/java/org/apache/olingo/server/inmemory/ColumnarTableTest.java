@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarTableTest {
+  private Edm edm;
+  private ColumnarTable products;
+
+  @Before
+  public void setUp() {
+    edm = ColumnarEdmProvider.createServiceMetadata().getEdm();
+    products = new ColumnarTable(edm.getEntityContainer().getEntitySet("Products").getEntityType());
+  }
+
+  static Entity product(int id, String name, String category, double price, long quantity) {
+    return new Entity()
+        .addProperty(new Property(null, "ID", ValueType.PRIMITIVE, id))
+        .addProperty(new Property(null, "Name", ValueType.PRIMITIVE, name))
+        .addProperty(new Property(null, "Category", ValueType.PRIMITIVE, category))
+        .addProperty(new Property(null, "Price", ValueType.PRIMITIVE, price))
+        .addProperty(new Property(null, "Quantity", ValueType.PRIMITIVE, quantity))
+        .addProperty(new Property(null, "Available", ValueType.PRIMITIVE, quantity > 0));
+  }
+
+  private static List<Object> ids(EntityCollection entities) {
+    List<Object> ids = new ArrayList<Object>();
+    for (Entity entity : entities) {
+      ids.add(entity.getProperty("ID").getValue());
+    }
+    return ids;
+  }
+
+  @Test
+  public void insertAndRead() {
+    products.insert(product(1, "Pencil", "Office", 0.5, 100));
+    Entity entity = products.read(1);
+    assertEquals(1, entity.getProperty("ID").getValue());
+    assertEquals("Pencil", entity.getProperty("Name").getValue());
+    assertEquals(0.5, entity.getProperty("Price").getValue());
+    assertEquals(100L, entity.getProperty("Quantity").getValue());
+    assertEquals(Boolean.TRUE, entity.getProperty("Available").getValue());
+    // keys are matched by value, not by Java type
+    assertEquals("Pencil", products.read(1L).getProperty("Name").getValue());
+    assertNull(products.read(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateKey() {
+    products.insert(product(1, "Pencil", "Office", 0.5, 100));
+    products.insert(product(1, "Pen", "Office", 1.5, 10));
+  }
+
+  @Test
+  public void compositeKey() {
+    ColumnarTable lines = new ColumnarTable(edm.getEntityContainer().getEntitySet("OrderLines").getEntityType());
+    for (int order = 1; order <= 3; order++) {
+      for (short line = 1; line <= 3; line++) {
+        lines.insert(new Entity()
+            .addProperty(new Property(null, "OrderID", ValueType.PRIMITIVE, order))
+            .addProperty(new Property(null, "Line", ValueType.PRIMITIVE, line))
+            .addProperty(new Property(null, "Amount", ValueType.PRIMITIVE, new BigDecimal(order * 10 + line))));
+      }
+    }
+    assertEquals(9, lines.size());
+    assertEquals(new BigDecimal(23), lines.read(2, (short) 3).getProperty("Amount").getValue());
+    assertNull(lines.read(3, (short) 4));
+    assertTrue(lines.delete(2, 3));
+    assertNull(lines.read(2, (short) 3));
+    assertEquals(8, lines.size());
+  }
+
+  @Test
+  public void updateAndDelete() throws Exception {
+    products.insert(product(1, "Pencil", "Office", 0.5, 100));
+    products.insert(product(2, "Apple", "Food", 0.3, 0));
+
+    Entity changes = new Entity().addProperty(new Property(null, "Price", ValueType.PRIMITIVE, 0.4));
+    assertEquals(0.4, products.update(changes, true, 2).getProperty("Price").getValue());
+    assertEquals("Apple", products.read(2).getProperty("Name").getValue());
+    Entity replaced = products.update(changes, false, 2);
+    assertNull(replaced.getProperty("Name").getValue());
+    assertEquals(2, replaced.getProperty("ID").getValue());
+    assertNull(products.update(changes, true, 3));
+
+    assertTrue(products.delete(1));
+    assertFalse(products.delete(1));
+    assertEquals(1, products.size());
+    // the row of the deleted entity is reused
+    products.insert(product(3, "Pen", "Office", 1.5, 10));
+    assertEquals(2, products.size());
+    assertEquals("Pen", products.read(3).getProperty("Name").getValue());
+    assertEquals(2, products.query(null, null, 0, null, false).getEntities().size());
+  }
+
+  @Test
+  public void queryWithPaging() throws Exception {
+    List<Entity> entities = new ArrayList<Entity>();
+    for (int id = 1; id <= 10; id++) {
+      entities.add(product(id, "Product " + id, id % 2 == 0 ? "Even" : "Odd", id, id));
+    }
+    products.insertAll(entities);
+    EntityCollection page = products.query(null, null, 3, 4, true);
+    assertEquals(Integer.valueOf(10), page.getCount());
+    assertEquals(4, page.getEntities().size());
+    assertEquals(4, page.getEntities().get(0).getProperty("ID").getValue());
+    assertEquals(2, products.query(null, null, 8, 5, false).getEntities().size());
+    assertTrue(products.query(null, null, 10, null, false).getEntities().isEmpty());
+    assertEquals(10, ids(products.query(null, null, 0, null, false)).size());
+  }
+
+  @Test
+  public void indexIsMaintained() throws Exception {
+    products.insert(product(1, "Pencil", "Office", 0.5, 100));
+    products.insert(product(2, "Apple", "Food", 0.3, 0));
+    products.createIndex("Category");
+    products.insert(product(3, "Pen", "Office", 1.5, 10));
+    products.update(new Entity().addProperty(new Property(null, "Category", ValueType.PRIMITIVE, "Food")), true, 1);
+    products.delete(2);
+
+    Column category = products.getColumn("Category");
+    assertEquals("{2}", products.getIndex(category).get("Office").toString());
+    assertEquals("{0}", products.getIndex(category).get("Food").toString());
+  }
+
+  @Test
+  public void rowOrderIsStable() {
+    int size = 1000;
+    Column price = new LongColumn(EdmPrimitiveTypeKind.Int32);
+    Column name = new ObjectColumn(true);
+    price.ensureCapacity(size);
+    name.ensureCapacity(size);
+    for (int row = 0; row < size; row++) {
+      price.set(row, row % 7 == 0 ? null : (row * 31) % 13);
+      name.set(row, "Name" + (row * 17) % 5);
+    }
+    final RowOrder order = new RowOrder(new Column[] { price, name }, new boolean[] { true, false });
+    int[] rows = new int[size];
+    Integer[] expected = new Integer[size];
+    for (int row = 0; row < size; row++) {
+      rows[row] = row;
+      expected[row] = row;
+    }
+    order.sort(rows);
+    Arrays.sort(expected, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer row, Integer other) {
+        int result = order.compare(row, other);
+        return result == 0 ? Integer.compare(row, other) : result;
+      }
+    });
+    for (int position = 0; position < size; position++) {
+      assertEquals(expected[position].intValue(), rows[position]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void indexOnUnknownProperty() {
+    products.createIndex("Unknown");
+  }
+}
@@ -20,9 +20,9 @@ package org.apache.olingo.server.tecsvc.data;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -50,8 +50,6 @@ import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.edm.EdmParameter;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmSingleton;
@@ -79,6 +77,9 @@ public class DataProvider {
   private AtomicLong KEY_STRING = new AtomicLong(0);
 
   private Map<String, EntityCollection> data;
+  private final Map<EntityCollection, EntityKeyIndex> keyIndexes =
+      new IdentityHashMap<EntityCollection, EntityKeyIndex>();
+  private EntityLinkIndex linkIndex;
   private final OData odata;
   private final Edm edm;
 
@@ -102,7 +103,7 @@ public class DataProvider {
     return entitySet == null ? null : read(edmEntitySet.getEntityType(), entitySet, keys);
   }
   
-  private Object findPropertyRefValue(Entity entity, EdmKeyPropertyRef refType) {
+  static Object findPropertyRefValue(Entity entity, EdmKeyPropertyRef refType) {
     final int INDEX_ERROR_CODE = -1;
     final String propertyPath = refType.getName();
     String tmpPropertyName;
@@ -127,80 +128,84 @@ public class DataProvider {
     return prop.getValue();
   }
   
+  /**
+   * Reads an entity by key from an entity collection.
+   * The content of an entity set is looked up in its key index.
+   * Any other collection, e.g., the targets of a navigation link, is scanned;
+   * the scan is limited to that collection and does not depend on the size of the target entity set.
+   */
   public Entity read(final EdmEntityType edmEntityType, final EntityCollection entitySet,
       final List<UriParameter> keys) throws DataProviderException {
-    try {
-      for (final Entity entity : entitySet.getEntities()) {
-        boolean found = true;
-        for (final UriParameter key : keys) {
-          EdmKeyPropertyRef refType = edmEntityType.getKeyPropertyRef(key.getName());
-          Object value =  findPropertyRefValue(entity, refType);
-          
-          final EdmProperty property = refType.getProperty();
-          final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
-          
-          if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
-            throw new DataProviderException("Expression in key value is not supported yet!",
-                HttpStatusCode.NOT_IMPLEMENTED);
-          }
-          Object keyValue = null;
-          final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
-          if (Calendar.class.isAssignableFrom(value.getClass())) {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), Calendar.class);
-          } else {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), value.getClass());
-          }
-          if (!value.equals(keyValue)) {
-            found = false;
-            break;
-          }
-        }
-        if (found) {
-          return entity;
+    final EntityKeyIndex keyIndex = getKeyIndex(edmEntityType, entitySet);
+    return keyIndex == null ?
+        EntityKeyIndex.find(edmEntityType, entitySet.getEntities(), keys) :
+        keyIndex.read(keys);
+  }
+
+  /**
+   * Gets the key index of an entity set, building it on first use.
+   * Other collections, e.g., the targets of navigation links, are not indexed.
+   * @return the key index or <code>null</code> if the collection is not the content of an entity set
+   */
+  private EntityKeyIndex getKeyIndex(final EdmEntityType edmEntityType, final EntityCollection entitySet) {
+    EntityKeyIndex keyIndex = keyIndexes.get(entitySet);
+    if (keyIndex == null) {
+      for (final EntityCollection entityCollection : data.values()) {
+        if (entityCollection == entitySet) {
+          keyIndex = new EntityKeyIndex(edmEntityType, entitySet);
+          keyIndexes.put(entitySet, keyIndex);
+          break;
         }
       }
-      return null;
-    } catch (final EdmPrimitiveTypeException e) {
-      throw new DataProviderException("Wrong key!", HttpStatusCode.BAD_REQUEST, e);
     }
+    return keyIndex;
   }
 
   public void delete(final EdmEntitySet edmEntitySet, final Entity entity) throws DataProviderException {
     deleteLinksTo(entity);
-    readAll(edmEntitySet).getEntities().remove(entity);
+    final EntityCollection entitySet = readAll(edmEntitySet);
+    if (entitySet.getEntities().remove(entity) && keyIndexes.containsKey(entitySet)) {
+      keyIndexes.get(entitySet).remove(entity);
+    }
   }
 
+  /**
+   * Removes all navigation links to an entity.
+   * Only the entities found in the reverse link index are visited.
+   */
   public void deleteLinksTo(final Entity to) throws DataProviderException {
-    for (final String entitySetName : data.keySet()) {
-      for (final Entity entity : data.get(entitySetName).getEntities()) {
-        for (Iterator<Link> linkIterator = entity.getNavigationLinks().iterator(); linkIterator.hasNext();) {
-          final Link link = linkIterator.next();
-          if (to.equals(link.getInlineEntity())) {
-            linkIterator.remove();
-          } else if (link.getInlineEntitySet() != null) {
-            for (Iterator<Entity> iterator = link.getInlineEntitySet().getEntities().iterator(); iterator.hasNext();) {
-              if (to.equals(iterator.next())) {
-                iterator.remove();
-              }
-            }
-            if (link.getInlineEntitySet().getEntities().isEmpty()) {
-              linkIterator.remove();
+    for (final Entity entity : getLinkIndex().remove(to)) {
+      for (Iterator<Link> linkIterator = entity.getNavigationLinks().iterator(); linkIterator.hasNext();) {
+        final Link link = linkIterator.next();
+        if (to.equals(link.getInlineEntity())) {
+          linkIterator.remove();
+        } else if (link.getInlineEntitySet() != null) {
+          for (Iterator<Entity> iterator = link.getInlineEntitySet().getEntities().iterator(); iterator.hasNext();) {
+            if (to.equals(iterator.next())) {
+              iterator.remove();
             }
           }
+          if (link.getInlineEntitySet().getEntities().isEmpty()) {
+            linkIterator.remove();
+          }
         }
       }
     }
   }
 
+  /** Gets the reverse index of the navigation links between entity-set entities, building it on first use. */
+  private EntityLinkIndex getLinkIndex() {
+    if (linkIndex == null) {
+      linkIndex = new EntityLinkIndex(data.values());
+    }
+    return linkIndex;
+  }
+
   public Entity create(final EdmEntitySet edmEntitySet) throws DataProviderException {
     final EdmEntityType edmEntityType = edmEntitySet.getEntityType();
     EntityCollection entitySet = readAll(edmEntitySet);
-    final List<Entity> entities = entitySet.getEntities();
-    final Map<String, Object> newKey = findFreeComposedKey(entities, edmEntityType);
+    final EntityKeyIndex keyIndex = getKeyIndex(edmEntityType, entitySet);
+    final Map<String, Object> newKey = findFreeComposedKey(keyIndex, edmEntityType);
     Entity newEntity = new Entity();
     newEntity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
     for (final String keyName : edmEntityType.getKeyPredicateNames()) {
@@ -213,12 +218,13 @@ public class DataProvider {
     } catch (final SerializerException e) {
       throw new DataProviderException("Unable to set entity ID!", HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
-    entities.add(newEntity);
+    entitySet.getEntities().add(newEntity);
+    keyIndex.add(newEntity);
 
     return newEntity;
   }
 
-  private Map<String, Object> findFreeComposedKey(final List<Entity> entities, final EdmEntityType entityType)
+  private Map<String, Object> findFreeComposedKey(final EntityKeyIndex keyIndex, final EdmEntityType entityType)
       throws DataProviderException {
     // Weak key construction
     final HashMap<String, Object> keys = new HashMap<String, Object>();
@@ -234,27 +240,27 @@ public class DataProvider {
       if (EdmPrimitiveTypeKind.Int16.getFullQualifiedName().equals(typeName)) {
         newValue = (short) KEY_INT_16.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!keyIndex.isFree(keyName, newValue)) {
           newValue = (short) KEY_INT_16.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int32.getFullQualifiedName().equals(typeName)) {
         newValue = KEY_INT_32.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!keyIndex.isFree(keyName, newValue)) {
           newValue = KEY_INT_32.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int64.getFullQualifiedName().equals(typeName)) {
         // Integer keys
         newValue = KEY_INT_64.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!keyIndex.isFree(keyName, newValue)) {
           newValue = KEY_INT_64.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.String.getFullQualifiedName().equals(typeName)) {
         // String keys
         newValue = String.valueOf(KEY_STRING.incrementAndGet());
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!keyIndex.isFree(keyName, newValue)) {
           newValue = String.valueOf(KEY_STRING.incrementAndGet());
         }
       } else if (type instanceof EdmEnumType) {
@@ -273,16 +279,6 @@ public class DataProvider {
     return keys;
   }
 
-  private boolean isFree(final Object value, final String keyPropertyName, final List<Entity> entities) {
-    for (final Entity entity : entities) {
-      if (value != null && value.equals(entity.getProperty(keyPropertyName).getValue())) {
-        return false;
-      }
-    }
-
-    return true;
-  }
-
   private void createProperties(final EdmStructuredType type, final List<Property> properties)
       throws DataProviderException {
     final List<String> keyNames = type instanceof EdmEntityType ?
@@ -474,6 +470,9 @@ public class DataProvider {
     } else {
       DataCreator.setLink(srcEntity, navigationProperty.getName(), targetEntity);
     }
+    if (linkIndex != null) {
+      linkIndex.add(srcEntity, targetEntity);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -554,7 +553,7 @@ public class DataProvider {
     return result;
   }
 
-  private Property findProperty(final String propertyName, final List<Property> properties) {
+  private static Property findProperty(final String propertyName, final List<Property> properties) {
     for (final Property property : properties) {
       if (propertyName.equals(property.getName())) {
         return property;
@@ -883,6 +882,9 @@ public class DataProvider {
     List<Entity> rootEntity = data.get(edmEntitySet.getName()).getEntities();
     EntityCollection entitySet = data.get(edmEntityType.getName());
     entitySet.getEntities().add(newEntity);
+    if (keyIndexes.containsKey(entitySet)) {
+      keyIndexes.get(entitySet).add(newEntity);
+    }
     
     
     
@@ -947,45 +949,6 @@ public class DataProvider {
   
   public Entity readDataFromEntity(final EdmEntityType edmEntityType,
       final List<UriParameter> keys) throws DataProviderException {
-    EntityCollection coll = data.get(edmEntityType.getName());
-    List<Entity> entities = coll.getEntities();
-    try {
-      for (final Entity entity : entities) {
-        boolean found = true;
-        for (final UriParameter key : keys) {
-          EdmKeyPropertyRef refType = edmEntityType.getKeyPropertyRef(key.getName());
-          Object value =  findPropertyRefValue(entity, refType);
-          
-          final EdmProperty property = refType.getProperty();
-          final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
-          
-          if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
-            throw new DataProviderException("Expression in key value is not supported yet!",
-                HttpStatusCode.NOT_IMPLEMENTED);
-          }
-          final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
-          Object keyValue = null;
-          if (Calendar.class.isAssignableFrom(value.getClass())) {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), Calendar.class);
-          } else {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), value.getClass());
-          }
-          if (!value.equals(keyValue)) {
-            found = false;
-            break;
-          }
-        }
-        if (found) {
-          return entity;
-        }
-      }
-      return null;
-    } catch (final EdmPrimitiveTypeException e) {
-      throw new DataProviderException("Wrong key!", HttpStatusCode.BAD_REQUEST, e);
-    }
+    return read(edmEntityType, data.get(edmEntityType.getName()), keys);
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.tecsvc.data.DataProvider.DataProviderException;
+
+/**
+ * Hash index of the entities of an entity collection by their key values.
+ * The values of a composite key are indexed as list in the order of the key-property references.
+ * Integral numbers are normalized to {@link Long} so that keys with different integer classes match.
+ * The index has to be maintained whenever entities are added to or removed from the collection.
+ */
+class EntityKeyIndex {
+
+  private final EdmEntityType entityType;
+  private final List<EdmKeyPropertyRef> keyPropertyRefs;
+  private final List<Entity> entities;
+  private final Map<Object, Entity> index = new HashMap<Object, Entity>();
+  private final Class<?>[] valueTypes;
+
+  EntityKeyIndex(final EdmEntityType entityType, final EntityCollection entityCollection) {
+    this.entityType = entityType;
+    keyPropertyRefs = entityType.getKeyPropertyRefs();
+    entities = entityCollection.getEntities();
+    valueTypes = new Class<?>[keyPropertyRefs.size()];
+    for (final Entity entity : entities) {
+      add(entity);
+    }
+  }
+
+  /** Adds an entity; if another entity with the same key is indexed already, that one is kept. */
+  void add(final Entity entity) {
+    final Object key = getKey(entity);
+    if (!index.containsKey(key)) {
+      index.put(key, entity);
+    }
+  }
+
+  void remove(final Entity entity) {
+    final Object key = getKey(entity);
+    if (index.get(key) == entity) {
+      index.remove(key);
+    }
+  }
+
+  /**
+   * Checks whether no entity has the given value for the given key property.
+   * Only for single keys the index is used, for composite keys the entities are scanned.
+   */
+  boolean isFree(final String keyPropertyName, final Object value) {
+    if (value == null) {
+      return true;
+    }
+    if (keyPropertyRefs.size() == 1 && keyPropertyName.equals(keyPropertyRefs.get(0).getName())) {
+      return !index.containsKey(normalize(value));
+    }
+    for (final Entity entity : entities) {
+      final Property property = entity.getProperty(keyPropertyName);
+      if (property != null && value.equals(property.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the entity with the given key.
+   * If the key predicates do not address exactly the key properties, the entities are scanned.
+   * @return the entity or <code>null</code> if there is no entity with this key
+   */
+  Entity read(final List<UriParameter> keys) throws DataProviderException {
+    if (keys.size() != keyPropertyRefs.size()) {
+      return find(entityType, entities, keys);
+    }
+    final Object[] values = new Object[keys.size()];
+    final UriParameter[] orderedKeys = new UriParameter[keys.size()];
+    for (final UriParameter key : keys) {
+      final int position = keyPropertyRefs.indexOf(entityType.getKeyPropertyRef(key.getName()));
+      if (position < 0 || orderedKeys[position] != null) {
+        return find(entityType, entities, keys);
+      }
+      orderedKeys[position] = key;
+    }
+    if (index.isEmpty()) {
+      return null;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (valueTypes[i] == null) {
+        return null;
+      }
+      values[i] = parseKeyValue(keyPropertyRefs.get(i), orderedKeys[i], valueTypes[i]);
+    }
+    return index.get(values.length == 1 ? values[0] : Arrays.asList(values));
+  }
+
+  /**
+   * Finds the first entity in the list with the given key values by scanning the list.
+   * The key literals are parsed only once, with the class of the value of the first entity.
+   */
+  static Entity find(final EdmEntityType entityType, final List<Entity> entities, final List<UriParameter> keys)
+      throws DataProviderException {
+    final EdmKeyPropertyRef[] refs = new EdmKeyPropertyRef[keys.size()];
+    for (int i = 0; i < refs.length; i++) {
+      refs[i] = entityType.getKeyPropertyRef(keys.get(i).getName());
+    }
+    final Object[] keyValues = new Object[keys.size()];
+    for (final Entity entity : entities) {
+      boolean found = true;
+      for (int i = 0; i < refs.length && found; i++) {
+        final Object value = DataProvider.findPropertyRefValue(entity, refs[i]);
+        if (value == null) {
+          found = false;
+        } else {
+          if (keyValues[i] == null) {
+            keyValues[i] = parseKeyValue(refs[i], keys.get(i), value.getClass());
+          }
+          found = keyValues[i].equals(normalize(value));
+        }
+      }
+      if (found) {
+        return entity;
+      }
+    }
+    return null;
+  }
+
+  private Object getKey(final Entity entity) {
+    if (keyPropertyRefs.size() == 1) {
+      return normalize(getValue(entity, 0));
+    }
+    final Object[] values = new Object[keyPropertyRefs.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = normalize(getValue(entity, i));
+    }
+    return Arrays.asList(values);
+  }
+
+  private Object getValue(final Entity entity, final int position) {
+    final Object value = DataProvider.findPropertyRefValue(entity, keyPropertyRefs.get(position));
+    if (valueTypes[position] == null && value != null) {
+      valueTypes[position] = value.getClass();
+    }
+    return value;
+  }
+
+  private static Object parseKeyValue(final EdmKeyPropertyRef refType, final UriParameter key,
+      final Class<?> valueType) throws DataProviderException {
+    if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
+      throw new DataProviderException("Expression in key value is not supported yet!",
+          HttpStatusCode.NOT_IMPLEMENTED);
+    }
+    final EdmProperty property = refType.getProperty();
+    final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+    final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
+    final Class<?> returnType = Calendar.class.isAssignableFrom(valueType) ? Calendar.class : valueType;
+    try {
+      return normalize(type.valueOfString(type.fromUriLiteral(text),
+          property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+          property.isUnicode(), returnType));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new DataProviderException("Wrong key!", HttpStatusCode.BAD_REQUEST, e);
+    }
+  }
+
+  private static Object normalize(final Object value) {
+    return value instanceof Byte || value instanceof Short || value instanceof Integer ?
+        Long.valueOf(((Number) value).longValue()) :
+        value;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+
+/**
+ * Reverse index of the navigation links between entities: for every target entity the entities linking to it.
+ * Entities are compared by identity.
+ * Links removed from an entity are not removed from the index, so the referring entities are candidates
+ * whose links have to be checked; every link added has to be added to the index, however.
+ */
+class EntityLinkIndex {
+
+  private final Map<Entity, Set<Entity>> referrers = new IdentityHashMap<Entity, Set<Entity>>();
+
+  EntityLinkIndex(final Collection<EntityCollection> entityCollections) {
+    for (final EntityCollection entityCollection : entityCollections) {
+      for (final Entity entity : entityCollection.getEntities()) {
+        addLinks(entity);
+      }
+    }
+  }
+
+  /** Adds all current navigation links of the given entity. */
+  void addLinks(final Entity source) {
+    for (final Link link : source.getNavigationLinks()) {
+      if (link.getInlineEntity() != null) {
+        add(source, link.getInlineEntity());
+      } else if (link.getInlineEntitySet() != null) {
+        for (final Entity target : link.getInlineEntitySet().getEntities()) {
+          add(source, target);
+        }
+      }
+    }
+  }
+
+  void add(final Entity source, final Entity target) {
+    Set<Entity> sources = referrers.get(target);
+    if (sources == null) {
+      sources = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+      referrers.put(target, sources);
+    }
+    sources.add(source);
+  }
+
+  /**
+   * Removes an entity from the index, both as target and as source of links.
+   * @return the entities that may link to the removed entity
+   */
+  Collection<Entity> remove(final Entity entity) {
+    for (final Link link : entity.getNavigationLinks()) {
+      if (link.getInlineEntity() != null) {
+        removeSource(entity, link.getInlineEntity());
+      } else if (link.getInlineEntitySet() != null) {
+        for (final Entity target : link.getInlineEntitySet().getEntities()) {
+          removeSource(entity, target);
+        }
+      }
+    }
+    final Set<Entity> sources = referrers.remove(entity);
+    return sources == null ? Collections.<Entity> emptySet() : sources;
+  }
+
+  private void removeSource(final Entity source, final Entity target) {
+    final Set<Entity> sources = referrers.get(target);
+    if (sources != null) {
+      sources.remove(source);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
@@ -51,6 +52,7 @@ public class DataProviderTest {
   private final EdmEntitySet esCollAllPrim = entityContainer.getEntitySet("ESCollAllPrim");
   private final EdmEntitySet esMixPrimCollComp = entityContainer.getEntitySet("ESMixPrimCollComp");
   private final EdmEntitySet esMedia = entityContainer.getEntitySet("ESMedia");
+  private final EdmEntitySet esTwoKeyNav = entityContainer.getEntitySet("ESTwoKeyNav");
 
   @Test
   public void esAllPrimEntity() throws Exception {
@@ -174,6 +176,76 @@ public class DataProviderTest {
     Assert.assertEquals("x/y", entity.getMediaContentType());
   }
 
+  @Test
+  public void esTwoKeyNavCompositeKey() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final List<Entity> entities = dataProvider.readAll(esTwoKeyNav).getEntities();
+
+    Assert.assertEquals(entities.get(1), dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyString", "'2'"),
+        mockParameter("PropertyInt16", "1"))));
+    Assert.assertNull(dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyInt16", "3"),
+        mockParameter("PropertyString", "'2'"))));
+    Assert.assertEquals(entities.get(0), dataProvider.read(esTwoKeyNav.getEntityType(),
+        dataProvider.readAll(esTwoKeyNav), Arrays.asList(mockParameter("PropertyInt16", "1"))));
+  }
+
+  @Test
+  public void keyIndexFollowsCreateAndDelete() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final Entity created = dataProvider.create(esAllPrim);
+    final String key = created.getProperty("PropertyInt16").getValue().toString();
+    Assert.assertEquals(created, dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", key))));
+
+    dataProvider.delete(esAllPrim, created);
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", key))));
+    Assert.assertEquals(4, dataProvider.readAll(esAllPrim).getEntities().size());
+  }
+
+  @Test
+  public void navigationTargetByKey() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final EntityCollection target = dataProvider.readAll(esAllPrim).getEntities().get(0)
+        .getNavigationLink("NavPropertyETTwoPrimMany").getInlineEntitySet();
+    final Entity entity = target.getEntities().get(0);
+    final String key = entity.getProperty("PropertyInt16").getValue().toString();
+
+    Assert.assertEquals(entity, dataProvider.read(entityContainer.getEntitySet("ESTwoPrim").getEntityType(),
+        target, Arrays.asList(mockParameter("PropertyInt16", key))));
+    Assert.assertNull(dataProvider.read(entityContainer.getEntitySet("ESTwoPrim").getEntityType(),
+        target, Arrays.asList(mockParameter("PropertyInt16", "-1"))));
+  }
+
+  @Test
+  public void deleteRemovesLinksToEntity() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final EdmEntitySet esTwoPrim = entityContainer.getEntitySet("ESTwoPrim");
+    final List<Entity> sources = dataProvider.readAll(esAllPrim).getEntities();
+    final Entity target = sources.get(0).getNavigationLink("NavPropertyETTwoPrimMany").getInlineEntitySet()
+        .getEntities().get(0);
+    final Entity otherTarget = dataProvider.readAll(esTwoPrim).getEntities().get(0);
+    dataProvider.delete(esTwoPrim, otherTarget);
+
+    // Links set after the first deletion must be found as well.
+    dataProvider.setLink(esAllPrim.getEntityType().getNavigationProperty("NavPropertyETTwoPrimOne"),
+        sources.get(1), target);
+    dataProvider.delete(esTwoPrim, target);
+
+    for (final Entity source : sources) {
+      for (final Link link : source.getNavigationLinks()) {
+        Assert.assertNotSame(target, link.getInlineEntity());
+        Assert.assertNotSame(otherTarget, link.getInlineEntity());
+        if (link.getInlineEntitySet() != null) {
+          Assert.assertFalse(link.getInlineEntitySet().getEntities().contains(target));
+          Assert.assertFalse(link.getInlineEntitySet().getEntities().contains(otherTarget));
+        }
+      }
+    }
+    Assert.assertNull(sources.get(0).getNavigationLink("NavPropertyETTwoPrimMany"));
+    Assert.assertNull(sources.get(1).getNavigationLink("NavPropertyETTwoPrimOne"));
+  }
+
   private static UriParameter mockParameter(final String name, final String text) {
     UriParameter parameter = Mockito.mock(UriParameter.class);
     Mockito.when(parameter.getName()).thenReturn(name);
@@ -19,9 +19,20 @@
 package org.apache.olingo.netty.server.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,25 +40,51 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.netty.server.api.ODataNetty;
 import org.apache.olingo.netty.server.api.ODataNettyHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.processor.EntityProcessor;
 import org.apache.olingo.server.api.processor.MetadataProcessor;
+import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
 
 public class ODataNettyHandlerImplTest {
 
@@ -153,4 +190,303 @@ public class ODataNettyHandlerImplTest {
     nettyResponse.status();
     assertEquals(HttpStatusCode.CREATED.getStatusCode(), HttpResponseStatus.CREATED.code());
   }
+
+  @Test
+  public void streamedResponseIsWrittenInChunks() {
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final ODataNettyHandler handler = odata.createNettyHandler(metadata);
+    final Map<String, String> requestParams = new HashMap<String, String>();
+    requestParams.put("contextPath", "/odata.svc");
+
+    EmbeddedChannel channel = new EmbeddedChannel();
+    handler.initChannelPipeline(channel.pipeline());
+    channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+      @Override
+      public void channelRead(final ChannelHandlerContext context, final Object message) {
+        handler.processNettyRequest((HttpRequest) message, context, requestParams);
+      }
+    });
+    channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+        "/odata.svc/$metadata"));
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(HttpResponseStatus.OK, response.status());
+    assertTrue(HttpUtil.isTransferEncodingChunked(response));
+    assertFalse(response instanceof HttpContent);
+
+    final StringBuilder content = new StringBuilder();
+    int chunks = 0;
+    HttpContent chunk;
+    do {
+      chunk = channel.readOutbound();
+      content.append(chunk.content().toString(StandardCharsets.UTF_8));
+      chunk.release();
+      chunks++;
+    } while (!(chunk instanceof LastHttpContent));
+    assertTrue(chunks > 2);
+    assertTrue(content.toString().startsWith("<?xml"));
+    assertTrue(content.toString().endsWith("</edmx:Edmx>"));
+    assertNull(channel.readOutbound());
+    // The content has been pulled by the chunked-write handler, honoring the channel's writability.
+    assertNotNull(channel.pipeline().get(ChunkedWriteHandler.class));
+
+    // Responses without content end immediately.
+    channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+        "/odata.svc/ESAllPrim"));
+    final HttpResponse errorResponse = channel.readOutbound();
+    assertEquals(HttpResponseStatus.NOT_IMPLEMENTED, errorResponse.status());
+    assertTrue(channel.finishAndReleaseAll());
+  }
+
+  @Test
+  public void requestIsProcessedByExecutor() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    MetadataProcessor processor = mock(MetadataProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        latch.await();
+        ((ODataResponse) invocation.getArguments()[1]).setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+        return null;
+      }
+    }).when(processor).readMetadata(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final ODataNettyHandler handler = createNettyHandler(executor);
+      handler.register(processor);
+      final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+      EmbeddedChannel channel = createChannel(handler, futures);
+
+      final DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+          "/odata.svc/$metadata", Unpooled.buffer());
+      channel.writeInbound(request);
+      // The processor is still blocked, but the event loop is free again.
+      assertEquals(1, futures.size());
+      assertFalse(futures.get(0).isDone());
+      assertNull(channel.readOutbound());
+
+      // The embedded event loop does not allow to wait for the future directly.
+      final CountDownLatch written = new CountDownLatch(1);
+      futures.get(0).addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(final ChannelFuture future) {
+          written.countDown();
+        }
+      });
+      latch.countDown();
+      assertTrue(written.await(10, TimeUnit.SECONDS));
+      assertTrue(futures.get(0).isSuccess());
+      channel.runPendingTasks();
+      final HttpResponse response = channel.readOutbound();
+      assertEquals(HttpResponseStatus.NO_CONTENT, response.status());
+      assertEquals(1, request.refCnt());
+      channel.finishAndReleaseAll();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void pipelinedRequestsAreAnsweredInOrder() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final CountDownLatch secondStarted = new CountDownLatch(1);
+    final AtomicInteger calls = new AtomicInteger();
+    MetadataProcessor processor = mock(MetadataProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataResponse response = (ODataResponse) invocation.getArguments()[1];
+        if (calls.incrementAndGet() == 1) {
+          latch.await();
+          response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+        } else {
+          secondStarted.countDown();
+          response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+        }
+        return null;
+      }
+    }).when(processor).readMetadata(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final ODataNettyHandler handler = createNettyHandler(executor);
+      handler.register(processor);
+      final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+      EmbeddedChannel channel = createChannel(handler, futures);
+      channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+          "/odata.svc/$metadata", Unpooled.buffer()));
+      channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+          "/odata.svc/$metadata", Unpooled.buffer()));
+
+      // Although a second thread is free, the second request waits for the first one.
+      assertFalse(secondStarted.await(200, TimeUnit.MILLISECONDS));
+      final CountDownLatch written = new CountDownLatch(2);
+      for (final ChannelFuture future : futures) {
+        future.addListener(new ChannelFutureListener() {
+          @Override
+          public void operationComplete(final ChannelFuture completedFuture) {
+            written.countDown();
+          }
+        });
+      }
+      latch.countDown();
+      assertTrue(written.await(10, TimeUnit.SECONDS));
+      channel.runPendingTasks();
+      assertEquals(HttpResponseStatus.NO_CONTENT, ((HttpResponse) channel.readOutbound()).status());
+      ReferenceCountUtil.release(channel.readOutbound());
+      assertEquals(HttpResponseStatus.ACCEPTED, ((HttpResponse) channel.readOutbound()).status());
+      channel.finishAndReleaseAll();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void concurrentRequestsOnManyChannels() throws Exception {
+    final int channels = 32;
+    final int requestsPerChannel = 50;
+    MetadataProcessor metadataProcessor = mock(MetadataProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        Thread.yield();
+        ((ODataResponse) invocation.getArguments()[1]).setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+        return null;
+      }
+    }).when(metadataProcessor).readMetadata(any(ODataRequest.class), any(ODataResponse.class),
+        any(UriInfo.class), any(ContentType.class));
+    ServiceDocumentProcessor serviceDocumentProcessor = mock(ServiceDocumentProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        Thread.yield();
+        ((ODataResponse) invocation.getArguments()[1]).setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+        return null;
+      }
+    }).when(serviceDocumentProcessor).readServiceDocument(any(ODataRequest.class), any(ODataResponse.class),
+        any(UriInfo.class), any(ContentType.class));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final ODataNettyHandler handler = createNettyHandler(executor);
+      handler.register(metadataProcessor);
+      handler.register(serviceDocumentProcessor);
+      final List<EmbeddedChannel> embeddedChannels = new ArrayList<EmbeddedChannel>();
+      final List<ChannelFuture> futures = Collections.synchronizedList(new ArrayList<ChannelFuture>());
+      for (int i = 0; i < channels; i++) {
+        embeddedChannels.add(createChannel(handler, futures));
+      }
+      // Each channel alternates between the two resources, starting with a different one than its neighbor.
+      for (int request = 0; request < requestsPerChannel; request++) {
+        for (int i = 0; i < channels; i++) {
+          embeddedChannels.get(i).writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+              (request + i) % 2 == 0 ? "/odata.svc/$metadata" : "/odata.svc/", Unpooled.buffer()));
+        }
+      }
+
+      final CountDownLatch written = new CountDownLatch(channels * requestsPerChannel);
+      for (final ChannelFuture future : new ArrayList<ChannelFuture>(futures)) {
+        future.addListener(new ChannelFutureListener() {
+          @Override
+          public void operationComplete(final ChannelFuture completedFuture) {
+            written.countDown();
+          }
+        });
+      }
+      assertTrue(written.await(30, TimeUnit.SECONDS));
+      for (int i = 0; i < channels; i++) {
+        final EmbeddedChannel channel = embeddedChannels.get(i);
+        channel.runPendingTasks();
+        for (int request = 0; request < requestsPerChannel; request++) {
+          assertEquals((request + i) % 2 == 0 ? HttpResponseStatus.NO_CONTENT : HttpResponseStatus.ACCEPTED,
+              ((HttpResponse) channel.readOutbound()).status());
+          ReferenceCountUtil.release(channel.readOutbound());
+        }
+        assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void rejectedRequestIsAnsweredWithServiceUnavailable() {
+    final ODataNettyHandler handler = createNettyHandler(new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    });
+    final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+    EmbeddedChannel channel = createChannel(handler, futures);
+
+    final DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+        "/odata.svc/$metadata", Unpooled.buffer());
+    channel.writeInbound(request);
+    assertTrue(futures.get(0).isSuccess());
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(HttpResponseStatus.SERVICE_UNAVAILABLE, response.status());
+    assertEquals(1, request.refCnt());
+    channel.finishAndReleaseAll();
+  }
+
+  private ODataNettyHandler createNettyHandler(final Executor executor) {
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    return odata.createNettyHandler(metadata, executor);
+  }
+
+  private EmbeddedChannel createChannel(final ODataNettyHandler handler, final List<ChannelFuture> futures) {
+    final Map<String, String> requestParams = new HashMap<String, String>();
+    requestParams.put("contextPath", "/odata.svc");
+    return new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+      @Override
+      public void channelRead(final ChannelHandlerContext context, final Object message) {
+        futures.add(handler.processNettyRequest((HttpRequest) message, context, requestParams));
+      }
+    });
+  }
+
+  @Test
+  public void fileContentIsWrittenAsFileRegion() throws Exception {
+    final File file = File.createTempFile("olingo", ".bin");
+    try {
+      FileOutputStream fileStream = new FileOutputStream(file);
+      fileStream.write("0123456789".getBytes(StandardCharsets.US_ASCII));
+      fileStream.close();
+      final FileChannel fileChannel = new RandomAccessFile(file, "r").getChannel();
+      final ODataResponse odResponse = new ODataResponse();
+      odResponse.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+      odResponse.setContent(fileChannel, 2, 5);
+
+      EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+        @Override
+        public void channelRead(final ChannelHandlerContext context, final Object message) {
+          ODataNettyHandlerImpl.writeResponse(context, HttpVersion.HTTP_1_1, odResponse);
+        }
+      });
+      channel.writeInbound(new Object());
+
+      final HttpResponse response = channel.readOutbound();
+      assertEquals(HttpResponseStatus.PARTIAL_CONTENT, response.status());
+      assertEquals(5, HttpUtil.getContentLength(response));
+      final FileRegion region = channel.readOutbound();
+      assertEquals(2, region.position());
+      assertEquals(5, region.count());
+      region.release();
+      assertFalse(fileChannel.isOpen());
+      final LastHttpContent last = channel.readOutbound();
+      assertEquals(0, last.content().readableBytes());
+      assertFalse(channel.finishAndReleaseAll());
+    } finally {
+      file.delete();
+    }
+  }
 }
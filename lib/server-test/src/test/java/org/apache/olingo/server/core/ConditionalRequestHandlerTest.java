@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.processor.EntityProcessor;
+import org.apache.olingo.server.api.processor.MediaEntityProcessor;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ConditionalRequestHandlerTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+
+  private final List<String> lookups = new ArrayList<String>();
+
+  private final CustomETagSupport eTagSupport = new CustomETagSupport() {
+    @Override
+    public boolean hasETag(final EdmBindingTarget entitySetOrSingleton) {
+      return !"ESTwoPrim".equals(entitySetOrSingleton.getName());
+    }
+
+    @Override
+    public boolean hasMediaETag(final EdmBindingTarget entitySetOrSingleton) {
+      return true;
+    }
+
+    @Override
+    public String getETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates) {
+      lookups.add(entitySetOrSingleton.getName()
+          + (keyPredicates.isEmpty() ? "" : '(' + keyPredicates.get(0).getText() + ')'));
+      return "ESAllPrim".equals(entitySetOrSingleton.getName()) && "1".equals(keyPredicates.get(0).getText()) ?
+          null : "W/\"v1\"";
+    }
+
+    @Override
+    public String getMediaETag(final EdmBindingTarget entitySetOrSingleton,
+        final List<UriParameter> keyPredicates) {
+      lookups.add(entitySetOrSingleton.getName() + "/$value");
+      return "\"m1\"";
+    }
+
+    @Override
+    public String getCollectionETag(final EdmEntitySet entitySet) {
+      return "ESAllPrim".equals(entitySet.getName()) ? "42" : null;
+    }
+  };
+
+  @Test
+  public void notModified() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    final ODataResponse response = dispatch(HttpMethod.GET, "ESAllPrim(0)", null,
+        HttpHeader.IF_NONE_MATCH, "\"v1\"", processor);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals("W/\"v1\"", response.getHeader(HttpHeader.ETAG));
+    assertNull(response.getContent());
+    assertEquals(Collections.singletonList("ESAllPrim(0)"), lookups);
+    verifyZeroInteractions(processor);
+  }
+
+  @Test
+  public void modified() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    dispatch(HttpMethod.GET, "ESAllPrim(0)/PropertyString", null, HttpHeader.IF_NONE_MATCH, "\"v0\"",
+        processor);
+    assertEquals(Collections.singletonList("ESAllPrim(0)"), lookups);
+  }
+
+  @Test
+  public void preconditionFailed() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    final ODataResponse response = dispatch(HttpMethod.PATCH, "ESAllPrim(0)", null,
+        HttpHeader.IF_MATCH, "\"v0\"", processor);
+    assertEquals(HttpStatusCode.PRECONDITION_FAILED.getStatusCode(), response.getStatusCode());
+    verifyZeroInteractions(processor);
+
+    assertEquals(HttpStatusCode.PRECONDITION_FAILED.getStatusCode(),
+        dispatch(HttpMethod.GET, "ESAllPrim(0)", null, HttpHeader.IF_MATCH, "\"v0\"", processor)
+            .getStatusCode());
+    assertEquals(HttpStatusCode.PRECONDITION_FAILED.getStatusCode(),
+        dispatch(HttpMethod.DELETE, "ESAllPrim(0)", null, HttpHeader.IF_NONE_MATCH, "*", processor)
+            .getStatusCode());
+    verifyZeroInteractions(processor);
+  }
+
+  @Test
+  public void methodValidatedFirst() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    assertEquals(HttpStatusCode.METHOD_NOT_ALLOWED.getStatusCode(),
+        dispatch(HttpMethod.POST, "ESAllPrim(0)", null, HttpHeader.IF_NONE_MATCH, "*", processor)
+            .getStatusCode());
+    assertEquals(HttpStatusCode.METHOD_NOT_ALLOWED.getStatusCode(),
+        dispatch(HttpMethod.DELETE, "SI", null, HttpHeader.IF_MATCH, "\"v0\"", processor).getStatusCode());
+    assertTrue(lookups.isEmpty());
+    verifyZeroInteractions(processor);
+  }
+
+  @Test
+  public void preconditionFulfilled() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    dispatch(HttpMethod.PATCH, "ESAllPrim(0)", null, HttpHeader.IF_MATCH, "\"v1\"", processor);
+    verify(processor).updateEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class), any(ContentType.class));
+  }
+
+  @Test
+  public void noLookup() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    // no conditional headers
+    dispatch(HttpMethod.GET, "ESAllPrim(0)", null, null, null, processor);
+    // etags not supported for the entity set
+    dispatch(HttpMethod.GET, "ESTwoPrim(1)", null, HttpHeader.IF_NONE_MATCH, "*", processor);
+    // navigation
+    dispatch(HttpMethod.GET, "ESKeyNav(1)/NavPropertyETTwoKeyNavOne", null, HttpHeader.IF_NONE_MATCH, "*",
+        processor);
+    assertTrue(lookups.isEmpty());
+    verify(processor, times(3)).readEntity(any(ODataRequest.class),
+        any(ODataResponse.class), any(UriInfo.class), any(ContentType.class));
+  }
+
+  @Test
+  public void unknownETag() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    dispatch(HttpMethod.GET, "ESAllPrim(1)", null, HttpHeader.IF_NONE_MATCH, "*", processor);
+    assertEquals(Collections.singletonList("ESAllPrim(1)"), lookups);
+    verify(processor).readEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+  }
+
+  @Test
+  public void singleton() throws Exception {
+    final ODataResponse response = dispatch(HttpMethod.GET, "SI", null, HttpHeader.IF_NONE_MATCH, "\"v1\"",
+        mock(EntityProcessor.class));
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals(Collections.singletonList("SI"), lookups);
+  }
+
+  @Test
+  public void mediaValue() throws Exception {
+    final MediaEntityProcessor processor = mock(MediaEntityProcessor.class);
+    final ODataResponse response = dispatch(HttpMethod.GET, "ESMedia(1)/$value", null,
+        HttpHeader.IF_NONE_MATCH, "\"m1\"", processor);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals("\"m1\"", response.getHeader(HttpHeader.ETAG));
+    assertEquals(Collections.singletonList("ESMedia/$value"), lookups);
+    verifyZeroInteractions(processor);
+  }
+
+  @Test
+  public void collection() throws Exception {
+    final EntityCollectionProcessor processor = mock(EntityCollectionProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        ((ODataResponse) invocation.getArguments()[1]).setStatusCode(HttpStatusCode.OK.getStatusCode());
+        return null;
+      }
+    }).when(processor).readEntityCollection(any(ODataRequest.class), any(ODataResponse.class),
+        any(UriInfo.class), any(ContentType.class));
+
+    final String eTag = dispatch(HttpMethod.GET, "ESAllPrim", "$top=1", null, null, processor)
+        .getHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+    assertTrue(eTag.startsWith("W/\"42-"));
+    final String otherETag = dispatch(HttpMethod.GET, "ESAllPrim", "$top=2", null, null, processor)
+        .getHeader(HttpHeader.ETAG);
+    assertTrue(otherETag.startsWith("W/\"42-"));
+    assertTrue(!eTag.equals(otherETag));
+
+    final ODataResponse response = dispatch(HttpMethod.GET, "ESAllPrim", "$top=1",
+        HttpHeader.IF_NONE_MATCH, eTag, processor);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals(eTag, response.getHeader(HttpHeader.ETAG));
+    assertEquals(HttpStatusCode.OK.getStatusCode(),
+        dispatch(HttpMethod.GET, "ESAllPrim", "$top=2", HttpHeader.IF_NONE_MATCH, eTag, processor)
+            .getStatusCode());
+    verify(processor, times(3)).readEntityCollection(any(ODataRequest.class),
+        any(ODataResponse.class), any(UriInfo.class), any(ContentType.class));
+
+    // The representation also depends on preferences, charset, and maximum version.
+    final String[] headers = { HttpHeader.PREFER, "odata.maxpagesize=1",
+        HttpHeader.ACCEPT_CHARSET, "utf-8", HttpHeader.ODATA_MAX_VERSION, "4.0" };
+    for (int index = 0; index < headers.length; index += 2) {
+      final String headerETag = dispatch(HttpMethod.GET, "ESAllPrim", "$top=1", headers[index], headers[index + 1],
+          processor).getHeader(HttpHeader.ETAG);
+      assertTrue(headerETag.startsWith("W/\"42-"));
+      assertTrue(headers[index], !eTag.equals(headerETag));
+    }
+
+    // no collection etag for the entity set
+    assertNull(dispatch(HttpMethod.GET, "ESTwoPrim", null, null, null, processor).getHeader(HttpHeader.ETAG));
+  }
+
+  private ODataResponse dispatch(final HttpMethod method, final String path, final String query,
+      final String headerName, final String headerValue, final Processor processor) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    if (headerName != null) {
+      request.addHeader(headerName, Collections.singletonList(headerValue));
+    }
+    request.addHeader(HttpHeader.CONTENT_TYPE, Collections.singletonList(ContentType.JSON.toContentTypeString()));
+
+    final OData odata = OData.newInstance();
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata,
+        odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList()),
+        new ServerCoreDebugger(odata));
+    handler.register(processor);
+    handler.register(eTagSupport);
+    return handler.process(request);
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.processor.DefaultProcessor;
+import org.apache.olingo.server.api.processor.SerializedDocumentCache;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class DefaultProcessorDocumentCacheTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+  private static final String METADATA_ETAG = "W/\"metadataETag\"";
+  private static final String SERVICE_DOCUMENT_ETAG = "W/\"serviceDocumentETag\"";
+
+  private final OData odata = OData.newInstance();
+
+  @Test
+  public void metadataIsSerializedOnce() throws Exception {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(10, false);
+    final ServiceMetadataETagSupport eTagSupport = createETagSupport();
+
+    final ODataResponse response = dispatch("$metadata", null, null, eTagSupport, cache);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals(METADATA_ETAG, response.getHeader(HttpHeader.ETAG));
+    final byte[] content = IOUtils.toByteArray(response.getContent());
+    assertEquals(1, cache.size());
+
+    final ODataResponse response2 = dispatch("$metadata", null, null, eTagSupport, cache);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response2.getStatusCode());
+    assertArrayEquals(content, IOUtils.toByteArray(response2.getContent()));
+    assertEquals(1, cache.size());
+
+    dispatch("$metadata", "$format=json", null, eTagSupport, cache);
+    assertEquals(2, cache.size());
+    dispatch("/", null, null, eTagSupport, cache);
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void notModifiedWithoutContent() throws Exception {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(10, false);
+    final ODataResponse response = dispatch("$metadata", null, METADATA_ETAG, createETagSupport(), cache);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertNull(response.getContent());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void changedETagInvalidates() throws Exception {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(10, false);
+    final ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getServiceDocumentETag()).thenReturn("\"1\"", "\"2\"");
+    dispatch("/", null, null, eTagSupport, cache);
+    final ODataResponse response = dispatch("/", null, "\"1\"", eTagSupport, cache);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("\"2\"", response.getHeader(HttpHeader.ETAG));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void noCachingWithoutETag() throws Exception {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(10, false);
+    final ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    final ODataResponse response = dispatch("$metadata", null, null, eTagSupport, cache);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals(0, cache.size());
+    verify(eTagSupport, never()).getServiceDocumentETag();
+  }
+
+  @Test
+  public void gzipVariant() throws Exception {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(10, true);
+    final ServiceMetadataETagSupport eTagSupport = createETagSupport();
+
+    final ODataResponse plainResponse = dispatch("$metadata", null, null, eTagSupport, cache);
+    assertNull(plainResponse.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, plainResponse.getHeader(HttpHeader.VARY));
+    final byte[] plain = IOUtils.toByteArray(plainResponse.getContent());
+
+    ODataRequest request = createRequest("$metadata", null);
+    request.addHeader(HttpHeader.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+    final ODataResponse gzipResponse = process(request, eTagSupport, cache);
+    assertEquals("gzip", gzipResponse.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertArrayEquals(plain, IOUtils.toByteArray(new GZIPInputStream(gzipResponse.getContent())));
+
+    request = createRequest("$metadata", null);
+    request.addHeader(HttpHeader.ACCEPT_ENCODING, "gzip;q=0");
+    assertNull(process(request, eTagSupport, cache).getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void leastRecentlyUsedEviction() {
+    final SerializedDocumentCache cache = new SerializedDocumentCache(2, false);
+    cache.put("a", new byte[] { 1 });
+    cache.put("b", new byte[] { 2 });
+    cache.get("a");
+    cache.put("c", new byte[] { 3 });
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertTrue(cache.get("a") != null && cache.get("c") != null);
+  }
+
+  @Test
+  public void defaultCacheByETags() throws Exception {
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(), createETagSupport());
+    final ServiceMetadata requestMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(), createETagSupport());
+    final ServiceMetadataETagSupport otherETagSupport = mock(ServiceMetadataETagSupport.class);
+    when(otherETagSupport.getMetadataETag()).thenReturn("W/\"otherMetadataETag\"");
+    final ServiceMetadata otherMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(), otherETagSupport);
+    SerializedDocumentCache.getDefault(metadata).clear();
+    SerializedDocumentCache.getDefault(otherMetadata).clear();
+    assertSame(SerializedDocumentCache.getDefault(metadata), SerializedDocumentCache.getDefault(requestMetadata));
+    assertNotSame(SerializedDocumentCache.getDefault(metadata), SerializedDocumentCache.getDefault(otherMetadata));
+    assertNull(SerializedDocumentCache.getDefault(odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList())));
+
+    // Service metadata created for each request share the default cache.
+    for (final ServiceMetadata serviceMetadata : Arrays.asList(metadata, requestMetadata)) {
+      ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+      handler.register(new DefaultProcessor());
+      assertEquals(HttpStatusCode.OK.getStatusCode(),
+          handler.process(createRequest("$metadata", null)).getStatusCode());
+    }
+    assertEquals(1, SerializedDocumentCache.getDefault(metadata).size());
+    assertEquals(0, SerializedDocumentCache.getDefault(otherMetadata).size());
+  }
+
+  private ServiceMetadataETagSupport createETagSupport() {
+    final ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getMetadataETag()).thenReturn(METADATA_ETAG);
+    when(eTagSupport.getServiceDocumentETag()).thenReturn(SERVICE_DOCUMENT_ETAG);
+    return eTagSupport;
+  }
+
+  private ODataRequest createRequest(final String path, final String query) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawRequestUri(BASE_URI + (path.startsWith("/") ? path : '/' + path));
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    return request;
+  }
+
+  private ODataResponse dispatch(final String path, final String query, final String ifNoneMatch,
+      final ServiceMetadataETagSupport eTagSupport, final SerializedDocumentCache cache) {
+    ODataRequest request = createRequest(path, query);
+    if (ifNoneMatch != null) {
+      request.addHeader(HttpHeader.IF_NONE_MATCH, ifNoneMatch);
+    }
+    return process(request, eTagSupport, cache);
+  }
+
+  private ODataResponse process(final ODataRequest request, final ServiceMetadataETagSupport eTagSupport,
+      final SerializedDocumentCache cache) {
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(), eTagSupport);
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(new DefaultProcessor(cache));
+    return handler.process(request);
+  }
+}
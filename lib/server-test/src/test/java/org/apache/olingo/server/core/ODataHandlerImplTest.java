@@ -25,6 +25,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -32,6 +33,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Collections;
@@ -39,6 +42,8 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -58,6 +63,7 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.compression.CompressionSupport;
 import org.apache.olingo.server.api.processor.ActionComplexCollectionProcessor;
 import org.apache.olingo.server.api.processor.ActionComplexProcessor;
 import org.apache.olingo.server.api.processor.ActionEntityCollectionProcessor;
@@ -90,6 +96,8 @@ import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
 import org.junit.Test;
 import org.mockito.internal.verification.VerificationModeFactory;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 public class ODataHandlerImplTest {
 
@@ -403,6 +411,65 @@ public class ODataHandlerImplTest {
     assertNull(handler.getUriInfo());
   }
 
+  @Test
+  public void copyKeepsProcessorsButNotRequestState() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final MetadataProcessor processor = mock(MetadataProcessor.class);
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(processor);
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("$metadata");
+    final ODataHandlerImpl copy = handler.copy();
+    copy.process(request);
+
+    verify(processor).readMetadata(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+    assertNotNull(copy.getUriInfo());
+    assertNull(handler.getUriInfo());
+  }
+
+  @Test
+  public void decompressedBodyExceedingMaximumSize() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        try {
+          IOUtils.toByteArray(((ODataRequest) invocation.getArguments()[0]).getBody());
+        } catch (final IOException e) {
+          throw new ODataApplicationException("Cannot read body", 500, Locale.ROOT, e);
+        }
+        return null;
+      }
+    }).when(processor).createEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class), any(ContentType.class));
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(processor);
+    handler.register(new CompressionSupport(CompressionSupport.DEFAULT_MINIMUM_SIZE, Deflater.DEFAULT_COMPRESSION,
+        1000));
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+    gzip.write(new byte[1001]);
+    gzip.close();
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.POST);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim");
+    request.addHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+    request.addHeader(HttpHeader.CONTENT_ENCODING, "gzip");
+    request.setBody(new ByteArrayInputStream(buffer.toByteArray()));
+    assertEquals(HttpStatusCode.PAYLOAD_TOO_LARGE.getStatusCode(), handler.process(request).getStatusCode());
+  }
+
   @Test
   public void dispatchBatch() throws Exception {
     final String uri = "$batch";
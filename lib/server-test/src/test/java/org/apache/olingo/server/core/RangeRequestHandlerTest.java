@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RangeRequestHandlerTest {
+
+  private File file;
+  private final List<FileChannel> channels = new ArrayList<FileChannel>();
+
+  @Before
+  public void createFile() throws Exception {
+    file = File.createTempFile("olingo", ".bin");
+    FileOutputStream stream = new FileOutputStream(file);
+    stream.write("0123456789".getBytes("US-ASCII"));
+    stream.close();
+  }
+
+  @After
+  public void deleteFile() throws Exception {
+    for (final FileChannel channel : channels) {
+      channel.close();
+    }
+    file.delete();
+  }
+
+  @Test
+  public void parseRange() {
+    assertArrayEquals(new long[] { 0, 4 }, RangeRequestHandler.parseRange("bytes=0-4", 10));
+    assertArrayEquals(new long[] { 5, 9 }, RangeRequestHandler.parseRange("bytes=5-", 10));
+    assertArrayEquals(new long[] { 5, 9 }, RangeRequestHandler.parseRange("Bytes = 5-20", 10));
+    assertArrayEquals(new long[] { 7, 9 }, RangeRequestHandler.parseRange("bytes=-3", 10));
+    assertArrayEquals(new long[] { 0, 9 }, RangeRequestHandler.parseRange("bytes=-30", 10));
+
+    // unsatisfiable
+    assertArrayEquals(new long[] { 1, 0 }, RangeRequestHandler.parseRange("bytes=10-", 10));
+    assertArrayEquals(new long[] { 1, 0 }, RangeRequestHandler.parseRange("bytes=-0", 10));
+
+    // ignored
+    assertNull(RangeRequestHandler.parseRange("bytes=0-1,3-4", 10));
+    assertNull(RangeRequestHandler.parseRange("items=0-4", 10));
+    assertNull(RangeRequestHandler.parseRange("bytes=4-3", 10));
+    assertNull(RangeRequestHandler.parseRange("bytes=-", 10));
+    assertNull(RangeRequestHandler.parseRange("bytes=a-3", 10));
+    assertNull(RangeRequestHandler.parseRange("bytes=3", 10));
+  }
+
+  @Test
+  public void partialContent() throws Exception {
+    ODataResponse response = handle("bytes=3-5", null);
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes 3-5/8", response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertEquals("bytes", response.getHeader(HttpHeader.ACCEPT_RANGES));
+    assertEquals(4, response.getFileContentPosition());
+    assertEquals(3, response.getFileContentLength());
+    assertEquals("456", IOUtils.toString(response.getContent(), "US-ASCII"));
+  }
+
+  @Test
+  public void ifRange() throws Exception {
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(),
+        handle("bytes=3-5", "\"strong\"").getStatusCode());
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(),
+        handle("bytes=3-5", "Mon, 19 Oct 2026 10:00:00 GMT").getStatusCode());
+
+    ODataResponse response = handle("bytes=3-5", "\"other\"");
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertEquals(8, response.getFileContentLength());
+    assertEquals(HttpStatusCode.OK.getStatusCode(), handle("bytes=3-5", "W/\"strong\"").getStatusCode());
+  }
+
+  @Test
+  public void notSatisfiable() throws Exception {
+    ODataResponse response = handle("bytes=8-", null);
+    assertEquals(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes */8", response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertNull(response.getContent());
+  }
+
+  @Test
+  public void otherResponsesAreUnchanged() throws Exception {
+    ODataResponse response = handle(null, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes", response.getHeader(HttpHeader.ACCEPT_RANGES));
+    assertEquals("12345678", IOUtils.toString(response.getContent(), "US-ASCII"));
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setHeader(HttpHeader.RANGE, "bytes=0-1");
+    response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setContent(IOUtils.toInputStream("content"));
+    RangeRequestHandler.handle(request, response);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.ACCEPT_RANGES));
+  }
+
+  private ODataResponse handle(final String range, final String ifRange) throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    if (range != null) {
+      request.setHeader(HttpHeader.RANGE, range);
+    }
+    if (ifRange != null) {
+      request.setHeader(HttpHeader.IF_RANGE, ifRange);
+    }
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.ETAG, "\"strong\"");
+    response.setHeader(HttpHeader.LAST_MODIFIED, "Mon, 19 Oct 2026 10:00:00 GMT");
+    final FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    channels.add(channel);
+    response.setContent(channel, 1, 8);
+    RangeRequestHandler.handle(request, response);
+    if (response.getStatusCode() == HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode()) {
+      assertFalse(channel.isOpen());
+    }
+    return response;
+  }
+}
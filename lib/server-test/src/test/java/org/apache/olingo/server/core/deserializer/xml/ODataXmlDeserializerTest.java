@@ -19,9 +19,11 @@
 package org.apache.olingo.server.core.deserializer.xml;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
@@ -33,6 +35,8 @@ import java.util.UUID;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
@@ -42,7 +46,9 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.core.deserializer.AbstractODataDeserializerTest;
 import org.custommonkey.xmlunit.XMLUnit;
@@ -999,4 +1005,86 @@ public class ODataXmlDeserializerTest extends AbstractODataDeserializerTest {
     Assert.assertEquals("http://host/service/Orders(10643)", result.get(0).toASCIIString());
     Assert.assertEquals("http://host/service/Orders(10759)", result.get(1).toASCIIString());
   }  
+
+  private static final String FEED = "<a:feed xmlns:a=\"http://www.w3.org/2005/Atom\"\n" +
+      "    xmlns:m=\"http://docs.oasis-open.org/odata/ns/metadata\"\n" +
+      "    xmlns:d=\"http://docs.oasis-open.org/odata/ns/data\">\n" +
+      "  <a:id>ESTwoPrim</a:id>\n" +
+      "  <m:count>3</m:count>\n" +
+      "  <a:entry>\n" +
+      "    <a:id>ESTwoPrim(1)</a:id>\n" +
+      "    <a:title/>\n" +
+      "    <a:content type=\"application/xml\">\n" +
+      "      <m:properties>\n" +
+      "        <d:PropertyInt16 m:type=\"Int16\">1</d:PropertyInt16>\n" +
+      "        <d:PropertyString>A &amp; B</d:PropertyString>\n" +
+      "      </m:properties>\n" +
+      "    </a:content>\n" +
+      "  </a:entry>\n" +
+      "  <a:entry>\n" +
+      "    <a:id>ESTwoPrim(2)</a:id>\n" +
+      "    <a:content type=\"application/xml\">\n" +
+      "      <m:properties>\n" +
+      "        <d:PropertyInt16 m:type=\"Int16\">2</d:PropertyInt16>\n" +
+      "        <d:PropertyString m:null=\"true\"/>\n" +
+      "      </m:properties>\n" +
+      "    </a:content>\n" +
+      "  </a:entry>\n" +
+      "  <a:link rel=\"next\" href=\"ESTwoPrim?$skiptoken=2\"/>\n" +
+      "</a:feed>";
+
+  @Test
+  public void entityCollection() throws Exception {
+    final EdmEntityType entityType = entityContainer.getEntitySet("ESTwoPrim").getEntityType();
+    final EntityCollection result = deserializer.entityCollection(new ByteArrayInputStream(FEED.getBytes()),
+        entityType).getEntityCollection();
+    assertEquals(Integer.valueOf(3), result.getCount());
+    assertEquals(URI.create("ESTwoPrim?$skiptoken=2"), result.getNext());
+    assertEquals(2, result.getEntities().size());
+    assertEquals((short) 1, result.getEntities().get(0).getProperty("PropertyInt16").getValue());
+    assertEquals("A & B", result.getEntities().get(0).getProperty("PropertyString").getValue());
+    assertNull(result.getEntities().get(1).getProperty("PropertyString").getValue());
+  }
+
+  @Test
+  public void entityCollectionIterator() throws Exception {
+    final EdmEntityType entityType = entityContainer.getEntitySet("ESTwoPrim").getEntityType();
+    final EntityIterator iterator = ((ODataXmlDeserializer) deserializer)
+        .entityCollectionIterator(new ByteArrayInputStream(FEED.getBytes()), entityType);
+
+    assertTrue(iterator.hasNext());
+    assertEquals(Integer.valueOf(3), iterator.getCount());
+    Entity entity = iterator.next();
+    assertEquals("olingo.odata.test1.ETTwoPrim", entity.getType());
+    assertEquals((short) 1, entity.getProperty("PropertyInt16").getValue());
+    assertEquals("A & B", entity.getProperty("PropertyString").getValue());
+    assertNull(iterator.getNext());
+
+    entity = iterator.next();
+    assertEquals((short) 2, entity.getProperty("PropertyInt16").getValue());
+    assertFalse(iterator.hasNext());
+    assertEquals(URI.create("ESTwoPrim?$skiptoken=2"), iterator.getNext());
+  }
+
+  @Test
+  public void entityCollectionIteratorWithInvalidEntity() throws Exception {
+    final EdmEntityType entityType = entityContainer.getEntitySet("ESTwoPrim").getEntityType();
+    final EntityIterator iterator = ((ODataXmlDeserializer) deserializer).entityCollectionIterator(
+        new ByteArrayInputStream(FEED.replace("PropertyString", "Unknown").getBytes()), entityType);
+    try {
+      iterator.hasNext();
+      fail("Expected exception not thrown.");
+    } catch (final ODataRuntimeException e) {
+      assertEquals(DeserializerException.MessageKeys.UNKNOWN_CONTENT,
+          ((DeserializerException) e.getCause()).getMessageKey());
+    }
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test(expected = DeserializerException.class)
+  public void entityCollectionIteratorWithoutFeed() throws Exception {
+    ((ODataXmlDeserializer) deserializer).entityCollectionIterator(
+        new ByteArrayInputStream("<a:entry xmlns:a=\"http://www.w3.org/2005/Atom\"/>".getBytes()),
+        entityContainer.getEntitySet("ESTwoPrim").getEntityType());
+  }
 }
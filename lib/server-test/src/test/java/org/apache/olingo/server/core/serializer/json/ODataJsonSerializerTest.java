@@ -22,16 +22,22 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.ByteArrayOutputStream;
@@ -1719,6 +1725,42 @@ public class ODataJsonSerializerTest {
         resultString);
   }
 
+  @Test
+  public void primitivePropertyConcurrently() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
+    final EdmProperty edmProperty = (EdmProperty) edmEntitySet.getEntityType().getProperty("PropertyDecimal");
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Void>> results = new ArrayList<Future<Void>>();
+      for (int t = 0; t < 8; t++) {
+        final int offset = t * 100000;
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int i = 0; i < 500; i++) {
+              final BigDecimal value = BigDecimal.valueOf(offset + i, 2);
+              final Property property = new Property(null, edmProperty.getName(), ValueType.PRIMITIVE, value);
+              final String resultString = IOUtils.toString(serializer
+                  .primitive(metadata, (EdmPrimitiveType) edmProperty.getType(), property,
+                      PrimitiveSerializerOptions.with()
+                          .contextURL(ContextURL.with().entitySet(edmEntitySet).keyPath("32767")
+                              .navOrPropertyPath(edmProperty.getName()).build())
+                          .scale(edmProperty.getScale()).precision(edmProperty.getPrecision())
+                          .build()).getContent());
+              Assert.assertTrue(resultString, resultString.endsWith("\"value\":" + value.toPlainString() + "}"));
+            }
+            return null;
+          }
+        }));
+      }
+      for (final Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void primitivePropertyNoMetadata() throws Exception {
     final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
@@ -2132,6 +2174,41 @@ public class ODataJsonSerializerTest {
         resultString);
   }
 
+  @Test
+  public void primitiveCollectionNumericValues() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESCollAllPrim");
+    final EdmEntityType entityType = edmEntitySet.getEntityType();
+    final ContextURL contextURL = ContextURL.with().entitySet(edmEntitySet).keyPath("1").build();
+
+    EdmProperty edmProperty = (EdmProperty) entityType.getProperty("CollPropertyInt32");
+    Property property = new Property(null, edmProperty.getName(), ValueType.COLLECTION_PRIMITIVE,
+        Arrays.asList(Integer.MIN_VALUE, (short) -2, 3L));
+    Assert.assertEquals("[-2147483648,-2,3]",
+        primitiveCollectionValue(serializer, edmProperty, property, contextURL));
+
+    edmProperty = (EdmProperty) entityType.getProperty("CollPropertyInt64");
+    property = new Property(null, edmProperty.getName(), ValueType.COLLECTION_PRIMITIVE,
+        Arrays.asList(Long.MIN_VALUE, 42, (byte) -1));
+    Assert.assertEquals("[-9223372036854775808,42,-1]",
+        primitiveCollectionValue(serializer, edmProperty, property, contextURL));
+    Assert.assertEquals("[\"-9223372036854775808\",\"42\",\"-1\"]",
+        primitiveCollectionValue(serializerIEEECompatible, edmProperty, property, contextURL));
+
+    edmProperty = (EdmProperty) entityType.getProperty("CollPropertyDouble");
+    property = new Property(null, edmProperty.getName(), ValueType.COLLECTION_PRIMITIVE,
+        Arrays.asList(-1.5, 1E300, 0.1F, Double.NEGATIVE_INFINITY, 7));
+    Assert.assertEquals("[-1.5,1.0E300,0.1,-INF,7]",
+        primitiveCollectionValue(serializer, edmProperty, property, contextURL));
+  }
+
+  private String primitiveCollectionValue(final ODataSerializer jsonSerializer, final EdmProperty edmProperty,
+      final Property property, final ContextURL contextURL) throws Exception {
+    final String resultString = IOUtils.toString(jsonSerializer
+        .primitiveCollection(metadata, (EdmPrimitiveType) edmProperty.getType(), property,
+            PrimitiveSerializerOptions.with().contextURL(contextURL).build()).getContent());
+    return resultString.substring(resultString.indexOf("\"value\":") + 8, resultString.length() - 1);
+  }
+
   @Test
   public void primitivePropertyIEEE754CompatibleDecimal() throws Exception {
     final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.sample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.netty.server.api.ODataNetty;
+import org.apache.olingo.netty.server.api.ODataNettyHandler;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.sample.data.DataProvider;
+import org.apache.olingo.server.sample.edmprovider.CarsEdmProvider;
+import org.apache.olingo.server.sample.processor.CarsProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+
+/**
+ * <p>Standalone Netty server for the cars service.</p>
+ * <p>The event loops only decode requests and write responses; the requests are processed by a bounded
+ * thread pool, so that slow processors do not stall other connections. Requests exceeding the capacity
+ * of the pool are answered with "503 Service Unavailable". The workers share one {@link DataProvider},
+ * whose methods are synchronized.</p>
+ * <p>Usage: <code>CarsNettyServer [port]</code>; the service root is
+ * <code>http://localhost:8080/cars.svc/</code> by default.</p>
+ */
+public class CarsNettyServer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CarsNettyServer.class);
+  private static final String CONTEXT_PATH = "/cars.svc";
+  private static final int MAX_CONTENT_LENGTH = 1024 * 1024;
+  private static final int WORKER_THREADS = 16;
+  private static final int QUEUE_CAPACITY = 256;
+
+  public static void main(final String[] args) throws InterruptedException {
+    final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+
+    final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS,
+        60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY));
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ServiceMetadata edm = odata.createServiceMetadata(new CarsEdmProvider(), new ArrayList<EdmxReference>());
+    final ODataNettyHandler handler = odata.createNettyHandler(edm, workers);
+    handler.register(new CarsProcessor(new DataProvider()));
+    final ODataRequestHandler requestHandler = new ODataRequestHandler(handler);
+
+    final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
+    final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    try {
+      final Channel channel = new ServerBootstrap()
+          .group(bossGroup, workerGroup)
+          .channel(NioServerSocketChannel.class)
+          .childHandler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(final SocketChannel channel) {
+              channel.pipeline()
+                  .addLast(new HttpServerCodec())
+                  .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+              handler.initChannelPipeline(channel.pipeline());
+              channel.pipeline().addLast(requestHandler);
+            }
+          })
+          .bind(port).sync().channel();
+      LOG.info("Cars service available at http://localhost:" + port + CONTEXT_PATH + "/");
+      channel.closeFuture().sync();
+    } finally {
+      bossGroup.shutdownGracefully();
+      workerGroup.shutdownGracefully();
+      workers.shutdown();
+    }
+  }
+
+  /** Passes complete requests to the OData handler, which retains them until they have been processed. */
+  @Sharable
+  private static class ODataRequestHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private final ODataNettyHandler handler;
+    private final Map<String, String> requestParameters = Collections.singletonMap("contextPath", CONTEXT_PATH);
+
+    ODataRequestHandler(final ODataNettyHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    protected void channelRead0(final ChannelHandlerContext context, final FullHttpRequest request) {
+      handler.processNettyRequest(request, context, requestParameters);
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext context, final Throwable cause) {
+      LOG.error("Server Error", cause);
+      context.close();
+    }
+  }
+}
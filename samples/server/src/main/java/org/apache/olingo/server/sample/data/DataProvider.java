@@ -48,11 +48,11 @@ public class DataProvider {
     data.put("Manufacturers", createManufacturers());
   }
 
-  public EntityCollection readAll(EdmEntitySet edmEntitySet) {
+  public synchronized EntityCollection readAll(EdmEntitySet edmEntitySet) {
     return data.get(edmEntitySet.getName());
   }
 
-  public Entity read(final EdmEntitySet edmEntitySet, final List<UriParameter> keys) throws DataProviderException {
+  public synchronized Entity read(final EdmEntitySet edmEntitySet, final List<UriParameter> keys) throws DataProviderException {
     final EdmEntityType entityType = edmEntitySet.getEntityType();
     final EntityCollection entitySet = data.get(edmEntitySet.getName());
     if (entitySet == null) {